@@ -0,0 +1,88 @@
+package com.example.tracking.benchmark;
+
+import com.example.tracking.service.TrackingNumberService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issuing {@link #count} numbers for one lane: one batched service call or HTTP request against
+ * {@code count} single ones. Both variants of a pair do the same amount of work per invocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchGenerationBenchmark {
+
+    @Param({"random", "block"})
+    public String strategy;
+
+    @Param({"100", "1000"})
+    public int count;
+
+    private ConfigurableApplicationContext context;
+    private TrackingNumberService service;
+    private WebTestClient client;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.REACTIVE, "tracking.generator.strategy=" + strategy);
+        service = context.getBean(TrackingNumberService.class);
+        client = WebTestClient.bindToApplicationContext(context).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<String> serviceBatch() {
+        return service.generateTrackingNumbers("MY", "ID", count);
+    }
+
+    @Benchmark
+    public void serviceSingles(Blackhole blackhole) {
+        for (int i = 0; i < count; i++) {
+            blackhole.consume(service.generateTrackingNumber("MY", "ID"));
+        }
+    }
+
+    @Benchmark
+    public byte[] httpBatch() {
+        return client.get().uri(RoundTripBenchmark.NEXT_TRACKING_NUMBER_URI.replace("/next-tracking-number?", "/next-tracking-numbers?") + "&count=" + count)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseBodyContent();
+    }
+
+    @Benchmark
+    public void httpSingles(Blackhole blackhole) {
+        for (int i = 0; i < count; i++) {
+            blackhole.consume(client.get().uri(RoundTripBenchmark.NEXT_TRACKING_NUMBER_URI)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody().returnResult().getResponseBodyContent());
+        }
+    }
+}
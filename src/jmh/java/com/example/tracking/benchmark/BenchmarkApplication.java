@@ -0,0 +1,49 @@
+package com.example.tracking.benchmark;
+
+import com.example.tracking.TrackingApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Starts the real application for benchmarks against a private in-memory H2 database, with
+ * request logging turned down so it does not dominate the measurement.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * Properties are passed as command-line arguments so they take precedence over
+     * application.properties; later entries override earlier ones.
+     */
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... properties) {
+        Map<String, String> all = new LinkedHashMap<>();
+        put(all, "server.port=0");
+        put(all, "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        put(all, "spring.h2.console.enabled=false");
+        put(all, "logging.level.root=WARN");
+        for (String property : properties) {
+            put(all, property);
+        }
+        List<String> args = new ArrayList<>(all.size());
+        for (Map.Entry<String, String> entry : all.entrySet()) {
+            args.add("--" + entry.getKey() + "=" + entry.getValue());
+        }
+        return new SpringApplicationBuilder(TrackingApplication.class)
+                .web(webApplicationType)
+                .run(args.toArray(new String[0]));
+    }
+
+    private static void put(Map<String, String> properties, String property) {
+        int separator = property.indexOf('=');
+        properties.put(property.substring(0, separator), property.substring(separator + 1));
+    }
+}
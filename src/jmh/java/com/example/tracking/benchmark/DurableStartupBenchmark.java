@@ -0,0 +1,59 @@
+package com.example.tracking.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from start to ready against a durable database holding {@code storedNumbers} rows. This
+ * includes opening the H2 file and warming the issued-number filter from the table, which is the
+ * recovery cost of a restart.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class DurableStartupBenchmark {
+
+    @Param({"1000000"})
+    public long storedNumbers;
+
+    private Path dir;
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        dir = DurableStore.prepare(storedNumbers);
+    }
+
+    @TearDown(Level.Iteration)
+    public void close() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+    }
+
+    @Benchmark
+    public ConfigurableApplicationContext startUp() {
+        context = DurableStore.start(dir, storedNumbers, WebApplicationType.NONE);
+        return context;
+    }
+}
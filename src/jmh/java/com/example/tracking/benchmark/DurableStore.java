@@ -0,0 +1,82 @@
+package com.example.tracking.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * File-mode H2 databases for the durable profile, pre-filled with a given number of issued
+ * tracking numbers. Filling 100M rows takes a while, so each size is built once under
+ * target/durable-bench and reused by later runs.
+ */
+final class DurableStore {
+
+    private static final long FILL_CHUNK = 1_000_000;
+
+    /** Packed lane of ZZ...ZZ; the middle section of row X is X itself, see {@link #storedNumber}. */
+    private static final String FILL_SQL = "INSERT INTO generated_tracking_numbers (tracking_number, created_at) "
+            + "SELECT X'19A0FF' || CAST(X AS BINARY(8)), ? FROM SYSTEM_RANGE(?, ?)";
+
+    private DurableStore() {
+    }
+
+    static Path prepare(long storedNumbers) {
+        // Stores built before the packed layout hold differently numbered rows; they are not reused.
+        Path dir = Paths.get("target", "durable-bench", storedNumbers + "-packed").toAbsolutePath();
+        Path ready = dir.resolve("ready");
+        if (Files.exists(ready)) {
+            return dir;
+        }
+        try (ConfigurableApplicationContext context = start(dir, storedNumbers, WebApplicationType.NONE)) {
+            fill(context.getBean(JdbcTemplate.class), 1, storedNumbers, System.currentTimeMillis());
+        }
+        try {
+            Files.createFile(ready);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return dir;
+    }
+
+    /**
+     * Inserts rows {@code first} to {@code last} (see {@link #storedNumber}), all issued at
+     * {@code createdAt} epoch millis.
+     */
+    static void fill(JdbcTemplate jdbcTemplate, long first, long last, long createdAt) {
+        for (long from = first; from <= last; from += FILL_CHUNK) {
+            jdbcTemplate.update(FILL_SQL, createdAt, from, Math.min(from + FILL_CHUNK - 1, last));
+        }
+    }
+
+    /**
+     * Tracking number of the {@code n}-th pre-filled row ({@code n} from 1): lane ZZ to ZZ with
+     * {@code n} as the middle section. Numbers past the filled count have the same shape but are
+     * not stored.
+     */
+    static String storedNumber(long n) {
+        String middle = Long.toString(n, 36).toUpperCase(Locale.ROOT);
+        StringBuilder trackingNumber = new StringBuilder(16).append("ZZ");
+        for (int i = middle.length(); i < 12; i++) {
+            trackingNumber.append('0');
+        }
+        return trackingNumber.append(middle).append("ZZ").toString();
+    }
+
+    static ConfigurableApplicationContext start(Path dir, long storedNumbers, WebApplicationType webApplicationType, String... properties) {
+        String[] all = new String[properties.length + 4];
+        all[0] = "spring.profiles.active=durable";
+        all[1] = "tracking.storage.dir=" + dir;
+        all[2] = "spring.datasource.url=jdbc:h2:file:" + dir + "/trackingdb;DB_CLOSE_ON_EXIT=FALSE;WRITE_DELAY=0;CACHE_SIZE=262144;MAX_COMPACT_TIME=1000";
+        // Keep the filter's false positive rate at its configured level for the pre-filled size.
+        all[3] = "tracking.filter.expected-insertions=" + (storedNumbers + 10_000_000L);
+        System.arraycopy(properties, 0, all, 4, properties.length);
+        return BenchmarkApplication.start(webApplicationType, all);
+    }
+}
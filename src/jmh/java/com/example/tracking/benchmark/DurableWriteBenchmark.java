@@ -0,0 +1,59 @@
+package com.example.tracking.benchmark;
+
+import com.example.tracking.service.TrackingNumberService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sustained generation throughput against the durable file-mode database once it already holds
+ * {@code storedNumbers} rows.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class DurableWriteBenchmark {
+
+    @Param({"1000000"})
+    public long storedNumbers;
+
+    @Param({"random", "block"})
+    public String strategy;
+
+    private ConfigurableApplicationContext context;
+    private TrackingNumberService trackingNumberService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = DurableStore.start(DurableStore.prepare(storedNumbers), storedNumbers, WebApplicationType.NONE,
+                "tracking.generator.strategy=" + strategy);
+        trackingNumberService = context.getBean(TrackingNumberService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String generate() {
+        return trackingNumberService.generateTrackingNumber("MY", "ID");
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.tracking.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a rejected request next to an accepted one, through the full in-process handler chain.
+ * A flood of bad requests should cost less per request than the traffic it displaces: compare the
+ * error benchmarks with {@code success}, with {@code -prof gc} for bytes allocated per request.
+ * The error log budget is left at its default, as in production.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ErrorPathBenchmark {
+
+    static final String INVALID_ORIGIN_URI = RoundTripBenchmark.NEXT_TRACKING_NUMBER_URI.replace("origin_country_id=MY", "origin_country_id=ZZ");
+    static final String TYPE_MISMATCH_URI = RoundTripBenchmark.NEXT_TRACKING_NUMBER_URI.replace("weight=1.5", "weight=heavy");
+
+    private ConfigurableApplicationContext context;
+    private WebTestClient client;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.REACTIVE);
+        client = WebTestClient.bindToApplicationContext(context).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] success() {
+        return client.get().uri(RoundTripBenchmark.NEXT_TRACKING_NUMBER_URI)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseBodyContent();
+    }
+
+    @Benchmark
+    public byte[] invalidOrigin() {
+        return client.get().uri(INVALID_ORIGIN_URI)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().returnResult().getResponseBodyContent();
+    }
+
+    @Benchmark
+    public byte[] typeMismatch() {
+        return client.get().uri(TYPE_MISMATCH_URI)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().returnResult().getResponseBodyContent();
+    }
+}
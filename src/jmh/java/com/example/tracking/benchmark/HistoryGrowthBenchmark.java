@@ -0,0 +1,126 @@
+package com.example.tracking.benchmark;
+
+import com.example.tracking.service.ArchiveRollover;
+import com.example.tracking.service.TrackingNumberService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Insert latency of the random strategy as the history of issued numbers grows: the durable store
+ * holds {@code historyNumbers} numbers issued over the 36 months before the hot window plus
+ * {@code hotNumbers} issued now. With {@code archive=off} all of it stays in
+ * generated_tracking_numbers; with {@code archive=on} the history is rolled over into monthly
+ * archive segments first. Either way the application is restarted before measuring, so the
+ * issued-number filter is warmed from the table as it would be in production.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class HistoryGrowthBenchmark {
+
+    private static final int HISTORY_MONTHS = 36;
+
+    @Param({"1000000", "10000000", "50000000"})
+    public long historyNumbers;
+
+    @Param({"1000000"})
+    public long hotNumbers;
+
+    @Param({"off", "on"})
+    public String archive;
+
+    private Path dir;
+    private ConfigurableApplicationContext context;
+    private TrackingNumberService trackingNumberService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory(Files.createDirectories(Paths.get("target", "durable-bench")), "history-").toAbsolutePath();
+        try (ConfigurableApplicationContext filling = start()) {
+            JdbcTemplate jdbcTemplate = filling.getBean(JdbcTemplate.class);
+            YearMonth current = YearMonth.now(ZoneOffset.UTC);
+            long perMonth = (historyNumbers + HISTORY_MONTHS - 1) / HISTORY_MONTHS;
+            for (int month = 0; month < HISTORY_MONTHS; month++) {
+                long first = 1 + month * perMonth;
+                long last = Math.min(first + perMonth - 1, historyNumbers);
+                long createdAt = current.minusMonths(2 + month).atDay(15).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+                DurableStore.fill(jdbcTemplate, first, last, createdAt);
+            }
+            DurableStore.fill(jdbcTemplate, historyNumbers + 1, historyNumbers + hotNumbers, System.currentTimeMillis());
+            if ("on".equals(archive)) {
+                ArchiveRollover rollover = filling.getBean(ArchiveRollover.class);
+                while (rollover.rollOverOldestMonth() != null) {
+                    // Every history month.
+                }
+            }
+        }
+        context = start();
+        trackingNumberService = context.getBean(TrackingNumberService.class);
+        Long tableRows = context.getBean(JdbcTemplate.class).queryForObject("SELECT COUNT(*) FROM generated_tracking_numbers", Long.class);
+        System.out.printf("%ngenerated_tracking_numbers holds %d rows, archive segments take %d bytes%n", tableRows, archiveBytes());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public String generate() {
+        return trackingNumberService.generateTrackingNumber("MY", "ID");
+    }
+
+    private ConfigurableApplicationContext start() {
+        return DurableStore.start(dir, historyNumbers + hotNumbers, WebApplicationType.NONE,
+                "tracking.generator.strategy=random",
+                "tracking.archive.enabled=" + "on".equals(archive),
+                "tracking.archive.hot-months=1",
+                // Rolled over explicitly above, never in the background during a measurement.
+                "tracking.archive.initial-delay-ms=" + TimeUnit.DAYS.toMillis(1));
+    }
+
+    private long archiveBytes() throws IOException {
+        Path archiveDir = dir.resolve("archive");
+        if (!Files.isDirectory(archiveDir)) {
+            return 0;
+        }
+        long bytes = 0;
+        try (Stream<Path> files = Files.list(archiveDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                bytes += Files.size(file);
+            }
+        }
+        return bytes;
+    }
+}
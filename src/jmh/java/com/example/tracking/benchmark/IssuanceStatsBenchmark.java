@@ -0,0 +1,83 @@
+package com.example.tracking.benchmark;
+
+import com.example.tracking.service.IssuanceStats;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of {@link IssuanceStats#record} on the generation path, with a skewed mix
+ * of 100 lanes and {@link #customers} customers (a few of each take most requests, as in
+ * production). {@code baseline} only picks the request, so the recording cost is the difference;
+ * {@code analytics=off} measures what is left when recording is disabled. Run at several thread
+ * counts, e.g. {@code -Djmh.args="-t 1"} and {@code "-t max"}, to see the effect of striping.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class IssuanceStatsBenchmark {
+
+    private static final String[] COUNTRIES = {"MY", "ID", "SG", "TH", "VN", "PH", "US", "CA", "GB", "DE"};
+
+    @Param({"1000", "100000"})
+    public int customers;
+
+    @Param({"off", "on"})
+    public String analytics;
+
+    private IssuanceStats stats;
+    private String[] customerSlugs;
+
+    @Setup
+    public void setUp() {
+        stats = new IssuanceStats("on".equals(analytics), 60, 0, 4096, 10_000, new double[]{0.5, 1, 2, 5, 10, 30},
+                20, 4096, 4);
+        customerSlugs = new String[customers];
+        for (int i = 0; i < customers; i++) {
+            customerSlugs[i] = "customer-" + i;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class RequestPicker {
+
+        final SplittableRandom random = new SplittableRandom();
+
+        /** Index in {@code [0, size)}, cubed so low indexes come up far more often. */
+        int skewed(int size) {
+            double u = random.nextDouble();
+            return (int) (u * u * u * size);
+        }
+    }
+
+    @Benchmark
+    public double baseline(RequestPicker picker) {
+        return pick(picker).length() + picker.skewed(COUNTRIES.length * COUNTRIES.length) + picker.random.nextDouble() * 40;
+    }
+
+    @Benchmark
+    public void record(RequestPicker picker) {
+        String customerSlug = pick(picker);
+        int lane = picker.skewed(COUNTRIES.length * COUNTRIES.length);
+        stats.record(COUNTRIES[lane / COUNTRIES.length], COUNTRIES[lane % COUNTRIES.length], customerSlug,
+                picker.random.nextDouble() * 40, 1);
+    }
+
+    private String pick(RequestPicker picker) {
+        return customerSlugs[picker.skewed(customerSlugs.length)];
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.tracking.benchmark;
+
+import com.example.tracking.service.LaneTrackingNumberServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lane allocation (counter, permutation and encoding, without recording) under a skewed lane
+ * mix: lane i of {@link #LANES} is picked with probability proportional to 1/(i+1), so the first
+ * few lanes are hot. Compare stripes=1 (one counter per lane) with stripes=0 (one per core), and
+ * run at several thread counts, e.g. {@code -Djmh.args="-t 1"}, {@code "-t 4"}, {@code "-t max"},
+ * to see how it scales.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LaneAllocationBenchmark {
+
+    static final int LANES = 64;
+
+    @Param({"1", "0"})
+    public int stripes;
+
+    private ConfigurableApplicationContext context;
+    private LaneTrackingNumberServiceImpl laneService;
+    private String[] origins;
+    private String[] destinations;
+    private double[] cumulativeWeights;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.NONE,
+                "tracking.generator.strategy=lane",
+                "tracking.generator.lane.stripes=" + stripes,
+                // Large blocks so allocator round trips stay out of the measurement.
+                "tracking.generator.block.size=1000000");
+        laneService = context.getBean(LaneTrackingNumberServiceImpl.class);
+
+        origins = new String[LANES];
+        destinations = new String[LANES];
+        cumulativeWeights = new double[LANES];
+        double total = 0;
+        for (int i = 0; i < LANES; i++) {
+            origins[i] = "O" + Character.forDigit(i % 36, 36);
+            destinations[i] = "D" + Character.forDigit(i / 36, 36);
+            total += 1.0 / (i + 1);
+            cumulativeWeights[i] = total;
+        }
+        for (int i = 0; i < LANES; i++) {
+            cumulativeWeights[i] /= total;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class LanePicker {
+
+        final SplittableRandom random = new SplittableRandom();
+
+        int next(double[] cumulativeWeights) {
+            double u = random.nextDouble();
+            int lane = 0;
+            while (lane < cumulativeWeights.length - 1 && cumulativeWeights[lane] < u) {
+                lane++;
+            }
+            return lane;
+        }
+    }
+
+    @Benchmark
+    public String allocate(LanePicker picker) {
+        int lane = picker.next(cumulativeWeights);
+        return laneService.allocate(origins[lane], destinations[lane]);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.tracking.benchmark;
+
+import com.example.tracking.service.TrackingNumberLookupService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.OffsetDateTime;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup latency distribution against the durable file-mode database holding
+ * {@code storedNumbers} rows. Lookups are drawn uniformly from the first {@code hotNumbers} stored
+ * numbers, plus {@code unknownPercent} numbers that were never issued. {@code cacheSize=0} turns
+ * the read-through cache off. The cache hit ratio of each trial is printed at tear-down.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class LookupBenchmark {
+
+    @Param({"10000000"})
+    public long storedNumbers;
+
+    @Param({"0", "200000"})
+    public long cacheSize;
+
+    @Param({"100000"})
+    public long hotNumbers;
+
+    @Param({"10"})
+    public int unknownPercent;
+
+    private ConfigurableApplicationContext context;
+    private TrackingNumberLookupService lookupService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = DurableStore.start(DurableStore.prepare(storedNumbers), storedNumbers, WebApplicationType.NONE,
+                "tracking.lookup.cache.maximum-size=" + cacheSize);
+        lookupService = context.getBean(TrackingNumberLookupService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        MeterRegistry registry = context.getBean(MeterRegistry.class);
+        double hits = registry.get("cache.gets").tag("cache", "tracking.lookup").tag("result", "hit").functionCounter().count();
+        double misses = registry.get("cache.gets").tag("cache", "tracking.lookup").tag("result", "miss").functionCounter().count();
+        System.out.printf("%nLookup cache hit ratio (cacheSize=%d): %.3f%n", cacheSize, hits / Math.max(1, hits + misses));
+        context.close();
+    }
+
+    @Benchmark
+    public OffsetDateTime single() {
+        return lookupService.findCreatedAt(nextTrackingNumber()).block();
+    }
+
+    @Benchmark
+    public Map<String, OffsetDateTime> bulk100() {
+        Set<String> trackingNumbers = new LinkedHashSet<>();
+        while (trackingNumbers.size() < 100) {
+            trackingNumbers.add(nextTrackingNumber());
+        }
+        return lookupService.findCreatedAt(trackingNumbers).block();
+    }
+
+    private String nextTrackingNumber() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(100) < unknownPercent) {
+            // Same shape as the stored rows, but past the filled range.
+            return DurableStore.storedNumber(storedNumbers + 1 + random.nextLong(hotNumbers));
+        }
+        return DurableStore.storedNumber(1 + random.nextLong(Math.min(hotNumbers, storedNumbers)));
+    }
+}
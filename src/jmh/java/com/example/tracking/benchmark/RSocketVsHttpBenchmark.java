@@ -0,0 +1,186 @@
+package com.example.tracking.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.reactivestreams.Subscription;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sustained numbers per second from one in-process client over loopback: HTTP
+ * {@code /next-tracking-number} and {@code /next-tracking-numbers} against the RSocket routes
+ * (request-response, and one long-lived request-stream per thread asking for {@link #BATCH} numbers
+ * at a time). Scores are numbers per second. After every iteration the process CPU time per number
+ * is printed; it includes the client, which runs in the same JVM. Run with {@code -t 1} and
+ * {@code -t max}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RSocketVsHttpBenchmark {
+
+    static final int BATCH = 100;
+
+    private static final Map<String, Object> REQUEST = new LinkedHashMap<>();
+
+    static {
+        REQUEST.put("origin_country_id", "MY");
+        REQUEST.put("destination_country_id", "ID");
+        REQUEST.put("weight", 1.5);
+        REQUEST.put("created_at", "2025-06-16T10:30:00Z");
+        REQUEST.put("customer_id", "de619854-b59b-425e-9db4-943979e1bd49");
+        REQUEST.put("customer_name", "RedBox");
+        REQUEST.put("customer_slug", "redbox-logistics");
+    }
+
+    private ConfigurableApplicationContext context;
+    private WebClient http;
+    private RSocketRequester rsocket;
+
+    private final LongAdder numbers = new LongAdder();
+    private long cpuNanosAtStart;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.REACTIVE);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        http = WebClient.create("http://localhost:" + port);
+        rsocket = context.getBean(RSocketRequester.Builder.class)
+                .dataMimeType(MediaType.APPLICATION_JSON)
+                .websocket(URI.create("ws://localhost:" + port + "/rsocket"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        rsocket.dispose();
+        context.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void startCpuClock() {
+        numbers.reset();
+        cpuNanosAtStart = processCpuNanos();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printCpuPerNumber() {
+        long issued = numbers.sum();
+        if (issued > 0) {
+            System.out.printf("%n%d numbers, %.1f us process CPU per number%n", issued,
+                    (processCpuNanos() - cpuNanosAtStart) / 1000.0 / issued);
+        }
+    }
+
+    @Benchmark
+    public String httpSingle() {
+        String body = http.get().uri(RoundTripBenchmark.NEXT_TRACKING_NUMBER_URI)
+                .retrieve()
+                .bodyToMono(String.class)
+                .block();
+        numbers.increment();
+        return body;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public String httpBatch() {
+        String body = http.get().uri(RoundTripBenchmark.NEXT_TRACKING_NUMBER_URI.replace("/next-tracking-number?", "/next-tracking-numbers?") + "&count=" + BATCH)
+                .retrieve()
+                .bodyToMono(String.class)
+                .block();
+        numbers.add(BATCH);
+        return body;
+    }
+
+    @Benchmark
+    public String rsocketSingle() {
+        String body = rsocket.route("next-tracking-number")
+                .data(REQUEST)
+                .retrieveMono(String.class)
+                .block();
+        numbers.increment();
+        return body;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<String> rsocketStream(Stream stream) throws InterruptedException {
+        return stream.take(BATCH, numbers);
+    }
+
+    /** One open request-stream per benchmark thread; each invocation requests the next batch. */
+    @State(Scope.Thread)
+    public static class Stream {
+
+        private final BlockingQueue<String> received = new ArrayBlockingQueue<>(BATCH);
+        private BaseSubscriber<String> subscriber;
+
+        @Setup(Level.Trial)
+        public void open(RSocketVsHttpBenchmark benchmark) {
+            subscriber = new BaseSubscriber<String>() {
+                @Override
+                protected void hookOnSubscribe(Subscription subscription) {
+                    // Nothing until the first invocation asks for a batch.
+                }
+
+                @Override
+                protected void hookOnNext(String value) {
+                    received.add(value);
+                }
+            };
+            benchmark.rsocket.route("tracking-numbers")
+                    .data(REQUEST)
+                    .retrieveFlux(String.class)
+                    .subscribe(subscriber);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            subscriber.dispose();
+        }
+
+        List<String> take(int count, LongAdder numbers) throws InterruptedException {
+            subscriber.request(count);
+            List<String> batch = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                batch.add(received.take());
+            }
+            numbers.add(count);
+            return batch;
+        }
+    }
+
+    private static long processCpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+}
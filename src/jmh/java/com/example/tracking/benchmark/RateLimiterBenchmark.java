@@ -0,0 +1,77 @@
+package com.example.tracking.benchmark;
+
+import com.example.tracking.exception.RateLimitExceededException;
+import com.example.tracking.service.CustomerRateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of {@link CustomerRateLimiter} with {@link #customers} distinct customers
+ * picked uniformly at random. {@code baseline} only picks the customer, so the limiter's own cost
+ * is the difference. {@code admit} never runs out of tokens. {@code reject} has every bucket
+ * drained, so each call pays for the 429 exception. Run at several thread counts, e.g.
+ * {@code -Djmh.args="-t 1"} and {@code "-t max"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    @Param({"100000"})
+    public int customers;
+
+    @Param({"admit", "reject"})
+    public String outcome;
+
+    private CustomerRateLimiter limiter;
+    private String[] customerIds;
+
+    @Setup
+    public void setUp() {
+        boolean admit = "admit".equals(outcome);
+        limiter = new CustomerRateLimiter(true, admit ? 1_000_000_000d : 0.001d, admit ? 1_000_000 : 1);
+        customerIds = new String[customers];
+        for (int i = 0; i < customers; i++) {
+            customerIds[i] = UUID.randomUUID().toString();
+            limiter.acquire(customerIds[i], 1);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CustomerPicker {
+
+        final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Benchmark
+    public String baseline(CustomerPicker picker) {
+        return customerIds[picker.random.nextInt(customerIds.length)];
+    }
+
+    @Benchmark
+    public Object acquire(CustomerPicker picker) {
+        String customerId = customerIds[picker.random.nextInt(customerIds.length)];
+        try {
+            limiter.acquire(customerId, 1);
+            return customerId;
+        } catch (RateLimitExceededException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.tracking.benchmark;
+
+import com.example.tracking.entity.GeneratedTrackingNumber;
+import com.example.tracking.repository.TrackingNumberRepository;
+import com.example.tracking.service.TrackingNumberEncoder;
+import com.example.tracking.service.TrackingNumberService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistence of issued numbers against embedded H2: the merge-based {@code save}, the plain
+ * {@code insert}, and the full blocking service call of the configured strategy.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositoryBenchmark {
+
+    @Param({"random", "block"})
+    public String strategy;
+
+    private ConfigurableApplicationContext context;
+    private TrackingNumberRepository repository;
+    private TrackingNumberEncoder encoder;
+    private TrackingNumberService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.NONE, "tracking.generator.strategy=" + strategy);
+        repository = context.getBean(TrackingNumberRepository.class);
+        encoder = context.getBean(TrackingNumberEncoder.class);
+        service = context.getBean(TrackingNumberService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public GeneratedTrackingNumber save() {
+        return repository.save(new GeneratedTrackingNumber(encoder.randomTrackingNumber("MY", "ID")));
+    }
+
+    @Benchmark
+    public void insert() {
+        repository.insert(new GeneratedTrackingNumber(encoder.randomTrackingNumber("MY", "ID")));
+    }
+
+    @Benchmark
+    public String generateTrackingNumber() {
+        return service.generateTrackingNumber("MY", "ID");
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.tracking.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request throughput with application logging at INFO, comparing the previous behaviour
+ * (sync appender, every request logged) against the async appender with sampled or summarised
+ * request lines. Console output of the forked JVM is part of the measured cost.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class RequestLoggingBenchmark {
+
+    @Param({"sync", "async"})
+    public String appender;
+
+    @Param({"full", "sampled", "summary"})
+    public String requests;
+
+    private ConfigurableApplicationContext context;
+    private WebTestClient client;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.REACTIVE,
+                "logging.level.root=INFO",
+                "tracking.logging.appender=" + appender,
+                "tracking.logging.requests=" + requests);
+        client = WebTestClient.bindToApplicationContext(context).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] nextTrackingNumber() {
+        return client.get().uri(RoundTripBenchmark.NEXT_TRACKING_NUMBER_URI)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseBodyContent();
+    }
+}
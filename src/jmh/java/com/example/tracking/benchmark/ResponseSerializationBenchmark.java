@@ -0,0 +1,80 @@
+package com.example.tracking.benchmark;
+
+import com.example.tracking.codec.TrackingNumberResponseEncoder;
+import com.example.tracking.dto.TrackingNumberResponse;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing one {@link TrackingNumberResponse} into a pooled Netty buffer, the way the WebFlux
+ * response writer does: the Jackson encoder Spring Boot configures by default against
+ * {@link TrackingNumberResponseEncoder}. For the allocation comparison run with the GC profiler
+ * and all threads, e.g. {@code -Djmh.args="-prof gc -t max"}, and compare
+ * {@code gc.alloc.rate.norm} (bytes per response).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseSerializationBenchmark {
+
+    private static final ResolvableType TYPE = ResolvableType.forClass(TrackingNumberResponse.class);
+
+    @Param({"jackson", "direct"})
+    public String encoder;
+
+    private Encoder<TrackingNumberResponse> responseEncoder;
+    private NettyDataBufferFactory bufferFactory;
+    private TrackingNumberResponse response;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        responseEncoder = "direct".equals(encoder)
+                ? new TrackingNumberResponseEncoder()
+                : (Encoder<TrackingNumberResponse>) (Encoder<?>) new Jackson2JsonEncoder(Jackson2ObjectMapperBuilder.json().build());
+        bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+        response = new TrackingNumberResponse("MY0A1B2C3D4E5FID", OffsetDateTime.now());
+    }
+
+    @Benchmark
+    public int fixedTimestamp() {
+        return write(response);
+    }
+
+    @Benchmark
+    public int currentTimestamp() {
+        return write(new TrackingNumberResponse("MY0A1B2C3D4E5FID", OffsetDateTime.now()));
+    }
+
+    private int write(TrackingNumberResponse value) {
+        DataBuffer buffer = responseEncoder.encodeValue(value, bufferFactory, TYPE, MediaType.APPLICATION_JSON, Collections.emptyMap());
+        int written = buffer.readableByteCount();
+        DataBufferUtils.release(buffer);
+        return written;
+    }
+}
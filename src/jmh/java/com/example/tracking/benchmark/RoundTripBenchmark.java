@@ -0,0 +1,62 @@
+package com.example.tracking.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full in-process request through the WebFlux handler chain: parameter binding, validation,
+ * generation, persistence and response encoding.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoundTripBenchmark {
+
+    static final String NEXT_TRACKING_NUMBER_URI = "/next-tracking-number?origin_country_id=MY&destination_country_id=ID"
+            + "&weight=1.5&created_at=2025-06-16T10:30:00Z&customer_id=de619854-b59b-425e-9db4-943979e1bd49"
+            + "&customer_name=RedBox&customer_slug=redbox-logistics";
+
+    @Param({"random", "block"})
+    public String strategy;
+
+    private ConfigurableApplicationContext context;
+    private WebTestClient client;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.REACTIVE, "tracking.generator.strategy=" + strategy);
+        client = WebTestClient.bindToApplicationContext(context).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] nextTrackingNumber() {
+        return client.get().uri(NEXT_TRACKING_NUMBER_URI)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseBodyContent();
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.tracking.benchmark;
+
+import com.example.tracking.TrackingApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Cold start: time from launching a fresh JVM to the first successful /next-tracking-number
+ * response, per profile and with or without a class-data sharing archive recorded by a training
+ * run beforehand, as the Docker build does. Every measurement is a new process, so nothing is
+ * warm but the OS file cache.
+ * <p>
+ * The application classes are packed into a jar first: CDS does not archive classes loaded from
+ * directories. {@code cds=on} needs a JDK 13+ to run the benchmark.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    private static final long STARTUP_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(120);
+
+    @Param({"default", "fast-start"})
+    public String profile;
+
+    @Param({"off", "on"})
+    public String cds;
+
+    private Path dir;
+    private List<String> jvm;
+    private Process process;
+
+    @Setup(Level.Trial)
+    public void prepare() throws Exception {
+        dir = Files.createTempDirectory("startup-bench");
+        jvm = new ArrayList<>(Arrays.asList(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(), "-Xms256m", "-Xmx400m",
+                "-cp", classpath(dir.resolve("application.jar"))));
+        if ("on".equals(cds)) {
+            Path archive = dir.resolve("application.jsa");
+            List<String> training = new ArrayList<>(jvm);
+            training.add(1, "-XX:ArchiveClassesAtExit=" + archive);
+            training.addAll(applicationArguments(0));
+            training.add("--tracking.startup.exit-when-ready=true");
+            Process run = start(training);
+            if (!run.waitFor(STARTUP_TIMEOUT_NANOS, TimeUnit.NANOSECONDS) || run.exitValue() != 0 || !Files.exists(archive)) {
+                run.destroyForcibly();
+                throw new IllegalStateException("Training run did not record " + archive + " (needs JDK 13+); see " + dir.resolve("output.log"));
+            }
+            jvm.add(1, "-XX:SharedArchiveFile=" + archive);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+            process = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public int firstSuccessfulResponse() throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(jvm);
+        command.addAll(applicationArguments(port));
+        process = start(command);
+        URL url = new URL("http://localhost:" + port + RoundTripBenchmark.NEXT_TRACKING_NUMBER_URI);
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT_NANOS;
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue() + "; see " + dir.resolve("output.log"));
+            }
+            try {
+                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+                int status = connection.getResponseCode();
+                connection.disconnect();
+                if (status == 200) {
+                    return status;
+                }
+            } catch (IOException e) {
+                // Not listening yet.
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("No successful response within " + TimeUnit.NANOSECONDS.toSeconds(STARTUP_TIMEOUT_NANOS) + " s.");
+    }
+
+    private List<String> applicationArguments(int port) {
+        List<String> arguments = new ArrayList<>();
+        arguments.add(TrackingApplication.class.getName());
+        arguments.add("--server.port=" + port);
+        arguments.add("--spring.datasource.url=jdbc:h2:mem:startup;DB_CLOSE_DELAY=-1");
+        arguments.add("--logging.level.root=WARN");
+        if (!"default".equals(profile)) {
+            arguments.add("--spring.profiles.active=" + profile);
+        }
+        return arguments;
+    }
+
+    private Process start(List<String> command) throws IOException {
+        File output = dir.resolve("output.log").toFile();
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(output))
+                .start();
+    }
+
+    /**
+     * The benchmark's own class path with the application classes directory packed into
+     * {@code applicationJar} and other directories (test and benchmark classes) left out.
+     */
+    private static String classpath(Path applicationJar) throws Exception {
+        Path classes = Paths.get(TrackingApplication.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        StringBuilder classpath = new StringBuilder();
+        if (Files.isDirectory(classes)) {
+            jar(classes, applicationJar);
+            classpath.append(applicationJar);
+        } else {
+            classpath.append(classes);
+        }
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (entry.endsWith(".jar") && !Paths.get(entry).equals(classes)) {
+                classpath.append(File.pathSeparator).append(entry);
+            }
+        }
+        return classpath.toString();
+    }
+
+    private static void jar(Path directory, Path jar) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar)); Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.filter(Files::isRegularFile).sorted()::iterator) {
+                out.putNextEntry(new JarEntry(directory.relativize(path).toString().replace(File.separatorChar, '/')));
+                Files.copy(path, (OutputStream) out);
+                out.closeEntry();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
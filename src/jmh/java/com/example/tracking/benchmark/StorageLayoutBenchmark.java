@@ -0,0 +1,189 @@
+package com.example.tracking.benchmark;
+
+import com.example.tracking.util.PackedTrackingNumber;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * {@code generated_tracking_numbers} in the former layout ({@code VARCHAR(16)} key and
+ * {@code TIMESTAMP}) against the packed one ({@code BINARY(11)} key and epoch milliseconds), in a
+ * file-mode H2 database pre-filled with {@code storedNumbers} rows: JDBC batch inserts of new
+ * numbers and primary key lookups of stored ones. The disk space of the table and its primary key
+ * index is printed after the fill and at tear-down.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class StorageLayoutBenchmark {
+
+    private static final int INSERT_BATCH = 500;
+    private static final int FILL_BATCH = 10000;
+
+    @Param({"string", "packed"})
+    public String layout;
+
+    @Param({"1000000"})
+    public long storedNumbers;
+
+    private Path dir;
+    private String url;
+    private final AtomicLong nextNumber = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory(Paths.get("target"), "layout-bench");
+        url = "jdbc:h2:file:" + dir.toAbsolutePath() + "/layout;DB_CLOSE_DELAY=-1;CACHE_SIZE=262144";
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute(packed()
+                    ? "CREATE TABLE generated_tracking_numbers (tracking_number BINARY(11) NOT NULL PRIMARY KEY, created_at BIGINT NOT NULL)"
+                    : "CREATE TABLE generated_tracking_numbers (tracking_number VARCHAR(16) NOT NULL PRIMARY KEY, created_at TIMESTAMP NOT NULL)");
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(insertSql())) {
+                for (long n = 1; n <= storedNumbers; n++) {
+                    bind(insert, n);
+                    insert.addBatch();
+                    if (n % FILL_BATCH == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                }
+                insert.executeBatch();
+                connection.commit();
+            }
+            nextNumber.set(storedNumbers + 1);
+            printDiskSpace(statement, "after filling " + storedNumbers + " rows");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            printDiskSpace(statement, "at tear-down, " + (nextNumber.get() - 1) + " rows");
+            statement.execute("SHUTDOWN");
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        Connection connection;
+        PreparedStatement insert;
+        PreparedStatement lookup;
+
+        @Setup(Level.Trial)
+        public void open(StorageLayoutBenchmark benchmark) throws SQLException {
+            connection = DriverManager.getConnection(benchmark.url, "sa", "");
+            connection.setAutoCommit(false);
+            insert = connection.prepareStatement(benchmark.insertSql());
+            lookup = connection.prepareStatement("SELECT created_at FROM generated_tracking_numbers WHERE tracking_number = ?");
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSERT_BATCH)
+    public int[] insertBatch(Session session) throws SQLException {
+        long first = nextNumber.getAndAdd(INSERT_BATCH);
+        for (long n = first; n < first + INSERT_BATCH; n++) {
+            bind(session.insert, n);
+            session.insert.addBatch();
+        }
+        int[] counts = session.insert.executeBatch();
+        session.connection.commit();
+        return counts;
+    }
+
+    @Benchmark
+    public boolean lookup(Session session) throws SQLException {
+        long n = 1 + ThreadLocalRandom.current().nextLong(storedNumbers);
+        String trackingNumber = DurableStore.storedNumber(n);
+        if (packed()) {
+            session.lookup.setBytes(1, PackedTrackingNumber.pack(trackingNumber));
+        } else {
+            session.lookup.setString(1, trackingNumber);
+        }
+        try (ResultSet resultSet = session.lookup.executeQuery()) {
+            return resultSet.next();
+        }
+    }
+
+    private boolean packed() {
+        return "packed".equals(layout);
+    }
+
+    private String insertSql() {
+        return "INSERT INTO generated_tracking_numbers (tracking_number, created_at) VALUES (?, ?)";
+    }
+
+    /** Binds row {@code n}; both layouts store the same tracking numbers, built like {@link DurableStore}'s. */
+    private void bind(PreparedStatement insert, long n) throws SQLException {
+        String trackingNumber = DurableStore.storedNumber(n);
+        long createdAt = System.currentTimeMillis();
+        if (packed()) {
+            insert.setBytes(1, PackedTrackingNumber.pack(trackingNumber));
+            insert.setLong(2, createdAt);
+        } else {
+            insert.setString(1, trackingNumber);
+            insert.setTimestamp(2, new Timestamp(createdAt));
+        }
+    }
+
+    private void printDiskSpace(Statement statement, String when) throws SQLException {
+        statement.execute("CHECKPOINT SYNC");
+        try (ResultSet resultSet = statement.executeQuery("SELECT DISK_SPACE_USED('GENERATED_TRACKING_NUMBERS')")) {
+            resultSet.next();
+            System.out.printf("%ngenerated_tracking_numbers (%s layout) %s: %d bytes including the primary key index, "
+                    + "database file %d bytes%n", layout, when, resultSet.getLong(1), databaseFileSize());
+        }
+    }
+
+    private long databaseFileSize() {
+        try {
+            return Files.size(dir.resolve("layout.mv.db"));
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
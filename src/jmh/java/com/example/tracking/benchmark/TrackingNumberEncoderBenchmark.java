@@ -0,0 +1,47 @@
+package com.example.tracking.benchmark;
+
+import com.example.tracking.service.TrackingNumberEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Middle-section generation: the former UUID substring path against {@link TrackingNumberEncoder}
+ * in both randomness modes. Add {@code -prof gc} to the JMH arguments for allocation rates.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TrackingNumberEncoderBenchmark {
+
+    private final TrackingNumberEncoder fastEncoder = new TrackingNumberEncoder(TrackingNumberEncoder.MODE_FAST);
+    private final TrackingNumberEncoder secureEncoder = new TrackingNumberEncoder(TrackingNumberEncoder.MODE_SECURE);
+
+    @Benchmark
+    public String uuidSubstring() {
+        String baseTrackingNumber = UUID.randomUUID().toString().replaceAll("-", "").toUpperCase().substring(0, 12);
+        return "MY" + baseTrackingNumber + "ID";
+    }
+
+    @Benchmark
+    public String encoderFast() {
+        return fastEncoder.randomTrackingNumber("MY", "ID");
+    }
+
+    @Benchmark
+    public String encoderSecure() {
+        return secureEncoder.randomTrackingNumber("MY", "ID");
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.tracking.benchmark;
+
+import com.example.tracking.validation.AnnotationTrackingRequestValidator;
+import com.example.tracking.validation.FastTrackingRequestValidator;
+import com.example.tracking.validation.TrackingRequestValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.validation.Validation;
+import javax.validation.ValidatorFactory;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of validating the {@code /next-tracking-number} parameters per request, for both
+ * {@code tracking.validation.mode} implementations. The annotation mode evaluates the same
+ * constraints {@code MethodValidationInterceptor} used to evaluate on the controller.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    @Param({"annotation", "fast"})
+    public String mode;
+
+    private ValidatorFactory validatorFactory;
+    private TrackingRequestValidator validator;
+    private OffsetDateTime createdAt;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = "fast".equals(mode)
+                ? new FastTrackingRequestValidator()
+                : new AnnotationTrackingRequestValidator(validatorFactory.getValidator());
+        createdAt = OffsetDateTime.parse("2025-06-16T10:30:00+05:30");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public void validParameters() {
+        validator.validate("MY", "ID", 1.5d, createdAt,
+                "de619854-b59b-425e-9db4-943979e1bd49", "RedBox Logistics", "redbox-logistics", null);
+    }
+
+    @Benchmark
+    public RuntimeException invalidParameters() {
+        try {
+            validator.validate("M$", "IDN", 0.0001d, createdAt,
+                    "not-a-uuid", "RedBox Logistics", "RedBox Logistics", null);
+            throw new IllegalStateException("Invalid parameters were accepted.");
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.tracking.codec;
+
+import com.example.tracking.dto.ErrorResponse;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes {@link ErrorResponse} as JSON straight into the response {@link DataBuffer}. The body
+ * always has the same shape, so the part up to the message,
+ * {@code {"status":400,"error":"Bad Request","message":}, is encoded once per status and copied;
+ * only the message, path, timestamp and the optional {@code errors} are written per response.
+ */
+public class ErrorResponseEncoder extends AbstractEncoder<ErrorResponse> implements HttpMessageEncoder<ErrorResponse> {
+
+    private static final byte[] MESSAGE = ",\"message\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PATH = ",\"path\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TIMESTAMP = ",\"timestamp\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ERRORS = ",\"errors\":[".getBytes(StandardCharsets.US_ASCII);
+    /** Longest decimal long. */
+    private static final int MAX_LONG_LENGTH = 20;
+
+    private final Map<Integer, Head> heads = new ConcurrentHashMap<>();
+
+    public ErrorResponseEncoder() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        return ErrorResponse.class == elementType.toClass() && super.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<? extends ErrorResponse> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        // Error bodies are always a single object; a Flux would only ever come from misuse.
+        return Flux.from(inputStream).map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints));
+    }
+
+    @Override
+    public DataBuffer encodeValue(ErrorResponse value, DataBufferFactory bufferFactory,
+                                  ResolvableType valueType, MimeType mimeType, Map<String, Object> hints) {
+        byte[] head = head(value.getStatus(), value.getError());
+        List<String> errors = value.getErrors();
+        int capacity = head.length + JsonStrings.maxLength(value.getMessage()) + PATH.length + JsonStrings.maxLength(value.getPath())
+                + TIMESTAMP.length + MAX_LONG_LENGTH + 1;
+        if (errors != null) {
+            capacity += ERRORS.length + 1;
+            for (String error : errors) {
+                capacity += JsonStrings.maxLength(error) + 1;
+            }
+        }
+
+        DataBuffer buffer = bufferFactory.allocateBuffer(capacity);
+        buffer.write(head);
+        JsonStrings.write(buffer, value.getMessage());
+        buffer.write(PATH);
+        JsonStrings.write(buffer, value.getPath());
+        buffer.write(TIMESTAMP);
+        writeLong(buffer, value.getTimestamp());
+        if (errors != null) {
+            buffer.write(ERRORS);
+            for (int i = 0; i < errors.size(); i++) {
+                if (i > 0) {
+                    buffer.write((byte) ',');
+                }
+                JsonStrings.write(buffer, errors.get(i));
+            }
+            buffer.write((byte) ']');
+        }
+        return buffer.write((byte) '}');
+    }
+
+    @Override
+    public List<MediaType> getStreamingMediaTypes() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * {@code {"status":<status>,"error":<error>,"message":}, built on the first error of each status.
+     */
+    private byte[] head(int status, String error) {
+        Head cached = heads.get(status);
+        if (cached != null && Objects.equals(cached.error, error)) {
+            return cached.bytes;
+        }
+        Head built = new Head(status, error);
+        heads.put(status, built);
+        return built.bytes;
+    }
+
+    private static void writeLong(DataBuffer buffer, long value) {
+        if (value < 0) {
+            buffer.write(Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        byte[] digits = new byte[MAX_LONG_LENGTH];
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        buffer.write(digits, position, digits.length - position);
+    }
+
+    private static final class Head {
+
+        final String error;
+        final byte[] bytes;
+
+        Head(int status, String error) {
+            this.error = error;
+            byte[] start = ("{\"status\":" + status + ",\"error\":").getBytes(StandardCharsets.US_ASCII);
+            DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.allocateBuffer(
+                    start.length + JsonStrings.maxLength(error) + MESSAGE.length);
+            buffer.write(start);
+            JsonStrings.write(buffer, error);
+            buffer.write(MESSAGE);
+            this.bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+        }
+    }
+}
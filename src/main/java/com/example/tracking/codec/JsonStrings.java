@@ -0,0 +1,46 @@
+package com.example.tracking.codec;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JSON string writing shared by the hand-written encoders.
+ */
+final class JsonStrings {
+
+    static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private JsonStrings() {
+    }
+
+    /**
+     * Writes {@code value} as a quoted JSON string, or {@code null}. Printable ASCII is copied as
+     * is; quotes, backslashes, control characters and everything beyond ASCII become unicode
+     * escapes, so the output stays valid JSON whatever the string holds.
+     */
+    static void write(DataBuffer buffer, String value) {
+        if (value == null) {
+            buffer.write(NULL);
+            return;
+        }
+        buffer.write((byte) '"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c < 0x7F && c != '"' && c != '\\') {
+                buffer.write((byte) c);
+            } else {
+                buffer.write(new byte[]{(byte) '\\', (byte) 'u',
+                        HEX[(c >> 12) & 0xF], HEX[(c >> 8) & 0xF], HEX[(c >> 4) & 0xF], HEX[c & 0xF]});
+            }
+        }
+        buffer.write((byte) '"');
+    }
+
+    /** Upper bound of the bytes {@link #write} produces for {@code value}. */
+    static int maxLength(String value) {
+        return value == null ? NULL.length : value.length() * 6 + 2;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.tracking.codec;
+
+import com.example.tracking.dto.TrackingNumberResponse;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes {@link TrackingNumberResponse} as JSON straight into the response {@link DataBuffer}
+ * (a pooled Netty buffer on Reactor Netty), without Jackson's bean introspection. The output is
+ * {@code {"tracking_number":"...","created_at":"..."}}, with {@code created_at} at second
+ * precision. Everything after the tracking number is cached per second and copied as is.
+ * <p>
+ * A {@code Flux} is written as a JSON array for {@code application/json} and one object per line
+ * for {@code application/x-ndjson}, like the Jackson encoder it stands in for.
+ */
+public class TrackingNumberResponseEncoder extends AbstractEncoder<TrackingNumberResponse>
+        implements HttpMessageEncoder<TrackingNumberResponse> {
+
+    private static final byte[] HEAD = "{\"tracking_number\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CREATED_AT = ",\"created_at\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte NEWLINE = '\n';
+
+    private static final List<MediaType> STREAMING_MEDIA_TYPES = Collections.singletonList(MediaType.APPLICATION_NDJSON);
+
+    private volatile Tail tail = new Tail(Long.MIN_VALUE, 0, new byte[0]);
+
+    public TrackingNumberResponseEncoder() {
+        super(MediaType.APPLICATION_JSON, MediaType.APPLICATION_NDJSON);
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        return TrackingNumberResponse.class == elementType.toClass() && super.canEncode(elementType, mimeType);
+    }
+
+    @Override
+    public List<MediaType> getStreamingMediaTypes() {
+        return STREAMING_MEDIA_TYPES;
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<? extends TrackingNumberResponse> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        if (inputStream instanceof Mono) {
+            return Mono.from(inputStream)
+                    .map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints))
+                    .flux();
+        }
+        if (isStreaming(mimeType)) {
+            return Flux.from(inputStream).map(value -> write(value, bufferFactory, (byte) 0, NEWLINE));
+        }
+        return Flux.defer(() -> {
+            boolean[] empty = {true};
+            return Flux.from(inputStream)
+                    .map(value -> {
+                        byte separator = empty[0] ? (byte) '[' : (byte) ',';
+                        empty[0] = false;
+                        return write(value, bufferFactory, separator, (byte) 0);
+                    })
+                    .concatWith(Mono.fromSupplier(() -> {
+                        DataBuffer buffer = bufferFactory.allocateBuffer(2);
+                        if (empty[0]) {
+                            buffer.write((byte) '[');
+                        }
+                        return buffer.write((byte) ']');
+                    }));
+        });
+    }
+
+    @Override
+    public DataBuffer encodeValue(TrackingNumberResponse value, DataBufferFactory bufferFactory,
+                                  ResolvableType valueType, MimeType mimeType, Map<String, Object> hints) {
+        return write(value, bufferFactory, (byte) 0, (byte) 0);
+    }
+
+    /**
+     * Writes one object, preceded by {@code prefix} and followed by {@code suffix} unless they are 0.
+     */
+    DataBuffer write(TrackingNumberResponse value, DataBufferFactory bufferFactory, byte prefix, byte suffix) {
+        String trackingNumber = value.getTrackingNumber();
+        byte[] tailBytes = tail(value.getCreatedAt());
+        int capacity = 2 + HEAD.length + JsonStrings.maxLength(trackingNumber) + tailBytes.length;
+        DataBuffer buffer = bufferFactory.allocateBuffer(capacity);
+        if (prefix != 0) {
+            buffer.write(prefix);
+        }
+        buffer.write(HEAD);
+        JsonStrings.write(buffer, trackingNumber);
+        buffer.write(tailBytes);
+        if (suffix != 0) {
+            buffer.write(suffix);
+        }
+        return buffer;
+    }
+
+    /**
+     * The bytes from the {@code created_at} field to the closing brace for the second of
+     * {@code createdAt}, reused while responses keep falling into the same second and offset.
+     */
+    private byte[] tail(OffsetDateTime createdAt) {
+        if (createdAt == null) {
+            return buildTail(null);
+        }
+        long epochSecond = createdAt.toEpochSecond();
+        int offsetSeconds = createdAt.getOffset().getTotalSeconds();
+        Tail cached = tail;
+        if (cached.epochSecond == epochSecond && cached.offsetSeconds == offsetSeconds) {
+            return cached.bytes;
+        }
+        byte[] bytes = buildTail(createdAt.truncatedTo(ChronoUnit.SECONDS).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+        // Only move forward, so a late response with an older timestamp does not evict the current second.
+        if (epochSecond >= cached.epochSecond) {
+            tail = new Tail(epochSecond, offsetSeconds, bytes);
+        }
+        return bytes;
+    }
+
+    private static byte[] buildTail(String createdAt) {
+        byte[] value = createdAt == null ? JsonStrings.NULL : ("\"" + createdAt + "\"").getBytes(StandardCharsets.US_ASCII);
+        byte[] bytes = new byte[CREATED_AT.length + value.length + 1];
+        System.arraycopy(CREATED_AT, 0, bytes, 0, CREATED_AT.length);
+        System.arraycopy(value, 0, bytes, CREATED_AT.length, value.length);
+        bytes[bytes.length - 1] = '}';
+        return bytes;
+    }
+
+    private boolean isStreaming(MimeType mimeType) {
+        for (MediaType streamingMediaType : STREAMING_MEDIA_TYPES) {
+            if (streamingMediaType.isCompatibleWith(mimeType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Tail {
+
+        final long epochSecond;
+        final int offsetSeconds;
+        final byte[] bytes;
+
+        Tail(long epochSecond, int offsetSeconds, byte[] bytes) {
+            this.epochSecond = epochSecond;
+            this.offsetSeconds = offsetSeconds;
+            this.bytes = bytes;
+        }
+    }
+}
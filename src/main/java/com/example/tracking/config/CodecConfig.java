@@ -0,0 +1,30 @@
+package com.example.tracking.config;
+
+import com.example.tracking.codec.ErrorResponseEncoder;
+import com.example.tracking.codec.TrackingNumberResponseEncoder;
+import org.springframework.boot.rsocket.messaging.RSocketStrategiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * Registers {@link TrackingNumberResponseEncoder} and {@link ErrorResponseEncoder}. Custom writers
+ * are consulted before the default Jackson encoder, so they take over every
+ * {@code TrackingNumberResponse} and {@code ErrorResponse} body. RSocket gets its own copy of
+ * {@link TrackingNumberResponseEncoder} ahead of the Jackson encoders, for JSON payloads.
+ */
+@Configuration
+public class CodecConfig implements WebFluxConfigurer {
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        configurer.customCodecs().register(new TrackingNumberResponseEncoder());
+        configurer.customCodecs().register(new ErrorResponseEncoder());
+    }
+
+    @Bean
+    public RSocketStrategiesCustomizer trackingNumberResponseRSocketEncoder() {
+        return strategies -> strategies.encoders(encoders -> encoders.add(0, new TrackingNumberResponseEncoder()));
+    }
+}
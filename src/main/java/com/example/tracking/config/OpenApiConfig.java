@@ -5,8 +5,14 @@ import io.swagger.v3.oas.models.info.Contact;
 import io.swagger.v3.oas.models.info.Info;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 
+/**
+ * API docs metadata. Lazy, so it is only built once springdoc asks for it, and not at all when
+ * springdoc is turned off.
+ */
 @Configuration
+@Lazy
 public class OpenApiConfig {
 
     @Bean
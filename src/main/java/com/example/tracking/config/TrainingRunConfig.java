@@ -0,0 +1,29 @@
+package com.example.tracking.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Exits as soon as the application is ready, for the training run that records the class-data
+ * sharing archive in the Docker build ({@code -XX:ArchiveClassesAtExit}): every class loaded up to
+ * that point, Spring, Hibernate and Netty included, goes into the archive.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tracking.startup.exit-when-ready", havingValue = "true")
+public class TrainingRunConfig implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrainingRunConfig.class);
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        logger.info("Training run ready {} ms after JVM start, exiting.", ManagementFactory.getRuntimeMXBean().getUptime());
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
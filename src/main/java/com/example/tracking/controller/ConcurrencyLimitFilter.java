@@ -0,0 +1,80 @@
+package com.example.tracking.controller;
+
+import com.example.tracking.exception.GlobalExceptionHandler;
+import com.example.tracking.exception.ServiceOverloadedException;
+import com.example.tracking.service.AdaptiveConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Admits requests to the paths in {@code tracking.concurrency-limit.paths} through the
+ * {@link AdaptiveConcurrencyLimiter}, and answers the rest at once with 503 and Retry-After, so a
+ * slow database sheds load instead of queueing it until clients time out. The rejection is mapped
+ * by {@link GlobalExceptionHandler} like any other error, although filters run before handlers.
+ * <p>
+ * A request's latency is measured until its response is written; only successful responses
+ * update the limit.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.concurrency-limit.enabled", havingValue = "true")
+public class ConcurrencyLimitFilter implements WebFilter {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final GlobalExceptionHandler exceptionHandler;
+    private final ErrorResponseWriter errorWriter;
+    private final Set<String> paths;
+    private final long retryAfterSeconds;
+
+    @Autowired
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter,
+                                  GlobalExceptionHandler exceptionHandler,
+                                  ServerCodecConfigurer codecConfigurer,
+                                  @Value("${tracking.concurrency-limit.paths:/next-tracking-number}") String paths,
+                                  @Value("${tracking.concurrency-limit.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.limiter = limiter;
+        this.exceptionHandler = exceptionHandler;
+        this.errorWriter = new ErrorResponseWriter(codecConfigurer);
+        this.paths = new HashSet<>();
+        for (String path : paths.split(",")) {
+            if (!path.trim().isEmpty()) {
+                this.paths.add(path.trim());
+            }
+        }
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!paths.contains(exchange.getRequest().getPath().value())) {
+            return chain.filter(exchange);
+        }
+        int inFlight = limiter.tryAcquire();
+        if (inFlight == 0) {
+            return reject(exchange);
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            HttpStatus status = exchange.getResponse().getStatusCode();
+            boolean succeeded = signal == SignalType.ON_COMPLETE && (status == null || status.is2xxSuccessful());
+            limiter.release(System.nanoTime() - start, inFlight, succeeded);
+        });
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange) {
+        return errorWriter.write(exceptionHandler.handleServiceOverloadedException(
+                new ServiceOverloadedException("Service is overloaded. Retry later.", retryAfterSeconds), exchange.getRequest()),
+                exchange.getResponse());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.tracking.controller;
+
+import com.example.tracking.dto.ErrorResponse;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+
+/**
+ * Writes an error mapped by the {@code GlobalExceptionHandler} from a {@code WebFilter}, which
+ * runs before the handler adapters that would otherwise render it.
+ */
+final class ErrorResponseWriter {
+
+    private static final ResolvableType ERROR_RESPONSE_TYPE = ResolvableType.forClass(ErrorResponse.class);
+
+    private final HttpMessageWriter<ErrorResponse> writer;
+
+    @SuppressWarnings("unchecked")
+    ErrorResponseWriter(ServerCodecConfigurer codecConfigurer) {
+        HttpMessageWriter<ErrorResponse> found = null;
+        for (HttpMessageWriter<?> candidate : codecConfigurer.getWriters()) {
+            if (candidate.canWrite(ERROR_RESPONSE_TYPE, MediaType.APPLICATION_JSON)) {
+                found = (HttpMessageWriter<ErrorResponse>) candidate;
+                break;
+            }
+        }
+        if (found == null) {
+            throw new IllegalStateException("No writer for " + ErrorResponse.class.getName());
+        }
+        this.writer = found;
+    }
+
+    Mono<Void> write(ResponseEntity<ErrorResponse> entity, ServerHttpResponse response) {
+        response.setStatusCode(entity.getStatusCode());
+        response.getHeaders().addAll(entity.getHeaders());
+        return writer.write(Mono.justOrEmpty(entity.getBody()), ERROR_RESPONSE_TYPE, MediaType.APPLICATION_JSON,
+                response, Collections.emptyMap());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.tracking.controller;
+
+import com.example.tracking.dto.IssuanceStatsResponse;
+import com.example.tracking.entity.EpochMillisConverter;
+import com.example.tracking.exception.InvalidInputParametersException;
+import com.example.tracking.service.IssuanceStats;
+import com.example.tracking.util.HeavyHitters;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issuance volume of the last minutes from {@link IssuanceStats}, answered from memory.
+ */
+@RestController
+public class IssuanceStatsController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final IssuanceStats issuanceStats;
+
+    @Autowired
+    public IssuanceStatsController(IssuanceStats issuanceStats) {
+        this.issuanceStats = issuanceStats;
+    }
+
+    /**
+     * Numbers issued in the last {@code minutes} minutes (the current one included; the whole
+     * window by default), with the {@code limit} busiest lanes and customers, every weight band,
+     * and the busiest customers of the current heavy hitter period.
+     */
+    @GetMapping("/stats/issuance")
+    public Mono<IssuanceStatsResponse> getIssuanceStats(@RequestParam(required = false) Integer minutes,
+                                                        @RequestParam(defaultValue = "20") int limit) {
+        int windowMinutes = issuanceStats.windowMinutes();
+        int span = minutes == null ? windowMinutes : minutes;
+        if (span < 1 || span > windowMinutes) {
+            throw new InvalidInputParametersException("minutes must be between 1 and " + windowMinutes + ".");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidInputParametersException("limit must be between 1 and " + MAX_LIMIT + ".");
+        }
+
+        long to = issuanceStats.currentMinute();
+        long from = to - span + 1;
+        List<IssuanceStatsResponse.Count> heavyHitters = new ArrayList<>();
+        for (HeavyHitters.Entry entry : issuanceStats.heavyHitters()) {
+            heavyHitters.add(new IssuanceStatsResponse.Count(entry.getKey(), entry.getCount()));
+        }
+        long millisPerMinute = TimeUnit.MINUTES.toMillis(1);
+        return Mono.just(new IssuanceStatsResponse(
+                EpochMillisConverter.toOffsetDateTime(from * millisPerMinute),
+                EpochMillisConverter.toOffsetDateTime((to + 1) * millisPerMinute),
+                issuanceStats.total(from, to),
+                busiest(issuanceStats.counts(IssuanceStats.Dimension.LANE, from, to), limit),
+                busiest(issuanceStats.counts(IssuanceStats.Dimension.CUSTOMER, from, to), limit),
+                toCounts(issuanceStats.counts(IssuanceStats.Dimension.WEIGHT_BAND, from, to)),
+                EpochMillisConverter.toOffsetDateTime(issuanceStats.heavyHittersSince()),
+                heavyHitters));
+    }
+
+    private static List<IssuanceStatsResponse.Count> busiest(Map<String, Long> counts, int limit) {
+        List<IssuanceStatsResponse.Count> busiest = toCounts(counts);
+        busiest.sort((a, b) -> Long.compare(b.getCount(), a.getCount()));
+        return busiest.size() > limit ? new ArrayList<>(busiest.subList(0, limit)) : busiest;
+    }
+
+    private static List<IssuanceStatsResponse.Count> toCounts(Map<String, Long> counts) {
+        List<IssuanceStatsResponse.Count> list = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> list.add(new IssuanceStatsResponse.Count(key, count)));
+        return list;
+    }
+}
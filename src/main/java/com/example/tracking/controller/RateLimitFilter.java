@@ -0,0 +1,88 @@
+package com.example.tracking.controller;
+
+import com.example.tracking.exception.GlobalExceptionHandler;
+import com.example.tracking.exception.RateLimitExceededException;
+import com.example.tracking.service.CustomerRateLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Charges requests to the generation endpoints against the customer's bucket in the
+ * {@link CustomerRateLimiter} before any argument is resolved: one number for
+ * {@code /next-tracking-number}, {@code count} numbers for {@code /next-tracking-numbers}. Rejected
+ * requests get 429 and Retry-After, mapped by {@link GlobalExceptionHandler}.
+ * <p>
+ * Requests without a customer_id, or with a count the controller would refuse, are passed on
+ * uncharged and get their 400 from the controller. The filter runs ahead of
+ * {@link ConcurrencyLimitFilter}, so a customer over its quota never holds a concurrency slot.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "tracking.rate-limit.enabled", havingValue = "true")
+public class RateLimitFilter implements WebFilter {
+
+    static final String SINGLE_PATH = "/next-tracking-number";
+    static final String BATCH_PATH = "/next-tracking-numbers";
+
+    private final CustomerRateLimiter rateLimiter;
+    private final GlobalExceptionHandler exceptionHandler;
+    private final ErrorResponseWriter errorWriter;
+    private final int maxBatchCount;
+
+    @Autowired
+    public RateLimitFilter(CustomerRateLimiter rateLimiter,
+                           GlobalExceptionHandler exceptionHandler,
+                           ServerCodecConfigurer codecConfigurer,
+                           @Value("${tracking.batch.max-count:10000}") int maxBatchCount) {
+        this.rateLimiter = rateLimiter;
+        this.exceptionHandler = exceptionHandler;
+        this.errorWriter = new ErrorResponseWriter(codecConfigurer);
+        this.maxBatchCount = maxBatchCount;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().value();
+        if (!SINGLE_PATH.equals(path) && !BATCH_PATH.equals(path)) {
+            return chain.filter(exchange);
+        }
+        MultiValueMap<String, String> params = exchange.getRequest().getQueryParams();
+        String customerId = params.getFirst("customer_id");
+        int permits = SINGLE_PATH.equals(path) ? 1 : count(params.getFirst("count"));
+        if (customerId == null || customerId.trim().isEmpty() || permits == 0) {
+            return chain.filter(exchange);
+        }
+        try {
+            rateLimiter.acquire(customerId, permits);
+        } catch (RateLimitExceededException ex) {
+            return errorWriter.write(exceptionHandler.handleRateLimitExceededException(ex, exchange.getRequest()),
+                    exchange.getResponse());
+        }
+        return chain.filter(exchange);
+    }
+
+    /**
+     * Returns the requested batch size, or 0 if the controller will reject it.
+     */
+    private int count(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            int count = Integer.parseInt(value.trim());
+            return count >= 1 && count <= maxBatchCount ? count : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.tracking.controller;
+
+import com.example.tracking.dto.TrackingNumberLookupRequest;
+import com.example.tracking.dto.TrackingNumberLookupResponse;
+import com.example.tracking.exception.InvalidInputParametersException;
+import com.example.tracking.exception.TrackingNumberNotFoundException;
+import com.example.tracking.service.TrackingNumberLookupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.constraints.Pattern;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Read side of {@code generated_tracking_numbers}: lets downstream services check whether a
+ * number was issued here and when.
+ */
+@RestController
+@Validated
+public class TrackingNumberLookupController {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingNumberLookupController.class);
+
+    private final TrackingNumberLookupService lookupService;
+    private final int maxLookupCount;
+
+    @Autowired
+    public TrackingNumberLookupController(TrackingNumberLookupService lookupService,
+                                          @Value("${tracking.lookup.max-count:1000}") int maxLookupCount) {
+        this.lookupService = lookupService;
+        this.maxLookupCount = maxLookupCount;
+    }
+
+    @GetMapping("/tracking-numbers/{tracking_number}")
+    public Mono<ResponseEntity<TrackingNumberLookupResponse>> getTrackingNumber(
+            @PathVariable @Pattern(regexp = "^[a-zA-Z0-9]{16}$", message = "Tracking number must be 16 alphanumeric characters.") String tracking_number) {
+
+        String trackingNumber = tracking_number.toUpperCase(Locale.ROOT);
+        logger.debug("Received lookup for tracking number: {}", trackingNumber);
+
+        return lookupService.findCreatedAt(trackingNumber)
+                .map(createdAt -> ResponseEntity.ok(new TrackingNumberLookupResponse(trackingNumber, true, createdAt)))
+                .switchIfEmpty(Mono.error(() -> new TrackingNumberNotFoundException("Tracking number " + trackingNumber + " was not issued.")));
+    }
+
+    /**
+     * Answers every requested number in request order, {@code issued=false} for unknown ones.
+     */
+    @PostMapping(value = "/tracking-numbers/lookup", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<TrackingNumberLookupResponse> lookupTrackingNumbers(@RequestBody TrackingNumberLookupRequest request) {
+        List<String> requested = request.getTrackingNumbers();
+        if (requested == null || requested.isEmpty()) {
+            throw new InvalidInputParametersException("trackingNumbers must be provided and not empty.");
+        }
+        if (requested.size() > maxLookupCount) {
+            throw new InvalidInputParametersException("trackingNumbers must contain at most " + maxLookupCount + " entries.");
+        }
+
+        List<String> trackingNumbers = new ArrayList<>(requested.size());
+        for (String trackingNumber : requested) {
+            if (!isTrackingNumber(trackingNumber)) {
+                throw new InvalidInputParametersException("Tracking number must be 16 alphanumeric characters: " + trackingNumber);
+            }
+            trackingNumbers.add(trackingNumber.toUpperCase(Locale.ROOT));
+        }
+        logger.debug("Received bulk lookup for {} tracking numbers.", trackingNumbers.size());
+
+        return lookupService.findCreatedAt(new LinkedHashSet<>(trackingNumbers))
+                .flatMapIterable(issued -> toResponses(trackingNumbers, issued));
+    }
+
+    private static boolean isTrackingNumber(String value) {
+        if (value == null || value.length() != 16) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!(c >= '0' && c <= '9') && !(c >= 'A' && c <= 'Z') && !(c >= 'a' && c <= 'z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<TrackingNumberLookupResponse> toResponses(List<String> trackingNumbers, Map<String, OffsetDateTime> issued) {
+        List<TrackingNumberLookupResponse> responses = new ArrayList<>(trackingNumbers.size());
+        for (String trackingNumber : trackingNumbers) {
+            OffsetDateTime createdAt = issued.get(trackingNumber);
+            responses.add(new TrackingNumberLookupResponse(trackingNumber, createdAt != null, createdAt));
+        }
+        return responses;
+    }
+}
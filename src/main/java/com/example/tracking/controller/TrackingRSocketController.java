@@ -0,0 +1,122 @@
+package com.example.tracking.controller;
+
+import com.example.tracking.dto.TrackingNumberRequest;
+import com.example.tracking.dto.TrackingNumberResponse;
+import com.example.tracking.exception.InvalidInputParametersException;
+import com.example.tracking.logging.RequestLog;
+import com.example.tracking.service.CustomerRateLimiter;
+import com.example.tracking.service.IdempotencyKeyResolver;
+import com.example.tracking.service.IssuanceStats;
+import com.example.tracking.service.ReactiveTrackingNumberService;
+import com.example.tracking.validation.TrackingRequestValidator;
+import com.example.tracking.validation.ValidationMessages;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+
+/**
+ * The generation endpoints over RSocket, served on {@code spring.rsocket.server.mapping-path} of
+ * the HTTP port. {@code next-tracking-number} is request-response, like its HTTP counterpart;
+ * {@code tracking-numbers} is request-stream and generates numbers as the consumer requests them,
+ * so a consumer that takes numbers continuously holds one stream open instead of sending a request
+ * per number or guessing a batch size.
+ * <p>
+ * A stream pays its customer's rate limit for every chunk before the chunk is generated, like a
+ * batch request; once the bucket runs dry it ends with the rate limit error, and no number that
+ * was issued is left undelivered.
+ */
+@Controller
+public class TrackingRSocketController {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingRSocketController.class);
+    private final ReactiveTrackingNumberService trackingNumberService;
+    private final RequestLog requestLog;
+    private final IdempotencyKeyResolver idempotencyKeyResolver;
+    private final TrackingRequestValidator requestValidator;
+    private final CustomerRateLimiter rateLimiter;
+    private final IssuanceStats issuanceStats;
+
+    @Autowired
+    public TrackingRSocketController(ReactiveTrackingNumberService trackingNumberService,
+                                     RequestLog requestLog,
+                                     IdempotencyKeyResolver idempotencyKeyResolver,
+                                     TrackingRequestValidator requestValidator,
+                                     CustomerRateLimiter rateLimiter,
+                                     IssuanceStats issuanceStats) {
+        this.trackingNumberService = trackingNumberService;
+        this.requestLog = requestLog;
+        this.idempotencyKeyResolver = idempotencyKeyResolver;
+        this.requestValidator = requestValidator;
+        this.rateLimiter = rateLimiter;
+        this.issuanceStats = issuanceStats;
+    }
+
+    @MessageMapping("next-tracking-number")
+    public Mono<TrackingNumberResponse> nextTrackingNumber(TrackingNumberRequest request) {
+        validate(request);
+        rateLimiter.acquire(request.getCustomerId(), 1);
+
+        boolean detailed = requestLog.record(1);
+        if (detailed) {
+            logger.info("Received RSocket request for new tracking number with origin_country_id: {}, destination_country_id: {}, weight: {}, customer_id: {}, customer_name: {}, customer_slug: {}",
+                    request.getOriginCountryId(), request.getDestinationCountryId(), request.getWeight(),
+                    request.getCustomerId(), request.getCustomerName(), request.getCustomerSlug());
+        }
+
+        String storedIdempotencyKey = idempotencyKeyResolver.resolve(request.getIdempotencyKey(), request.getCustomerId(),
+                request.getCreatedAt(), request.getOriginCountryId(), request.getDestinationCountryId(), request.getWeight());
+
+        return trackingNumberService.generateTrackingNumber(
+                        request.getOriginCountryId(),
+                        request.getDestinationCountryId(),
+                        storedIdempotencyKey)
+                .map(trackingNumber -> {
+                    issuanceStats.record(request.getOriginCountryId(), request.getDestinationCountryId(),
+                            request.getCustomerSlug(), request.getWeight(), 1);
+                    if (detailed) {
+                        logger.info("Generated tracking number: {}", trackingNumber);
+                    }
+                    return new TrackingNumberResponse(trackingNumber, OffsetDateTime.now());
+                });
+    }
+
+    @MessageMapping("tracking-numbers")
+    public Flux<TrackingNumberResponse> trackingNumbers(TrackingNumberRequest request) {
+        validate(request);
+        if (request.getIdempotencyKey() != null) {
+            throw new InvalidInputParametersException("idempotency_key is only supported on next-tracking-number.");
+        }
+
+        // The count of a stream is not known up front; IssuanceStats counts its numbers as they go out.
+        if (requestLog.record(0)) {
+            logger.info("Received RSocket stream request for tracking numbers with origin_country_id: {}, destination_country_id: {}, weight: {}, customer_id: {}, customer_name: {}, customer_slug: {}",
+                    request.getOriginCountryId(), request.getDestinationCountryId(), request.getWeight(),
+                    request.getCustomerId(), request.getCustomerName(), request.getCustomerSlug());
+        }
+
+        return trackingNumberService.streamTrackingNumbers(
+                        request.getOriginCountryId(),
+                        request.getDestinationCountryId(),
+                        chunkSize -> rateLimiter.acquire(request.getCustomerId(), chunkSize))
+                .map(trackingNumber -> {
+                    issuanceStats.record(request.getOriginCountryId(), request.getDestinationCountryId(),
+                            request.getCustomerSlug(), request.getWeight(), 1);
+                    return new TrackingNumberResponse(trackingNumber, OffsetDateTime.now());
+                });
+    }
+
+    private void validate(TrackingNumberRequest request) {
+        if (request.getWeight() == null) {
+            throw new InvalidInputParametersException(ValidationMessages.WEIGHT_NULL);
+        }
+        requestValidator.validate(request.getOriginCountryId(), request.getDestinationCountryId(), request.getWeight(),
+                request.getCreatedAt(), request.getCustomerId(), request.getCustomerName(), request.getCustomerSlug(),
+                request.getIdempotencyKey());
+    }
+}
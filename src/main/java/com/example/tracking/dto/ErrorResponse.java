@@ -0,0 +1,59 @@
+package com.example.tracking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.List;
+
+/**
+ * Body of every error response. {@code errors} lists the individual violations and is left out
+ * when there is only the one {@code message}.
+ */
+@JsonPropertyOrder({"status", "error", "message", "path", "timestamp", "errors"})
+public class ErrorResponse {
+
+    private final int status;
+    private final String error;
+    private final String message;
+    private final String path;
+    private final long timestamp;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final List<String> errors;
+
+    public ErrorResponse(int status, String error, String message, String path, long timestamp) {
+        this(status, error, message, path, timestamp, null);
+    }
+
+    public ErrorResponse(int status, String error, String message, String path, long timestamp, List<String> errors) {
+        this.status = status;
+        this.error = error;
+        this.message = message;
+        this.path = path;
+        this.timestamp = timestamp;
+        this.errors = errors;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+}
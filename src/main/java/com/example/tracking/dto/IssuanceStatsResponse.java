@@ -0,0 +1,119 @@
+package com.example.tracking.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public class IssuanceStatsResponse {
+
+    private OffsetDateTime from;
+    private OffsetDateTime to;
+    private long total;
+    private List<Count> lanes;
+    private List<Count> customers;
+    private List<Count> weightBands;
+    private OffsetDateTime heavyHittersSince;
+    private List<Count> heavyHitters;
+
+    public IssuanceStatsResponse(OffsetDateTime from, OffsetDateTime to, long total, List<Count> lanes, List<Count> customers,
+                                 List<Count> weightBands, OffsetDateTime heavyHittersSince, List<Count> heavyHitters) {
+        this.from = from;
+        this.to = to;
+        this.total = total;
+        this.lanes = lanes;
+        this.customers = customers;
+        this.weightBands = weightBands;
+        this.heavyHittersSince = heavyHittersSince;
+        this.heavyHitters = heavyHitters;
+    }
+
+    public OffsetDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(OffsetDateTime from) {
+        this.from = from;
+    }
+
+    public OffsetDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(OffsetDateTime to) {
+        this.to = to;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public List<Count> getLanes() {
+        return lanes;
+    }
+
+    public void setLanes(List<Count> lanes) {
+        this.lanes = lanes;
+    }
+
+    public List<Count> getCustomers() {
+        return customers;
+    }
+
+    public void setCustomers(List<Count> customers) {
+        this.customers = customers;
+    }
+
+    public List<Count> getWeightBands() {
+        return weightBands;
+    }
+
+    public void setWeightBands(List<Count> weightBands) {
+        this.weightBands = weightBands;
+    }
+
+    public OffsetDateTime getHeavyHittersSince() {
+        return heavyHittersSince;
+    }
+
+    public void setHeavyHittersSince(OffsetDateTime heavyHittersSince) {
+        this.heavyHittersSince = heavyHittersSince;
+    }
+
+    public List<Count> getHeavyHitters() {
+        return heavyHitters;
+    }
+
+    public void setHeavyHitters(List<Count> heavyHitters) {
+        this.heavyHitters = heavyHitters;
+    }
+
+    public static class Count {
+
+        private String key;
+        private long count;
+
+        public Count(String key, long count) {
+            this.key = key;
+            this.count = count;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+    }
+}
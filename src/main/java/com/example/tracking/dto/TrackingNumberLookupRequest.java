@@ -0,0 +1,16 @@
+package com.example.tracking.dto;
+
+import java.util.List;
+
+public class TrackingNumberLookupRequest {
+
+    private List<String> trackingNumbers;
+
+    public List<String> getTrackingNumbers() {
+        return trackingNumbers;
+    }
+
+    public void setTrackingNumbers(List<String> trackingNumbers) {
+        this.trackingNumbers = trackingNumbers;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.tracking.dto;
+
+import java.time.OffsetDateTime;
+
+public class TrackingNumberLookupResponse {
+
+    private String trackingNumber;
+    private boolean issued;
+    private OffsetDateTime createdAt;
+
+    public TrackingNumberLookupResponse(String trackingNumber, boolean issued, OffsetDateTime createdAt) {
+        this.trackingNumber = trackingNumber;
+        this.issued = issued;
+        this.createdAt = createdAt;
+    }
+
+    public String getTrackingNumber() {
+        return trackingNumber;
+    }
+
+    public void setTrackingNumber(String trackingNumber) {
+        this.trackingNumber = trackingNumber;
+    }
+
+    public boolean isIssued() {
+        return issued;
+    }
+
+    public void setIssued(boolean issued) {
+        this.issued = issued;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(OffsetDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
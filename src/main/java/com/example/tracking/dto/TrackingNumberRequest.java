@@ -0,0 +1,99 @@
+package com.example.tracking.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Payload of the RSocket routes, with the query parameters of {@code /next-tracking-number} as
+ * fields.
+ */
+public class TrackingNumberRequest {
+
+    @JsonProperty("origin_country_id")
+    private String originCountryId;
+
+    @JsonProperty("destination_country_id")
+    private String destinationCountryId;
+
+    private Double weight;
+
+    @JsonProperty("created_at")
+    private OffsetDateTime createdAt;
+
+    @JsonProperty("customer_id")
+    private String customerId;
+
+    @JsonProperty("customer_name")
+    private String customerName;
+
+    @JsonProperty("customer_slug")
+    private String customerSlug;
+
+    @JsonProperty("idempotency_key")
+    private String idempotencyKey;
+
+    public String getOriginCountryId() {
+        return originCountryId;
+    }
+
+    public void setOriginCountryId(String originCountryId) {
+        this.originCountryId = originCountryId;
+    }
+
+    public String getDestinationCountryId() {
+        return destinationCountryId;
+    }
+
+    public void setDestinationCountryId(String destinationCountryId) {
+        this.destinationCountryId = destinationCountryId;
+    }
+
+    public Double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Double weight) {
+        this.weight = weight;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(OffsetDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public void setCustomerName(String customerName) {
+        this.customerName = customerName;
+    }
+
+    public String getCustomerSlug() {
+        return customerSlug;
+    }
+
+    public void setCustomerSlug(String customerSlug) {
+        this.customerSlug = customerSlug;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+}
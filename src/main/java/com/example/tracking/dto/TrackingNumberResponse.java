@@ -1,10 +1,19 @@
 package com.example.tracking.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import java.time.OffsetDateTime;
 
+/**
+ * Body of the generation endpoints. Written by {@code TrackingNumberResponseEncoder}; the
+ * annotations keep any Jackson serialization on the same field names.
+ */
 public class TrackingNumberResponse {
 
+    @JsonProperty("tracking_number")
     private String trackingNumber;
+
+    @JsonProperty("created_at")
     private OffsetDateTime createdAt;
 
     public TrackingNumberResponse(String trackingNumber, OffsetDateTime createdAt) {
@@ -0,0 +1,30 @@
+package com.example.tracking.entity;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+
+/**
+ * Stores an {@link OffsetDateTime} as epoch milliseconds in a {@code BIGINT}: 8 bytes with no
+ * time zone handling in the database. Values are read back at the system default offset, like the
+ * former {@code TIMESTAMP} column.
+ */
+@Converter
+public class EpochMillisConverter implements AttributeConverter<OffsetDateTime, Long> {
+
+    @Override
+    public Long convertToDatabaseColumn(OffsetDateTime attribute) {
+        return attribute == null ? null : attribute.toInstant().toEpochMilli();
+    }
+
+    @Override
+    public OffsetDateTime convertToEntityAttribute(Long dbData) {
+        return dbData == null ? null : toOffsetDateTime(dbData);
+    }
+
+    public static OffsetDateTime toOffsetDateTime(long epochMillis) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
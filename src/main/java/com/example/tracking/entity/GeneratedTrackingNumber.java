@@ -1,22 +1,44 @@
 package com.example.tracking.entity;
 
+import org.hibernate.annotations.Type;
+
 import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
 import java.time.OffsetDateTime;
 
+/**
+ * An issued (or pooled) tracking number. The number is stored as 11 packed bytes and the issuance
+ * time as epoch milliseconds; see {@link PackedTrackingNumberType} and {@link EpochMillisConverter}.
+ */
 @Entity
-@Table(name = "generated_tracking_numbers")
+@Table(name = "generated_tracking_numbers",
+        indexes = {
+                @Index(name = "ux_generated_tracking_numbers_idempotency_key", columnList = "idempotency_key", unique = true),
+                // Month ranges for ArchiveRollover.
+                @Index(name = "ix_generated_tracking_numbers_created_at", columnList = "created_at")
+        })
 public class GeneratedTrackingNumber {
 
     @Id
-    @Column(name = "tracking_number", nullable = false, unique = true, length = 16)
+    @Type(type = PackedTrackingNumberType.NAME)
+    @Column(name = "tracking_number", nullable = false, unique = true, columnDefinition = "BINARY(11)")
     private String trackingNumber;
 
+    @Convert(converter = EpochMillisConverter.class)
     @Column(name = "created_at", nullable = false)
     private OffsetDateTime createdAt;
 
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
+    /** Lane (origin + destination) of a pre-generated number still waiting in a pool; null once issued. */
+    @Column(name = "pool_lane", length = 4)
+    private String poolLane;
+
     public GeneratedTrackingNumber() {
     }
 
@@ -25,6 +47,11 @@ public class GeneratedTrackingNumber {
         this.createdAt = OffsetDateTime.now();
     }
 
+    public GeneratedTrackingNumber(String trackingNumber, String idempotencyKey) {
+        this(trackingNumber);
+        this.idempotencyKey = idempotencyKey;
+    }
+
     public String getTrackingNumber() {
         return trackingNumber;
     }
@@ -40,4 +67,20 @@ public class GeneratedTrackingNumber {
     public void setCreatedAt(OffsetDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getPoolLane() {
+        return poolLane;
+    }
+
+    public void setPoolLane(String poolLane) {
+        this.poolLane = poolLane;
+    }
 }
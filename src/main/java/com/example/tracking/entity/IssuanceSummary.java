@@ -0,0 +1,105 @@
+package com.example.tracking.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Tracking numbers issued in one minute for one lane, customer or weight band, written by
+ * {@code IssuanceSummaryWriter}. {@code minuteStart} is in epoch milliseconds; instances of the
+ * application sharing the database add to the same row.
+ */
+@Entity
+@Table(name = "issuance_summary")
+@IdClass(IssuanceSummary.Key.class)
+public class IssuanceSummary {
+
+    @Id
+    @Column(name = "minute_start", nullable = false)
+    private long minuteStart;
+
+    /** {@code lane}, {@code customer} or {@code weight_band}. */
+    @Id
+    @Column(name = "dimension", nullable = false, length = 16)
+    private String dimension;
+
+    @Id
+    @Column(name = "dimension_key", nullable = false)
+    private String dimensionKey;
+
+    @Column(name = "issued", nullable = false)
+    private long issued;
+
+    public IssuanceSummary() {
+    }
+
+    public long getMinuteStart() {
+        return minuteStart;
+    }
+
+    public void setMinuteStart(long minuteStart) {
+        this.minuteStart = minuteStart;
+    }
+
+    public String getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(String dimension) {
+        this.dimension = dimension;
+    }
+
+    public String getDimensionKey() {
+        return dimensionKey;
+    }
+
+    public void setDimensionKey(String dimensionKey) {
+        this.dimensionKey = dimensionKey;
+    }
+
+    public long getIssued() {
+        return issued;
+    }
+
+    public void setIssued(long issued) {
+        this.issued = issued;
+    }
+
+    public static class Key implements Serializable {
+
+        private long minuteStart;
+        private String dimension;
+        private String dimensionKey;
+
+        public Key() {
+        }
+
+        public Key(long minuteStart, String dimension, String dimensionKey) {
+            this.minuteStart = minuteStart;
+            this.dimension = dimension;
+            this.dimensionKey = dimensionKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return minuteStart == key.minuteStart && Objects.equals(dimension, key.dimension)
+                    && Objects.equals(dimensionKey, key.dimensionKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(minuteStart, dimension, dimensionKey);
+        }
+    }
+}
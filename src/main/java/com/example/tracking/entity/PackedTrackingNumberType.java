@@ -0,0 +1,88 @@
+package com.example.tracking.entity;
+
+import com.example.tracking.util.PackedTrackingNumber;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.UserType;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Objects;
+
+/**
+ * Maps the 16-character tracking number to its 11-byte {@link PackedTrackingNumber} column. A
+ * user type rather than an {@code AttributeConverter}, because JPA does not apply converters to
+ * identifiers.
+ */
+public class PackedTrackingNumberType implements UserType {
+
+    public static final String NAME = "com.example.tracking.entity.PackedTrackingNumberType";
+
+    private static final int[] SQL_TYPES = {Types.BINARY};
+
+    @Override
+    public int[] sqlTypes() {
+        return SQL_TYPES;
+    }
+
+    @Override
+    public Class<?> returnedClass() {
+        return String.class;
+    }
+
+    @Override
+    public boolean equals(Object x, Object y) {
+        return Objects.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(Object x) {
+        return x.hashCode();
+    }
+
+    @Override
+    public Object nullSafeGet(ResultSet rs, String[] names, SharedSessionContractImplementor session, Object owner) throws SQLException {
+        byte[] packed = rs.getBytes(names[0]);
+        return packed == null ? null : PackedTrackingNumber.unpack(packed);
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, Object value, int index, SharedSessionContractImplementor session) throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.BINARY);
+            return;
+        }
+        byte[] packed = PackedTrackingNumber.pack((String) value);
+        if (packed == null) {
+            throw new IllegalArgumentException("Tracking number must be 16 characters of 0-9A-Z: " + value);
+        }
+        st.setBytes(index, packed);
+    }
+
+    @Override
+    public Object deepCopy(Object value) {
+        return value;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public Serializable disassemble(Object value) {
+        return (Serializable) value;
+    }
+
+    @Override
+    public Object assemble(Serializable cached, Object owner) {
+        return cached;
+    }
+
+    @Override
+    public Object replace(Object original, Object target, Object owner) {
+        return original;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.tracking.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Node ID lease of the snowflake strategy. {@code expiresAt} is in epoch milliseconds and doubles as
+ * the lowest timestamp the next holder of the node ID may issue.
+ */
+@Entity
+@Table(name = "tracking_node_leases")
+public class TrackingNodeLease {
+
+    @Id
+    @Column(name = "node_id", nullable = false)
+    private int nodeId;
+
+    @Column(name = "owner", length = 64)
+    private String owner;
+
+    @Column(name = "expires_at", nullable = false)
+    private long expiresAt;
+
+    public TrackingNodeLease() {
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(int nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.tracking.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "tracking_number_blocks")
+public class TrackingNumberBlock {
+
+    @Id
+    @Column(name = "name", nullable = false, length = 64)
+    private String name;
+
+    @Column(name = "next_block", nullable = false)
+    private long nextBlock;
+
+    public TrackingNumberBlock() {
+    }
+
+    public TrackingNumberBlock(String name, long nextBlock) {
+        this.name = name;
+        this.nextBlock = nextBlock;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getNextBlock() {
+        return nextBlock;
+    }
+
+    public void setNextBlock(long nextBlock) {
+        this.nextBlock = nextBlock;
+    }
+}
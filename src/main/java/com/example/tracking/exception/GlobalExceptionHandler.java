@@ -1,51 +1,55 @@
 package com.example.tracking.exception;
 
+import com.example.tracking.dto.ErrorResponse;
+import com.example.tracking.logging.ErrorLog;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.context.request.WebRequest;
-import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.server.ServerWebInputException;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
+/**
+ * Maps exceptions from the WebFlux handlers to {@link ErrorResponse} bodies. Client errors are
+ * expected in bulk, so each gets one WARN line at most, within the shared
+ * {@code tracking.logging.errors-per-second} budget; unexpected failures log their stack trace
+ * within the same budget.
+ */
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private final ErrorLog errorLog;
+
+    public GlobalExceptionHandler(@Value("${tracking.logging.errors-per-second:20}") int errorsPerSecond) {
+        this.errorLog = new ErrorLog(logger, errorsPerSecond);
+    }
+
     @ExceptionHandler(ConstraintViolationException.class)
-    public ResponseEntity<Object> handleConstraintViolationException(
-            ConstraintViolationException ex, WebRequest request) {
-        String requestUri = request.getDescription(false).substring(4);
-        logger.warn("ConstraintViolationException for request URI [{}]: {}", requestUri, ex.getMessage());
-
-        List<String> errors = ex.getConstraintViolations()
-                .stream()
-                .map(violation -> {
-                    String formattedError = formatViolationMessage(violation);
-                    logger.debug("Validation error detail: {}", formattedError);
-                    return formattedError;
-                })
-                .collect(Collectors.toList());
-
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", System.currentTimeMillis());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
-        body.put("error", HttpStatus.BAD_REQUEST.getReasonPhrase());
-        body.put("message", "Validation failed");
-        body.put("errors", errors);
-        body.put("path", requestUri);
-
-        logger.info("Responding with BAD_REQUEST for ConstraintViolationException. Path: {}, Errors: {}", requestUri, errors);
-        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    public ResponseEntity<ErrorResponse> handleConstraintViolationException(
+            ConstraintViolationException ex, ServerHttpRequest request) {
+        String requestUri = request.getPath().value();
+        List<String> errors = new ArrayList<>(ex.getConstraintViolations().size());
+        for (ConstraintViolation<?> violation : ex.getConstraintViolations()) {
+            errors.add(formatViolationMessage(violation));
+        }
+
+        if (errorLog.tryAcquire()) {
+            logger.warn("Responding with BAD_REQUEST for ConstraintViolationException. Path: {}, query: {}, errors: {}",
+                    requestUri, request.getURI().getRawQuery(), errors);
+        }
+        return badRequest("Validation failed", requestUri, errors);
     }
 
     private String formatViolationMessage(ConstraintViolation<?> violation) {
@@ -57,57 +61,90 @@ public class GlobalExceptionHandler {
     }
 
     @ExceptionHandler(InvalidInputParametersException.class)
-    public ResponseEntity<Object> handleInvalidInputParametersException(InvalidInputParametersException ex, WebRequest request) {
-        String requestUri = request.getDescription(false).substring(4);
-        logger.warn("InvalidInputParametersException for request URI [{}]: {}", requestUri, ex.getMessage());
-
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", System.currentTimeMillis());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
-        body.put("error", HttpStatus.BAD_REQUEST.getReasonPhrase());
-        body.put("message", ex.getMessage());
-        body.put("path", requestUri);
-
-        logger.info("Responding with BAD_REQUEST for InvalidInputParametersException. Path: {}, Message: {}", requestUri, ex.getMessage());
-        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    public ResponseEntity<ErrorResponse> handleInvalidInputParametersException(InvalidInputParametersException ex, ServerHttpRequest request) {
+        String requestUri = request.getPath().value();
+        if (errorLog.tryAcquire()) {
+            logger.warn("Responding with BAD_REQUEST for InvalidInputParametersException. Path: {}, query: {}, message: {}",
+                    requestUri, request.getURI().getRawQuery(), ex.getMessage());
+        }
+        return badRequest(ex.getMessage(), requestUri, null);
     }
 
-    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
-    public ResponseEntity<Object> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException ex, WebRequest request) {
-        String requestUri = request.getDescription(false).substring(4);
-        String parameterName = ex.getName();
-        String requiredType = ex.getRequiredType() != null ? ex.getRequiredType().getSimpleName() : "unknown";
-        Object value = ex.getValue();
+    @ExceptionHandler(TrackingNumberNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleTrackingNumberNotFoundException(TrackingNumberNotFoundException ex, ServerHttpRequest request) {
+        String requestUri = request.getPath().value();
+        // An unknown number is an ordinary lookup answer, not a client error worth a WARN.
+        logger.debug("TrackingNumberNotFoundException for request URI [{}]: {}", requestUri, ex.getMessage());
 
-        String message = String.format("Invalid value for parameter '%s'. Expected type '%s', but received value '%s'.",
-                parameterName, requiredType, value);
+        return new ResponseEntity<>(body(HttpStatus.NOT_FOUND, ex.getMessage(), requestUri, null), HttpStatus.NOT_FOUND);
+    }
 
-        logger.warn("MethodArgumentTypeMismatchException for request URI [{}]: {}", requestUri, message);
+    /**
+     * Also called by {@code RateLimitFilter}, which charges the generation endpoints before they
+     * reach a handler.
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitExceededException(RateLimitExceededException ex, ServerHttpRequest request) {
+        String requestUri = request.getPath().value();
+        // Rejections come in bursts from the same customer; the per-request line stays at DEBUG.
+        logger.debug("RateLimitExceededException for request URI [{}]: {}", requestUri, ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(body(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), requestUri, null));
+    }
 
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", System.currentTimeMillis());
-        body.put("status", HttpStatus.BAD_REQUEST.value());
-        body.put("error", HttpStatus.BAD_REQUEST.getReasonPhrase());
-        body.put("message", message);
-        body.put("path", requestUri);
+    /**
+     * Also called by {@code ConcurrencyLimitFilter}, which rejects requests before they reach a
+     * handler.
+     */
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleServiceOverloadedException(ServiceOverloadedException ex, ServerHttpRequest request) {
+        String requestUri = request.getPath().value();
+        // Shedding happens in bulk whenever the limit is reached; tracking.concurrency.rejected counts it.
+        logger.debug("ServiceOverloadedException for request URI [{}]: {}", requestUri, ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(body(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), requestUri, null));
+    }
 
-        logger.info("Responding with BAD_REQUEST for MethodArgumentTypeMismatchException. Path: {}, Message: {}", requestUri, message);
-        return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ErrorResponse> handleServerWebInputException(ServerWebInputException ex, ServerHttpRequest request) {
+        String requestUri = request.getPath().value();
+        String message = ex.getReason();
+        if (ex.getCause() instanceof TypeMismatchException) {
+            TypeMismatchException mismatch = (TypeMismatchException) ex.getCause();
+            String parameterName = ex.getMethodParameter() != null ? ex.getMethodParameter().getParameterName() : mismatch.getPropertyName();
+            String requiredType = mismatch.getRequiredType() != null ? mismatch.getRequiredType().getSimpleName() : "unknown";
+            message = "Invalid value for parameter '" + parameterName + "'. Expected type '" + requiredType
+                    + "', but received value '" + mismatch.getValue() + "'.";
+        }
+
+        if (errorLog.tryAcquire()) {
+            logger.warn("Responding with BAD_REQUEST for ServerWebInputException. Path: {}, query: {}, message: {}",
+                    requestUri, request.getURI().getRawQuery(), message);
+        }
+        return badRequest(message, requestUri, null);
     }
 
     @ExceptionHandler(RuntimeException.class)
-    public ResponseEntity<Object> handleRuntimeException(RuntimeException ex, WebRequest request) {
-        String requestUri = request.getDescription(false).substring(4);
-        logger.error("RuntimeException for request URI [{}]: {}", requestUri, ex.getMessage(), ex);
-
-        Map<String, Object> body = new HashMap<>();
-        body.put("timestamp", System.currentTimeMillis());
-        body.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
-        body.put("error", HttpStatus.INTERNAL_SERVER_ERROR.getReasonPhrase());
-        body.put("message", "An unexpected error occurred. Please try again later.");
-        body.put("path", requestUri);
-        
-        logger.info("Responding with INTERNAL_SERVER_ERROR for RuntimeException. Path: {}", requestUri);
-        return new ResponseEntity<>(body, HttpStatus.INTERNAL_SERVER_ERROR);
+    public ResponseEntity<ErrorResponse> handleRuntimeException(RuntimeException ex, ServerHttpRequest request) {
+        String requestUri = request.getPath().value();
+        if (errorLog.tryAcquire()) {
+            logger.error("Responding with INTERNAL_SERVER_ERROR for RuntimeException. Path: {}, query: {}, message: {}",
+                    requestUri, request.getURI().getRawQuery(), ex.getMessage(), ex);
+        }
+
+        return new ResponseEntity<>(body(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred. Please try again later.",
+                requestUri, null), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    private static ResponseEntity<ErrorResponse> badRequest(String message, String requestUri, List<String> errors) {
+        return new ResponseEntity<>(body(HttpStatus.BAD_REQUEST, message, requestUri, errors), HttpStatus.BAD_REQUEST);
+    }
+
+    private static ErrorResponse body(HttpStatus status, String message, String requestUri, List<String> errors) {
+        return new ErrorResponse(status.value(), status.getReasonPhrase(), message, requestUri, System.currentTimeMillis(), errors);
     }
 }
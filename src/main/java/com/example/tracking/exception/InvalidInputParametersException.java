@@ -3,14 +3,18 @@ package com.example.tracking.exception;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+/**
+ * Thrown for request parameters that fail validation. Clients can send these by the thousand, so
+ * the exception carries no stack trace: the message says everything the response needs.
+ */
 @ResponseStatus(HttpStatus.BAD_REQUEST)
 public class InvalidInputParametersException extends RuntimeException {
 
     public InvalidInputParametersException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public InvalidInputParametersException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, false);
     }
 }
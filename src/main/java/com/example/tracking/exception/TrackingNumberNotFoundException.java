@@ -0,0 +1,15 @@
+package com.example.tracking.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown for a lookup of a number that was never issued; an ordinary answer, so stackless.
+ */
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class TrackingNumberNotFoundException extends RuntimeException {
+
+    public TrackingNumberNotFoundException(String message) {
+        super(message, null, false, false);
+    }
+}
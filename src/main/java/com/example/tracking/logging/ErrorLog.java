@@ -0,0 +1,62 @@
+package com.example.tracking.logging;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps the error lines written per second, so a flood of bad requests cannot turn into a flood of
+ * log output. Lines over the cap are only counted; the first line of the next second that has one
+ * reports how many were dropped.
+ */
+public class ErrorLog {
+
+    private final Logger logger;
+    private final int linesPerSecond;
+    private final LongSupplier clock;
+
+    private final AtomicLong window = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicInteger lines = new AtomicInteger();
+    private final LongAdder suppressed = new LongAdder();
+
+    public ErrorLog(Logger logger, int linesPerSecond) {
+        this(logger, linesPerSecond, System::nanoTime);
+    }
+
+    ErrorLog(Logger logger, int linesPerSecond, LongSupplier clock) {
+        if (linesPerSecond < 1) {
+            throw new IllegalArgumentException("tracking.logging.errors-per-second must be at least 1.");
+        }
+        this.logger = logger;
+        this.linesPerSecond = linesPerSecond;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns whether the caller may write its line now; otherwise the line is counted as dropped.
+     */
+    public boolean tryAcquire() {
+        long second = TimeUnit.NANOSECONDS.toSeconds(clock.getAsLong());
+        long current = window.get();
+        if (second != current && window.compareAndSet(current, second)) {
+            lines.set(0);
+            long dropped = suppressed.sumThenReset();
+            if (dropped > 0) {
+                logger.warn("Suppressed {} error log lines over the limit of {} per second.", dropped, linesPerSecond);
+            }
+        }
+        if (lines.incrementAndGet() <= linesPerSecond) {
+            return true;
+        }
+        suppressed.increment();
+        return false;
+    }
+
+    long suppressed() {
+        return suppressed.sum();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.tracking.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides which successful requests get a detailed INFO line and logs periodic totals instead.
+ * Failures are not routed through here; {@code GlobalExceptionHandler} logs them within the
+ * {@link ErrorLog} budget.
+ */
+@Component
+public class RequestLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestLog.class);
+
+    public static final String MODE_FULL = "full";
+    public static final String MODE_SAMPLED = "sampled";
+    public static final String MODE_SUMMARY = "summary";
+
+    private final String mode;
+    private final long sampleRate;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder trackingNumbers = new LongAdder();
+    private long lastSummaryNanos = System.nanoTime();
+
+    @Autowired
+    public RequestLog(@Value("${tracking.logging.requests:" + MODE_FULL + "}") String mode,
+                      @Value("${tracking.logging.sample-rate:100}") long sampleRate) {
+        if (!MODE_FULL.equals(mode) && !MODE_SAMPLED.equals(mode) && !MODE_SUMMARY.equals(mode)) {
+            throw new IllegalArgumentException("Unknown tracking.logging.requests mode: " + mode);
+        }
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("tracking.logging.sample-rate must be at least 1.");
+        }
+        this.mode = mode;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Counts a request for {@code count} tracking numbers and returns whether it should be logged
+     * in detail.
+     */
+    public boolean record(int count) {
+        requests.increment();
+        trackingNumbers.add(count);
+        switch (mode) {
+            case MODE_FULL:
+                return true;
+            case MODE_SAMPLED:
+                return sequence.incrementAndGet() % sampleRate == 0;
+            default:
+                return false;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.logging.summary-interval-ms:10000}")
+    public synchronized void logSummary() {
+        long now = System.nanoTime();
+        long requestCount = requests.sumThenReset();
+        long trackingNumberCount = trackingNumbers.sumThenReset();
+        long elapsedMillis = (now - lastSummaryNanos) / 1_000_000;
+        lastSummaryNanos = now;
+        if (requestCount > 0 && !MODE_FULL.equals(mode)) {
+            logger.info("Served {} tracking number requests ({} numbers) in the last {} ms.", requestCount, trackingNumberCount, elapsedMillis);
+        }
+    }
+}
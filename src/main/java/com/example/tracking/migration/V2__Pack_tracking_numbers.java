@@ -0,0 +1,85 @@
+package com.example.tracking.migration;
+
+import com.example.tracking.util.PackedTrackingNumber;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+
+/**
+ * Rewrites {@code generated_tracking_numbers} from {@code VARCHAR(16)} numbers and
+ * {@code TIMESTAMP} times to 11-byte {@link PackedTrackingNumber} keys and epoch milliseconds.
+ * The rows are copied into a new table in batches, and the primary key and the idempotency key
+ * index are built once the copy is complete. A table that is already packed, because Hibernate
+ * created it from the current entity before the database was baselined, is left as it is.
+ */
+public class V2__Pack_tracking_numbers extends BaseJavaMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(V2__Pack_tracking_numbers.class);
+
+    private static final int BATCH_SIZE = 10000;
+
+    private static final String CREATE_SQL = "CREATE TABLE generated_tracking_numbers_packed ("
+            + "tracking_number BINARY(11) NOT NULL, created_at BIGINT NOT NULL, idempotency_key VARCHAR(64), pool_lane VARCHAR(4))";
+    private static final String SELECT_SQL =
+            "SELECT tracking_number, created_at, idempotency_key, pool_lane FROM generated_tracking_numbers";
+    private static final String INSERT_SQL = "INSERT INTO generated_tracking_numbers_packed "
+            + "(tracking_number, created_at, idempotency_key, pool_lane) VALUES (?, ?, ?, ?)";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        if (isPacked(connection)) {
+            logger.info("generated_tracking_numbers is already packed.");
+            return;
+        }
+        long start = System.nanoTime();
+        long rows = 0;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_SQL);
+        }
+        try (Statement select = connection.createStatement();
+             PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet resultSet = select.executeQuery(SELECT_SQL)) {
+                while (resultSet.next()) {
+                    String trackingNumber = resultSet.getString(1);
+                    byte[] packed = PackedTrackingNumber.pack(trackingNumber);
+                    if (packed == null) {
+                        throw new IllegalStateException("Stored tracking number is not 16 characters of 0-9A-Z: " + trackingNumber);
+                    }
+                    insert.setBytes(1, packed);
+                    insert.setLong(2, resultSet.getTimestamp(2).getTime());
+                    insert.setString(3, resultSet.getString(3));
+                    insert.setString(4, resultSet.getString(4));
+                    insert.addBatch();
+                    if (++rows % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                    }
+                }
+            }
+            insert.executeBatch();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE generated_tracking_numbers");
+            statement.execute("ALTER TABLE generated_tracking_numbers_packed RENAME TO generated_tracking_numbers");
+            statement.execute("ALTER TABLE generated_tracking_numbers ADD CONSTRAINT pk_generated_tracking_numbers PRIMARY KEY (tracking_number)");
+            statement.execute("CREATE UNIQUE INDEX ux_generated_tracking_numbers_idempotency_key ON generated_tracking_numbers (idempotency_key)");
+        }
+        logger.info("Packed {} tracking numbers in {} ms.", rows, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static boolean isPacked(Connection connection) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT tracking_number FROM generated_tracking_numbers WHERE 1 = 0")) {
+            int type = resultSet.getMetaData().getColumnType(1);
+            return type == Types.BINARY || type == Types.VARBINARY;
+        }
+    }
+}
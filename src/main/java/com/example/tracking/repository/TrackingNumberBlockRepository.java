@@ -0,0 +1,19 @@
+package com.example.tracking.repository;
+
+import com.example.tracking.entity.TrackingNumberBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+@Repository
+public interface TrackingNumberBlockRepository extends JpaRepository<TrackingNumberBlock, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from TrackingNumberBlock b where b.name = :name")
+    Optional<TrackingNumberBlock> findForUpdate(@Param("name") String name);
+}
@@ -4,6 +4,10 @@ import com.example.tracking.entity.GeneratedTrackingNumber;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
-public interface TrackingNumberRepository extends JpaRepository<GeneratedTrackingNumber, String> {
+public interface TrackingNumberRepository extends JpaRepository<GeneratedTrackingNumber, String>, TrackingNumberRepositoryCustom {
+
+    Optional<GeneratedTrackingNumber> findByIdempotencyKey(String idempotencyKey);
 }
@@ -0,0 +1,40 @@
+package com.example.tracking.repository;
+
+import com.example.tracking.entity.GeneratedTrackingNumber;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface TrackingNumberRepositoryCustom {
+
+    /**
+     * Plain INSERT of a new row. Unlike {@code save}, this never merges into an existing row,
+     * so a duplicate tracking number surfaces as a {@code DataIntegrityViolationException}.
+     */
+    void insert(GeneratedTrackingNumber trackingNumber);
+
+    /**
+     * Inserts all rows as one JDBC batch in a single transaction: either every row is inserted
+     * or, on a duplicate, none is.
+     */
+    void insertAll(List<GeneratedTrackingNumber> trackingNumbers);
+
+    /**
+     * Issuance time of every given number that exists, in one {@code IN} query. Numbers that were
+     * never issued, including pre-generated ones still in a pool, are absent from the result.
+     */
+    Map<String, OffsetDateTime> findCreatedAt(List<String> trackingNumbers);
+
+    /**
+     * Issues a pre-generated pool number: clears its pool lane and stamps the issuance time.
+     * Returns {@code false} if the row is no longer a pool number.
+     */
+    boolean issuePooled(String trackingNumber, OffsetDateTime createdAt, String idempotencyKey);
+
+    /**
+     * Deletes pre-generated numbers that were never issued, returning them to the number space.
+     * Rows that have been issued meanwhile are left alone.
+     */
+    void deletePooled(List<String> trackingNumbers);
+}
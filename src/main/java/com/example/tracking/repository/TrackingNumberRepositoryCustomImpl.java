@@ -0,0 +1,130 @@
+package com.example.tracking.repository;
+
+import com.example.tracking.entity.EpochMillisConverter;
+import com.example.tracking.entity.GeneratedTrackingNumber;
+import com.example.tracking.util.PackedTrackingNumber;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC access to {@code generated_tracking_numbers}. Tracking numbers are bound and read in
+ * their {@link PackedTrackingNumber} form and times as epoch milliseconds, like the entity mapping.
+ */
+public class TrackingNumberRepositoryCustomImpl implements TrackingNumberRepositoryCustom {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO generated_tracking_numbers (tracking_number, created_at, idempotency_key, pool_lane) VALUES (?, ?, ?, ?)";
+
+    private static final String FIND_CREATED_AT_SQL =
+            "SELECT tracking_number, created_at FROM generated_tracking_numbers WHERE pool_lane IS NULL AND tracking_number IN (";
+
+    private static final String ISSUE_POOLED_SQL =
+            "UPDATE generated_tracking_numbers SET pool_lane = NULL, created_at = ?, idempotency_key = ? "
+                    + "WHERE tracking_number = ? AND pool_lane IS NOT NULL";
+
+    private static final String DELETE_POOLED_SQL =
+            "DELETE FROM generated_tracking_numbers WHERE tracking_number = ? AND pool_lane IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public TrackingNumberRepositoryCustomImpl(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void insert(GeneratedTrackingNumber trackingNumber) {
+        jdbcTemplate.update(INSERT_SQL,
+                pack(trackingNumber.getTrackingNumber()),
+                trackingNumber.getCreatedAt().toInstant().toEpochMilli(),
+                trackingNumber.getIdempotencyKey(),
+                trackingNumber.getPoolLane());
+    }
+
+    @Override
+    public void insertAll(List<GeneratedTrackingNumber> trackingNumbers) {
+        if (trackingNumbers.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                GeneratedTrackingNumber trackingNumber = trackingNumbers.get(i);
+                ps.setBytes(1, pack(trackingNumber.getTrackingNumber()));
+                ps.setLong(2, trackingNumber.getCreatedAt().toInstant().toEpochMilli());
+                ps.setString(3, trackingNumber.getIdempotencyKey());
+                ps.setString(4, trackingNumber.getPoolLane());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return trackingNumbers.size();
+            }
+        }));
+    }
+
+    @Override
+    public Map<String, OffsetDateTime> findCreatedAt(List<String> trackingNumbers) {
+        Map<String, OffsetDateTime> createdAt = new HashMap<>();
+        // A number that does not pack cannot have been stored.
+        List<byte[]> packed = new ArrayList<>(trackingNumbers.size());
+        for (String trackingNumber : trackingNumbers) {
+            byte[] key = PackedTrackingNumber.pack(trackingNumber);
+            if (key != null) {
+                packed.add(key);
+            }
+        }
+        if (packed.isEmpty()) {
+            return createdAt;
+        }
+        // Pad to a power of two with repeats of the last number, so the database sees a handful of
+        // distinct statements instead of one per list size.
+        int parameters = Math.max(1, Integer.highestOneBit(packed.size() - 1) << 1);
+        StringBuilder sql = new StringBuilder(FIND_CREATED_AT_SQL.length() + parameters * 2);
+        sql.append(FIND_CREATED_AT_SQL);
+        Object[] args = new Object[parameters];
+        for (int i = 0; i < parameters; i++) {
+            sql.append(i == 0 ? "?" : ",?");
+            args[i] = packed.get(Math.min(i, packed.size() - 1));
+        }
+        sql.append(')');
+        jdbcTemplate.query(sql.toString(), resultSet -> {
+            createdAt.put(PackedTrackingNumber.unpack(resultSet.getBytes(1)),
+                    EpochMillisConverter.toOffsetDateTime(resultSet.getLong(2)));
+        }, args);
+        return createdAt;
+    }
+
+    @Override
+    public boolean issuePooled(String trackingNumber, OffsetDateTime createdAt, String idempotencyKey) {
+        return jdbcTemplate.update(ISSUE_POOLED_SQL, createdAt.toInstant().toEpochMilli(), idempotencyKey, pack(trackingNumber)) == 1;
+    }
+
+    @Override
+    public void deletePooled(List<String> trackingNumbers) {
+        if (trackingNumbers.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(DELETE_POOLED_SQL, trackingNumbers, trackingNumbers.size(),
+                (ps, trackingNumber) -> ps.setBytes(1, pack(trackingNumber)));
+    }
+
+    private static byte[] pack(String trackingNumber) {
+        byte[] packed = PackedTrackingNumber.pack(trackingNumber);
+        if (packed == null) {
+            throw new IllegalArgumentException("Tracking number must be 16 characters of 0-9A-Z: " + trackingNumber);
+        }
+        return packed;
+    }
+}
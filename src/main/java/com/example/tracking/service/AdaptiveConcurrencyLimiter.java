@@ -0,0 +1,176 @@
+package com.example.tracking.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the requests in flight on the generation path at a limit discovered from their latency
+ * (the gradient algorithm): a short-term average of request latency is compared with a long-term
+ * one, which stands for the latency without queueing. While they agree the limit grows by about
+ * its square root per sample; once the short-term latency exceeds {@code tolerance} times the
+ * long-term one, requests are queueing somewhere (usually for a database connection) and the
+ * limit shrinks in proportion, down to half per sample. Samples taken while less than half the
+ * limit was in use say nothing about the limit and are not applied.
+ * <p>
+ * Admission is a compare-and-set on the in-flight count; only completed requests take the lock,
+ * to update the averages and the limit.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.concurrency-limit.enabled", havingValue = "true")
+public class AdaptiveConcurrencyLimiter implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    /** Samples in the short-term latency average. */
+    private static final int SHORT_WINDOW = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile int limit;
+
+    private double estimatedLimit;
+    private final Average shortRtt = new Average(SHORT_WINDOW);
+    private final Average longRtt;
+
+    @Autowired
+    public AdaptiveConcurrencyLimiter(@Value("${tracking.concurrency-limit.initial-limit:20}") int initialLimit,
+                                      @Value("${tracking.concurrency-limit.min-limit:4}") int minLimit,
+                                      @Value("${tracking.concurrency-limit.max-limit:500}") int maxLimit,
+                                      @Value("${tracking.concurrency-limit.tolerance:1.5}") double tolerance,
+                                      @Value("${tracking.concurrency-limit.smoothing:0.2}") double smoothing,
+                                      @Value("${tracking.concurrency-limit.long-window:600}") int longWindow) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("tracking.concurrency-limit needs 1 <= min-limit <= initial-limit <= max-limit.");
+        }
+        if (!(tolerance >= 1) || !(smoothing > 0 && smoothing <= 1) || longWindow <= SHORT_WINDOW) {
+            throw new IllegalArgumentException("tracking.concurrency-limit.tolerance must be at least 1, smoothing in (0, 1] "
+                    + "and long-window more than " + SHORT_WINDOW + " samples.");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.longRtt = new Average(longWindow);
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+        logger.info("AdaptiveConcurrencyLimiter enabled: limit {} to start, between {} and {}.", initialLimit, minLimit, maxLimit);
+    }
+
+    /**
+     * Admits a request if fewer than the limit are in flight. Returns the in-flight count with it
+     * included, to be passed to {@link #release}, or 0 if it is rejected.
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return 0;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Ends a request admitted by {@link #tryAcquire}. With {@code sample} set, its latency
+     * updates the limit; failed and cancelled requests leave it alone.
+     */
+    public void release(long rttNanos, int inFlightAtStart, boolean sample) {
+        inFlight.decrementAndGet();
+        if (sample && rttNanos > 0) {
+            update(rttNanos, inFlightAtStart);
+        }
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtStart) {
+        double shortTerm = shortRtt.add(rttNanos);
+        double longTerm = longRtt.add(rttNanos);
+        // After a long slow period the long-term average would keep the limit pinned down once
+        // latency recovers; let it follow faster while it is far above the short-term one.
+        if (longTerm / shortTerm > 2) {
+            longTerm = longRtt.scale(0.95);
+        }
+        if (inFlightAtStart < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longTerm / shortTerm));
+        double target = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit * (1 - smoothing) + target * smoothing));
+        int updated = (int) estimatedLimit;
+        if (updated != limit) {
+            limit = updated;
+            logger.debug("Concurrency limit {} (latency {} ns short-term, {} ns long-term).", updated, (long) shortTerm, (long) longTerm);
+        }
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("tracking.concurrency.limit", this, AdaptiveConcurrencyLimiter::limit)
+                .description("Requests allowed in flight on the generation path")
+                .register(registry);
+        Gauge.builder("tracking.concurrency.inflight", inFlight, AtomicInteger::get)
+                .description("Requests in flight on the generation path")
+                .register(registry);
+        FunctionCounter.builder("tracking.concurrency.rejected", rejected, LongAdder::sum)
+                .description("Generation requests rejected with 503 by the concurrency limit")
+                .register(registry);
+    }
+
+    /**
+     * Exponential moving average over about {@code window} samples; a plain mean until it has
+     * seen that many.
+     */
+    private static final class Average {
+
+        private final int window;
+        private final double factor;
+        private int count;
+        private double value;
+
+        Average(int window) {
+            this.window = window;
+            this.factor = 2.0 / (window + 1);
+        }
+
+        double add(double sample) {
+            if (count < window) {
+                count++;
+                value += (sample - value) / count;
+            } else {
+                value += (sample - value) * factor;
+            }
+            return value;
+        }
+
+        double scale(double by) {
+            value *= by;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.example.tracking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves issued numbers out of {@code generated_tracking_numbers} one calendar month (UTC) of
+ * {@code created_at} at a time, once the month is more than {@code tracking.archive.hot-months}
+ * old. The month is written in number order to an {@link ArchiveSegment}, the segment is added to
+ * the {@link TrackingNumberArchive}, and only then are its numbers deleted from the table,
+ * {@code delete-batch-size} per transaction, so inserts never queue behind one long delete. A run
+ * that stops part-way resumes with the deletes of the segment it had written; rows of the month
+ * that were not in it go into an extra segment for the month.
+ * <p>
+ * With {@code retention-months} set, segments of months older than that are deleted, and their
+ * numbers may be issued again.
+ * <p>
+ * Runs on its own thread: the shared scheduler also drives pool refills and lease heartbeats,
+ * which must not wait behind an export.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.archive.enabled", havingValue = "true")
+public class ArchiveRollover implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveRollover.class);
+
+    private static final int EXPORT_FETCH_SIZE = 10000;
+
+    private static final String OLDEST_SQL =
+            "SELECT MIN(created_at) FROM generated_tracking_numbers WHERE pool_lane IS NULL AND created_at < ?";
+    private static final String COUNT_SQL =
+            "SELECT COUNT(*) FROM generated_tracking_numbers WHERE pool_lane IS NULL AND created_at >= ? AND created_at < ?";
+    private static final String EXPORT_SQL = "SELECT tracking_number, created_at FROM generated_tracking_numbers "
+            + "WHERE pool_lane IS NULL AND created_at >= ? AND created_at < ? ORDER BY tracking_number";
+    private static final String DELETE_SQL =
+            "DELETE FROM generated_tracking_numbers WHERE tracking_number = ? AND pool_lane IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TrackingNumberArchive archive;
+    private final int hotMonths;
+    private final int retentionMonths;
+    private final int deleteBatchSize;
+    private final int entriesPerBlock;
+    private final double falsePositiveRate;
+    private final long initialDelayMs;
+    private final long intervalMs;
+    private final Clock clock;
+
+    private final Timer rolloverTimer;
+    private final Counter archived;
+
+    private final Object sleeper = new Object();
+    private volatile boolean closed;
+    private Thread worker;
+
+    @Autowired
+    public ArchiveRollover(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           TrackingNumberArchive archive,
+                           MeterRegistry registry,
+                           @Value("${tracking.archive.hot-months:24}") int hotMonths,
+                           @Value("${tracking.archive.retention-months:0}") int retentionMonths,
+                           @Value("${tracking.archive.delete-batch-size:5000}") int deleteBatchSize,
+                           @Value("${tracking.archive.block-entries:1024}") int entriesPerBlock,
+                           @Value("${tracking.archive.false-positive-rate:0.01}") double falsePositiveRate,
+                           @Value("${tracking.archive.initial-delay-ms:60000}") long initialDelayMs,
+                           @Value("${tracking.archive.rollover-interval-ms:3600000}") long intervalMs) {
+        this(jdbcTemplate, transactionManager, archive, registry, hotMonths, retentionMonths, deleteBatchSize,
+                entriesPerBlock, falsePositiveRate, initialDelayMs, intervalMs, Clock.systemUTC());
+    }
+
+    ArchiveRollover(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, TrackingNumberArchive archive,
+                    MeterRegistry registry, int hotMonths, int retentionMonths, int deleteBatchSize, int entriesPerBlock,
+                    double falsePositiveRate, long initialDelayMs, long intervalMs, Clock clock) {
+        if (hotMonths < 1) {
+            throw new IllegalArgumentException("tracking.archive.hot-months must be at least 1.");
+        }
+        if (retentionMonths != 0 && retentionMonths <= hotMonths) {
+            throw new IllegalArgumentException("tracking.archive.retention-months must be 0 (keep forever) or more than hot-months.");
+        }
+        if (archive.directory() == null) {
+            throw new IllegalStateException("tracking.archive.dir must be set when tracking.archive.enabled=true.");
+        }
+        try {
+            Files.createDirectories(archive.directory());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create the archive directory " + archive.directory(), e);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archive = archive;
+        this.hotMonths = hotMonths;
+        this.retentionMonths = retentionMonths;
+        this.deleteBatchSize = deleteBatchSize;
+        this.entriesPerBlock = entriesPerBlock;
+        this.falsePositiveRate = falsePositiveRate;
+        this.initialDelayMs = initialDelayMs;
+        this.intervalMs = intervalMs;
+        this.clock = clock;
+        this.rolloverTimer = Timer.builder("tracking.archive.rollover")
+                .description("Time taken to archive one month of issued numbers, export and deletes included")
+                .register(registry);
+        this.archived = Counter.builder("tracking.archive.archived")
+                .description("Issued numbers moved from the table into the archive")
+                .register(registry);
+        logger.info("ArchiveRollover keeping {} months in generated_tracking_numbers, archiving older months into {}{}.",
+                hotMonths, archive.directory(), retentionMonths == 0 ? "" : " for " + retentionMonths + " months");
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        worker = new Thread(this::run, "tracking-archive-rollover");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void run() {
+        long delayMs = initialDelayMs;
+        while (await(delayMs)) {
+            try {
+                while (!closed && rollOverOldestMonth() != null) {
+                    // Month after month, until only the hot window is left.
+                }
+            } catch (DataAccessException | UncheckedIOException e) {
+                logger.warn("Archive rollover failed; retrying in {} ms: {}", intervalMs, e.getMessage());
+            }
+            delayMs = intervalMs;
+        }
+    }
+
+    private boolean await(long delayMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+        synchronized (sleeper) {
+            long remaining;
+            while (!closed && (remaining = deadline - System.nanoTime()) > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(sleeper, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return !closed;
+    }
+
+    /**
+     * Drops segments past retention, then archives the oldest month that is past the hot window
+     * and still has rows in the table. Returns that month, or {@code null} if there was none.
+     */
+    public synchronized YearMonth rollOverOldestMonth() {
+        YearMonth current = YearMonth.now(clock);
+        expire(current);
+        Long oldest = jdbcTemplate.queryForObject(OLDEST_SQL, Long.class, startOf(current.minusMonths(hotMonths)));
+        if (oldest == null) {
+            return null;
+        }
+        YearMonth month = YearMonth.from(Instant.ofEpochMilli(oldest).atOffset(ZoneOffset.UTC));
+        long from = startOf(month);
+        long to = startOf(month.plusMonths(1));
+        long start = System.nanoTime();
+        long moved = 0;
+
+        List<ArchiveSegment> written = segmentsOf(month);
+        for (ArchiveSegment segment : written) {
+            // Left by a run that stopped before its deletes were done; deleting again is harmless.
+            moved += deleteArchived(segment);
+        }
+        Long remaining = jdbcTemplate.queryForObject(COUNT_SQL, Long.class, from, to);
+        if (!closed && remaining != null && remaining > 0) {
+            ArchiveSegment segment = export(month, written.size(), from, to, remaining);
+            archive.add(segment);
+            moved += deleteArchived(segment);
+        }
+
+        rolloverTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        archived.increment(moved);
+        logger.info("Archived {} numbers issued in {} in {} ms.", moved, month, (System.nanoTime() - start) / 1_000_000);
+        return month;
+    }
+
+    private ArchiveSegment export(YearMonth month, int sequence, long from, long to, long expectedEntries) {
+        Path path = archive.directory().resolve(month + (sequence == 0 ? "" : "." + sequence) + ArchiveSegment.SUFFIX);
+        try (ArchiveSegment.Writer writer = ArchiveSegment.create(path, expectedEntries, entriesPerBlock, falsePositiveRate)) {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(EXPORT_SQL);
+                statement.setFetchSize(EXPORT_FETCH_SIZE);
+                statement.setLong(1, from);
+                statement.setLong(2, to);
+                return statement;
+            }, resultSet -> {
+                try {
+                    writer.append(resultSet.getBytes(1), resultSet.getLong(2));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return writer.commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write archive segment " + path, e);
+        }
+    }
+
+    /** Deletes the segment's numbers from the table in batches; stops early on shutdown. */
+    private long deleteArchived(ArchiveSegment segment) {
+        List<byte[]> batch = new ArrayList<>(deleteBatchSize);
+        long[] deleted = new long[1];
+        try {
+            segment.forEachNumber(packed -> {
+                if (closed) {
+                    return;
+                }
+                batch.add(packed);
+                if (batch.size() == deleteBatchSize) {
+                    deleted[0] += delete(batch);
+                    batch.clear();
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archive segment " + segment.path(), e);
+        }
+        if (!closed) {
+            deleted[0] += delete(batch);
+        }
+        return deleted[0];
+    }
+
+    private int delete(List<byte[]> numbers) {
+        if (numbers.isEmpty()) {
+            return 0;
+        }
+        int[] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(DELETE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setBytes(1, numbers.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return numbers.size();
+            }
+        }));
+        int deleted = 0;
+        for (int count : counts) {
+            deleted += Math.max(0, count);
+        }
+        return deleted;
+    }
+
+    private void expire(YearMonth current) {
+        if (retentionMonths == 0) {
+            return;
+        }
+        YearMonth oldestKept = current.minusMonths(retentionMonths);
+        for (ArchiveSegment segment : archive.segments()) {
+            if (monthOf(segment).isBefore(oldestKept)) {
+                try {
+                    archive.remove(segment);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to delete archive segment " + segment.path(), e);
+                }
+                logger.info("Deleted archive segment {} ({} numbers) past the {} month retention.",
+                        segment.name(), segment.entries(), retentionMonths);
+            }
+        }
+    }
+
+    private List<ArchiveSegment> segmentsOf(YearMonth month) {
+        List<ArchiveSegment> segments = new ArrayList<>();
+        for (ArchiveSegment segment : archive.segments()) {
+            if (monthOf(segment).equals(month)) {
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+
+    /** Segments are named {@code yyyy-MM[.n].segment}. */
+    private static YearMonth monthOf(ArchiveSegment segment) {
+        return YearMonth.parse(segment.name().substring(0, 7));
+    }
+
+    private static long startOf(YearMonth month) {
+        return month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        closed = true;
+        synchronized (sleeper) {
+            sleeper.notifyAll();
+        }
+        Thread current = worker;
+        if (current != null) {
+            // Not interrupted: an interrupt inside a JDBC call can close the H2 file. The deletes
+            // stop at the next batch and resume on the next start.
+            current.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package com.example.tracking.service;
+
+import com.example.tracking.util.BloomFilter;
+import com.example.tracking.util.PackedTrackingNumber;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Immutable file of archived tracking numbers and their issuance times, written once by
+ * {@link ArchiveRollover} and only read afterwards. Entries (11-byte packed number, 8-byte epoch
+ * millis) are sorted by number and deflated in blocks of a fixed entry count. The footer holds the
+ * first number of every block (the sparse index), a Bloom filter over all numbers, and the entry
+ * count and time range; it is loaded into memory on {@link #open}, so a lookup that gets past the
+ * filter reads and inflates exactly one block.
+ * <pre>
+ * "TNAS" version | block 0 | ... | block n-1 | footer | footer offset "TNAS"
+ * </pre>
+ * The file is written under a temporary name and renamed when complete, so a segment that can be
+ * opened was written in full.
+ */
+final class ArchiveSegment implements Closeable {
+
+    static final String SUFFIX = ".segment";
+    static final String TEMPORARY_SUFFIX = ".segment.tmp";
+
+    /** {@link #findCreatedAt} result for a number that is not in the segment. */
+    static final long ABSENT = Long.MIN_VALUE;
+
+    private static final int MAGIC = 0x544E4153;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int TRAILER_BYTES = Long.BYTES + Integer.BYTES;
+    private static final int KEY_BYTES = PackedTrackingNumber.LENGTH;
+    private static final int ENTRY_BYTES = KEY_BYTES + Long.BYTES;
+
+    private final Path path;
+    private volatile FileChannel channel;
+    private volatile boolean closed;
+    private final long sizeBytes;
+    private final byte[][] firstKeys;
+    /** Start of every block, plus the footer offset as the end of the last one. */
+    private final long[] blockOffsets;
+    private final int[] blockEntries;
+    private final long entries;
+    private final long minCreatedAt;
+    private final long maxCreatedAt;
+    private final BloomFilter filter;
+
+    private ArchiveSegment(Path path, FileChannel channel, long sizeBytes, byte[][] firstKeys, long[] blockOffsets,
+                           int[] blockEntries, long entries, long minCreatedAt, long maxCreatedAt, BloomFilter filter) {
+        this.path = path;
+        this.channel = channel;
+        this.sizeBytes = sizeBytes;
+        this.firstKeys = firstKeys;
+        this.blockOffsets = blockOffsets;
+        this.blockEntries = blockEntries;
+        this.entries = entries;
+        this.minCreatedAt = minCreatedAt;
+        this.maxCreatedAt = maxCreatedAt;
+        this.filter = filter;
+    }
+
+    static ArchiveSegment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_BYTES + TRAILER_BYTES) {
+                throw new IOException("Not an archive segment: " + path);
+            }
+            ByteBuffer header = readFully(channel, 0, HEADER_BYTES);
+            ByteBuffer trailer = readFully(channel, size - TRAILER_BYTES, TRAILER_BYTES);
+            long footerOffset = trailer.getLong();
+            if (header.getInt() != MAGIC || trailer.getInt() != MAGIC
+                    || footerOffset < HEADER_BYTES || footerOffset > size - TRAILER_BYTES) {
+                throw new IOException("Not an archive segment: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported archive segment version " + version + ": " + path);
+            }
+            // Not closed: closing the stream would close the channel. Positional reads ignore the
+            // position it leaves behind.
+            DataInputStream footer = new DataInputStream(
+                    new BufferedInputStream(Channels.newInputStream(channel.position(footerOffset)), 1 << 16));
+            int blocks = footer.readInt();
+            byte[][] firstKeys = new byte[blocks][KEY_BYTES];
+            long[] blockOffsets = new long[blocks + 1];
+            int[] blockEntries = new int[blocks];
+            for (int i = 0; i < blocks; i++) {
+                footer.readFully(firstKeys[i]);
+                blockOffsets[i] = footer.readLong();
+                blockEntries[i] = footer.readInt();
+            }
+            blockOffsets[blocks] = footerOffset;
+            long entries = footer.readLong();
+            long minCreatedAt = footer.readLong();
+            long maxCreatedAt = footer.readLong();
+            BloomFilter filter = BloomFilter.readFrom(footer);
+            return new ArchiveSegment(path, channel, size, firstKeys, blockOffsets, blockEntries,
+                    entries, minCreatedAt, maxCreatedAt, filter);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Starts a segment that will be renamed to {@code path} on {@link Writer#commit()}.
+     * {@code expectedEntries} sizes the Bloom filter.
+     */
+    static Writer create(Path path, long expectedEntries, int entriesPerBlock, double falsePositiveRate) throws IOException {
+        return new Writer(path, expectedEntries, entriesPerBlock, falsePositiveRate);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    String name() {
+        return path.getFileName().toString();
+    }
+
+    long entries() {
+        return entries;
+    }
+
+    long sizeBytes() {
+        return sizeBytes;
+    }
+
+    long filterBytes() {
+        return filter.memoryBytes();
+    }
+
+    long minCreatedAt() {
+        return minCreatedAt;
+    }
+
+    long maxCreatedAt() {
+        return maxCreatedAt;
+    }
+
+    /** Returns {@code false} only if {@code trackingNumber} is definitely not in this segment. */
+    boolean mightContain(String trackingNumber) {
+        return filter.mightContain(trackingNumber);
+    }
+
+    /** Issuance time in epoch millis of the number packed as {@code packed}, or {@link #ABSENT}. */
+    long findCreatedAt(byte[] packed) throws IOException {
+        int block = floorBlock(packed);
+        if (block < 0) {
+            return ABSENT;
+        }
+        byte[] entries = readBlock(block);
+        int low = 0;
+        int high = blockEntries[block] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = compare(entries, mid * ENTRY_BYTES, packed);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return ByteBuffer.wrap(entries, mid * ENTRY_BYTES + KEY_BYTES, Long.BYTES).getLong();
+            }
+        }
+        return ABSENT;
+    }
+
+    /** Passes every packed number in the segment to {@code action}, in ascending order. */
+    void forEachNumber(Consumer<byte[]> action) throws IOException {
+        for (int block = 0; block < blockEntries.length; block++) {
+            byte[] entries = readBlock(block);
+            for (int offset = 0; offset < entries.length; offset += ENTRY_BYTES) {
+                byte[] packed = new byte[KEY_BYTES];
+                System.arraycopy(entries, offset, packed, 0, KEY_BYTES);
+                action.accept(packed);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        channel.close();
+    }
+
+    /** Last block whose first number is not greater than {@code packed}, or -1. */
+    private int floorBlock(byte[] packed) {
+        int low = 0;
+        int high = firstKeys.length - 1;
+        int floor = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compare(firstKeys[mid], 0, packed) <= 0) {
+                floor = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return floor;
+    }
+
+    private byte[] readBlock(int block) throws IOException {
+        int length = (int) (blockOffsets[block + 1] - blockOffsets[block]);
+        ByteBuffer compressed = read(blockOffsets[block], length);
+        byte[] entries = new byte[blockEntries[block] * ENTRY_BYTES];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed.array(), 0, length);
+            int inflated = 0;
+            while (inflated < entries.length) {
+                int count = inflater.inflate(entries, inflated, entries.length - inflated);
+                if (count == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new IOException("Truncated block " + block + " in " + path);
+                }
+                inflated += count;
+            }
+            return entries;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block " + block + " in " + path, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        try {
+            return readFully(channel, position, length);
+        } catch (ClosedChannelException e) {
+            // An interrupted reader closes the channel for every thread; reopen it unless close() did.
+            return readFully(reopen(e), position, length);
+        }
+    }
+
+    private synchronized FileChannel reopen(ClosedChannelException cause) throws IOException {
+        if (closed) {
+            throw cause;
+        }
+        if (!channel.isOpen()) {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        }
+        return channel;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of archive segment.");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /** Unsigned comparison of the 11-byte number at {@code offset} in {@code entries} with {@code packed}. */
+    private static int compare(byte[] entries, int offset, byte[] packed) {
+        for (int i = 0; i < KEY_BYTES; i++) {
+            int difference = (entries[offset + i] & 0xFF) - (packed[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Appends entries in ascending number order; {@link #commit()} writes the footer, syncs the
+     * file and renames it into place. Closing an uncommitted writer deletes the partial file.
+     */
+    static final class Writer implements Closeable {
+
+        private final Path path;
+        private final Path temporary;
+        private final FileChannel channel;
+        private final DataOutputStream out;
+        private final int entriesPerBlock;
+        private final byte[] block;
+        private final byte[] compressed;
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final BloomFilter filter;
+        private final char[] trackingNumber = new char[TrackingNumberEncoder.LENGTH];
+        private final CharBuffer trackingNumberView = CharBuffer.wrap(trackingNumber);
+
+        private final List<byte[]> firstKeys = new ArrayList<>();
+        private final List<Long> blockOffsets = new ArrayList<>();
+        private final List<Integer> blockEntries = new ArrayList<>();
+        private final byte[] lastKey = new byte[KEY_BYTES];
+
+        private long position;
+        private int entriesInBlock;
+        private long entries;
+        private long minCreatedAt = Long.MAX_VALUE;
+        private long maxCreatedAt = Long.MIN_VALUE;
+        private boolean committed;
+
+        private Writer(Path path, long expectedEntries, int entriesPerBlock, double falsePositiveRate) throws IOException {
+            if (entriesPerBlock < 1) {
+                throw new IllegalArgumentException("Entries per block must be positive.");
+            }
+            this.filter = BloomFilter.create(Math.max(1, expectedEntries), falsePositiveRate);
+            this.path = path;
+            this.temporary = path.resolveSibling(path.getFileName().toString().replace(SUFFIX, TEMPORARY_SUFFIX));
+            this.channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            this.entriesPerBlock = entriesPerBlock;
+            this.block = new byte[entriesPerBlock * ENTRY_BYTES];
+            this.compressed = new byte[8192];
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            position = HEADER_BYTES;
+        }
+
+        void append(byte[] packed, long createdAt) throws IOException {
+            if (packed == null || packed.length != KEY_BYTES) {
+                throw new IllegalArgumentException("Packed tracking number must be " + KEY_BYTES + " bytes.");
+            }
+            if (entries > 0 && compare(lastKey, 0, packed) >= 0) {
+                throw new IllegalArgumentException("Archive entries must be appended in ascending number order without duplicates.");
+            }
+            if (entriesInBlock == 0) {
+                firstKeys.add(packed.clone());
+            }
+            int offset = entriesInBlock * ENTRY_BYTES;
+            System.arraycopy(packed, 0, block, offset, KEY_BYTES);
+            ByteBuffer.wrap(block, offset + KEY_BYTES, Long.BYTES).putLong(createdAt);
+            System.arraycopy(packed, 0, lastKey, 0, KEY_BYTES);
+            PackedTrackingNumber.unpack(packed, trackingNumber);
+            filter.put(trackingNumberView);
+            entries++;
+            minCreatedAt = Math.min(minCreatedAt, createdAt);
+            maxCreatedAt = Math.max(maxCreatedAt, createdAt);
+            if (++entriesInBlock == entriesPerBlock) {
+                writeBlock();
+            }
+        }
+
+        long entries() {
+            return entries;
+        }
+
+        ArchiveSegment commit() throws IOException {
+            if (entriesInBlock > 0) {
+                writeBlock();
+            }
+            long footerOffset = position;
+            out.writeInt(firstKeys.size());
+            for (int i = 0; i < firstKeys.size(); i++) {
+                out.write(firstKeys.get(i));
+                out.writeLong(blockOffsets.get(i));
+                out.writeInt(blockEntries.get(i));
+            }
+            out.writeLong(entries);
+            out.writeLong(minCreatedAt);
+            out.writeLong(maxCreatedAt);
+            filter.writeTo(out);
+            out.writeLong(footerOffset);
+            out.writeInt(MAGIC);
+            out.flush();
+            channel.force(true);
+            out.close();
+            deflater.end();
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+            return open(path);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (committed) {
+                return;
+            }
+            deflater.end();
+            try {
+                out.close();
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            blockOffsets.add(position);
+            blockEntries.add(entriesInBlock);
+            deflater.reset();
+            deflater.setInput(block, 0, entriesInBlock * ENTRY_BYTES);
+            deflater.finish();
+            while (!deflater.finished()) {
+                int count = deflater.deflate(compressed);
+                out.write(compressed, 0, count);
+                position += count;
+            }
+            entriesInBlock = 0;
+        }
+    }
+}
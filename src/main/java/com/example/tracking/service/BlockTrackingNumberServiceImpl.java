@@ -0,0 +1,199 @@
+package com.example.tracking.service;
+
+import com.example.tracking.entity.GeneratedTrackingNumber;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out tracking numbers from blocks reserved through {@link TrackingNumberBlockAllocator}.
+ * Every value in a reserved block belongs to this node only, so the issued number is handed to the
+ * {@link IssuedTrackingNumberRecorder} without a per-number uniqueness check.
+ */
+@Service
+@ConditionalOnProperty(name = "tracking.generator.strategy", havingValue = "block")
+public class BlockTrackingNumberServiceImpl implements TrackingNumberService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlockTrackingNumberServiceImpl.class);
+
+    static final String SEQUENCE_NAME = "default";
+
+    private final IssuedTrackingNumberRecorder issuedTrackingNumberRecorder;
+    private final TrackingNumberBlockAllocator blockAllocator;
+    private final TrackingNumberEncoder trackingNumberEncoder;
+    private final TrackingMetrics trackingMetrics;
+    private final int batchChunkSize;
+
+    private volatile Block currentBlock = Block.EMPTY;
+
+    @Autowired
+    public BlockTrackingNumberServiceImpl(IssuedTrackingNumberRecorder issuedTrackingNumberRecorder,
+                                          TrackingNumberBlockAllocator blockAllocator,
+                                          TrackingNumberEncoder trackingNumberEncoder,
+                                          TrackingMetrics trackingMetrics,
+                                          MeterRegistry registry,
+                                          @Value("${tracking.batch.chunk-size:500}") int batchChunkSize) {
+        this.issuedTrackingNumberRecorder = issuedTrackingNumberRecorder;
+        this.blockAllocator = blockAllocator;
+        this.trackingNumberEncoder = trackingNumberEncoder;
+        this.trackingMetrics = trackingMetrics;
+        this.batchChunkSize = batchChunkSize;
+        registerGauges(registry);
+        logger.info("TrackingNumberService initialized with block allocation strategy (block size {}).", blockAllocator.getBlockSize());
+    }
+
+    @Override
+    public String generateTrackingNumber(String originCountryId, String destinationCountryId, String idempotencyKey) {
+        logger.debug("Attempting to generate tracking number for origin: {}, destination: {}", originCountryId, destinationCountryId);
+
+        long start = System.nanoTime();
+        String candidateTrackingNumber;
+        int maxRetries = 10;
+        int attempt = 0;
+
+        while (attempt < maxRetries) {
+            candidateTrackingNumber = trackingNumberEncoder.encode(originCountryId, nextValue(), destinationCountryId);
+
+            long persistStart = System.nanoTime();
+            try {
+                issuedTrackingNumberRecorder.record(new GeneratedTrackingNumber(candidateTrackingNumber, idempotencyKey));
+                trackingMetrics.recordPersistence(persistStart);
+                logger.debug("Generated unique tracking number (block): {}", candidateTrackingNumber);
+                trackingMetrics.recordGeneration(start);
+                return candidateTrackingNumber;
+            } catch (DataIntegrityViolationException e) {
+                trackingMetrics.recordPersistence(persistStart);
+                // A stored idempotency key is answered with its number; retrying would only fail again.
+                String storedTrackingNumber = issuedTrackingNumberRecorder.findStored(idempotencyKey);
+                if (storedTrackingNumber != null) {
+                    logger.debug("Idempotency key {} was already stored with tracking number {}.", idempotencyKey, storedTrackingNumber);
+                    return storedTrackingNumber;
+                }
+                // Otherwise only possible when the table also holds numbers issued by another strategy.
+                logger.warn("Collision detected for tracking number (block): {}. Retrying... (Attempt {}/{})", candidateTrackingNumber, attempt + 1, maxRetries);
+                trackingMetrics.collision();
+                attempt++;
+                if (attempt < maxRetries) {
+                    trackingMetrics.retry();
+                }
+            }
+        }
+
+        trackingMetrics.exhausted();
+
+        logger.error("Failed to generate a unique tracking number (block) after {} attempts.", maxRetries);
+        throw new RuntimeException("Failed to generate a unique tracking number (block) after " + maxRetries + " attempts.");
+    }
+
+    @Override
+    public List<String> generateTrackingNumbers(String originCountryId, String destinationCountryId, int count) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Attempting to generate {} tracking numbers for origin: {}, destination: {}", count, originCountryId, destinationCountryId);
+        }
+
+        long start = System.nanoTime();
+        List<String> trackingNumbers = new ArrayList<>(count);
+        while (trackingNumbers.size() < count) {
+            int chunkSize = Math.min(batchChunkSize, count - trackingNumbers.size());
+            trackingNumbers.addAll(generateChunk(originCountryId, destinationCountryId, chunkSize));
+        }
+
+        trackingMetrics.recordBatchGeneration(start);
+        logger.debug("Generated {} unique tracking numbers (block).", count);
+        return trackingNumbers;
+    }
+
+    private List<String> generateChunk(String originCountryId, String destinationCountryId, int chunkSize) {
+        int maxRetries = 10;
+        int attempt = 0;
+
+        while (attempt < maxRetries) {
+            List<String> candidateTrackingNumbers = new ArrayList<>(chunkSize);
+            List<GeneratedTrackingNumber> newNumbers = new ArrayList<>(chunkSize);
+            for (int i = 0; i < chunkSize; i++) {
+                String candidateTrackingNumber = trackingNumberEncoder.encode(originCountryId, nextValue(), destinationCountryId);
+                candidateTrackingNumbers.add(candidateTrackingNumber);
+                newNumbers.add(new GeneratedTrackingNumber(candidateTrackingNumber));
+            }
+
+            long persistStart = System.nanoTime();
+            try {
+                issuedTrackingNumberRecorder.recordAll(newNumbers);
+                trackingMetrics.recordPersistence(persistStart);
+                return candidateTrackingNumbers;
+            } catch (DataIntegrityViolationException e) {
+                trackingMetrics.recordPersistence(persistStart);
+                logger.warn("Collision detected in batch of {} tracking numbers (block). Retrying... (Attempt {}/{})", chunkSize, attempt + 1, maxRetries);
+                trackingMetrics.collision();
+                attempt++;
+                if (attempt < maxRetries) {
+                    trackingMetrics.retry();
+                }
+            }
+        }
+
+        trackingMetrics.exhausted();
+
+        logger.error("Failed to generate a batch of unique tracking numbers (block) after {} attempts.", maxRetries);
+        throw new RuntimeException("Failed to generate a batch of unique tracking numbers (block) after " + maxRetries + " attempts.");
+    }
+
+    long nextValue() {
+        while (true) {
+            Block block = currentBlock;
+            long value = block.next.getAndIncrement();
+            if (value < block.limit) {
+                return value;
+            }
+            synchronized (this) {
+                if (currentBlock == block) {
+                    long start = blockAllocator.reserve(SEQUENCE_NAME);
+                    currentBlock = new Block(start, start + blockAllocator.getBlockSize());
+                }
+            }
+        }
+    }
+
+    /** Values left in the current block before the next reservation round trip. */
+    long remainingInBlock() {
+        Block block = currentBlock;
+        return Math.max(0, block.limit - block.next.get());
+    }
+
+    /**
+     * Registered here rather than through {@code MeterBinder}: binders are created while the
+     * registry is, and this service depends on the registry through {@link TrackingMetrics}.
+     */
+    private void registerGauges(MeterRegistry registry) {
+        Gauge.builder("tracking.allocator.remaining", this, BlockTrackingNumberServiceImpl::remainingInBlock)
+                .tag("sequence", SEQUENCE_NAME)
+                .description("Tracking numbers left in the block reserved by this node")
+                .register(registry);
+        Gauge.builder("tracking.allocator.block.size", blockAllocator, TrackingNumberBlockAllocator::getBlockSize)
+                .description("Tracking numbers reserved per allocator round trip")
+                .register(registry);
+    }
+
+    private static final class Block {
+
+        static final Block EMPTY = new Block(0, 0);
+
+        final AtomicLong next;
+        final long limit;
+
+        Block(long start, long limit) {
+            this.next = new AtomicLong(start);
+            this.limit = limit;
+        }
+    }
+}
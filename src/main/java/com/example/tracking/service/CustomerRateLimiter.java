@@ -0,0 +1,144 @@
+package com.example.tracking.service;
+
+import com.example.tracking.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-customer token buckets for the generation endpoints, kept as one {@link AtomicLong} per
+ * customer (the generic cell rate algorithm): the bucket stores the time at which it will be full
+ * again, and taking tokens is a single compare-and-set. The buckets live in a
+ * {@link ConcurrentHashMap}, so customers only contend on their own bucket.
+ * <p>
+ * A request needs one token to be admitted and then pays for every number it generates, so a
+ * batch may leave its customer's bucket in debt. A bucket that is full again holds no state
+ * worth keeping; the eviction sweep drops those. It first marks the bucket retired with the same
+ * compare-and-set, so a request racing with the sweep either lands before the mark, and the bucket
+ * is no longer full and stays, or sees the mark and starts over with a fresh bucket.
+ */
+@Component
+public class CustomerRateLimiter implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerRateLimiter.class);
+
+    /** Marks a bucket the eviction sweep has claimed; it is about to leave the map. */
+    private static final long RETIRED = Long.MIN_VALUE;
+
+    private final boolean enabled;
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final LongSupplier clock;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+
+    @Autowired
+    public CustomerRateLimiter(@Value("${tracking.rate-limit.enabled:false}") boolean enabled,
+                               @Value("${tracking.rate-limit.permits-per-second:100}") double permitsPerSecond,
+                               @Value("${tracking.rate-limit.burst:200}") int burst) {
+        this(enabled, permitsPerSecond, burst, System::nanoTime);
+    }
+
+    CustomerRateLimiter(boolean enabled, double permitsPerSecond, int burst, LongSupplier clock) {
+        if (enabled && (permitsPerSecond <= 0 || burst < 1)) {
+            throw new IllegalArgumentException("tracking.rate-limit.permits-per-second and burst must be positive.");
+        }
+        this.enabled = enabled;
+        this.emissionIntervalNanos = enabled ? Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond)) : 0;
+        this.burstNanos = emissionIntervalNanos * burst;
+        this.clock = clock;
+        if (enabled) {
+            logger.info("CustomerRateLimiter enabled: {} numbers per second per customer, burst {}.", permitsPerSecond, burst);
+        }
+    }
+
+    /**
+     * Takes {@code permits} tokens from the customer's bucket, or throws
+     * {@link RateLimitExceededException} if the bucket is empty.
+     */
+    public void acquire(String customerId, int permits) {
+        if (!enabled) {
+            return;
+        }
+        long waitNanos = tryAcquire(customerId, permits);
+        if (waitNanos > 0) {
+            rejected.increment();
+            throw new RateLimitExceededException("Rate limit exceeded for customer " + customerId + ". Retry later.",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+        }
+    }
+
+    /**
+     * Returns 0 if the tokens were taken, otherwise how long until the next token is available.
+     */
+    long tryAcquire(String customerId, int permits) {
+        String key = customerId.toLowerCase(Locale.ROOT);
+        AtomicLong bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(clock.getAsLong()));
+        long cost = emissionIntervalNanos * permits;
+        while (true) {
+            long now = clock.getAsLong();
+            long fullAt = bucket.get();
+            if (fullAt == RETIRED) {
+                // The sweep took this bucket; charging it would be lost, so start a new one.
+                buckets.remove(key, bucket);
+                bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(clock.getAsLong()));
+                continue;
+            }
+            // fullAt - now is the time until the bucket is full again; one token must be left.
+            long base = fullAt - now < 0 ? now : fullAt;
+            long waitNanos = base - now - (burstNanos - emissionIntervalNanos);
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (bucket.compareAndSet(fullAt, base + cost)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops the buckets that have refilled completely; a new bucket starts full anyway.
+     */
+    @Scheduled(fixedDelayString = "${tracking.rate-limit.idle-eviction-ms:60000}",
+            initialDelayString = "${tracking.rate-limit.idle-eviction-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = clock.getAsLong();
+        for (Map.Entry<String, AtomicLong> entry : buckets.entrySet()) {
+            AtomicLong bucket = entry.getValue();
+            long fullAt = bucket.get();
+            if (fullAt != RETIRED && fullAt - now <= 0 && bucket.compareAndSet(fullAt, RETIRED)) {
+                buckets.remove(entry.getKey(), bucket);
+            }
+        }
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("tracking.rate-limit.buckets", buckets, ConcurrentHashMap::size)
+                .description("Customers with a partially drained token bucket")
+                .register(registry);
+        FunctionCounter.builder("tracking.rate-limit.rejected", rejected, LongAdder::sum)
+                .description("Generation requests rejected with 429 by the per-customer rate limit")
+                .register(registry);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.tracking.service;
+
+import com.example.tracking.entity.GeneratedTrackingNumber;
+import com.example.tracking.repository.TrackingNumberRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "tracking.write-behind.enabled", havingValue = "false", matchIfMissing = true)
+public class DirectIssuedTrackingNumberRecorder implements IssuedTrackingNumberRecorder {
+
+    private final TrackingNumberRepository trackingNumberRepository;
+
+    @Autowired
+    public DirectIssuedTrackingNumberRecorder(TrackingNumberRepository trackingNumberRepository) {
+        this.trackingNumberRepository = trackingNumberRepository;
+    }
+
+    @Override
+    public void record(GeneratedTrackingNumber trackingNumber) {
+        trackingNumberRepository.insert(trackingNumber);
+    }
+
+    @Override
+    public void recordAll(List<GeneratedTrackingNumber> trackingNumbers) {
+        trackingNumberRepository.insertAll(trackingNumbers);
+    }
+
+    @Override
+    public String findStored(String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return null;
+        }
+        return trackingNumberRepository.findByIdempotencyKey(idempotencyKey)
+                .map(GeneratedTrackingNumber::getTrackingNumber)
+                .orElse(null);
+    }
+}
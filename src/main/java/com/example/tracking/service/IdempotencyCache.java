@@ -0,0 +1,128 @@
+package com.example.tracking.service;
+
+import com.example.tracking.entity.GeneratedTrackingNumber;
+import com.example.tracking.repository.TrackingNumberRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Maps idempotency keys to the tracking number first issued for them. Recent keys are answered
+ * from a bounded in-memory cache; older ones from the {@code idempotency_key} column. Concurrent
+ * requests with the same key on this node wait for a single generation. The database lookup and
+ * the generation run outside the cache's atomic compute, so a slow insert never holds a map lock
+ * that unrelated keys need.
+ */
+@Component
+public class IdempotencyCache implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyCache.class);
+
+    /** Rough heap cost of one entry: 64-char key, 16-char value and the cache node around them. */
+    static final long ESTIMATED_ENTRY_BYTES = 320;
+
+    private final TrackingNumberRepository trackingNumberRepository;
+    private final Cache<String, String> cache;
+    private final ConcurrentMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IdempotencyCache(TrackingNumberRepository trackingNumberRepository,
+                            @Value("${tracking.idempotency.cache.maximum-size:100000}") long maximumSize,
+                            @Value("${tracking.idempotency.cache.ttl:PT24H}") Duration ttl) {
+        this.trackingNumberRepository = trackingNumberRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the number already issued for {@code idempotencyKey}, or the one {@code generator}
+     * issues and stores with the key.
+     */
+    public String issue(String idempotencyKey, Supplier<String> generator) {
+        String cached = cache.getIfPresent(idempotencyKey);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<String> issuing = new CompletableFuture<>();
+        CompletableFuture<String> running = inFlight.putIfAbsent(idempotencyKey, issuing);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            // A generation that finished between the cache read and putIfAbsent is already cached.
+            String trackingNumber = cache.asMap().get(idempotencyKey);
+            if (trackingNumber == null) {
+                trackingNumber = load(idempotencyKey, generator);
+                cache.put(idempotencyKey, trackingNumber);
+            }
+            issuing.complete(trackingNumber);
+            return trackingNumber;
+        } catch (RuntimeException | Error e) {
+            issuing.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(idempotencyKey, issuing);
+        }
+    }
+
+    private String load(String idempotencyKey, Supplier<String> generator) {
+        Optional<String> existing = findStored(idempotencyKey);
+        if (existing.isPresent()) {
+            logger.debug("Idempotency key {} found in the database.", idempotencyKey);
+            return existing.get();
+        }
+        try {
+            return generator.get();
+        } catch (RuntimeException e) {
+            // Another node stored the same key first, so every insert of ours violated its unique index.
+            return findStored(idempotencyKey).orElseThrow(() -> e);
+        }
+    }
+
+    private static String await(CompletableFuture<String> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private Optional<String> findStored(String idempotencyKey) {
+        return trackingNumberRepository.findByIdempotencyKey(idempotencyKey)
+                .map(GeneratedTrackingNumber::getTrackingNumber);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "tracking.idempotency");
+        Gauge.builder("tracking.idempotency.cache.memory", cache, c -> c.estimatedSize() * ESTIMATED_ENTRY_BYTES)
+                .baseUnit("bytes")
+                .description("Estimated heap held by the idempotency cache")
+                .register(registry);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.tracking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.util.Locale;
+
+/**
+ * Turns a request into the key stored in {@code idempotency_key}, or {@code null} when the request
+ * is not idempotent. Keys are SHA-256 hex digests scoped to the customer, so two customers sending
+ * the same {@code Idempotency-Key} never share a number.
+ * <ul>
+ *   <li>{@code off} - never idempotent</li>
+ *   <li>{@code header} - only requests carrying an {@code Idempotency-Key} header</li>
+ *   <li>{@code fingerprint} - the header if present, otherwise customer, creation time, route and weight</li>
+ * </ul>
+ */
+@Component
+public class IdempotencyKeyResolver {
+
+    public static final String MODE_OFF = "off";
+    public static final String MODE_HEADER = "header";
+    public static final String MODE_FINGERPRINT = "fingerprint";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(IdempotencyKeyResolver::newDigest);
+
+    private final String mode;
+
+    @Autowired
+    public IdempotencyKeyResolver(@Value("${tracking.idempotency.mode:" + MODE_HEADER + "}") String mode) {
+        if (!MODE_OFF.equals(mode) && !MODE_HEADER.equals(mode) && !MODE_FINGERPRINT.equals(mode)) {
+            throw new IllegalArgumentException("Unknown tracking.idempotency.mode: " + mode);
+        }
+        this.mode = mode;
+    }
+
+    public String resolve(String idempotencyKeyHeader, String customerId, OffsetDateTime createdAt,
+                          String originCountryId, String destinationCountryId, Double weight) {
+        if (MODE_OFF.equals(mode)) {
+            return null;
+        }
+        String customer = customerId.toLowerCase(Locale.ROOT);
+        if (idempotencyKeyHeader != null && !idempotencyKeyHeader.isEmpty()) {
+            return sha256("key\n" + customer + '\n' + idempotencyKeyHeader);
+        }
+        if (MODE_FINGERPRINT.equals(mode)) {
+            return sha256("fingerprint\n" + customer + '\n' + createdAt.toInstant() + '\n'
+                    + originCountryId.toUpperCase(Locale.ROOT) + destinationCountryId.toUpperCase(Locale.ROOT) + '\n'
+                    + weight);
+        }
+        return null;
+    }
+
+    private static String sha256(String value) {
+        byte[] digest = SHA_256.get().digest(value.getBytes(StandardCharsets.UTF_8));
+        char[] hex = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            hex[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[digest[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.tracking.service;
+
+import com.example.tracking.util.HeavyHitters;
+import com.example.tracking.util.WindowCounter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Issued tracking numbers per minute by lane (origin + destination), by {@code customer_slug} and
+ * by weight band, for the last {@code tracking.analytics.window-minutes} minutes. Recording is on
+ * the generation path, so it never touches the database: every key has a {@link WindowCounter}
+ * (striped for lanes and weight bands, which few keys share; one ring per customer, which many
+ * keys split between them), and customers also feed a {@link HeavyHitters} sketch that finds the
+ * busiest ones among any number of customers.
+ * <p>
+ * At most {@code max-lanes} lanes and {@code max-customers} customers are counted by name; later
+ * ones are counted under {@value #OTHER} until idle keys are evicted.
+ * {@link IssuanceSummaryWriter} copies completed minutes to {@code issuance_summary}.
+ */
+@Component
+public class IssuanceStats implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(IssuanceStats.class);
+
+    public static final String OTHER = "(other)";
+
+    private static final long MILLIS_PER_MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    public enum Dimension {
+        LANE("lane"), CUSTOMER("customer"), WEIGHT_BAND("weight_band");
+
+        private final String tag;
+
+        Dimension(String tag) {
+            this.tag = tag;
+        }
+
+        /** Name in {@code issuance_summary.dimension} and in metric tags. */
+        public String tag() {
+            return tag;
+        }
+    }
+
+    private final boolean enabled;
+    private final int windowMinutes;
+    private final int stripes;
+    private final int maxLanes;
+    private final int maxCustomers;
+    private final double[] weightBandLimits;
+    private final String[] weightBandNames;
+    private final int topK;
+    private final int sketchWidth;
+    private final int sketchDepth;
+    private final LongSupplier clock;
+
+    private final WindowCounter total;
+    private final WindowCounter[] weightBands;
+    private final ConcurrentHashMap<String, WindowCounter> lanes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, WindowCounter> customers = new ConcurrentHashMap<>();
+    private final LongAdder laneOverflow = new LongAdder();
+    private final LongAdder customerOverflow = new LongAdder();
+
+    private volatile HeavyHitters heavyHitters;
+    private volatile long heavyHittersSince;
+
+    @Autowired
+    public IssuanceStats(@Value("${tracking.analytics.enabled:true}") boolean enabled,
+                         @Value("${tracking.analytics.window-minutes:60}") int windowMinutes,
+                         @Value("${tracking.analytics.stripes:0}") int stripes,
+                         @Value("${tracking.analytics.max-lanes:4096}") int maxLanes,
+                         @Value("${tracking.analytics.max-customers:10000}") int maxCustomers,
+                         @Value("${tracking.analytics.weight-bands:0.5,1,2,5,10,30}") double[] weightBandLimits,
+                         @Value("${tracking.analytics.top-k:20}") int topK,
+                         @Value("${tracking.analytics.sketch-width:4096}") int sketchWidth,
+                         @Value("${tracking.analytics.sketch-depth:4}") int sketchDepth) {
+        this(enabled, windowMinutes, stripes, maxLanes, maxCustomers, weightBandLimits, topK, sketchWidth, sketchDepth,
+                System::currentTimeMillis);
+    }
+
+    IssuanceStats(boolean enabled, int windowMinutes, int stripes, int maxLanes, int maxCustomers, double[] weightBandLimits,
+                  int topK, int sketchWidth, int sketchDepth, LongSupplier clock) {
+        if (windowMinutes < 2) {
+            throw new IllegalArgumentException("tracking.analytics.window-minutes must be at least 2.");
+        }
+        if (maxLanes < 1 || maxCustomers < 1) {
+            throw new IllegalArgumentException("tracking.analytics.max-lanes and max-customers must be positive.");
+        }
+        for (int i = 1; i < weightBandLimits.length; i++) {
+            if (!(weightBandLimits[i] > weightBandLimits[i - 1])) {
+                throw new IllegalArgumentException("tracking.analytics.weight-bands must be in ascending order.");
+            }
+        }
+        this.enabled = enabled;
+        this.windowMinutes = windowMinutes;
+        this.stripes = stripeCount(stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors());
+        this.maxLanes = maxLanes;
+        this.maxCustomers = maxCustomers;
+        this.weightBandLimits = weightBandLimits.clone();
+        this.weightBandNames = weightBandNames(weightBandLimits);
+        this.topK = topK;
+        this.sketchWidth = sketchWidth;
+        this.sketchDepth = sketchDepth;
+        this.clock = clock;
+        this.total = new WindowCounter(windowMinutes, this.stripes);
+        this.weightBands = new WindowCounter[weightBandNames.length];
+        for (int i = 0; i < weightBands.length; i++) {
+            weightBands[i] = new WindowCounter(windowMinutes, this.stripes);
+        }
+        this.heavyHitters = new HeavyHitters(topK, sketchWidth, sketchDepth);
+        this.heavyHittersSince = clock.getAsLong();
+        if (enabled) {
+            logger.info("IssuanceStats enabled: {} minute window, {} stripes, weight bands {}.",
+                    windowMinutes, this.stripes, Arrays.toString(weightBandNames));
+        }
+    }
+
+    private static int stripeCount(int requested) {
+        int count = 1;
+        while (count < requested && count < (1 << 16)) {
+            count <<= 1;
+        }
+        return count;
+    }
+
+    private static String[] weightBandNames(double[] limits) {
+        String[] names = new String[limits.length + 1];
+        String lower = "0";
+        for (int i = 0; i < limits.length; i++) {
+            String upper = BigDecimal.valueOf(limits[i]).stripTrailingZeros().toPlainString();
+            names[i] = lower + "-" + upper;
+            lower = upper;
+        }
+        names[limits.length] = lower + "+";
+        return names;
+    }
+
+    /**
+     * Counts {@code count} numbers issued now for the lane, customer and weight of a request.
+     */
+    public void record(String originCountryId, String destinationCountryId, String customerSlug, double weight, int count) {
+        if (!enabled) {
+            return;
+        }
+        long minute = clock.getAsLong() / MILLIS_PER_MINUTE;
+        total.add(minute, count);
+        counter(lanes, TrackingNumberPool.laneKey(originCountryId, destinationCountryId), maxLanes, stripes, laneOverflow)
+                .add(minute, count);
+        counter(customers, customerSlug, maxCustomers, 1, customerOverflow).add(minute, count);
+        weightBands[weightBand(weight)].add(minute, count);
+        heavyHitters.add(customerSlug, count);
+    }
+
+    private WindowCounter counter(ConcurrentHashMap<String, WindowCounter> counters, String key, int max, int stripes,
+                                  LongAdder overflow) {
+        WindowCounter counter = counters.get(key);
+        if (counter != null) {
+            return counter;
+        }
+        if (counters.size() >= max) {
+            overflow.increment();
+            key = OTHER;
+        }
+        return counters.computeIfAbsent(key, ignored -> new WindowCounter(windowMinutes, stripes));
+    }
+
+    private int weightBand(double weight) {
+        int band = 0;
+        while (band < weightBandLimits.length && weight > weightBandLimits[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Current minute, in minutes since the epoch. */
+    public long currentMinute() {
+        return clock.getAsLong() / MILLIS_PER_MINUTE;
+    }
+
+    public int windowMinutes() {
+        return windowMinutes;
+    }
+
+    /** Numbers issued in the minutes {@code from} to {@code to}, both included. */
+    public long total(long from, long to) {
+        return total.sum(from, to);
+    }
+
+    /**
+     * Numbers issued per key of {@code dimension} in the minutes {@code from} to {@code to}, both
+     * included. Keys without any are left out; weight bands come in ascending order.
+     */
+    public Map<String, Long> counts(Dimension dimension, long from, long to) {
+        if (dimension == Dimension.WEIGHT_BAND) {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (int i = 0; i < weightBands.length; i++) {
+                long count = weightBands[i].sum(from, to);
+                if (count > 0) {
+                    counts.put(weightBandNames[i], count);
+                }
+            }
+            return counts;
+        }
+        Map<String, Long> counts = new HashMap<>();
+        (dimension == Dimension.LANE ? lanes : customers).forEach((key, counter) -> {
+            long count = counter.sum(from, to);
+            if (count > 0) {
+                counts.put(key, count);
+            }
+        });
+        return counts;
+    }
+
+    /** Busiest customers since {@link #heavyHittersSince()}, busiest first, with estimated counts. */
+    public List<HeavyHitters.Entry> heavyHitters() {
+        return heavyHitters.top();
+    }
+
+    /** Epoch milliseconds at which the current heavy hitter period started. */
+    public long heavyHittersSince() {
+        return heavyHittersSince;
+    }
+
+    /**
+     * Starts a new heavy hitter period, so customers that were busy earlier make way for the ones
+     * that are busy now.
+     */
+    @Scheduled(fixedDelayString = "${tracking.analytics.top-k-period-ms:3600000}",
+            initialDelayString = "${tracking.analytics.top-k-period-ms:3600000}")
+    public void resetHeavyHitters() {
+        heavyHitters = new HeavyHitters(topK, sketchWidth, sketchDepth);
+        heavyHittersSince = clock.getAsLong();
+    }
+
+    /**
+     * Drops lanes and customers with nothing issued in the whole window; their minutes have been
+     * written to the summary table by then. A number recorded for a key while it is being evicted
+     * can be lost.
+     */
+    @Scheduled(fixedDelayString = "${tracking.analytics.idle-eviction-ms:300000}",
+            initialDelayString = "${tracking.analytics.idle-eviction-ms:300000}")
+    public void evictIdleKeys() {
+        long minute = currentMinute();
+        lanes.values().removeIf(counter -> counter.isIdle(minute));
+        customers.values().removeIf(counter -> counter.isIdle(minute));
+    }
+
+    int keyCount(Dimension dimension) {
+        return dimension == Dimension.LANE ? lanes.size() : dimension == Dimension.CUSTOMER ? customers.size() : weightBands.length;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("tracking.analytics.keys", lanes, ConcurrentHashMap::size)
+                .tag("dimension", Dimension.LANE.tag())
+                .description("Keys with issuance counters in memory")
+                .register(registry);
+        Gauge.builder("tracking.analytics.keys", customers, ConcurrentHashMap::size)
+                .tag("dimension", Dimension.CUSTOMER.tag())
+                .description("Keys with issuance counters in memory")
+                .register(registry);
+        FunctionCounter.builder("tracking.analytics.overflow", laneOverflow, LongAdder::sum)
+                .tag("dimension", Dimension.LANE.tag())
+                .description("Requests counted under " + OTHER + " because max keys were tracked")
+                .register(registry);
+        FunctionCounter.builder("tracking.analytics.overflow", customerOverflow, LongAdder::sum)
+                .tag("dimension", Dimension.CUSTOMER.tag())
+                .description("Requests counted under " + OTHER + " because max keys were tracked")
+                .register(registry);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.tracking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Copies completed minutes of {@link IssuanceStats} to {@code issuance_summary}, one row per
+ * minute and key with numbers issued, in JDBC batches of {@code tracking.analytics.flush-batch-size}
+ * within one transaction per flush. Rows are merged by adding, so instances sharing the database
+ * sum up. A flush that fails is retried with the next one, as long as its minutes are still in the
+ * window.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.analytics.enabled", havingValue = "true", matchIfMissing = true)
+public class IssuanceSummaryWriter implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(IssuanceSummaryWriter.class);
+
+    private static final long MILLIS_PER_MINUTE = TimeUnit.MINUTES.toMillis(1);
+    /** A minute is written this long after it ends, so requests that started in it are counted. */
+    private static final long GRACE_MS = 5000;
+
+    private static final String MERGE_SQL = "MERGE INTO issuance_summary s USING (SELECT CAST(? AS BIGINT) AS minute_start, "
+            + "CAST(? AS VARCHAR(16)) AS dimension, CAST(? AS VARCHAR(255)) AS dimension_key, CAST(? AS BIGINT) AS issued) v "
+            + "ON s.minute_start = v.minute_start AND s.dimension = v.dimension AND s.dimension_key = v.dimension_key "
+            + "WHEN MATCHED THEN UPDATE SET issued = s.issued + v.issued "
+            + "WHEN NOT MATCHED THEN INSERT (minute_start, dimension, dimension_key, issued) "
+            + "VALUES (v.minute_start, v.dimension, v.dimension_key, v.issued)";
+
+    private final IssuanceStats stats;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final LongSupplier clock;
+
+    private final Timer flushTimer;
+    private final Counter written;
+
+    /** Last minute written; minutes before the application started have nothing to write. */
+    private long writtenThrough;
+
+    @Autowired
+    public IssuanceSummaryWriter(IssuanceStats stats,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry registry,
+                                 @Value("${tracking.analytics.flush-interval-ms:60000}") long flushIntervalMs,
+                                 @Value("${tracking.analytics.flush-batch-size:500}") int batchSize) {
+        this(stats, jdbcTemplate, transactionManager, registry, flushIntervalMs, batchSize, System::currentTimeMillis);
+    }
+
+    IssuanceSummaryWriter(IssuanceStats stats, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                          MeterRegistry registry, long flushIntervalMs, int batchSize, LongSupplier clock) {
+        if (flushIntervalMs + GRACE_MS >= (stats.windowMinutes() - 1) * MILLIS_PER_MINUTE) {
+            throw new IllegalArgumentException("tracking.analytics.flush-interval-ms must be well under window-minutes, "
+                    + "or minutes leave the window before they are written.");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("tracking.analytics.flush-batch-size must be at least 1.");
+        }
+        this.stats = stats;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.clock = clock;
+        this.writtenThrough = clock.getAsLong() / MILLIS_PER_MINUTE - 1;
+        this.flushTimer = Timer.builder("tracking.analytics.flush")
+                .description("Time taken to write completed minutes to issuance_summary")
+                .register(registry);
+        this.written = Counter.builder("tracking.analytics.flushed")
+                .description("Rows merged into issuance_summary")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${tracking.analytics.flush-interval-ms:60000}",
+            initialDelayString = "${tracking.analytics.flush-interval-ms:60000}")
+    public void flush() {
+        try {
+            writeThrough((clock.getAsLong() - GRACE_MS) / MILLIS_PER_MINUTE - 1);
+        } catch (DataAccessException e) {
+            logger.warn("Failed to write issuance_summary; retrying with the next flush.", e);
+        }
+    }
+
+    /**
+     * Writes the minutes after the last one written up to {@code last}, and returns the number of
+     * rows merged.
+     */
+    synchronized int writeThrough(long last) {
+        long first = writtenThrough + 1;
+        long oldestInWindow = stats.currentMinute() - stats.windowMinutes() + 1;
+        if (first < oldestInWindow) {
+            logger.warn("Minutes {} to {} left the issuance window before they were written to issuance_summary.",
+                    first, oldestInWindow - 1);
+            first = oldestInWindow;
+        }
+        if (first > last) {
+            return 0;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (long minute = first; minute <= last; minute++) {
+            for (IssuanceStats.Dimension dimension : IssuanceStats.Dimension.values()) {
+                for (Map.Entry<String, Long> count : stats.counts(dimension, minute, minute).entrySet()) {
+                    rows.add(new Object[]{minute * MILLIS_PER_MINUTE, dimension.tag(), count.getKey(), count.getValue()});
+                }
+            }
+        }
+        if (!rows.isEmpty()) {
+            flushTimer.record(() -> transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(MERGE_SQL, rows, batchSize, (statement, row) -> {
+                        statement.setLong(1, (Long) row[0]);
+                        statement.setString(2, (String) row[1]);
+                        statement.setString(3, (String) row[2]);
+                        statement.setLong(4, (Long) row[3]);
+                    })));
+            written.increment(rows.size());
+        }
+        writtenThrough = last;
+        return rows.size();
+    }
+
+    /** Writes what the window holds, the current minute included, before the application stops. */
+    @Override
+    public void destroy() {
+        try {
+            writeThrough(stats.currentMinute());
+        } catch (DataAccessException e) {
+            logger.warn("Failed to write issuance_summary on shutdown.", e);
+        }
+    }
+}
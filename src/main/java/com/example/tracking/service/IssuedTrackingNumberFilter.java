@@ -0,0 +1,139 @@
+package com.example.tracking.service;
+
+import com.example.tracking.util.BloomFilter;
+import com.example.tracking.util.PackedTrackingNumber;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.CharBuffer;
+import java.sql.PreparedStatement;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory membership filter over issued tracking numbers, warmed from
+ * {@code generated_tracking_numbers} at startup. A candidate the filter has never seen is
+ * definitely new and can be inserted without an existence check; only "maybe present"
+ * candidates need a database round trip.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.generator.strategy", havingValue = "random", matchIfMissing = true)
+public class IssuedTrackingNumberFilter implements SmartInitializingSingleton, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(IssuedTrackingNumberFilter.class);
+
+    private static final String WARM_UP_SQL = "SELECT tracking_number FROM generated_tracking_numbers";
+    private static final int WARM_UP_FETCH_SIZE = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final BloomFilter bloomFilter;
+
+    private final LongAdder definitelyNew = new LongAdder();
+    private final LongAdder maybePresent = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    @Autowired
+    public IssuedTrackingNumberFilter(JdbcTemplate jdbcTemplate,
+                                      @Value("${tracking.filter.enabled:true}") boolean enabled,
+                                      @Value("${tracking.filter.expected-insertions:10000000}") long expectedInsertions,
+                                      @Value("${tracking.filter.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.bloomFilter = enabled ? BloomFilter.create(expectedInsertions, falsePositiveRate) : null;
+        if (enabled) {
+            logger.info("IssuedTrackingNumberFilter sized for {} numbers at {} false positive rate: {} bytes, {} hash functions.",
+                    expectedInsertions, falsePositiveRate, bloomFilter.memoryBytes(), bloomFilter.hashFunctions());
+        } else {
+            logger.info("IssuedTrackingNumberFilter disabled. Every candidate will be checked against the database.");
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        // Rows hold the packed form; unpack into one reused buffer instead of a String per row.
+        char[] trackingNumber = new char[TrackingNumberEncoder.LENGTH];
+        CharBuffer view = CharBuffer.wrap(trackingNumber);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(WARM_UP_SQL);
+            statement.setFetchSize(WARM_UP_FETCH_SIZE);
+            return statement;
+        }, resultSet -> {
+            PackedTrackingNumber.unpack(resultSet.getBytes(1), trackingNumber);
+            bloomFilter.put(view);
+        });
+        logger.info("IssuedTrackingNumberFilter warmed with {} issued numbers in {} ms.",
+                bloomFilter.insertions(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Returns {@code false} only if the number has definitely never been issued.
+     */
+    public boolean mightContain(String trackingNumber) {
+        if (enabled && !bloomFilter.mightContain(trackingNumber)) {
+            definitelyNew.increment();
+            return false;
+        }
+        maybePresent.increment();
+        return true;
+    }
+
+    /**
+     * Same answer as {@link #mightContain}, without counting towards {@code tracking.filter.checks},
+     * for checks off the request path such as pool refills.
+     */
+    public boolean probe(String trackingNumber) {
+        return !enabled || bloomFilter.mightContain(trackingNumber);
+    }
+
+    public void put(String trackingNumber) {
+        if (enabled) {
+            bloomFilter.put(trackingNumber);
+        }
+    }
+
+    /** Records that a "maybe present" answer turned out not to be in the database. */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("tracking.filter.checks", definitelyNew, LongAdder::sum)
+                .tag("result", "definitely_new")
+                .description("Candidate tracking numbers checked against the issued-number filter")
+                .register(registry);
+        FunctionCounter.builder("tracking.filter.checks", maybePresent, LongAdder::sum)
+                .tag("result", "maybe_present")
+                .description("Candidate tracking numbers checked against the issued-number filter")
+                .register(registry);
+        FunctionCounter.builder("tracking.filter.false.positives", falsePositives, LongAdder::sum)
+                .description("Maybe-present answers that were not in the database")
+                .register(registry);
+        if (enabled) {
+            Gauge.builder("tracking.filter.memory", bloomFilter, BloomFilter::memoryBytes)
+                    .baseUnit("bytes")
+                    .description("Memory held by the issued-number filter bit array")
+                    .register(registry);
+            Gauge.builder("tracking.filter.insertions", bloomFilter, BloomFilter::insertions)
+                    .description("Approximate number of issued numbers held by the filter")
+                    .register(registry);
+            Gauge.builder("tracking.filter.expected.false.positive.rate", bloomFilter, BloomFilter::expectedFalsePositiveRate)
+                    .description("False positive rate expected at the current fill level")
+                    .register(registry);
+        }
+    }
+}
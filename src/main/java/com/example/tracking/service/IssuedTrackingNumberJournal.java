@@ -0,0 +1,292 @@
+package com.example.tracking.service;
+
+import com.example.tracking.entity.GeneratedTrackingNumber;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only journal of issued numbers that have not reached the database yet. Records are
+ * written as {@code TRACKINGNUMBER,epochMillis[,idempotencyKey]} lines into numbered segment files; a segment is
+ * deleted once it has been rotated out and every record in it has been flushed. Whatever is left
+ * on disk after a crash is returned by {@link #replay(List)} on the next start.
+ * <p>
+ * With fsync on, appends are group committed: each caller writes its records under the journal
+ * lock, then waits outside it until a force covers them. One waiter at a time forces the channel
+ * for everything appended so far, so callers that arrive during a force share the next one.
+ */
+class IssuedTrackingNumberJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "issued-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final int RECORD_BYTES = 32;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final boolean fsync;
+    private final Sync sync;
+    private final List<Path> recovered;
+    private final Object syncLock = new Object();
+    private final AtomicLong syncs = new AtomicLong();
+
+    private Segment active;
+    private long nextSegmentId;
+    /** Bytes appended across all segments; guarded by {@code this}. */
+    private long appended;
+    /** Bytes known to be on disk, and whether a force is running; guarded by {@code syncLock}. */
+    private long synced;
+    private boolean syncing;
+
+    IssuedTrackingNumberJournal(Path directory, long segmentBytes, boolean fsync) throws IOException {
+        this(directory, segmentBytes, fsync, channel -> channel.force(false));
+    }
+
+    IssuedTrackingNumberJournal(Path directory, long segmentBytes, boolean fsync, Sync sync) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+        this.sync = sync;
+        this.recovered = segmentFiles();
+        for (Path segment : recovered) {
+            nextSegmentId = Math.max(nextSegmentId, segmentId(segment) + 1);
+        }
+    }
+
+    /**
+     * Reads every record left by a previous run. Call {@link #deleteReplayed(List)} with the
+     * returned files once the records are safely in the database.
+     */
+    List<Path> replay(List<GeneratedTrackingNumber> into) throws IOException {
+        for (Path segment : recovered) {
+            try (BufferedReader reader = Files.newBufferedReader(segment, StandardCharsets.US_ASCII)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int separator = line.indexOf(',');
+                    if (separator < 0) {
+                        // Torn write at the moment of a crash: the record was never acknowledged.
+                        continue;
+                    }
+                    int keySeparator = line.indexOf(',', separator + 1);
+                    try {
+                        long epochMillis = Long.parseLong(keySeparator < 0
+                                ? line.substring(separator + 1)
+                                : line.substring(separator + 1, keySeparator));
+                        GeneratedTrackingNumber record = new GeneratedTrackingNumber();
+                        record.setTrackingNumber(line.substring(0, separator));
+                        if (keySeparator >= 0) {
+                            record.setIdempotencyKey(line.substring(keySeparator + 1));
+                        }
+                        record.setCreatedAt(OffsetDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()));
+                        into.add(record);
+                    } catch (NumberFormatException e) {
+                        // Torn write, as above.
+                    }
+                }
+            }
+        }
+        return recovered;
+    }
+
+    void deleteReplayed(List<Path> segments) throws IOException {
+        for (Path segment : segments) {
+            Files.deleteIfExists(segment);
+        }
+    }
+
+    /**
+     * Writes {@code records} to the active segment and, with fsync on, returns once they are on disk.
+     */
+    Segment append(List<GeneratedTrackingNumber> records) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(records.size() * RECORD_BYTES);
+        for (GeneratedTrackingNumber record : records) {
+            String line = record.getIdempotencyKey() == null
+                    ? record.getTrackingNumber() + ',' + record.getCreatedAt().toInstant().toEpochMilli() + '\n'
+                    : record.getTrackingNumber() + ',' + record.getCreatedAt().toInstant().toEpochMilli() + ',' + record.getIdempotencyKey() + '\n';
+            if (buffer.remaining() < line.length()) {
+                buffer = grow(buffer, line.length());
+            }
+            buffer.put(line.getBytes(StandardCharsets.US_ASCII));
+        }
+        buffer.flip();
+
+        Segment segment;
+        long position;
+        synchronized (this) {
+            if (active == null || active.size >= segmentBytes) {
+                rotate();
+            }
+            int length = buffer.remaining();
+            while (buffer.hasRemaining()) {
+                active.channel.write(buffer);
+            }
+            active.size += length;
+            appended += length;
+            active.unflushed.addAndGet(records.size());
+            segment = active;
+            position = appended;
+        }
+        if (fsync) {
+            awaitSynced(position);
+        }
+        return segment;
+    }
+
+    /**
+     * Waits until a force covers {@code position}. The first waiter to find no force running
+     * becomes the syncer for everything appended up to that moment; the rest wait for it.
+     */
+    private void awaitSynced(long position) throws IOException {
+        synchronized (syncLock) {
+            while (synced < position && syncing) {
+                try {
+                    syncLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for the journal to be synced.");
+                }
+            }
+            if (synced >= position) {
+                return;
+            }
+            syncing = true;
+        }
+
+        long target;
+        FileChannel channel;
+        synchronized (this) {
+            target = appended;
+            channel = active == null ? null : active.channel;
+        }
+        boolean forced = false;
+        try {
+            if (channel != null) {
+                sync.force(channel);
+                syncs.incrementAndGet();
+            }
+            forced = true;
+        } catch (ClosedChannelException e) {
+            // Rotated or closed meanwhile; retire() forced it first and advanced synced.
+            forced = true;
+        } finally {
+            synchronized (syncLock) {
+                syncing = false;
+                if (forced) {
+                    synced = Math.max(synced, target);
+                }
+                syncLock.notifyAll();
+            }
+        }
+    }
+
+    long syncCount() {
+        return syncs.get();
+    }
+
+    synchronized void flushed(Segment segment, int count) throws IOException {
+        if (segment.unflushed.addAndGet(-count) == 0 && segment != active) {
+            delete(segment);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (active != null) {
+            retire(active);
+            if (active.unflushed.get() == 0) {
+                Files.deleteIfExists(active.path);
+            }
+            active = null;
+        }
+    }
+
+    private void rotate() throws IOException {
+        Segment previous = active;
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSegmentId++, SEGMENT_SUFFIX));
+        active = new Segment(path, FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+        if (previous != null) {
+            retire(previous);
+            if (previous.unflushed.get() == 0) {
+                Files.deleteIfExists(previous.path);
+            }
+        }
+    }
+
+    /**
+     * Closes a segment that takes no more appends. With fsync on it is forced first, so callers
+     * still waiting on it are released instead of finding the channel closed.
+     */
+    private void retire(Segment segment) throws IOException {
+        if (fsync) {
+            sync.force(segment.channel);
+            syncs.incrementAndGet();
+            synchronized (syncLock) {
+                synced = Math.max(synced, appended);
+                syncLock.notifyAll();
+            }
+        }
+        segment.channel.close();
+    }
+
+    private void delete(Segment segment) throws IOException {
+        Files.deleteIfExists(segment.path);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path segment : stream) {
+                segments.add(segment);
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static long segmentId(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int needed) {
+        ByteBuffer larger = ByteBuffer.allocate((buffer.capacity() + needed) * 2);
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+    interface Sync {
+
+        void force(FileChannel channel) throws IOException;
+    }
+
+    static final class Segment {
+
+        final Path path;
+        final FileChannel channel;
+        final AtomicInteger unflushed = new AtomicInteger();
+        long size;
+
+        Segment(Path path, FileChannel channel) {
+            this.path = path;
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.tracking.service;
+
+import com.example.tracking.entity.GeneratedTrackingNumber;
+
+import java.util.List;
+
+/**
+ * Records numbers whose uniqueness the allocator already guarantees. Implementations may persist
+ * synchronously, in which case a duplicate surfaces as a {@code DataIntegrityViolationException},
+ * or defer the write.
+ */
+public interface IssuedTrackingNumberRecorder {
+
+    void record(GeneratedTrackingNumber trackingNumber);
+
+    void recordAll(List<GeneratedTrackingNumber> trackingNumbers);
+
+    /**
+     * Returns the number recorded for {@code idempotencyKey}, or {@code null} when the key is
+     * {@code null} or nothing is recorded for it. Tells a repeated key apart from a repeated number
+     * after a {@code DataIntegrityViolationException}.
+     */
+    String findStored(String idempotencyKey);
+}
@@ -0,0 +1,307 @@
+package com.example.tracking.service;
+
+import com.example.tracking.entity.GeneratedTrackingNumber;
+import com.example.tracking.util.FeistelPermutation;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Treats every origin/destination lane as its own number space. Each lane reserves blocks from
+ * {@link TrackingNumberBlockAllocator} under its own sequence name and spreads them over
+ * cache-line padded stripes, so threads generating for the same hot lane mostly increment
+ * different counters. Allocated values go through a keyed {@link FeistelPermutation} before
+ * encoding: distinct values stay distinct, but consecutive numbers do not look sequential.
+ * <p>
+ * Lanes nobody used during a whole {@code idle-eviction-ms} period are dropped. Their unissued
+ * block remainders are abandoned, never handed out again, because the lane reserves fresh blocks
+ * when it comes back.
+ */
+@Service
+@ConditionalOnProperty(name = "tracking.generator.strategy", havingValue = "lane")
+public class LaneTrackingNumberServiceImpl implements TrackingNumberService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LaneTrackingNumberServiceImpl.class);
+
+    static final String SEQUENCE_PREFIX = "lane:";
+
+    private final IssuedTrackingNumberRecorder issuedTrackingNumberRecorder;
+    private final TrackingNumberBlockAllocator blockAllocator;
+    private final TrackingNumberEncoder trackingNumberEncoder;
+    private final TrackingMetrics trackingMetrics;
+    private final FeistelPermutation permutation;
+    private final int stripes;
+    private final int batchChunkSize;
+
+    private final ConcurrentMap<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public LaneTrackingNumberServiceImpl(IssuedTrackingNumberRecorder issuedTrackingNumberRecorder,
+                                         TrackingNumberBlockAllocator blockAllocator,
+                                         TrackingNumberEncoder trackingNumberEncoder,
+                                         TrackingMetrics trackingMetrics,
+                                         MeterRegistry registry,
+                                         @Value("${tracking.generator.lane.stripes:0}") int stripes,
+                                         @Value("${tracking.generator.lane.permutation-key:7046029254386353131}") long permutationKey,
+                                         @Value("${tracking.batch.chunk-size:500}") int batchChunkSize) {
+        this.issuedTrackingNumberRecorder = issuedTrackingNumberRecorder;
+        this.blockAllocator = blockAllocator;
+        this.trackingNumberEncoder = trackingNumberEncoder;
+        this.trackingMetrics = trackingMetrics;
+        this.permutation = new FeistelPermutation(TrackingNumberEncoder.HALF_VALUE, permutationKey);
+        this.stripes = stripeCount(stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors());
+        this.batchChunkSize = batchChunkSize;
+        registerMeters(registry);
+        logger.info("TrackingNumberService initialized with lane allocation strategy ({} stripes per lane, block size {}).",
+                this.stripes, blockAllocator.getBlockSize());
+    }
+
+    private static int stripeCount(int requested) {
+        int count = 1;
+        while (count < requested && count < (1 << 16)) {
+            count <<= 1;
+        }
+        return count;
+    }
+
+    @Override
+    public String generateTrackingNumber(String originCountryId, String destinationCountryId, String idempotencyKey) {
+        logger.debug("Attempting to generate tracking number for origin: {}, destination: {}", originCountryId, destinationCountryId);
+
+        long start = System.nanoTime();
+        String candidateTrackingNumber;
+        int maxRetries = 10;
+        int attempt = 0;
+
+        while (attempt < maxRetries) {
+            candidateTrackingNumber = allocate(originCountryId, destinationCountryId);
+
+            long persistStart = System.nanoTime();
+            try {
+                issuedTrackingNumberRecorder.record(new GeneratedTrackingNumber(candidateTrackingNumber, idempotencyKey));
+                trackingMetrics.recordPersistence(persistStart);
+                logger.debug("Generated unique tracking number (lane): {}", candidateTrackingNumber);
+                trackingMetrics.recordGeneration(start);
+                return candidateTrackingNumber;
+            } catch (DataIntegrityViolationException e) {
+                trackingMetrics.recordPersistence(persistStart);
+                // A stored idempotency key is answered with its number; retrying would only fail again.
+                String storedTrackingNumber = issuedTrackingNumberRecorder.findStored(idempotencyKey);
+                if (storedTrackingNumber != null) {
+                    logger.debug("Idempotency key {} was already stored with tracking number {}.", idempotencyKey, storedTrackingNumber);
+                    return storedTrackingNumber;
+                }
+                // Otherwise only possible when the table also holds numbers issued by another strategy.
+                logger.warn("Collision detected for tracking number (lane): {}. Retrying... (Attempt {}/{})", candidateTrackingNumber, attempt + 1, maxRetries);
+                trackingMetrics.collision();
+                attempt++;
+                if (attempt < maxRetries) {
+                    trackingMetrics.retry();
+                }
+            }
+        }
+
+        trackingMetrics.exhausted();
+        logger.error("Failed to generate a unique tracking number (lane) after {} attempts.", maxRetries);
+        throw new RuntimeException("Failed to generate a unique tracking number (lane) after " + maxRetries + " attempts.");
+    }
+
+    @Override
+    public List<String> generateTrackingNumbers(String originCountryId, String destinationCountryId, int count) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Attempting to generate {} tracking numbers for origin: {}, destination: {}", count, originCountryId, destinationCountryId);
+        }
+
+        long start = System.nanoTime();
+        List<String> trackingNumbers = new ArrayList<>(count);
+        while (trackingNumbers.size() < count) {
+            int chunkSize = Math.min(batchChunkSize, count - trackingNumbers.size());
+            trackingNumbers.addAll(generateChunk(originCountryId, destinationCountryId, chunkSize));
+        }
+
+        trackingMetrics.recordBatchGeneration(start);
+        logger.debug("Generated {} unique tracking numbers (lane).", count);
+        return trackingNumbers;
+    }
+
+    private List<String> generateChunk(String originCountryId, String destinationCountryId, int chunkSize) {
+        int maxRetries = 10;
+        int attempt = 0;
+
+        while (attempt < maxRetries) {
+            List<String> candidateTrackingNumbers = new ArrayList<>(chunkSize);
+            List<GeneratedTrackingNumber> newNumbers = new ArrayList<>(chunkSize);
+            for (int i = 0; i < chunkSize; i++) {
+                String candidateTrackingNumber = allocate(originCountryId, destinationCountryId);
+                candidateTrackingNumbers.add(candidateTrackingNumber);
+                newNumbers.add(new GeneratedTrackingNumber(candidateTrackingNumber));
+            }
+
+            long persistStart = System.nanoTime();
+            try {
+                issuedTrackingNumberRecorder.recordAll(newNumbers);
+                trackingMetrics.recordPersistence(persistStart);
+                return candidateTrackingNumbers;
+            } catch (DataIntegrityViolationException e) {
+                trackingMetrics.recordPersistence(persistStart);
+                logger.warn("Collision detected in batch of {} tracking numbers (lane). Retrying... (Attempt {}/{})", chunkSize, attempt + 1, maxRetries);
+                trackingMetrics.collision();
+                attempt++;
+                if (attempt < maxRetries) {
+                    trackingMetrics.retry();
+                }
+            }
+        }
+
+        trackingMetrics.exhausted();
+        logger.error("Failed to generate a batch of unique tracking numbers (lane) after {} attempts.", maxRetries);
+        throw new RuntimeException("Failed to generate a batch of unique tracking numbers (lane) after " + maxRetries + " attempts.");
+    }
+
+    /**
+     * Takes the next number of the lane without recording it.
+     */
+    public String allocate(String originCountryId, String destinationCountryId) {
+        String laneKey = laneKey(originCountryId, destinationCountryId);
+        Lane lane = lanes.get(laneKey);
+        if (lane == null) {
+            lane = lanes.computeIfAbsent(laneKey, key -> new Lane(SEQUENCE_PREFIX + key, stripes));
+        }
+        return trackingNumberEncoder.encode(originCountryId, permutation.permute(lane.nextValue(blockAllocator)), destinationCountryId);
+    }
+
+    private static String laneKey(String originCountryId, String destinationCountryId) {
+        return (originCountryId + destinationCountryId).toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Drops lanes that were not used since the previous run.
+     */
+    @Scheduled(fixedDelayString = "${tracking.generator.lane.idle-eviction-ms:300000}")
+    public void evictIdleLanes() {
+        Iterator<Lane> iterator = lanes.values().iterator();
+        while (iterator.hasNext()) {
+            Lane lane = iterator.next();
+            if (lane.used) {
+                lane.used = false;
+            } else {
+                iterator.remove();
+                evictions.increment();
+                logger.debug("Evicted idle lane sequence [{}].", lane.sequenceName);
+            }
+        }
+    }
+
+    int activeLanes() {
+        return lanes.size();
+    }
+
+    /** Not a {@code MeterBinder}, for the same reason as {@link BlockTrackingNumberServiceImpl}. */
+    private void registerMeters(MeterRegistry registry) {
+        Gauge.builder("tracking.lanes.active", lanes, ConcurrentMap::size)
+                .description("Lanes holding allocator state in memory")
+                .register(registry);
+        FunctionCounter.builder("tracking.lanes.evictions", evictions, LongAdder::sum)
+                .description("Idle lanes dropped from memory")
+                .register(registry);
+    }
+
+    static final class Lane {
+
+        final String sequenceName;
+        final Stripe[] stripes;
+        final int mask;
+
+        /** Cleared by eviction and set again on use; only written when it changes, to keep the line shared. */
+        volatile boolean used = true;
+
+        Lane(String sequenceName, int stripeCount) {
+            this.sequenceName = sequenceName;
+            this.stripes = new Stripe[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new Stripe();
+            }
+            this.mask = stripeCount - 1;
+        }
+
+        long nextValue(TrackingNumberBlockAllocator blockAllocator) {
+            if (!used) {
+                used = true;
+            }
+            Stripe stripe = stripes[(int) Thread.currentThread().getId() & mask];
+            while (true) {
+                Block block = stripe.block;
+                long value = block.getAndIncrement();
+                if (value < block.limit) {
+                    return value;
+                }
+                synchronized (stripe) {
+                    if (stripe.block == block) {
+                        long start = blockAllocator.reserve(sequenceName);
+                        stripe.block = new Block(start, start + blockAllocator.getBlockSize());
+                    }
+                }
+            }
+        }
+    }
+
+    static final class Stripe {
+
+        volatile Block block = Block.EMPTY;
+    }
+
+    abstract static class BlockPadding {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    abstract static class BlockCounter extends BlockPadding {
+
+        private static final AtomicLongFieldUpdater<BlockCounter> NEXT =
+                AtomicLongFieldUpdater.newUpdater(BlockCounter.class, "next");
+
+        volatile long next;
+        final long limit;
+
+        BlockCounter(long start, long limit) {
+            this.next = start;
+            this.limit = limit;
+        }
+
+        long getAndIncrement() {
+            return NEXT.getAndIncrement(this);
+        }
+    }
+
+    /**
+     * One reserved block. The counter is padded on both sides so blocks of different stripes
+     * never share a cache line.
+     */
+    static final class Block extends BlockCounter {
+
+        static final Block EMPTY = new Block(0, 0);
+
+        long p11, p12, p13, p14, p15, p16, p17;
+
+        Block(long start, long limit) {
+            super(start, limit);
+        }
+    }
+}
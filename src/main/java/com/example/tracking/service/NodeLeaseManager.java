@@ -0,0 +1,253 @@
+package com.example.tracking.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Leases a node ID for the snowflake strategy from {@code tracking_node_leases}. A lease is valid
+ * until {@code expires_at} and is extended by the heartbeat; every claim and renewal is a
+ * compare-and-set on the row, so two nodes can never both hold the same ID.
+ * <p>
+ * The holder only issues timestamps below the {@code expires_at} it last wrote, and the next holder
+ * starts at that {@code expires_at}. Timestamps of consecutive holders of a node ID therefore never
+ * overlap, however far apart the clocks of the two nodes are. A heartbeat that finds the row taken
+ * over, or that keeps failing until the lease runs out, drops the lease; generation fails until a
+ * new one is acquired.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.generator.strategy", havingValue = "snowflake")
+public class NodeLeaseManager implements SmartInitializingSingleton, DisposableBean, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(NodeLeaseManager.class);
+
+    /** Node IDs fit in the 10 bits the snowflake layout reserves for them. */
+    public static final int MAX_NODES = 1 << SnowflakeTrackingNumberServiceImpl.NODE_BITS;
+
+    private static final String SELECT_SQL = "SELECT node_id, owner, expires_at FROM tracking_node_leases";
+    private static final String INSERT_SQL = "INSERT INTO tracking_node_leases (node_id, owner, expires_at) VALUES (?, ?, ?)";
+    private static final String CLAIM_SQL =
+            "UPDATE tracking_node_leases SET owner = ?, expires_at = ? WHERE node_id = ? AND owner = ? AND expires_at = ?";
+    private static final String RENEW_SQL =
+            "UPDATE tracking_node_leases SET expires_at = ? WHERE node_id = ? AND owner = ? AND expires_at = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long leaseTtlMs;
+    private final LongSupplier clock;
+    private final String owner = UUID.randomUUID().toString();
+
+    private volatile NodeLease lease;
+    private final LongAdder leaseLosses = new LongAdder();
+
+    @Autowired
+    public NodeLeaseManager(JdbcTemplate jdbcTemplate,
+                            @Value("${tracking.generator.snowflake.lease-ttl-ms:30000}") long leaseTtlMs) {
+        this(jdbcTemplate, leaseTtlMs, System::currentTimeMillis);
+    }
+
+    NodeLeaseManager(JdbcTemplate jdbcTemplate, long leaseTtlMs, LongSupplier clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.leaseTtlMs = leaseTtlMs;
+        this.clock = clock;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        acquire();
+    }
+
+    /**
+     * The lease currently held, or {@code null} after it was lost and before a new one is acquired.
+     */
+    public NodeLease currentLease() {
+        return lease;
+    }
+
+    /**
+     * Claims the lowest node ID that is unused or whose lease has expired.
+     */
+    synchronized NodeLease acquire() {
+        long now = clock.getAsLong();
+        Map<Integer, Row> rows = new HashMap<>();
+        jdbcTemplate.query(SELECT_SQL, resultSet -> {
+            Row row = new Row(resultSet.getString(2), resultSet.getLong(3));
+            rows.put(resultSet.getInt(1), row);
+        });
+        for (int nodeId = 0; nodeId < MAX_NODES; nodeId++) {
+            Row row = rows.get(nodeId);
+            long expiresAt;
+            if (row == null) {
+                expiresAt = now + leaseTtlMs;
+                try {
+                    jdbcTemplate.update(INSERT_SQL, nodeId, owner, expiresAt);
+                } catch (DuplicateKeyException e) {
+                    continue;
+                }
+                return hold(new NodeLease(nodeId, now, expiresAt));
+            }
+            if (row.expiresAt >= now) {
+                continue;
+            }
+            expiresAt = now + leaseTtlMs;
+            if (jdbcTemplate.update(CLAIM_SQL, owner, expiresAt, nodeId, row.owner, row.expiresAt) == 1) {
+                return hold(new NodeLease(nodeId, row.expiresAt, expiresAt));
+            }
+        }
+        throw new IllegalStateException("No free node ID among " + MAX_NODES + " in tracking_node_leases.");
+    }
+
+    private NodeLease hold(NodeLease acquired) {
+        lease = acquired;
+        logger.info("Leased snowflake node ID {} until {} (timestamps from {}).", acquired.nodeId, acquired.expiresAt(), acquired.floor);
+        return acquired;
+    }
+
+    /**
+     * Extends the lease, or acquires a new one after the lease was lost.
+     */
+    @Scheduled(fixedDelayString = "${tracking.generator.snowflake.heartbeat-ms:10000}",
+            initialDelayString = "${tracking.generator.snowflake.heartbeat-ms:10000}")
+    public synchronized void heartbeat() {
+        NodeLease held = lease;
+        try {
+            if (held == null) {
+                acquire();
+                return;
+            }
+            long now = clock.getAsLong();
+            long current = held.expiresAt();
+            if (current <= now) {
+                lose(held, "it expired before it could be renewed");
+                acquire();
+                return;
+            }
+            long renewed = Math.max(current, now + leaseTtlMs);
+            if (jdbcTemplate.update(RENEW_SQL, renewed, held.nodeId, owner, current) == 1) {
+                held.extend(renewed);
+            } else {
+                lose(held, "another node took it over");
+                acquire();
+            }
+        } catch (DataAccessException e) {
+            // The lease stays usable until it expires; the next heartbeat retries.
+            logger.warn("Failed to renew snowflake node lease: {}", e.getMessage());
+        }
+    }
+
+    private void lose(NodeLease held, String reason) {
+        if (lease == held) {
+            lease = null;
+        }
+        held.revoke();
+        leaseLosses.increment();
+        logger.error("Lost snowflake node ID {} because {}. Generation pauses until a new node ID is leased.", held.nodeId, reason);
+    }
+
+    /**
+     * Hands the node ID back, with {@code expires_at} lowered to just above the last timestamp
+     * issued, so the next holder can use it at once.
+     */
+    @Override
+    public synchronized void destroy() {
+        NodeLease held = lease;
+        if (held == null) {
+            return;
+        }
+        lease = null;
+        long released = held.revoke();
+        try {
+            if (jdbcTemplate.update(RENEW_SQL, released, held.nodeId, owner, held.expiresAt()) == 1) {
+                logger.info("Released snowflake node ID {}.", held.nodeId);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Failed to release snowflake node ID {}; it becomes free when the lease expires: {}", held.nodeId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("tracking.snowflake.node.id", this, manager -> {
+                    NodeLease held = manager.lease;
+                    return held == null ? -1 : held.nodeId;
+                })
+                .description("Node ID leased by this instance, -1 while none is held")
+                .register(registry);
+        FunctionCounter.builder("tracking.snowflake.lease.losses", leaseLosses, LongAdder::sum)
+                .description("Node leases lost to expiry or takeover")
+                .register(registry);
+    }
+
+    private static final class Row {
+
+        final String owner;
+        final long expiresAt;
+
+        Row(String owner, long expiresAt) {
+            this.owner = owner;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * One held node ID. Timestamps issued under it are at least {@code floor} and below
+     * {@link #expiresAt()}; {@code state} packs the last issued timestamp and sequence.
+     */
+    public static final class NodeLease {
+
+        final int nodeId;
+        final long floor;
+        final AtomicLong state;
+        private volatile long expiresAt;
+
+        NodeLease(int nodeId, long floor, long expiresAt) {
+            this.nodeId = nodeId;
+            this.floor = floor;
+            this.expiresAt = expiresAt;
+            this.state = new AtomicLong(SnowflakeTrackingNumberServiceImpl.initialState(floor));
+        }
+
+        public int getNodeId() {
+            return nodeId;
+        }
+
+        long expiresAt() {
+            return expiresAt;
+        }
+
+        void extend(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Stops issuing under this lease and returns the lowest timestamp a later holder may use.
+         */
+        long revoke() {
+            // A generation call racing with this loses its compare-and-set and then sees REVOKED.
+            long last = state.getAndSet(SnowflakeTrackingNumberServiceImpl.REVOKED);
+            if (last == SnowflakeTrackingNumberServiceImpl.REVOKED) {
+                return expiresAt;
+            }
+            return Math.min(expiresAt, SnowflakeTrackingNumberServiceImpl.timestampOf(last) + 1);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.tracking.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.IntConsumer;
+
+public interface ReactiveTrackingNumberService {
+    Mono<String> generateTrackingNumber(
+            String originCountryId,
+            String destinationCountryId
+    );
+
+    /**
+     * Like {@link #generateTrackingNumber(String, String)}, but a repeated {@code idempotencyKey}
+     * returns the number issued the first time. A {@code null} key always issues a new number.
+     */
+    Mono<String> generateTrackingNumber(
+            String originCountryId,
+            String destinationCountryId,
+            String idempotencyKey
+    );
+
+    Flux<String> generateTrackingNumbers(
+            String originCountryId,
+            String destinationCountryId,
+            int count
+    );
+
+    /**
+     * An endless supply of numbers, generated as the subscriber requests them: each request for
+     * {@code n} generates {@code n} more in chunks of at most {@code tracking.batch.chunk-size}, and
+     * nothing is generated ahead of demand. {@code beforeChunk} is called with the size of every
+     * chunk before it is generated; if it throws, nothing more is generated and the stream ends
+     * with that error. Subscribers should request in bounded amounts (e.g. with
+     * {@code limitRate}); an unbounded request generates until cancelled.
+     */
+    Flux<String> streamTrackingNumbers(
+            String originCountryId,
+            String destinationCountryId,
+            IntConsumer beforeChunk
+    );
+}
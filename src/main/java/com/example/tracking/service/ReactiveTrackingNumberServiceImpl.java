@@ -0,0 +1,138 @@
+package com.example.tracking.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * Adapts the blocking {@link TrackingNumberService} to the WebFlux pipeline. In
+ * {@code bounded-elastic} mode every generation runs on a dedicated scheduler with a capped
+ * number of threads and a capped task queue, so a slow datasource never stalls the Netty event
+ * loop and excess load is rejected instead of queueing without limit. {@code inline} mode keeps
+ * the old behaviour of calling the service on the subscribing thread.
+ */
+@Service
+public class ReactiveTrackingNumberServiceImpl implements ReactiveTrackingNumberService, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveTrackingNumberServiceImpl.class);
+
+    static final String MODE_BOUNDED_ELASTIC = "bounded-elastic";
+    static final String MODE_INLINE = "inline";
+
+    private final TrackingNumberService trackingNumberService;
+    private final IdempotencyCache idempotencyCache;
+    private final Scheduler scheduler;
+    private final int batchChunkSize;
+
+    @Autowired
+    public ReactiveTrackingNumberServiceImpl(TrackingNumberService trackingNumberService,
+                                             IdempotencyCache idempotencyCache,
+                                             @Value("${tracking.reactive.mode:bounded-elastic}") String mode,
+                                             @Value("${tracking.reactive.max-threads:64}") int maxThreads,
+                                             @Value("${tracking.reactive.max-queued-tasks:10000}") int maxQueuedTasks,
+                                             @Value("${tracking.batch.chunk-size:500}") int batchChunkSize) {
+        this.trackingNumberService = trackingNumberService;
+        this.idempotencyCache = idempotencyCache;
+        this.batchChunkSize = batchChunkSize;
+        if (MODE_BOUNDED_ELASTIC.equals(mode)) {
+            this.scheduler = Schedulers.newBoundedElastic(maxThreads, maxQueuedTasks, "tracking-generation");
+            logger.info("ReactiveTrackingNumberService offloading generation to a bounded elastic scheduler (threads {}, queued tasks {}).", maxThreads, maxQueuedTasks);
+        } else if (MODE_INLINE.equals(mode)) {
+            this.scheduler = Schedulers.immediate();
+            logger.warn("ReactiveTrackingNumberService generating inline on the calling thread. Blocking persistence will run on the event loop.");
+        } else {
+            throw new IllegalArgumentException("Unsupported tracking.reactive.mode: " + mode);
+        }
+    }
+
+    @Override
+    public Mono<String> generateTrackingNumber(String originCountryId, String destinationCountryId) {
+        return Mono.fromCallable(() -> trackingNumberService.generateTrackingNumber(originCountryId, destinationCountryId))
+                .subscribeOn(scheduler);
+    }
+
+    @Override
+    public Mono<String> generateTrackingNumber(String originCountryId, String destinationCountryId, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return generateTrackingNumber(originCountryId, destinationCountryId);
+        }
+        return Mono.fromCallable(() -> idempotencyCache.issue(idempotencyKey,
+                        () -> trackingNumberService.generateTrackingNumber(originCountryId, destinationCountryId, idempotencyKey)))
+                .subscribeOn(scheduler);
+    }
+
+    /**
+     * Generates the batch one chunk at a time, so a streaming response can write the first chunk
+     * while later ones are still being persisted, and slow consumers hold back generation.
+     */
+    @Override
+    public Flux<String> generateTrackingNumbers(String originCountryId, String destinationCountryId, int count) {
+        int chunks = (count + batchChunkSize - 1) / batchChunkSize;
+        return Flux.range(0, chunks)
+                .concatMap(chunk -> {
+                    int chunkSize = Math.min(batchChunkSize, count - chunk * batchChunkSize);
+                    return Mono.fromCallable(() -> trackingNumberService.generateTrackingNumbers(originCountryId, destinationCountryId, chunkSize))
+                            .subscribeOn(scheduler);
+                }, 1)
+                .concatMapIterable(trackingNumbers -> trackingNumbers);
+    }
+
+    @Override
+    public Flux<String> streamTrackingNumbers(String originCountryId, String destinationCountryId, IntConsumer beforeChunk) {
+        return Flux.create(sink -> {
+            AtomicLong demand = new AtomicLong();
+            AtomicInteger wip = new AtomicInteger();
+            // One drain at a time; requests arriving while it runs are picked up before it exits.
+            Runnable drain = () -> {
+                int missed = 1;
+                do {
+                    long requested;
+                    while ((requested = demand.get()) > 0 && !sink.isCancelled()) {
+                        int chunkSize = (int) Math.min(requested, batchChunkSize);
+                        List<String> trackingNumbers;
+                        try {
+                            beforeChunk.accept(chunkSize);
+                            trackingNumbers = trackingNumberService.generateTrackingNumbers(originCountryId, destinationCountryId, chunkSize);
+                        } catch (RuntimeException e) {
+                            sink.error(e);
+                            return;
+                        }
+                        demand.addAndGet(-chunkSize);
+                        for (String trackingNumber : trackingNumbers) {
+                            sink.next(trackingNumber);
+                        }
+                    }
+                    missed = wip.addAndGet(-missed);
+                } while (missed != 0);
+            };
+            sink.onRequest(n -> {
+                demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+                if (wip.getAndIncrement() == 0) {
+                    try {
+                        scheduler.schedule(drain);
+                    } catch (RejectedExecutionException e) {
+                        sink.error(e);
+                    }
+                }
+            });
+        });
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+}
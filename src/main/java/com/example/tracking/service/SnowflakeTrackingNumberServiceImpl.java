@@ -0,0 +1,234 @@
+package com.example.tracking.service;
+
+import com.example.tracking.entity.GeneratedTrackingNumber;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Mints the 12-character middle section from a 62-bit snowflake value: 40 bits of milliseconds
+ * since {@link #EPOCH_MILLIS}, the 10-bit node ID leased by {@link NodeLeaseManager} and a 12-bit
+ * per-millisecond sequence. Nodes never share a node ID and a node ID never reuses a timestamp, so
+ * no database round trip is needed to keep numbers unique.
+ * <p>
+ * When the sequence of a millisecond runs out, or the clock steps back, the next value borrows
+ * from the following millisecond. Generation fails once it would run more than
+ * {@code tracking.generator.snowflake.max-clock-regression-ms} ahead of the clock, or reach the end
+ * of the lease.
+ */
+@Service
+@ConditionalOnProperty(name = "tracking.generator.strategy", havingValue = "snowflake")
+public class SnowflakeTrackingNumberServiceImpl implements TrackingNumberService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnowflakeTrackingNumberServiceImpl.class);
+
+    /** 2025-01-01T00:00:00Z; the 40-bit timestamp lasts until 2059. */
+    public static final long EPOCH_MILLIS = 1735689600000L;
+
+    static final int TIMESTAMP_BITS = 40;
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long MAX_TIMESTAMP = 1L << TIMESTAMP_BITS;
+    /** State of a revoked lease; see {@link NodeLeaseManager.NodeLease#revoke()}. */
+    static final long REVOKED = Long.MAX_VALUE;
+
+    private final IssuedTrackingNumberRecorder issuedTrackingNumberRecorder;
+    private final NodeLeaseManager leaseManager;
+    private final TrackingNumberEncoder trackingNumberEncoder;
+    private final TrackingMetrics trackingMetrics;
+    private final int batchChunkSize;
+    private final long maxClockRegressionMs;
+    private final LongSupplier clock;
+
+    private final LongAdder clockRegressions = new LongAdder();
+
+    @Autowired
+    public SnowflakeTrackingNumberServiceImpl(IssuedTrackingNumberRecorder issuedTrackingNumberRecorder,
+                                              NodeLeaseManager leaseManager,
+                                              TrackingNumberEncoder trackingNumberEncoder,
+                                              TrackingMetrics trackingMetrics,
+                                              MeterRegistry registry,
+                                              @Value("${tracking.batch.chunk-size:500}") int batchChunkSize,
+                                              @Value("${tracking.generator.snowflake.max-clock-regression-ms:5000}") long maxClockRegressionMs) {
+        this(issuedTrackingNumberRecorder, leaseManager, trackingNumberEncoder, trackingMetrics, registry, batchChunkSize,
+                maxClockRegressionMs, System::currentTimeMillis);
+    }
+
+    SnowflakeTrackingNumberServiceImpl(IssuedTrackingNumberRecorder issuedTrackingNumberRecorder,
+                                       NodeLeaseManager leaseManager,
+                                       TrackingNumberEncoder trackingNumberEncoder,
+                                       TrackingMetrics trackingMetrics,
+                                       MeterRegistry registry,
+                                       int batchChunkSize,
+                                       long maxClockRegressionMs,
+                                       LongSupplier clock) {
+        this.issuedTrackingNumberRecorder = issuedTrackingNumberRecorder;
+        this.leaseManager = leaseManager;
+        this.trackingNumberEncoder = trackingNumberEncoder;
+        this.trackingMetrics = trackingMetrics;
+        this.batchChunkSize = batchChunkSize;
+        this.maxClockRegressionMs = maxClockRegressionMs;
+        this.clock = clock;
+        registerMeters(registry);
+        logger.info("TrackingNumberService initialized with snowflake strategy (max clock regression {} ms).", maxClockRegressionMs);
+    }
+
+    @Override
+    public String generateTrackingNumber(String originCountryId, String destinationCountryId, String idempotencyKey) {
+        logger.debug("Attempting to generate tracking number for origin: {}, destination: {}", originCountryId, destinationCountryId);
+
+        long start = System.nanoTime();
+        String candidateTrackingNumber;
+        int maxRetries = 10;
+        int attempt = 0;
+
+        while (attempt < maxRetries) {
+            candidateTrackingNumber = trackingNumberEncoder.encode(originCountryId, nextValue(), destinationCountryId);
+
+            long persistStart = System.nanoTime();
+            try {
+                issuedTrackingNumberRecorder.record(new GeneratedTrackingNumber(candidateTrackingNumber, idempotencyKey));
+                trackingMetrics.recordPersistence(persistStart);
+                logger.debug("Generated unique tracking number (snowflake): {}", candidateTrackingNumber);
+                trackingMetrics.recordGeneration(start);
+                return candidateTrackingNumber;
+            } catch (DataIntegrityViolationException e) {
+                trackingMetrics.recordPersistence(persistStart);
+                // A stored idempotency key is answered with its number; retrying would only fail again.
+                String storedTrackingNumber = issuedTrackingNumberRecorder.findStored(idempotencyKey);
+                if (storedTrackingNumber != null) {
+                    logger.debug("Idempotency key {} was already stored with tracking number {}.", idempotencyKey, storedTrackingNumber);
+                    return storedTrackingNumber;
+                }
+                // Otherwise only possible when the table also holds numbers issued by another strategy.
+                logger.warn("Collision detected for tracking number (snowflake): {}. Retrying... (Attempt {}/{})", candidateTrackingNumber, attempt + 1, maxRetries);
+                trackingMetrics.collision();
+                attempt++;
+                if (attempt < maxRetries) {
+                    trackingMetrics.retry();
+                }
+            }
+        }
+
+        trackingMetrics.exhausted();
+
+        logger.error("Failed to generate a unique tracking number (snowflake) after {} attempts.", maxRetries);
+        throw new RuntimeException("Failed to generate a unique tracking number (snowflake) after " + maxRetries + " attempts.");
+    }
+
+    @Override
+    public List<String> generateTrackingNumbers(String originCountryId, String destinationCountryId, int count) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Attempting to generate {} tracking numbers for origin: {}, destination: {}", count, originCountryId, destinationCountryId);
+        }
+
+        long start = System.nanoTime();
+        List<String> trackingNumbers = new ArrayList<>(count);
+        while (trackingNumbers.size() < count) {
+            int chunkSize = Math.min(batchChunkSize, count - trackingNumbers.size());
+            trackingNumbers.addAll(generateChunk(originCountryId, destinationCountryId, chunkSize));
+        }
+
+        trackingMetrics.recordBatchGeneration(start);
+        logger.debug("Generated {} unique tracking numbers (snowflake).", count);
+        return trackingNumbers;
+    }
+
+    private List<String> generateChunk(String originCountryId, String destinationCountryId, int chunkSize) {
+        int maxRetries = 10;
+        int attempt = 0;
+
+        while (attempt < maxRetries) {
+            List<String> candidateTrackingNumbers = new ArrayList<>(chunkSize);
+            List<GeneratedTrackingNumber> newNumbers = new ArrayList<>(chunkSize);
+            for (int i = 0; i < chunkSize; i++) {
+                String candidateTrackingNumber = trackingNumberEncoder.encode(originCountryId, nextValue(), destinationCountryId);
+                candidateTrackingNumbers.add(candidateTrackingNumber);
+                newNumbers.add(new GeneratedTrackingNumber(candidateTrackingNumber));
+            }
+
+            long persistStart = System.nanoTime();
+            try {
+                issuedTrackingNumberRecorder.recordAll(newNumbers);
+                trackingMetrics.recordPersistence(persistStart);
+                return candidateTrackingNumbers;
+            } catch (DataIntegrityViolationException e) {
+                trackingMetrics.recordPersistence(persistStart);
+                logger.warn("Collision detected in batch of {} tracking numbers (snowflake). Retrying... (Attempt {}/{})", chunkSize, attempt + 1, maxRetries);
+                trackingMetrics.collision();
+                attempt++;
+                if (attempt < maxRetries) {
+                    trackingMetrics.retry();
+                }
+            }
+        }
+
+        trackingMetrics.exhausted();
+
+        logger.error("Failed to generate a batch of unique tracking numbers (snowflake) after {} attempts.", maxRetries);
+        throw new RuntimeException("Failed to generate a batch of unique tracking numbers (snowflake) after " + maxRetries + " attempts.");
+    }
+
+    long nextValue() {
+        NodeLeaseManager.NodeLease lease = leaseManager.currentLease();
+        if (lease == null) {
+            throw new IllegalStateException("No snowflake node ID is leased.");
+        }
+        AtomicLong state = lease.state;
+        while (true) {
+            long previous = state.get();
+            if (previous == REVOKED) {
+                throw new IllegalStateException("Snowflake node ID " + lease.nodeId + " is no longer leased.");
+            }
+            long now = clock.getAsLong() - EPOCH_MILLIS;
+            long next = now > (previous >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : previous + 1;
+            long timestamp = next >>> SEQUENCE_BITS;
+            if (timestamp - now > maxClockRegressionMs) {
+                clockRegressions.increment();
+                throw new IllegalStateException("Clock is " + (timestamp - now) + " ms behind the last issued snowflake timestamp.");
+            }
+            if (timestamp + EPOCH_MILLIS >= lease.expiresAt()) {
+                throw new IllegalStateException("Snowflake node ID " + lease.nodeId + " lease has run out.");
+            }
+            if (timestamp >= MAX_TIMESTAMP) {
+                throw new IllegalStateException("Snowflake timestamp space is exhausted.");
+            }
+            if (state.compareAndSet(previous, next)) {
+                return timestamp << (NODE_BITS + SEQUENCE_BITS)
+                        | (long) lease.nodeId << SEQUENCE_BITS
+                        | next & SEQUENCE_MASK;
+            }
+        }
+    }
+
+    /** Generator state of a new lease: just below the first value of millisecond {@code floorMillis}. */
+    static long initialState(long floorMillis) {
+        return ((floorMillis - EPOCH_MILLIS) << SEQUENCE_BITS) - 1;
+    }
+
+    /** Epoch milliseconds of the last value issued from {@code state}. */
+    static long timestampOf(long state) {
+        return (state >>> SEQUENCE_BITS) + EPOCH_MILLIS;
+    }
+
+    /** Not a {@code MeterBinder}, for the same reason as {@link BlockTrackingNumberServiceImpl}. */
+    private void registerMeters(MeterRegistry registry) {
+        FunctionCounter.builder("tracking.snowflake.clock.regressions", clockRegressions, LongAdder::sum)
+                .description("Generation calls refused because the clock fell too far behind the last issued timestamp")
+                .register(registry);
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.tracking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generator meters, registered once with their tags fixed at startup. Callers take
+ * {@link System#nanoTime()} themselves and pass the elapsed time in, so recording on the hot path
+ * allocates nothing (no {@code Timer.Sample}, no capturing lambda, no per-call tag lookup).
+ * Total request latency is the standard {@code http.server.requests} timer.
+ */
+@Component
+public class TrackingMetrics {
+
+    private final Timer generationSingle;
+    private final Timer generationBatch;
+    private final Timer persistence;
+    private final Counter retries;
+    private final Counter collisions;
+    private final Counter exhausted;
+
+    @Autowired
+    public TrackingMetrics(MeterRegistry registry,
+                           @Value("${tracking.generator.strategy:random}") String strategy) {
+        this.generationSingle = generationTimer(registry, strategy, "single");
+        this.generationBatch = generationTimer(registry, strategy, "batch");
+        this.persistence = Timer.builder("tracking.persistence")
+                .tag("strategy", strategy)
+                .description("Time spent writing issued tracking numbers, per insert, batch insert or pool update")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.retries = Counter.builder("tracking.generation.retries")
+                .tag("strategy", strategy)
+                .description("Generation attempts repeated after a collision")
+                .register(registry);
+        this.collisions = Counter.builder("tracking.generation.collisions")
+                .tag("strategy", strategy)
+                .description("Candidate tracking numbers that had already been issued")
+                .register(registry);
+        this.exhausted = Counter.builder("tracking.generation.exhausted")
+                .tag("strategy", strategy)
+                .description("Requests that failed after running out of generation attempts")
+                .register(registry);
+    }
+
+    private static Timer generationTimer(MeterRegistry registry, String strategy, String operation) {
+        return Timer.builder("tracking.generation")
+                .tag("strategy", strategy)
+                .tag("operation", operation)
+                .description("Time taken to generate and record tracking numbers")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public void recordGeneration(long startNanos) {
+        generationSingle.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordBatchGeneration(long startNanos) {
+        generationBatch.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPersistence(long startNanos) {
+        persistence.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void collision() {
+        collisions.increment();
+    }
+
+    public void retry() {
+        retries.increment();
+    }
+
+    public void exhausted() {
+        exhausted.increment();
+    }
+}
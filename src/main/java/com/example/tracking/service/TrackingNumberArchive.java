@@ -0,0 +1,252 @@
+package com.example.tracking.service;
+
+import com.example.tracking.entity.EpochMillisConverter;
+import com.example.tracking.util.PackedTrackingNumber;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Issued numbers that {@link ArchiveRollover} has moved out of {@code generated_tracking_numbers},
+ * as {@link ArchiveSegment} files under {@code tracking.archive.dir}, newest first. Uniqueness
+ * checks and lookups consult it only after the table. Every segment keeps its Bloom filter in
+ * memory, so a number that was never archived is ruled out without reading the disk.
+ * <p>
+ * Segments are loaded whether or not rollover is enabled: numbers archived by an earlier run must
+ * never be issued again.
+ */
+@Component
+public class TrackingNumberArchive implements MeterBinder, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingNumberArchive.class);
+
+    private static final Comparator<ArchiveSegment> NEWEST_FIRST =
+            Comparator.comparing(ArchiveSegment::name, Comparator.reverseOrder());
+
+    private final Path directory;
+    private volatile List<ArchiveSegment> segments = Collections.emptyList();
+
+    private final LongAdder ruledOut = new LongAdder();
+    private final LongAdder found = new LongAdder();
+    private final LongAdder notFound = new LongAdder();
+
+    @Autowired
+    public TrackingNumberArchive(@Value("${tracking.archive.dir:./data/archive}") String directory) {
+        this.directory = directory == null ? null : Paths.get(directory);
+        if (this.directory == null || !Files.isDirectory(this.directory)) {
+            return;
+        }
+        List<ArchiveSegment> loaded = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(ArchiveSegment.TEMPORARY_SUFFIX)) {
+                    // A rollover that stopped before its segment was complete; it is redone.
+                    Files.delete(file);
+                } else if (name.endsWith(ArchiveSegment.SUFFIX)) {
+                    loaded.add(ArchiveSegment.open(file));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the tracking number archive in " + this.directory, e);
+        }
+        loaded.sort(NEWEST_FIRST);
+        segments = Collections.unmodifiableList(loaded);
+        logger.info("TrackingNumberArchive opened {} segments holding {} numbers ({} bytes of filters in memory).",
+                loaded.size(), entries(), filterBytes());
+    }
+
+    /** Directory the segments live in, or {@code null} if none is configured. */
+    Path directory() {
+        return directory;
+    }
+
+    List<ArchiveSegment> segments() {
+        return segments;
+    }
+
+    synchronized void add(ArchiveSegment segment) {
+        List<ArchiveSegment> updated = new ArrayList<>(segments);
+        updated.add(segment);
+        updated.sort(NEWEST_FIRST);
+        segments = Collections.unmodifiableList(updated);
+    }
+
+    /**
+     * Takes {@code segment} out of the archive and deletes its file; its numbers are no longer
+     * found, and the random strategy may issue them again.
+     */
+    synchronized void remove(ArchiveSegment segment) throws IOException {
+        List<ArchiveSegment> updated = new ArrayList<>(segments);
+        updated.remove(segment);
+        segments = Collections.unmodifiableList(updated);
+        // A lookup that picked up the old list and reads the segment after this gets ABSENT (see
+        // find), the same answer as from the new list.
+        segment.close();
+        Files.deleteIfExists(segment.path());
+    }
+
+    /**
+     * Whether {@code trackingNumber} is archived. Costs one Bloom filter probe per segment and a
+     * block read only for segments whose filter cannot rule it out.
+     */
+    public boolean contains(String trackingNumber) {
+        List<ArchiveSegment> current = segments;
+        if (current.isEmpty()) {
+            return false;
+        }
+        byte[] packed = null;
+        boolean probed = false;
+        for (ArchiveSegment segment : current) {
+            if (!segment.mightContain(trackingNumber)) {
+                continue;
+            }
+            if (packed == null) {
+                packed = PackedTrackingNumber.pack(trackingNumber);
+                if (packed == null) {
+                    break;
+                }
+            }
+            probed = true;
+            if (find(segment, packed) != ArchiveSegment.ABSENT) {
+                found.increment();
+                return true;
+            }
+        }
+        (probed ? notFound : ruledOut).increment();
+        return false;
+    }
+
+    /**
+     * Issuance times of the given numbers that are archived; other numbers are absent from the map.
+     */
+    public Map<String, OffsetDateTime> findCreatedAt(Collection<String> trackingNumbers) {
+        Map<String, OffsetDateTime> createdAt = new HashMap<>();
+        List<ArchiveSegment> current = segments;
+        if (current.isEmpty()) {
+            return createdAt;
+        }
+        for (String trackingNumber : trackingNumbers) {
+            byte[] packed = null;
+            boolean probed = false;
+            for (ArchiveSegment segment : current) {
+                if (!segment.mightContain(trackingNumber)) {
+                    continue;
+                }
+                if (packed == null) {
+                    packed = PackedTrackingNumber.pack(trackingNumber);
+                    if (packed == null) {
+                        break;
+                    }
+                }
+                probed = true;
+                long millis = find(segment, packed);
+                if (millis != ArchiveSegment.ABSENT) {
+                    createdAt.put(trackingNumber, EpochMillisConverter.toOffsetDateTime(millis));
+                    break;
+                }
+            }
+            if (createdAt.containsKey(trackingNumber)) {
+                found.increment();
+            } else {
+                (probed ? notFound : ruledOut).increment();
+            }
+        }
+        return createdAt;
+    }
+
+    long entries() {
+        long entries = 0;
+        for (ArchiveSegment segment : segments) {
+            entries += segment.entries();
+        }
+        return entries;
+    }
+
+    private long sizeBytes() {
+        long bytes = 0;
+        for (ArchiveSegment segment : segments) {
+            bytes += segment.sizeBytes();
+        }
+        return bytes;
+    }
+
+    private long filterBytes() {
+        long bytes = 0;
+        for (ArchiveSegment segment : segments) {
+            bytes += segment.filterBytes();
+        }
+        return bytes;
+    }
+
+    private static long find(ArchiveSegment segment, byte[] packed) {
+        try {
+            return segment.findCreatedAt(packed);
+        } catch (ClosedChannelException e) {
+            return ArchiveSegment.ABSENT;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archive segment " + segment.path(), e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("tracking.archive.segments", this, archive -> archive.segments.size())
+                .description("Archive segments (one per archived month) open for lookups")
+                .register(registry);
+        Gauge.builder("tracking.archive.numbers", this, TrackingNumberArchive::entries)
+                .description("Tracking numbers held in the archive instead of the table")
+                .register(registry);
+        Gauge.builder("tracking.archive.size", this, TrackingNumberArchive::sizeBytes)
+                .baseUnit("bytes")
+                .description("Disk space of the archive segments")
+                .register(registry);
+        Gauge.builder("tracking.archive.filter.memory", this, TrackingNumberArchive::filterBytes)
+                .baseUnit("bytes")
+                .description("Memory held by the Bloom filters of the archive segments")
+                .register(registry);
+        FunctionCounter.builder("tracking.archive.checks", ruledOut, LongAdder::sum)
+                .tag("result", "ruled_out")
+                .description("Numbers checked against the archive")
+                .register(registry);
+        FunctionCounter.builder("tracking.archive.checks", found, LongAdder::sum)
+                .tag("result", "found")
+                .description("Numbers checked against the archive")
+                .register(registry);
+        FunctionCounter.builder("tracking.archive.checks", notFound, LongAdder::sum)
+                .tag("result", "not_found")
+                .description("Numbers checked against the archive")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        for (ArchiveSegment segment : segments) {
+            segment.close();
+        }
+    }
+}
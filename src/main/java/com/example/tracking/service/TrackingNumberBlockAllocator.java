@@ -0,0 +1,82 @@
+package com.example.tracking.service;
+
+import com.example.tracking.entity.TrackingNumberBlock;
+import com.example.tracking.repository.TrackingNumberBlockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Reserves contiguous blocks of the numeric tracking number space from the durable
+ * {@code tracking_number_blocks} high-water mark. Each reservation is a single short
+ * transaction holding a row lock, so every node can hand out the numbers of its block
+ * from memory without further coordination.
+ */
+@Component
+public class TrackingNumberBlockAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingNumberBlockAllocator.class);
+
+    private static final int MAX_RESERVE_ATTEMPTS = 3;
+
+    private final TrackingNumberBlockRepository blockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long blockSize;
+
+    @Autowired
+    public TrackingNumberBlockAllocator(TrackingNumberBlockRepository blockRepository,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${tracking.generator.block.size:1000}") long blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("tracking.generator.block.size must be positive.");
+        }
+        this.blockRepository = blockRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    public long getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Reserves the next block of the named sequence and returns its first value. The block
+     * covers {@code [start, start + getBlockSize())}.
+     */
+    public long reserve(String name) {
+        DataIntegrityViolationException lastFailure = null;
+        for (int attempt = 1; attempt <= MAX_RESERVE_ATTEMPTS; attempt++) {
+            try {
+                Long blockIndex = transactionTemplate.execute(status -> {
+                    TrackingNumberBlock block = blockRepository.findForUpdate(name)
+                            .orElseGet(() -> blockRepository.saveAndFlush(new TrackingNumberBlock(name, 0L)));
+                    long current = block.getNextBlock();
+                    block.setNextBlock(current + 1);
+                    return current;
+                });
+                return toStartValue(name, blockIndex);
+            } catch (DataIntegrityViolationException e) {
+                // Another node created the sequence row concurrently; the next attempt will lock it.
+                logger.debug("Concurrent creation of block sequence [{}]. Retrying... (Attempt {}/{})", name, attempt, MAX_RESERVE_ATTEMPTS);
+                lastFailure = e;
+            }
+        }
+        throw new IllegalStateException("Failed to reserve a tracking number block for sequence [" + name + "].", lastFailure);
+    }
+
+    private long toStartValue(String name, long blockIndex) {
+        if (blockIndex >= TrackingNumberEncoder.MAX_VALUE / blockSize) {
+            throw new IllegalStateException("Tracking number space exhausted for sequence [" + name + "].");
+        }
+        long start = blockIndex * blockSize;
+        logger.info("Reserved tracking number block {} of sequence [{}]: [{}, {}).", blockIndex, name, start, start + blockSize);
+        return start;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.tracking.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Builds the 16-character {@code origin + 12 base-36 characters + destination} tracking number
+ * directly into a per-thread buffer. The middle section is a fixed-width base-36 rendering of a
+ * value in {@code [0, MAX_VALUE)}, which carries about 62 bits against the 48 bits of the former
+ * UUID hex substring.
+ *
+ * <p>Random values come from {@link ThreadLocalRandom} in {@code fast} mode, or from a per-thread
+ * {@link SecureRandom} in {@code secure} mode when numbers must not be guessable. Neither mode
+ * shares a generator between threads.
+ */
+@Component
+public class TrackingNumberEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingNumberEncoder.class);
+
+    public static final String MODE_FAST = "fast";
+    public static final String MODE_SECURE = "secure";
+
+    public static final int LENGTH = 16;
+    public static final int MIDDLE_LENGTH = 12;
+
+    /** 36^12: the number of distinct values the 12-character middle section can encode. */
+    public static final long MAX_VALUE = 4738381338321616896L;
+
+    /** 36^6: values per half of the middle section, so {@code HALF_VALUE * HALF_VALUE == MAX_VALUE}. */
+    public static final long HALF_VALUE = 2176782336L;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+    private static final int RADIX = ALPHABET.length;
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[LENGTH]);
+    private static final ThreadLocal<SecureRandom> SECURE_RANDOM = ThreadLocal.withInitial(TrackingNumberEncoder::newSecureRandom);
+
+    private final boolean secure;
+
+    @Autowired
+    public TrackingNumberEncoder(@Value("${tracking.encoder.random:secure}") String randomMode) {
+        if (MODE_SECURE.equals(randomMode)) {
+            this.secure = true;
+        } else if (MODE_FAST.equals(randomMode)) {
+            this.secure = false;
+        } else {
+            throw new IllegalArgumentException("Unsupported tracking.encoder.random: " + randomMode);
+        }
+        logger.info("TrackingNumberEncoder initialized with {} randomness.", randomMode);
+    }
+
+    public String randomTrackingNumber(String originCountryId, String destinationCountryId) {
+        return encode(originCountryId, randomValue(), destinationCountryId);
+    }
+
+    public String encode(String originCountryId, long value, String destinationCountryId) {
+        if (value < 0 || value >= MAX_VALUE) {
+            throw new IllegalArgumentException("Tracking number value out of range: " + value);
+        }
+        char[] buffer = BUFFER.get();
+        writeCountryCode(originCountryId, buffer, 0);
+        for (int i = 2 + MIDDLE_LENGTH - 1; i >= 2; i--) {
+            buffer[i] = ALPHABET[(int) (value % RADIX)];
+            value /= RADIX;
+        }
+        writeCountryCode(destinationCountryId, buffer, 2 + MIDDLE_LENGTH);
+        return new String(buffer);
+    }
+
+    public long randomValue() {
+        if (!secure) {
+            return ThreadLocalRandom.current().nextLong(MAX_VALUE);
+        }
+        SecureRandom random = SECURE_RANDOM.get();
+        while (true) {
+            // 63 uniform bits; rejecting values >= 36^12 keeps every middle section equally likely.
+            long candidate = random.nextLong() >>> 1;
+            if (candidate < MAX_VALUE) {
+                return candidate;
+            }
+        }
+    }
+
+    private static void writeCountryCode(String countryCode, char[] buffer, int offset) {
+        if (countryCode == null || countryCode.length() != 2) {
+            throw new IllegalArgumentException("Country code must be exactly 2 characters long: " + countryCode);
+        }
+        for (int i = 0; i < 2; i++) {
+            char c = countryCode.charAt(i);
+            buffer[offset + i] = c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+        }
+    }
+
+    private static SecureRandom newSecureRandom() {
+        try {
+            // Self-contained PRNG, seeded once per thread; avoids the shared /dev/urandom lock of NativePRNG.
+            return SecureRandom.getInstance("SHA1PRNG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+}
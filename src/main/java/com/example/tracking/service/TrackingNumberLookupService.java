@@ -0,0 +1,203 @@
+package com.example.tracking.service;
+
+import com.example.tracking.repository.TrackingNumberRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers "was this number issued, and when?" through a read-through cache in front of
+ * {@code generated_tracking_numbers} and, for numbers not in the table, the
+ * {@link TrackingNumberArchive}. Cache hits are answered on the calling thread; misses go to
+ * the database on a dedicated bounded scheduler, bulk misses as one {@code IN} query per chunk.
+ * <p>
+ * Unknown numbers are cached too, but only for {@code negative-ttl}: a number can be issued
+ * right after a failed lookup, while an issued number never changes.
+ */
+@Service
+public class TrackingNumberLookupService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingNumberLookupService.class);
+
+    private final TrackingNumberRepository trackingNumberRepository;
+    private final TrackingNumberArchive trackingNumberArchive;
+    private final Cache<String, Optional<OffsetDateTime>> cache;
+    private final Scheduler scheduler;
+    private final int chunkSize;
+
+    private final Timer singleLookups;
+    private final Timer bulkLookups;
+
+    @Autowired
+    public TrackingNumberLookupService(TrackingNumberRepository trackingNumberRepository,
+                                       TrackingNumberArchive trackingNumberArchive,
+                                       MeterRegistry registry,
+                                       @Value("${tracking.lookup.cache.maximum-size:200000}") long maximumSize,
+                                       @Value("${tracking.lookup.cache.ttl:PT1H}") Duration ttl,
+                                       @Value("${tracking.lookup.cache.negative-ttl:PT5S}") Duration negativeTtl,
+                                       @Value("${tracking.lookup.chunk-size:500}") int chunkSize,
+                                       @Value("${tracking.lookup.max-threads:32}") int maxThreads,
+                                       @Value("${tracking.lookup.max-queued-tasks:10000}") int maxQueuedTasks) {
+        this.trackingNumberRepository = trackingNumberRepository;
+        this.trackingNumberArchive = trackingNumberArchive;
+        this.chunkSize = chunkSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new IssuedExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .recordStats()
+                .build();
+        this.scheduler = Schedulers.newBoundedElastic(maxThreads, maxQueuedTasks, "tracking-lookup");
+        CaffeineCacheMetrics.monitor(registry, cache, "tracking.lookup");
+        this.singleLookups = lookupTimer(registry, "single");
+        this.bulkLookups = lookupTimer(registry, "bulk");
+        logger.info("TrackingNumberLookupService caching up to {} lookups (ttl {}, negative ttl {}), {} numbers per query.",
+                maximumSize, ttl, negativeTtl, chunkSize);
+    }
+
+    /**
+     * Issuance time of {@code trackingNumber}, or an empty {@code Mono} if it was never issued.
+     */
+    public Mono<OffsetDateTime> findCreatedAt(String trackingNumber) {
+        long start = System.nanoTime();
+        Optional<OffsetDateTime> cached = cache.getIfPresent(trackingNumber);
+        Mono<Optional<OffsetDateTime>> result = cached != null
+                ? Mono.just(cached)
+                : Mono.fromCallable(() -> cache.asMap().computeIfAbsent(trackingNumber, this::load)).subscribeOn(scheduler);
+        return result
+                .doOnNext(createdAt -> record(singleLookups, start))
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    /**
+     * Issuance times of the given numbers that were issued; unknown numbers are absent from the map.
+     */
+    public Mono<Map<String, OffsetDateTime>> findCreatedAt(Set<String> trackingNumbers) {
+        long start = System.nanoTime();
+        Map<String, Optional<OffsetDateTime>> cached = cache.getAllPresent(trackingNumbers);
+        Mono<Map<String, Optional<OffsetDateTime>>> result;
+        if (cached.size() == trackingNumbers.size()) {
+            result = Mono.just(cached);
+        } else {
+            List<String> missing = new ArrayList<>(trackingNumbers.size() - cached.size());
+            for (String trackingNumber : trackingNumbers) {
+                if (!cached.containsKey(trackingNumber)) {
+                    missing.add(trackingNumber);
+                }
+            }
+            result = Mono.fromCallable(() -> {
+                Map<String, Optional<OffsetDateTime>> all = new HashMap<>(cached);
+                all.putAll(loadAll(missing));
+                return all;
+            }).subscribeOn(scheduler);
+        }
+        return result.map(all -> {
+            Map<String, OffsetDateTime> issued = new HashMap<>();
+            for (Map.Entry<String, Optional<OffsetDateTime>> entry : all.entrySet()) {
+                entry.getValue().ifPresent(createdAt -> issued.put(entry.getKey(), createdAt));
+            }
+            record(bulkLookups, start);
+            return issued;
+        });
+    }
+
+    private Optional<OffsetDateTime> load(String trackingNumber) {
+        List<String> single = new ArrayList<>(1);
+        single.add(trackingNumber);
+        OffsetDateTime createdAt = trackingNumberRepository.findCreatedAt(single).get(trackingNumber);
+        if (createdAt == null) {
+            createdAt = trackingNumberArchive.findCreatedAt(single).get(trackingNumber);
+        }
+        return Optional.ofNullable(createdAt);
+    }
+
+    private Map<String, Optional<OffsetDateTime>> loadAll(List<String> trackingNumbers) {
+        Map<String, Optional<OffsetDateTime>> loaded = new HashMap<>();
+        for (int from = 0; from < trackingNumbers.size(); from += chunkSize) {
+            List<String> chunk = trackingNumbers.subList(from, Math.min(from + chunkSize, trackingNumbers.size()));
+            Map<String, OffsetDateTime> found = trackingNumberRepository.findCreatedAt(chunk);
+            List<String> notInTable = new ArrayList<>();
+            for (String trackingNumber : chunk) {
+                OffsetDateTime createdAt = found.get(trackingNumber);
+                if (createdAt != null) {
+                    loaded.put(trackingNumber, Optional.of(createdAt));
+                } else {
+                    notInTable.add(trackingNumber);
+                }
+            }
+            Map<String, OffsetDateTime> archived = trackingNumberArchive.findCreatedAt(notInTable);
+            for (String trackingNumber : notInTable) {
+                loaded.put(trackingNumber, Optional.ofNullable(archived.get(trackingNumber)));
+            }
+        }
+        cache.putAll(loaded);
+        return loaded;
+    }
+
+    private static void record(Timer timer, long startNanos) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer lookupTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("tracking.lookup")
+                .tag("operation", operation)
+                .description("Time taken to answer issued tracking number lookups, cache hits included")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+
+    /**
+     * Issued numbers live for {@code ttl}, unknown ones for {@code negativeTtl}.
+     */
+    static final class IssuedExpiry implements Expiry<String, Optional<OffsetDateTime>> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        IssuedExpiry(long ttlNanos, long negativeTtlNanos) {
+            this.ttlNanos = ttlNanos;
+            this.negativeTtlNanos = negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Optional<OffsetDateTime> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Optional<OffsetDateTime> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Optional<OffsetDateTime> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.example.tracking.service;
+
+import com.example.tracking.entity.GeneratedTrackingNumber;
+import com.example.tracking.repository.TrackingNumberRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pre-generated, pre-persisted tracking numbers for the random strategy, one lock-free queue per
+ * lane. Pool numbers are inserted into {@code generated_tracking_numbers} in the background with
+ * their {@code pool_lane} set, so their uniqueness is settled before any request needs them.
+ * Issuing one is a single-row update that clears the lane, with no collision retries.
+ * <p>
+ * Lanes listed in {@code tracking.pool.lanes} are filled at startup. Other lanes get a pool on
+ * their first request, up to {@code tracking.pool.max-lanes}. The refill task tops every lane
+ * below the low watermark back up to the high watermark. On shutdown the numbers still queued are
+ * deleted again; after a crash they stay marked as pool numbers and are never issued.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.generator.strategy", havingValue = "random", matchIfMissing = true)
+public class TrackingNumberPool implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingNumberPool.class);
+
+    private static final int MAX_REFILL_ATTEMPTS = 10;
+
+    private final TrackingNumberRepository trackingNumberRepository;
+    private final TrackingNumberEncoder trackingNumberEncoder;
+    private final IssuedTrackingNumberFilter issuedTrackingNumberFilter;
+    private final TrackingNumberArchive trackingNumberArchive;
+    private final TrackingMetrics trackingMetrics;
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final int maxLanes;
+    private final int lowWatermark;
+    private final int highWatermark;
+    private final int refillBatchSize;
+
+    private final Map<String, LanePool> lanes = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refilled = new LongAdder();
+    private volatile boolean closed;
+
+    @Autowired
+    public TrackingNumberPool(TrackingNumberRepository trackingNumberRepository,
+                              TrackingNumberEncoder trackingNumberEncoder,
+                              IssuedTrackingNumberFilter issuedTrackingNumberFilter,
+                              TrackingNumberArchive trackingNumberArchive,
+                              TrackingMetrics trackingMetrics,
+                              MeterRegistry registry,
+                              @Value("${tracking.pool.enabled:false}") boolean enabled,
+                              @Value("${tracking.pool.lanes:}") String hotLanes,
+                              @Value("${tracking.pool.max-lanes:64}") int maxLanes,
+                              @Value("${tracking.pool.low-watermark:200}") int lowWatermark,
+                              @Value("${tracking.pool.high-watermark:1000}") int highWatermark,
+                              @Value("${tracking.pool.refill-batch-size:500}") int refillBatchSize) {
+        if (enabled && (lowWatermark < 0 || highWatermark <= lowWatermark || refillBatchSize < 1)) {
+            throw new IllegalArgumentException("tracking.pool watermarks must satisfy 0 <= low-watermark < high-watermark "
+                    + "and refill-batch-size must be positive.");
+        }
+        this.trackingNumberRepository = trackingNumberRepository;
+        this.trackingNumberEncoder = trackingNumberEncoder;
+        this.issuedTrackingNumberFilter = issuedTrackingNumberFilter;
+        this.trackingNumberArchive = trackingNumberArchive;
+        this.trackingMetrics = trackingMetrics;
+        this.registry = registry;
+        this.enabled = enabled;
+        this.maxLanes = maxLanes;
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        this.refillBatchSize = refillBatchSize;
+        registerMeters();
+        if (enabled) {
+            for (String lane : hotLanes.split(",")) {
+                String trimmed = lane.trim();
+                if (!trimmed.isEmpty()) {
+                    if (trimmed.length() != 4) {
+                        throw new IllegalArgumentException("tracking.pool.lanes entries must be origin + destination, e.g. MYID: " + trimmed);
+                    }
+                    lane(trimmed.substring(0, 2), trimmed.substring(2));
+                }
+            }
+            logger.info("TrackingNumberPool enabled for lanes {} (watermarks {}/{}, at most {} lanes).",
+                    lanes.keySet(), lowWatermark, highWatermark, maxLanes);
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        refill();
+    }
+
+    /**
+     * Issues a pool number of the lane and returns it, or returns {@code null} when the pool is
+     * disabled or the lane's pool is empty, and the caller has to generate the number inline.
+     * A duplicate idempotency key surfaces as a {@code DataIntegrityViolationException}, with the
+     * number put back into the pool.
+     */
+    public String issue(String originCountryId, String destinationCountryId, String idempotencyKey) {
+        if (!enabled || closed) {
+            return null;
+        }
+        LanePool pool = lane(originCountryId, destinationCountryId);
+        if (pool == null) {
+            misses.increment();
+            return null;
+        }
+        String trackingNumber;
+        while ((trackingNumber = pool.poll()) != null) {
+            long persistStart = System.nanoTime();
+            boolean issued;
+            try {
+                issued = trackingNumberRepository.issuePooled(trackingNumber, OffsetDateTime.now(), idempotencyKey);
+            } catch (DataIntegrityViolationException e) {
+                trackingMetrics.recordPersistence(persistStart);
+                pool.offer(trackingNumber);
+                throw e;
+            }
+            trackingMetrics.recordPersistence(persistStart);
+            if (issued) {
+                hits.increment();
+                return trackingNumber;
+            }
+            logger.warn("Pool number {} was no longer in the pool. Taking the next one.", trackingNumber);
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Tops up every lane that has fallen below the low watermark.
+     */
+    @Scheduled(fixedDelayString = "${tracking.pool.refill-interval-ms:100}",
+            initialDelayString = "${tracking.pool.refill-interval-ms:100}")
+    public void refill() {
+        if (!enabled || closed) {
+            return;
+        }
+        for (LanePool pool : lanes.values()) {
+            if (pool.size() >= lowWatermark) {
+                continue;
+            }
+            try {
+                while (!closed && pool.size() < highWatermark) {
+                    refill(pool, Math.min(refillBatchSize, highWatermark - pool.size()));
+                }
+            } catch (DataAccessException | IllegalStateException e) {
+                logger.warn("Failed to refill the tracking number pool of lane {}: {}", pool.lane, e.getMessage());
+            }
+        }
+    }
+
+    private void refill(LanePool pool, int count) {
+        for (int attempt = 1; attempt <= MAX_REFILL_ATTEMPTS; attempt++) {
+            List<GeneratedTrackingNumber> newNumbers = new ArrayList<>(count);
+            while (newNumbers.size() < count) {
+                String candidate = trackingNumberEncoder.randomTrackingNumber(pool.origin, pool.destination);
+                // Off the request path, a candidate the filter cannot rule out is simply dropped, and the
+                // probe leaves the request-path filter counters alone.
+                if (issuedTrackingNumberFilter.probe(candidate) || trackingNumberArchive.contains(candidate)) {
+                    continue;
+                }
+                GeneratedTrackingNumber newNumber = new GeneratedTrackingNumber(candidate);
+                newNumber.setPoolLane(pool.lane);
+                newNumbers.add(newNumber);
+            }
+            try {
+                trackingNumberRepository.insertAll(newNumbers);
+            } catch (DataIntegrityViolationException e) {
+                logger.warn("Collision while refilling the pool of lane {}. Retrying... (Attempt {}/{})", pool.lane, attempt, MAX_REFILL_ATTEMPTS);
+                continue;
+            }
+            for (GeneratedTrackingNumber newNumber : newNumbers) {
+                issuedTrackingNumberFilter.put(newNumber.getTrackingNumber());
+                pool.offer(newNumber.getTrackingNumber());
+            }
+            refilled.add(newNumbers.size());
+            return;
+        }
+        throw new IllegalStateException("Failed to refill the pool of lane " + pool.lane + " after " + MAX_REFILL_ATTEMPTS + " attempts.");
+    }
+
+    private LanePool lane(String originCountryId, String destinationCountryId) {
+        String lane = laneKey(originCountryId, destinationCountryId);
+        LanePool pool = lanes.get(lane);
+        if (pool != null || lanes.size() >= maxLanes) {
+            return pool;
+        }
+        // Adopted lanes start empty; the request that adopts one is served inline.
+        return lanes.computeIfAbsent(lane, key -> {
+            LanePool created = new LanePool(key);
+            created.bindTo(registry);
+            return created;
+        });
+    }
+
+    static String laneKey(String originCountryId, String destinationCountryId) {
+        char[] lane = {
+                Character.toUpperCase(originCountryId.charAt(0)), Character.toUpperCase(originCountryId.charAt(1)),
+                Character.toUpperCase(destinationCountryId.charAt(0)), Character.toUpperCase(destinationCountryId.charAt(1))
+        };
+        return new String(lane);
+    }
+
+    /** Numbers waiting in the pool of the lane, 0 if it has none. */
+    int depth(String originCountryId, String destinationCountryId) {
+        LanePool pool = lanes.get(laneKey(originCountryId, destinationCountryId));
+        return pool == null ? 0 : pool.size();
+    }
+
+    /**
+     * Stops issuing and deletes the numbers still queued, so they are neither lost as issued
+     * nor handed out by anyone else.
+     */
+    @Override
+    public void destroy() {
+        if (!enabled) {
+            return;
+        }
+        closed = true;
+        List<String> unissued = new ArrayList<>();
+        for (LanePool pool : lanes.values()) {
+            String trackingNumber;
+            while ((trackingNumber = pool.poll()) != null) {
+                unissued.add(trackingNumber);
+            }
+        }
+        try {
+            trackingNumberRepository.deletePooled(unissued);
+            logger.info("Returned {} unissued pool numbers.", unissued.size());
+        } catch (DataAccessException e) {
+            logger.warn("Failed to return {} unissued pool numbers; they stay reserved: {}", unissued.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Registered here rather than through a {@code MeterBinder}: binders are created while the
+     * registry is, and the {@link TrackingMetrics} this pool times its updates with needs that registry.
+     */
+    private void registerMeters() {
+        FunctionCounter.builder("tracking.pool.hits", hits, LongAdder::sum)
+                .description("Tracking numbers issued from the pre-generated pool")
+                .register(registry);
+        FunctionCounter.builder("tracking.pool.misses", misses, LongAdder::sum)
+                .description("Requests that found the pool empty and generated inline")
+                .register(registry);
+        FunctionCounter.builder("tracking.pool.refilled", refilled, LongAdder::sum)
+                .description("Tracking numbers pre-generated and persisted into the pool")
+                .register(registry);
+    }
+
+    private static final class LanePool {
+
+        final String lane;
+        final String origin;
+        final String destination;
+        private final ConcurrentLinkedQueue<String> queue = new ConcurrentLinkedQueue<>();
+        // ConcurrentLinkedQueue.size() walks the queue.
+        private final AtomicInteger size = new AtomicInteger();
+
+        LanePool(String lane) {
+            this.lane = lane;
+            this.origin = lane.substring(0, 2);
+            this.destination = lane.substring(2);
+        }
+
+        String poll() {
+            String trackingNumber = queue.poll();
+            if (trackingNumber != null) {
+                size.decrementAndGet();
+            }
+            return trackingNumber;
+        }
+
+        void offer(String trackingNumber) {
+            queue.offer(trackingNumber);
+            size.incrementAndGet();
+        }
+
+        int size() {
+            return size.get();
+        }
+
+        void bindTo(MeterRegistry registry) {
+            Gauge.builder("tracking.pool.depth", this, LanePool::size)
+                    .tag("lane", lane)
+                    .description("Pre-generated tracking numbers waiting in the pool of the lane")
+                    .register(registry);
+        }
+    }
+}
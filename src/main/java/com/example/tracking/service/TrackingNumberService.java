@@ -1,8 +1,28 @@
 package com.example.tracking.service;
 
+import java.util.List;
+
 public interface TrackingNumberService {
-    String generateTrackingNumber(
+    default String generateTrackingNumber(
             String originCountryId,
             String destinationCountryId
+    ) {
+        return generateTrackingNumber(originCountryId, destinationCountryId, null);
+    }
+
+    /**
+     * Generates and records a number that carries {@code idempotencyKey}, if one is given. A key
+     * that is already stored fails the insert like any other collision.
+     */
+    String generateTrackingNumber(
+            String originCountryId,
+            String destinationCountryId,
+            String idempotencyKey
+    );
+
+    List<String> generateTrackingNumbers(
+            String originCountryId,
+            String destinationCountryId,
+            int count
     );
 }
@@ -5,49 +5,200 @@ import com.example.tracking.repository.TrackingNumberRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
+@ConditionalOnProperty(name = "tracking.generator.strategy", havingValue = "random", matchIfMissing = true)
 public class TrackingNumberServiceImpl implements TrackingNumberService {
 
     private static final Logger logger = LoggerFactory.getLogger(TrackingNumberServiceImpl.class);
 
     private final TrackingNumberRepository trackingNumberRepository;
+    private final TrackingNumberEncoder trackingNumberEncoder;
+    private final IssuedTrackingNumberFilter issuedTrackingNumberFilter;
+    private final TrackingNumberPool trackingNumberPool;
+    private final TrackingNumberArchive trackingNumberArchive;
+    private final TrackingMetrics trackingMetrics;
+    private final int batchChunkSize;
 
     @Autowired
-    public TrackingNumberServiceImpl(TrackingNumberRepository trackingNumberRepository) {
+    public TrackingNumberServiceImpl(TrackingNumberRepository trackingNumberRepository,
+                                     TrackingNumberEncoder trackingNumberEncoder,
+                                     IssuedTrackingNumberFilter issuedTrackingNumberFilter,
+                                     TrackingNumberPool trackingNumberPool,
+                                     TrackingNumberArchive trackingNumberArchive,
+                                     TrackingMetrics trackingMetrics,
+                                     @Value("${tracking.batch.chunk-size:500}") int batchChunkSize) {
         this.trackingNumberRepository = trackingNumberRepository;
-        logger.info("TrackingNumberService initialized with UUID generation strategy.");
+        this.trackingNumberEncoder = trackingNumberEncoder;
+        this.issuedTrackingNumberFilter = issuedTrackingNumberFilter;
+        this.trackingNumberPool = trackingNumberPool;
+        this.trackingNumberArchive = trackingNumberArchive;
+        this.trackingMetrics = trackingMetrics;
+        this.batchChunkSize = batchChunkSize;
+        logger.info("TrackingNumberService initialized with random generation strategy.");
     }
 
     @Override
-    public String generateTrackingNumber(String originCountryId, String destinationCountryId) {
-        logger.info("Attempting to generate tracking number for origin: {}, destination: {}", originCountryId, destinationCountryId);
-        logger.debug("Using UUID strategy for tracking number generation.");
+    public String generateTrackingNumber(String originCountryId, String destinationCountryId, String idempotencyKey) {
+        logger.debug("Attempting to generate tracking number for origin: {}, destination: {}", originCountryId, destinationCountryId);
+
+        long start = System.nanoTime();
+        String pooledTrackingNumber;
+        try {
+            pooledTrackingNumber = trackingNumberPool.issue(originCountryId, destinationCountryId, idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            String storedTrackingNumber = findStored(idempotencyKey);
+            if (storedTrackingNumber == null) {
+                throw e;
+            }
+            logger.debug("Idempotency key {} was already stored with tracking number {}.", idempotencyKey, storedTrackingNumber);
+            return storedTrackingNumber;
+        }
+        if (pooledTrackingNumber != null) {
+            logger.debug("Issued pre-generated tracking number (random): {}", pooledTrackingNumber);
+            trackingMetrics.recordGeneration(start);
+            return pooledTrackingNumber;
+        }
 
         String candidateTrackingNumber;
         int maxRetries = 10;
         int attempt = 0;
 
         while (attempt < maxRetries) {
-            String baseTrackingNumber = UUID.randomUUID().toString().replaceAll("-", "").toUpperCase().substring(0, 12);
-            candidateTrackingNumber = originCountryId + baseTrackingNumber + destinationCountryId;
+            candidateTrackingNumber = trackingNumberEncoder.randomTrackingNumber(originCountryId, destinationCountryId);
 
+            if (isIssued(candidateTrackingNumber)) {
+                logger.warn("Collision detected for tracking number (random): {}. Retrying... (Attempt {}/{})", candidateTrackingNumber, attempt + 1, maxRetries);
+                trackingMetrics.collision();
+                attempt++;
+                if (attempt < maxRetries) {
+                    trackingMetrics.retry();
+                }
+                continue;
+            }
+
+            long persistStart = System.nanoTime();
             try {
-                GeneratedTrackingNumber newNumber = new GeneratedTrackingNumber(candidateTrackingNumber);
-                trackingNumberRepository.save(newNumber);
-                logger.info("Generated unique tracking number (UUID): {}", candidateTrackingNumber);
+                GeneratedTrackingNumber newNumber = new GeneratedTrackingNumber(candidateTrackingNumber, idempotencyKey);
+                trackingNumberRepository.insert(newNumber);
+                trackingMetrics.recordPersistence(persistStart);
+                issuedTrackingNumberFilter.put(candidateTrackingNumber);
+                logger.debug("Generated unique tracking number (random): {}", candidateTrackingNumber);
+                trackingMetrics.recordGeneration(start);
                 return candidateTrackingNumber;
             } catch (DataIntegrityViolationException e) {
-                logger.warn("Collision detected for tracking number (UUID): {}. Retrying... (Attempt {}/{})", candidateTrackingNumber, attempt + 1, maxRetries);
+                trackingMetrics.recordPersistence(persistStart);
+                String storedTrackingNumber = findStored(idempotencyKey);
+                if (storedTrackingNumber != null) {
+                    logger.debug("Idempotency key {} was already stored with tracking number {}.", idempotencyKey, storedTrackingNumber);
+                    return storedTrackingNumber;
+                }
+                logger.warn("Collision detected for tracking number (random): {}. Retrying... (Attempt {}/{})", candidateTrackingNumber, attempt + 1, maxRetries);
+                trackingMetrics.collision();
+                attempt++;
+                if (attempt < maxRetries) {
+                    trackingMetrics.retry();
+                }
+            }
+        }
+
+        trackingMetrics.exhausted();
+        logger.error("Failed to generate a unique tracking number (random) after {} attempts.", maxRetries);
+        throw new RuntimeException("Failed to generate a unique tracking number (random) after " + maxRetries + " attempts.");
+    }
+
+    @Override
+    public List<String> generateTrackingNumbers(String originCountryId, String destinationCountryId, int count) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Attempting to generate {} tracking numbers for origin: {}, destination: {}", count, originCountryId, destinationCountryId);
+        }
+
+        long start = System.nanoTime();
+        List<String> trackingNumbers = new ArrayList<>(count);
+        while (trackingNumbers.size() < count) {
+            int chunkSize = Math.min(batchChunkSize, count - trackingNumbers.size());
+            trackingNumbers.addAll(generateChunk(originCountryId, destinationCountryId, chunkSize));
+        }
+
+        trackingMetrics.recordBatchGeneration(start);
+        logger.debug("Generated {} unique tracking numbers (random).", count);
+        return trackingNumbers;
+    }
+
+    private List<String> generateChunk(String originCountryId, String destinationCountryId, int chunkSize) {
+        int maxRetries = 10;
+        int attempt = 0;
+
+        while (attempt < maxRetries) {
+            List<String> candidateTrackingNumbers = new ArrayList<>(chunkSize);
+            List<GeneratedTrackingNumber> newNumbers = new ArrayList<>(chunkSize);
+            while (candidateTrackingNumbers.size() < chunkSize) {
+                String candidateTrackingNumber = trackingNumberEncoder.randomTrackingNumber(originCountryId, destinationCountryId);
+                if (isIssued(candidateTrackingNumber)) {
+                    logger.warn("Collision detected for tracking number (random): {}. Regenerating.", candidateTrackingNumber);
+                    trackingMetrics.collision();
+                    continue;
+                }
+                candidateTrackingNumbers.add(candidateTrackingNumber);
+                newNumbers.add(new GeneratedTrackingNumber(candidateTrackingNumber));
+            }
+
+            long persistStart = System.nanoTime();
+            try {
+                trackingNumberRepository.insertAll(newNumbers);
+                trackingMetrics.recordPersistence(persistStart);
+                candidateTrackingNumbers.forEach(issuedTrackingNumberFilter::put);
+                return candidateTrackingNumbers;
+            } catch (DataIntegrityViolationException e) {
+                trackingMetrics.recordPersistence(persistStart);
+                logger.warn("Collision detected in batch of {} tracking numbers (random). Retrying... (Attempt {}/{})", chunkSize, attempt + 1, maxRetries);
+                trackingMetrics.collision();
                 attempt++;
+                if (attempt < maxRetries) {
+                    trackingMetrics.retry();
+                }
             }
         }
 
-        logger.error("Failed to generate a unique tracking number (UUID) after {} attempts.", maxRetries);
-        throw new RuntimeException("Failed to generate a unique tracking number (UUID) after " + maxRetries + " attempts.");
+        trackingMetrics.exhausted();
+
+        logger.error("Failed to generate a batch of unique tracking numbers (random) after {} attempts.", maxRetries);
+        throw new RuntimeException("Failed to generate a batch of unique tracking numbers (random) after " + maxRetries + " attempts.");
+    }
+
+    /**
+     * A repeated idempotency key violates its unique index just like a repeated tracking number does;
+     * this tells the two apart by looking for the number already stored under the key.
+     */
+    private String findStored(String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return null;
+        }
+        return trackingNumberRepository.findByIdempotencyKey(idempotencyKey)
+                .map(GeneratedTrackingNumber::getTrackingNumber)
+                .orElse(null);
+    }
+
+    /**
+     * Only candidates the filter cannot rule out pay for an existence check; everything else goes
+     * straight to a plain insert, which still fails on the primary key if the filter is wrong.
+     * Archived numbers are no longer in the table, so the archive is asked last; its own filters
+     * rule out almost every candidate in memory.
+     */
+    private boolean isIssued(String candidateTrackingNumber) {
+        if (issuedTrackingNumberFilter.mightContain(candidateTrackingNumber)) {
+            if (trackingNumberRepository.existsById(candidateTrackingNumber)) {
+                return true;
+            }
+            issuedTrackingNumberFilter.recordFalsePositive();
+        }
+        return trackingNumberArchive.contains(candidateTrackingNumber);
     }
 }
@@ -0,0 +1,319 @@
+package com.example.tracking.service;
+
+import com.example.tracking.entity.GeneratedTrackingNumber;
+import com.example.tracking.repository.TrackingNumberRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Acknowledges issued numbers once they are appended to the local journal and queued, and writes
+ * them to {@code generated_tracking_numbers} from a background thread in JDBC batches of up to
+ * {@code batch-size} rows, or whatever has arrived after {@code flush-interval-ms}.
+ * <p>
+ * Only safe for allocator strategies where uniqueness is guaranteed before the insert: a duplicate
+ * number found at flush time can only be a row an earlier run already wrote, so it is counted and
+ * skipped. Numbers carrying an idempotency key are inserted on the calling thread instead, because
+ * only the unique index can tell that another node already stored the key, and the caller has to
+ * hear about it. When the queue stays full for {@code offer-timeout-ms} the number is also inserted
+ * on the calling thread.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.write-behind.enabled", havingValue = "true")
+public class WriteBehindIssuedTrackingNumberRecorder implements IssuedTrackingNumberRecorder, SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindIssuedTrackingNumberRecorder.class);
+
+    private static final long MAX_RETRY_BACKOFF_MS = 5000;
+
+    private final TrackingNumberRepository trackingNumberRepository;
+    private final IssuedTrackingNumberJournal journal;
+    private final BlockingQueue<PendingRecord> queue;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+
+    private final Timer flushLatency;
+    private final Counter flushed;
+    private final Counter backPressure;
+    private final Counter duplicates;
+    private final Counter keyConflicts;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public WriteBehindIssuedTrackingNumberRecorder(TrackingNumberRepository trackingNumberRepository,
+                                                   MeterRegistry meterRegistry,
+                                                   @Value("${tracking.write-behind.queue-capacity:100000}") int queueCapacity,
+                                                   @Value("${tracking.write-behind.batch-size:500}") int batchSize,
+                                                   @Value("${tracking.write-behind.flush-interval-ms:50}") long flushIntervalMs,
+                                                   @Value("${tracking.write-behind.offer-timeout-ms:10}") long offerTimeoutMs,
+                                                   @Value("${tracking.write-behind.journal-dir:./data/journal}") String journalDir,
+                                                   @Value("${tracking.write-behind.journal-segment-bytes:67108864}") long journalSegmentBytes,
+                                                   @Value("${tracking.write-behind.journal-fsync:true}") boolean journalFsync) throws IOException {
+        this.trackingNumberRepository = trackingNumberRepository;
+        this.journal = new IssuedTrackingNumberJournal(Paths.get(journalDir), journalSegmentBytes, journalFsync);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+
+        Gauge.builder("tracking.write-behind.queue.depth", queue, Collection::size)
+                .description("Issued tracking numbers waiting to be written")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("tracking.write-behind.flush.latency")
+                .description("Time taken to write one batch of issued tracking numbers")
+                .register(meterRegistry);
+        this.flushed = Counter.builder("tracking.write-behind.flushed")
+                .description("Issued tracking numbers written by the background writer")
+                .register(meterRegistry);
+        this.backPressure = Counter.builder("tracking.write-behind.backpressure")
+                .description("Issued tracking numbers inserted on the request thread because the queue was full")
+                .register(meterRegistry);
+        FunctionCounter.builder("tracking.write-behind.journal.syncs", journal, IssuedTrackingNumberJournal::syncCount)
+                .description("Journal forces to disk; concurrent appends share one")
+                .register(meterRegistry);
+        this.duplicates = Counter.builder("tracking.write-behind.duplicates")
+                .description("Issued tracking numbers already present when written")
+                .register(meterRegistry);
+        this.keyConflicts = Counter.builder("tracking.write-behind.idempotency-conflicts")
+                .description("Replayed numbers whose idempotency key was already stored with another number")
+                .register(meterRegistry);
+
+        logger.info("Write-behind recorder initialized (queue capacity {}, batch size {}, flush interval {} ms, journal {}).",
+                queueCapacity, batchSize, flushIntervalMs, journalDir);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        start();
+    }
+
+    /**
+     * Replays anything a previous run journaled but never flushed, then starts the writer thread.
+     */
+    synchronized void start() {
+        if (running) {
+            return;
+        }
+        try {
+            List<GeneratedTrackingNumber> replayed = new ArrayList<>();
+            List<Path> segments = journal.replay(replayed);
+            if (!replayed.isEmpty()) {
+                for (int from = 0; from < replayed.size(); from += batchSize) {
+                    write(replayed.subList(from, Math.min(from + batchSize, replayed.size())));
+                }
+                logger.info("Replayed {} journaled tracking numbers from {} segment(s).", replayed.size(), segments.size());
+            }
+            journal.deleteReplayed(segments);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to replay the issued tracking number journal.", e);
+        }
+
+        running = true;
+        writer = new Thread(this::drain, "tracking-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void record(GeneratedTrackingNumber trackingNumber) {
+        if (trackingNumber.getIdempotencyKey() != null) {
+            // Throws DataIntegrityViolationException when the key is already stored, like a direct insert.
+            trackingNumberRepository.insert(trackingNumber);
+            return;
+        }
+        recordAll(Collections.singletonList(trackingNumber));
+    }
+
+    @Override
+    public void recordAll(List<GeneratedTrackingNumber> trackingNumbers) {
+        IssuedTrackingNumberJournal.Segment segment;
+        try {
+            segment = journal.append(trackingNumbers);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to journal issued tracking numbers.", e);
+        }
+
+        for (GeneratedTrackingNumber trackingNumber : trackingNumbers) {
+            boolean queued;
+            try {
+                queued = queue.offer(new PendingRecord(trackingNumber, segment), offerTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queued = false;
+            }
+            if (!queued) {
+                backPressure.increment();
+                write(Collections.singletonList(trackingNumber));
+                markFlushed(segment, 1);
+            }
+        }
+    }
+
+    /**
+     * Keyed numbers are never queued, so the database is the only place to look.
+     */
+    @Override
+    public String findStored(String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return null;
+        }
+        return trackingNumberRepository.findByIdempotencyKey(idempotencyKey)
+                .map(GeneratedTrackingNumber::getTrackingNumber)
+                .orElse(null);
+    }
+
+    private void drain() {
+        List<PendingRecord> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingRecord first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingRecord next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                flush(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Write-behind writer interrupted with {} numbers queued. They remain in the journal.", queue.size());
+                return;
+            }
+        }
+        logger.info("Write-behind writer stopped.");
+    }
+
+    private void flush(List<PendingRecord> batch) throws InterruptedException {
+        List<GeneratedTrackingNumber> trackingNumbers = new ArrayList<>(batch.size());
+        for (PendingRecord pending : batch) {
+            trackingNumbers.add(pending.trackingNumber);
+        }
+
+        long backoffMs = flushIntervalMs;
+        while (true) {
+            try {
+                flushLatency.record(() -> write(trackingNumbers));
+                break;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    // Leave the batch in the journal; it is replayed on the next start.
+                    logger.error("Failed to write {} issued tracking numbers during shutdown. They remain in the journal.", trackingNumbers.size(), e);
+                    return;
+                }
+                logger.error("Failed to write {} issued tracking numbers. Retrying in {} ms.", trackingNumbers.size(), backoffMs, e);
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, MAX_RETRY_BACKOFF_MS);
+            }
+        }
+        flushed.increment(trackingNumbers.size());
+
+        Map<IssuedTrackingNumberJournal.Segment, Integer> perSegment = new IdentityHashMap<>();
+        for (PendingRecord pending : batch) {
+            perSegment.merge(pending.segment, 1, Integer::sum);
+        }
+        for (Map.Entry<IssuedTrackingNumberJournal.Segment, Integer> entry : perSegment.entrySet()) {
+            markFlushed(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * A duplicate means the row was already written, e.g. by a replay after a crash that happened
+     * between the database commit and the journal update, so it is counted and skipped. Journals
+     * written before keyed numbers bypassed the queue may still hold idempotency keys; one already
+     * stored with a different number means the caller was given a number that was never kept, which
+     * is logged as an error.
+     */
+    private void write(List<GeneratedTrackingNumber> trackingNumbers) {
+        try {
+            trackingNumberRepository.insertAll(trackingNumbers);
+        } catch (DataIntegrityViolationException e) {
+            for (GeneratedTrackingNumber trackingNumber : trackingNumbers) {
+                try {
+                    trackingNumberRepository.insert(trackingNumber);
+                } catch (DataIntegrityViolationException duplicate) {
+                    String storedTrackingNumber = findStored(trackingNumber.getIdempotencyKey());
+                    if (storedTrackingNumber != null && !storedTrackingNumber.equals(trackingNumber.getTrackingNumber())) {
+                        keyConflicts.increment();
+                        logger.error("Tracking number {} was issued for an idempotency key already stored with {}. Dropping it.",
+                                trackingNumber.getTrackingNumber(), storedTrackingNumber);
+                    } else {
+                        duplicates.increment();
+                        logger.warn("Tracking number {} was already recorded. Skipping.", trackingNumber.getTrackingNumber());
+                    }
+                }
+            }
+        }
+    }
+
+    private void markFlushed(IssuedTrackingNumberJournal.Segment segment, int count) {
+        try {
+            journal.flushed(segment, count);
+        } catch (IOException e) {
+            logger.warn("Failed to delete flushed journal segment {}.", segment.path, e);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = writer;
+        }
+        if (current != null) {
+            // Not interrupted: the writer finishes the queue, and an interrupt inside a JDBC call can close the H2 file.
+            current.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        journal.close();
+    }
+
+    private static final class PendingRecord {
+
+        final GeneratedTrackingNumber trackingNumber;
+        final IssuedTrackingNumberJournal.Segment segment;
+
+        PendingRecord(GeneratedTrackingNumber trackingNumber, IssuedTrackingNumberJournal.Segment segment) {
+            this.trackingNumber = trackingNumber;
+            this.segment = segment;
+        }
+    }
+}
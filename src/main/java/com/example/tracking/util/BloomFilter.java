@@ -0,0 +1,150 @@
+package com.example.tracking.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free Bloom filter over strings. Bits live in an {@link AtomicLongArray} and are only ever
+ * set, so concurrent {@link #put} and {@link #mightContain} calls need no locking and
+ * {@code mightContain} never returns a false negative for a completed {@code put}.
+ */
+public class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashFunctions;
+    private final LongAdder insertions = new LongAdder();
+
+    private BloomFilter(long bitSize, int hashFunctions) {
+        long wordCount = (bitSize + 63) >>> 6;
+        if (wordCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bloom filter too large: " + bitSize + " bits.");
+        }
+        this.words = new AtomicLongArray((int) wordCount);
+        this.bitSize = wordCount << 6;
+        this.hashFunctions = hashFunctions;
+    }
+
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive.");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1 (exclusive).");
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (LN2 * LN2));
+        int hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * LN2));
+        return new BloomFilter(Math.max(64, bits), hashes);
+    }
+
+    /**
+     * Writes the filter as its bit count, hash function count, insertion count and bit words, for
+     * {@link #readFrom} to load it back without re-inserting the values.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeLong(bitSize);
+        out.writeInt(hashFunctions);
+        out.writeLong(insertions());
+        for (int i = 0; i < words.length(); i++) {
+            out.writeLong(words.get(i));
+        }
+    }
+
+    public static BloomFilter readFrom(DataInput in) throws IOException {
+        long bitSize = in.readLong();
+        int hashFunctions = in.readInt();
+        long insertions = in.readLong();
+        if (bitSize < 64 || (bitSize & 63) != 0 || hashFunctions < 1) {
+            throw new IOException("Not a serialized Bloom filter: " + bitSize + " bits, " + hashFunctions + " hash functions.");
+        }
+        BloomFilter filter = new BloomFilter(bitSize, hashFunctions);
+        for (int i = 0; i < filter.words.length(); i++) {
+            filter.words.set(i, in.readLong());
+        }
+        filter.insertions.add(insertions);
+        return filter;
+    }
+
+    public void put(CharSequence value) {
+        long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1;
+        boolean changed = false;
+        for (int i = 0; i < hashFunctions; i++) {
+            changed |= setBit(index(hash1 + i * hash2));
+        }
+        if (changed) {
+            insertions.increment();
+        }
+    }
+
+    public boolean mightContain(CharSequence value) {
+        long hash1 = hash(value, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = index(hash1 + i * hash2);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public long memoryBytes() {
+        return bitSize >>> 3;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    /** Approximate number of distinct values put so far. */
+    public long insertions() {
+        return insertions.sum();
+    }
+
+    /** False positive rate expected for the current number of insertions. */
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-hashFunctions * (double) insertions() / bitSize), hashFunctions);
+    }
+
+    private long index(long combinedHash) {
+        return (combinedHash & Long.MAX_VALUE) % bitSize;
+    }
+
+    private boolean setBit(long bit) {
+        int wordIndex = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        while (true) {
+            long word = words.get(wordIndex);
+            if ((word & mask) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(wordIndex, word, word | mask)) {
+                return true;
+            }
+        }
+    }
+
+    private static long hash(CharSequence value, long seed) {
+        long h = seed;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        // MurmurHash3 finalizer spreads the FNV-style accumulation over all 64 bits.
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
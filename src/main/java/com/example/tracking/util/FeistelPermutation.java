@@ -0,0 +1,70 @@
+package com.example.tracking.util;
+
+/**
+ * Keyed bijection on {@code [0, half * half)}. A balanced Feistel network over the two
+ * base-{@code half} digits of the value, so consecutive inputs map to outputs that look unrelated
+ * while every output still belongs to exactly one input. {@link #inverse} undoes {@link #permute}.
+ */
+public final class FeistelPermutation {
+
+    private static final int ROUNDS = 4;
+
+    private final long half;
+    private final long[] roundKeys = new long[ROUNDS];
+
+    public FeistelPermutation(long half, long key) {
+        if (half < 2 || half > 3_037_000_499L) {
+            throw new IllegalArgumentException("Half-domain size must be between 2 and sqrt(Long.MAX_VALUE).");
+        }
+        this.half = half;
+        long state = key;
+        for (int i = 0; i < ROUNDS; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            roundKeys[i] = mix(state);
+        }
+    }
+
+    public long domainSize() {
+        return half * half;
+    }
+
+    public long permute(long value) {
+        checkRange(value);
+        long left = value / half;
+        long right = value % half;
+        for (int i = 0; i < ROUNDS; i++) {
+            long next = (left + round(right, i)) % half;
+            left = right;
+            right = next;
+        }
+        return left * half + right;
+    }
+
+    public long inverse(long value) {
+        checkRange(value);
+        long left = value / half;
+        long right = value % half;
+        for (int i = ROUNDS - 1; i >= 0; i--) {
+            long previous = Math.floorMod(right - round(left, i), half);
+            right = left;
+            left = previous;
+        }
+        return left * half + right;
+    }
+
+    private long round(long value, int round) {
+        return (mix(value ^ roundKeys[round]) >>> 1) % half;
+    }
+
+    private void checkRange(long value) {
+        if (value < 0 || value >= half * half) {
+            throw new IllegalArgumentException("Value out of range: " + value);
+        }
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.tracking.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The {@code k} most frequent keys of an unbounded key space, approximately: every key is counted
+ * in a count-min sketch ({@code depth} rows of {@code width} counters; an estimate never
+ * undercounts and overcounts by about {@code e / width} of the total with probability
+ * {@code 1 - e^-depth}), and up to {@code k} candidates are kept by name.
+ * <p>
+ * Adding costs {@code depth} atomic increments. The lock is only taken when a key that is not a
+ * candidate yet reaches the estimate of the weakest candidate.
+ */
+public final class HeavyHitters {
+
+    private final int k;
+    private final int depth;
+    private final int widthMask;
+    private final AtomicLongArray counters;
+
+    private final Set<String> candidates = ConcurrentHashMap.newKeySet();
+    private volatile long threshold;
+
+    public HeavyHitters(int k, int width, int depth) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1.");
+        }
+        if (width < 1 || Integer.bitCount(width) != 1 || depth < 1) {
+            throw new IllegalArgumentException("width must be a power of two and depth at least 1.");
+        }
+        this.k = k;
+        this.depth = depth;
+        this.widthMask = width - 1;
+        this.counters = new AtomicLongArray(width * depth);
+    }
+
+    public void add(CharSequence key, long count) {
+        long hash1 = hash(key, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(key, 0xC2B2AE3D27D4EB4FL) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.addAndGet(index(row, hash1, hash2), count));
+        }
+        if (estimate < threshold) {
+            return;
+        }
+        String name = key.toString();
+        if (!candidates.contains(name)) {
+            promote(name);
+        }
+    }
+
+    /** Estimated count of {@code key}; never less than what was added for it. */
+    public long estimate(CharSequence key) {
+        long hash1 = hash(key, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(key, 0xC2B2AE3D27D4EB4FL) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(row, hash1, hash2)));
+        }
+        return estimate;
+    }
+
+    /** The candidates, most frequent first. */
+    public List<Entry> top() {
+        List<Entry> top = new ArrayList<>(k);
+        for (String candidate : candidates) {
+            top.add(new Entry(candidate, estimate(candidate)));
+        }
+        top.sort((a, b) -> Long.compare(b.count, a.count));
+        return top;
+    }
+
+    public long memoryBytes() {
+        return (long) counters.length() * Long.BYTES;
+    }
+
+    private synchronized void promote(String key) {
+        if (candidates.contains(key)) {
+            return;
+        }
+        candidates.add(key);
+        if (candidates.size() <= k) {
+            if (candidates.size() == k) {
+                threshold = weakest().count;
+            }
+            return;
+        }
+        // Estimates only grow, so the weakest candidate is found from current estimates.
+        candidates.remove(weakest().key);
+        threshold = weakest().count;
+    }
+
+    private Entry weakest() {
+        Entry weakest = null;
+        for (String candidate : candidates) {
+            long estimate = estimate(candidate);
+            if (weakest == null || estimate < weakest.count) {
+                weakest = new Entry(candidate, estimate);
+            }
+        }
+        return weakest;
+    }
+
+    private int index(int row, long hash1, long hash2) {
+        return row * (widthMask + 1) + (int) ((hash1 + row * hash2) >>> 33 & widthMask);
+    }
+
+    private static long hash(CharSequence value, long seed) {
+        long h = seed;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    public static final class Entry {
+
+        private final String key;
+        private final long count;
+
+        Entry(String key, long count) {
+            this.key = key;
+            this.count = count;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
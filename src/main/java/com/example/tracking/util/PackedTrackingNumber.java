@@ -0,0 +1,93 @@
+package com.example.tracking.util;
+
+/**
+ * Binary form of a 16-character tracking number as stored in {@code generated_tracking_numbers}:
+ * 11 bytes instead of 16 characters. Every character is one of the 36 symbols {@code 0-9A-Z}. The
+ * first 3 bytes hold the lane, origin and destination read as 4 base-36 digits (below 2^21); the
+ * other 8 hold the 12-character middle section read as a base-36 number (below 2^63). Both are
+ * big-endian, so byte order sorts by lane first, then by middle section.
+ */
+public final class PackedTrackingNumber {
+
+    public static final int LENGTH = 11;
+
+    private static final int TRACKING_NUMBER_LENGTH = 16;
+    private static final int RADIX = 36;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+    private PackedTrackingNumber() {
+    }
+
+    /**
+     * Packs {@code trackingNumber}, or returns {@code null} if it is not 16 characters of
+     * {@code 0-9A-Z}; such a string can never have been stored.
+     */
+    public static byte[] pack(String trackingNumber) {
+        if (trackingNumber == null || trackingNumber.length() != TRACKING_NUMBER_LENGTH) {
+            return null;
+        }
+        int lane = 0;
+        long middle = 0;
+        for (int i = 0; i < TRACKING_NUMBER_LENGTH; i++) {
+            int digit = digit(trackingNumber.charAt(i));
+            if (digit < 0) {
+                return null;
+            }
+            if (i < 2 || i >= TRACKING_NUMBER_LENGTH - 2) {
+                lane = lane * RADIX + digit;
+            } else {
+                middle = middle * RADIX + digit;
+            }
+        }
+        byte[] packed = new byte[LENGTH];
+        packed[0] = (byte) (lane >>> 16);
+        packed[1] = (byte) (lane >>> 8);
+        packed[2] = (byte) lane;
+        for (int i = LENGTH - 1; i >= 3; i--) {
+            packed[i] = (byte) middle;
+            middle >>>= 8;
+        }
+        return packed;
+    }
+
+    public static String unpack(byte[] packed) {
+        char[] trackingNumber = new char[TRACKING_NUMBER_LENGTH];
+        unpack(packed, trackingNumber);
+        return new String(trackingNumber);
+    }
+
+    /**
+     * Writes the 16 characters of {@code packed} into {@code trackingNumber}, for callers that
+     * reuse one buffer across many rows.
+     */
+    public static void unpack(byte[] packed, char[] trackingNumber) {
+        if (packed == null || packed.length != LENGTH) {
+            throw new IllegalArgumentException("Packed tracking number must be " + LENGTH + " bytes.");
+        }
+        int lane = (packed[0] & 0xFF) << 16 | (packed[1] & 0xFF) << 8 | packed[2] & 0xFF;
+        long middle = 0;
+        for (int i = 3; i < LENGTH; i++) {
+            middle = middle << 8 | packed[i] & 0xFF;
+        }
+        for (int i = TRACKING_NUMBER_LENGTH - 3; i >= 2; i--) {
+            trackingNumber[i] = ALPHABET[(int) (middle % RADIX)];
+            middle /= RADIX;
+        }
+        trackingNumber[15] = ALPHABET[lane % RADIX];
+        lane /= RADIX;
+        trackingNumber[14] = ALPHABET[lane % RADIX];
+        lane /= RADIX;
+        trackingNumber[1] = ALPHABET[lane % RADIX];
+        trackingNumber[0] = ALPHABET[lane / RADIX];
+    }
+
+    private static int digit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.tracking.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts per minute over the last {@code minutes} minutes in a fixed-size ring: the slot of a
+ * minute holds its count and the minute it belongs to in one word, so adding is a single
+ * compare-and-set that also recycles a slot left over from an earlier lap. Minutes that have
+ * fallen out of the ring count as zero.
+ * <p>
+ * With more than one stripe, threads add to the ring of their stripe (picked by thread ID, like
+ * the lane strategy's counters) and reads sum the stripes, so a hot key does not make every
+ * request contend on the same word.
+ */
+public final class WindowCounter {
+
+    private static final int COUNT_BITS = 40;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long MINUTE_MASK = (1L << (Long.SIZE - COUNT_BITS)) - 1;
+    /** Longs between the rings of two stripes, so they never share a cache line. */
+    private static final int PADDING = 8;
+
+    private final int minutes;
+    private final int stride;
+    private final int stripeMask;
+    private final AtomicLongArray cells;
+
+    /**
+     * @param minutes minutes kept, including the current one
+     * @param stripes rings to spread concurrent adds over; a power of two
+     */
+    public WindowCounter(int minutes, int stripes) {
+        if (minutes < 1) {
+            throw new IllegalArgumentException("minutes must be at least 1.");
+        }
+        if (stripes < 1 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("stripes must be a power of two.");
+        }
+        this.minutes = minutes;
+        this.stride = stripes == 1 ? minutes : minutes + PADDING;
+        this.stripeMask = stripes - 1;
+        this.cells = new AtomicLongArray(stride * stripes);
+    }
+
+    /**
+     * Adds {@code count} to {@code minute} (minutes since the epoch), normally the current one.
+     */
+    public void add(long minute, long count) {
+        int stripe = (int) Thread.currentThread().getId() & stripeMask;
+        int index = stripe * stride + (int) (minute % minutes);
+        long stamp = (minute & MINUTE_MASK) << COUNT_BITS;
+        while (true) {
+            long cell = cells.get(index);
+            long updated = (cell & ~COUNT_MASK) == stamp ? cell + count : stamp | count;
+            if (cells.compareAndSet(index, cell, updated)) {
+                return;
+            }
+        }
+    }
+
+    /** Count of {@code minute}, or 0 once it has fallen out of the ring. */
+    public long get(long minute) {
+        return sum(minute, minute);
+    }
+
+    /** Sum of the minutes {@code from} to {@code to}, both included. */
+    public long sum(long from, long to) {
+        if (to - from >= minutes) {
+            from = to - minutes + 1;
+        }
+        long total = 0;
+        for (long minute = from; minute <= to; minute++) {
+            int slot = (int) (minute % minutes);
+            long stamp = (minute & MINUTE_MASK) << COUNT_BITS;
+            for (int base = 0; base < cells.length(); base += stride) {
+                long cell = cells.get(base + slot);
+                if ((cell & ~COUNT_MASK) == stamp) {
+                    total += cell & COUNT_MASK;
+                }
+            }
+        }
+        return total;
+    }
+
+    /** Whether nothing was added in the {@code minutes} minutes up to {@code minute}. */
+    public boolean isIdle(long minute) {
+        return sum(minute - minutes + 1, minute) == 0;
+    }
+
+    public int minutes() {
+        return minutes;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.tracking.validation;
+
+import com.example.tracking.exception.InvalidCountryCodeException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import javax.validation.executable.ExecutableValidator;
+import java.lang.reflect.Method;
+import java.time.OffsetDateTime;
+import java.util.Set;
+
+/**
+ * The previous Bean Validation path: the parameter constraints that used to sit on
+ * {@code TrackingController}, evaluated through the application's {@link Validator}. Reports every
+ * invalid parameter at once as a {@link ConstraintViolationException}, then checks the country
+ * table like {@link FastTrackingRequestValidator}.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.validation.mode", havingValue = "annotation")
+public class AnnotationTrackingRequestValidator implements TrackingRequestValidator {
+
+    private final ExecutableValidator executableValidator;
+    private final Method nextTrackingNumber;
+    private final Method nextTrackingNumbers;
+
+    @Autowired
+    public AnnotationTrackingRequestValidator(Validator validator) {
+        this.executableValidator = validator.forExecutables();
+        try {
+            this.nextTrackingNumber = getClass().getMethod("nextTrackingNumber",
+                    String.class, String.class, Double.class, OffsetDateTime.class, String.class, String.class, String.class, String.class);
+            this.nextTrackingNumbers = getClass().getMethod("nextTrackingNumbers",
+                    String.class, String.class, Double.class, OffsetDateTime.class, String.class, String.class, String.class, Integer.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void validate(String originCountryId, String destinationCountryId, double weight, OffsetDateTime createdAt,
+                         String customerId, String customerName, String customerSlug, String idempotencyKey) {
+        check(nextTrackingNumber, new Object[]{originCountryId, destinationCountryId, weight, createdAt,
+                customerId, customerName, customerSlug, idempotencyKey});
+        checkCountries(originCountryId, destinationCountryId);
+    }
+
+    @Override
+    public void validateBatch(String originCountryId, String destinationCountryId, double weight, OffsetDateTime createdAt,
+                              String customerId, String customerName, String customerSlug, int count) {
+        check(nextTrackingNumbers, new Object[]{originCountryId, destinationCountryId, weight, createdAt,
+                customerId, customerName, customerSlug, count});
+        checkCountries(originCountryId, destinationCountryId);
+    }
+
+    private void check(Method method, Object[] arguments) {
+        Set<ConstraintViolation<AnnotationTrackingRequestValidator>> violations =
+                executableValidator.validateParameters(this, method, arguments);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+    }
+
+    private static void checkCountries(String originCountryId, String destinationCountryId) {
+        if (!IsoCountryCodes.isAssigned(originCountryId)) {
+            throw new InvalidCountryCodeException(ValidationMessages.ORIGIN_UNKNOWN);
+        }
+        if (!IsoCountryCodes.isAssigned(destinationCountryId)) {
+            throw new InvalidCountryCodeException(ValidationMessages.DESTINATION_UNKNOWN);
+        }
+    }
+
+    /**
+     * Constraint holder for {@code GET /next-tracking-number}; never called. Parameter names are
+     * the request parameter names, which end up in the error messages.
+     */
+    public void nextTrackingNumber(
+            @NotBlank(message = ValidationMessages.ORIGIN_BLANK) @Size(min = 2, max = 2, message = ValidationMessages.ORIGIN_SIZE) @Pattern(regexp = "^[a-zA-Z0-9]{2}$", message = ValidationMessages.ORIGIN_PATTERN) String origin_country_id,
+            @NotBlank(message = ValidationMessages.DESTINATION_BLANK) @Size(min = 2, max = 2, message = ValidationMessages.DESTINATION_SIZE) @Pattern(regexp = "^[a-zA-Z0-9]{2}$", message = ValidationMessages.DESTINATION_PATTERN) String destination_country_id,
+            @NotNull(message = ValidationMessages.WEIGHT_NULL) @DecimalMin(value = "0.001", message = ValidationMessages.WEIGHT_MIN) @DecimalMax(value = "999.999", message = ValidationMessages.WEIGHT_MAX) Double weight,
+            @NotNull(message = ValidationMessages.CREATED_AT_NULL) OffsetDateTime created_at,
+            @NotBlank(message = ValidationMessages.CUSTOMER_ID_BLANK) @Pattern(regexp = "^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$", message = ValidationMessages.CUSTOMER_ID_PATTERN) String customer_id,
+            @NotBlank(message = ValidationMessages.CUSTOMER_NAME_BLANK) String customer_name,
+            @NotBlank(message = ValidationMessages.CUSTOMER_SLUG_BLANK) @Pattern(regexp = "^[a-z0-9]+(?:-[a-z0-9]+)*$", message = ValidationMessages.CUSTOMER_SLUG_PATTERN) String customer_slug,
+            @Size(max = 255, message = ValidationMessages.IDEMPOTENCY_KEY_SIZE) String idempotencyKey) {
+    }
+
+    /**
+     * Constraint holder for {@code GET /next-tracking-numbers}; never called.
+     */
+    public void nextTrackingNumbers(
+            @NotBlank(message = ValidationMessages.ORIGIN_BLANK) @Size(min = 2, max = 2, message = ValidationMessages.ORIGIN_SIZE) @Pattern(regexp = "^[a-zA-Z0-9]{2}$", message = ValidationMessages.ORIGIN_PATTERN) String origin_country_id,
+            @NotBlank(message = ValidationMessages.DESTINATION_BLANK) @Size(min = 2, max = 2, message = ValidationMessages.DESTINATION_SIZE) @Pattern(regexp = "^[a-zA-Z0-9]{2}$", message = ValidationMessages.DESTINATION_PATTERN) String destination_country_id,
+            @NotNull(message = ValidationMessages.WEIGHT_NULL) @DecimalMin(value = "0.001", message = ValidationMessages.WEIGHT_MIN) @DecimalMax(value = "999.999", message = ValidationMessages.WEIGHT_MAX) Double weight,
+            @NotNull(message = ValidationMessages.CREATED_AT_NULL) OffsetDateTime created_at,
+            @NotBlank(message = ValidationMessages.CUSTOMER_ID_BLANK) @Pattern(regexp = "^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$", message = ValidationMessages.CUSTOMER_ID_PATTERN) String customer_id,
+            @NotBlank(message = ValidationMessages.CUSTOMER_NAME_BLANK) String customer_name,
+            @NotBlank(message = ValidationMessages.CUSTOMER_SLUG_BLANK) @Pattern(regexp = "^[a-z0-9]+(?:-[a-z0-9]+)*$", message = ValidationMessages.CUSTOMER_SLUG_PATTERN) String customer_slug,
+            @NotNull(message = ValidationMessages.COUNT_NULL) @Min(value = 1, message = ValidationMessages.COUNT_MIN) Integer count) {
+    }
+}
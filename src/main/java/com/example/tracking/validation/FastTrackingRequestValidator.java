@@ -0,0 +1,150 @@
+package com.example.tracking.validation;
+
+import com.example.tracking.exception.InvalidCountryCodeException;
+import com.example.tracking.exception.InvalidInputParametersException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Hand-written checks equivalent to the Bean Validation constraints of
+ * {@link AnnotationTrackingRequestValidator}, without regexes, reflection or boxing. Stops at the
+ * first invalid parameter, in parameter order, with the message the annotation would report.
+ */
+@Component
+@ConditionalOnProperty(name = "tracking.validation.mode", havingValue = "fast", matchIfMissing = true)
+public class FastTrackingRequestValidator implements TrackingRequestValidator {
+
+    static final double MIN_WEIGHT = 0.001;
+    static final double MAX_WEIGHT = 999.999;
+    static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    @Override
+    public void validate(String originCountryId, String destinationCountryId, double weight, OffsetDateTime createdAt,
+                         String customerId, String customerName, String customerSlug, String idempotencyKey) {
+        validateCommon(originCountryId, destinationCountryId, weight, createdAt, customerId, customerName, customerSlug);
+        if (idempotencyKey != null && idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new InvalidInputParametersException(ValidationMessages.IDEMPOTENCY_KEY_SIZE);
+        }
+    }
+
+    @Override
+    public void validateBatch(String originCountryId, String destinationCountryId, double weight, OffsetDateTime createdAt,
+                              String customerId, String customerName, String customerSlug, int count) {
+        validateCommon(originCountryId, destinationCountryId, weight, createdAt, customerId, customerName, customerSlug);
+        if (count < 1) {
+            throw new InvalidInputParametersException(ValidationMessages.COUNT_MIN);
+        }
+    }
+
+    private static void validateCommon(String originCountryId, String destinationCountryId, double weight, OffsetDateTime createdAt,
+                                       String customerId, String customerName, String customerSlug) {
+        checkCountry(originCountryId, ValidationMessages.ORIGIN_BLANK, ValidationMessages.ORIGIN_SIZE,
+                ValidationMessages.ORIGIN_PATTERN, ValidationMessages.ORIGIN_UNKNOWN);
+        checkCountry(destinationCountryId, ValidationMessages.DESTINATION_BLANK, ValidationMessages.DESTINATION_SIZE,
+                ValidationMessages.DESTINATION_PATTERN, ValidationMessages.DESTINATION_UNKNOWN);
+        // Negated so NaN fails like an out-of-range value.
+        if (!(weight >= MIN_WEIGHT)) {
+            throw new InvalidInputParametersException(ValidationMessages.WEIGHT_MIN);
+        }
+        if (!(weight <= MAX_WEIGHT)) {
+            throw new InvalidInputParametersException(ValidationMessages.WEIGHT_MAX);
+        }
+        if (createdAt == null) {
+            throw new InvalidInputParametersException(ValidationMessages.CREATED_AT_NULL);
+        }
+        if (isBlank(customerId)) {
+            throw new InvalidInputParametersException(ValidationMessages.CUSTOMER_ID_BLANK);
+        }
+        if (!isUuid(customerId)) {
+            throw new InvalidInputParametersException(ValidationMessages.CUSTOMER_ID_PATTERN);
+        }
+        if (isBlank(customerName)) {
+            throw new InvalidInputParametersException(ValidationMessages.CUSTOMER_NAME_BLANK);
+        }
+        if (isBlank(customerSlug)) {
+            throw new InvalidInputParametersException(ValidationMessages.CUSTOMER_SLUG_BLANK);
+        }
+        if (!isSlug(customerSlug)) {
+            throw new InvalidInputParametersException(ValidationMessages.CUSTOMER_SLUG_PATTERN);
+        }
+    }
+
+    private static void checkCountry(String value, String blank, String size, String pattern, String unknown) {
+        if (isBlank(value)) {
+            throw new InvalidInputParametersException(blank);
+        }
+        if (value.length() != 2) {
+            throw new InvalidInputParametersException(size);
+        }
+        if (!isAlphanumeric(value.charAt(0)) || !isAlphanumeric(value.charAt(1))) {
+            throw new InvalidInputParametersException(pattern);
+        }
+        if (!IsoCountryCodes.isAssigned(value)) {
+            throw new InvalidCountryCodeException(unknown);
+        }
+    }
+
+    /**
+     * Same rule as {@code @NotBlank}: null, or nothing left after trimming.
+     */
+    static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@code ^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$}
+     */
+    static boolean isUuid(String value) {
+        if (value.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = value.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@code ^[a-z0-9]+(?:-[a-z0-9]+)*$}
+     */
+    static boolean isSlug(String value) {
+        int length = value.length();
+        if (length == 0 || value.charAt(0) == '-' || value.charAt(length - 1) == '-') {
+            return false;
+        }
+        char previous = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '-') {
+                if (previous == '-') {
+                    return false;
+                }
+            } else if (!((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9'))) {
+                return false;
+            }
+            previous = c;
+        }
+        return true;
+    }
+
+    private static boolean isAlphanumeric(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
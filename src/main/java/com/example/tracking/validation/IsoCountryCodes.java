@@ -0,0 +1,77 @@
+package com.example.tracking.validation;
+
+/**
+ * The officially assigned ISO 3166-1 alpha-2 codes as a 26x26 bitset: one bit per letter pair,
+ * 676 bits in eleven longs. A lookup is two subtractions, a shift and a mask.
+ */
+public final class IsoCountryCodes {
+
+    private static final String ASSIGNED =
+            "AD AE AF AG AI AL AM AO AQ AR AS AT AU AW AX AZ "
+            + "BA BB BD BE BF BG BH BI BJ BL BM BN BO BQ BR BS BT BV BW BY BZ "
+            + "CA CC CD CF CG CH CI CK CL CM CN CO CR CU CV CW CX CY CZ "
+            + "DE DJ DK DM DO DZ "
+            + "EC EE EG EH ER ES ET "
+            + "FI FJ FK FM FO FR "
+            + "GA GB GD GE GF GG GH GI GL GM GN GP GQ GR GS GT GU GW GY "
+            + "HK HM HN HR HT HU "
+            + "ID IE IL IM IN IO IQ IR IS IT "
+            + "JE JM JO JP "
+            + "KE KG KH KI KM KN KP KR KW KY KZ "
+            + "LA LB LC LI LK LR LS LT LU LV LY "
+            + "MA MC MD ME MF MG MH MK ML MM MN MO MP MQ MR MS MT MU MV MW MX MY MZ "
+            + "NA NC NE NF NG NI NL NO NP NR NU NZ "
+            + "OM "
+            + "PA PE PF PG PH PK PL PM PN PR PS PT PW PY "
+            + "QA "
+            + "RE RO RS RU RW "
+            + "SA SB SC SD SE SG SH SI SJ SK SL SM SN SO SR SS ST SV SX SY SZ "
+            + "TC TD TF TG TH TJ TK TL TM TN TO TR TT TV TW TZ "
+            + "UA UG UM US UY UZ "
+            + "VA VC VE VG VI VN VU "
+            + "WF WS "
+            + "YE YT "
+            + "ZA ZM ZW";
+
+    private static final long[] BITS = new long[(26 * 26 + 63) / 64];
+
+    static {
+        for (int i = 0; i < ASSIGNED.length(); i += 3) {
+            int index = index(ASSIGNED.charAt(i), ASSIGNED.charAt(i + 1));
+            BITS[index >>> 6] |= 1L << index;
+        }
+    }
+
+    private IsoCountryCodes() {
+    }
+
+    /**
+     * Whether {@code code} is an assigned alpha-2 code, in either letter case.
+     */
+    public static boolean isAssigned(String code) {
+        if (code == null || code.length() != 2) {
+            return false;
+        }
+        int index = index(code.charAt(0), code.charAt(1));
+        return index >= 0 && (BITS[index >>> 6] & (1L << index)) != 0;
+    }
+
+    static int count() {
+        int count = 0;
+        for (long word : BITS) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private static int index(char first, char second) {
+        int a = letter(first);
+        int b = letter(second);
+        return a < 0 || b < 0 ? -1 : a * 26 + b;
+    }
+
+    private static int letter(char c) {
+        int lower = (c | 0x20) - 'a';
+        return lower >= 0 && lower < 26 ? lower : -1;
+    }
+}
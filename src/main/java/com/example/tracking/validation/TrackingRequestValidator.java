@@ -0,0 +1,35 @@
+package com.example.tracking.validation;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Checks the parameters of the generation endpoints. Implementations throw
+ * {@link com.example.tracking.exception.InvalidInputParametersException} (or its
+ * {@link com.example.tracking.exception.InvalidCountryCodeException} subclass) or a
+ * {@code ConstraintViolationException}, all answered with 400 Bad Request.
+ * Selected by {@code tracking.validation.mode}.
+ */
+public interface TrackingRequestValidator {
+
+    void validate(
+            String originCountryId,
+            String destinationCountryId,
+            double weight,
+            OffsetDateTime createdAt,
+            String customerId,
+            String customerName,
+            String customerSlug,
+            String idempotencyKey
+    );
+
+    void validateBatch(
+            String originCountryId,
+            String destinationCountryId,
+            double weight,
+            OffsetDateTime createdAt,
+            String customerId,
+            String customerName,
+            String customerSlug,
+            int count
+    );
+}
@@ -0,0 +1,32 @@
+package com.example.tracking.validation;
+
+/**
+ * Messages returned for invalid request parameters. Shared by both validator implementations so
+ * switching {@code tracking.validation.mode} never changes what clients see.
+ */
+public final class ValidationMessages {
+
+    public static final String ORIGIN_BLANK = "Origin country ID must be provided and not blank.";
+    public static final String ORIGIN_SIZE = "Origin country ID must be exactly 2 characters long.";
+    public static final String ORIGIN_PATTERN = "Origin country ID must be 2 alphanumeric characters";
+    public static final String ORIGIN_UNKNOWN = "Origin country ID must be an ISO 3166-1 alpha-2 country code.";
+    public static final String DESTINATION_BLANK = "Destination country ID must be provided and not blank.";
+    public static final String DESTINATION_SIZE = "Destination country ID must be exactly 2 characters long.";
+    public static final String DESTINATION_PATTERN = "Destination country ID must be 2 alphanumeric characters";
+    public static final String DESTINATION_UNKNOWN = "Destination country ID must be an ISO 3166-1 alpha-2 country code.";
+    public static final String WEIGHT_NULL = "Weight must be provided.";
+    public static final String WEIGHT_MIN = "Weight must be a minimum of 0.001.";
+    public static final String WEIGHT_MAX = "Weight must be a maximum of 999.999.";
+    public static final String CREATED_AT_NULL = "Creation timestamp must be provided.";
+    public static final String CUSTOMER_ID_BLANK = "Customer ID must be provided and not blank.";
+    public static final String CUSTOMER_ID_PATTERN = "Customer ID must be a valid UUID format (e.g., xxxxxxxx-xxxx-xxxx-xxxx-xxxxxxxxxxxx).";
+    public static final String CUSTOMER_NAME_BLANK = "Customer name must be provided and not blank.";
+    public static final String CUSTOMER_SLUG_BLANK = "Customer slug must be provided and not blank.";
+    public static final String CUSTOMER_SLUG_PATTERN = "Customer slug must consist of lowercase alphanumeric characters and hyphens, and cannot start or end with a hyphen (e.g., 'valid-slug').";
+    public static final String IDEMPOTENCY_KEY_SIZE = "Idempotency key must be at most 255 characters long.";
+    public static final String COUNT_NULL = "Count must be provided.";
+    public static final String COUNT_MIN = "Count must be a minimum of 1.";
+
+    private ValidationMessages() {
+    }
+}
@@ -0,0 +1,25 @@
+-- Schema of the JPA entities as of the introduction of versioned migrations. Column types match what
+-- Hibernate's ddl-auto=update creates, so a database it created can be baselined at version 1.
+
+CREATE TABLE generated_tracking_numbers (
+    tracking_number VARCHAR(16) NOT NULL,
+    created_at      TIMESTAMP   NOT NULL,
+    idempotency_key VARCHAR(64),
+    pool_lane       VARCHAR(4),
+    CONSTRAINT pk_generated_tracking_numbers PRIMARY KEY (tracking_number)
+);
+
+CREATE UNIQUE INDEX ux_generated_tracking_numbers_idempotency_key ON generated_tracking_numbers (idempotency_key);
+
+CREATE TABLE tracking_number_blocks (
+    name       VARCHAR(64) NOT NULL,
+    next_block BIGINT      NOT NULL,
+    CONSTRAINT pk_tracking_number_blocks PRIMARY KEY (name)
+);
+
+CREATE TABLE tracking_node_leases (
+    node_id    INTEGER     NOT NULL,
+    owner      VARCHAR(64),
+    expires_at BIGINT      NOT NULL,
+    CONSTRAINT pk_tracking_node_leases PRIMARY KEY (node_id)
+);
@@ -0,0 +1,5 @@
+-- Archival moves whole months of created_at out of the table; the index lets it find the oldest
+-- month and select or count a month without scanning every row. IF NOT EXISTS: a table that
+-- Hibernate created from the current entity before it was baselined already has it.
+
+CREATE INDEX IF NOT EXISTS ix_generated_tracking_numbers_created_at ON generated_tracking_numbers (created_at);
@@ -0,0 +1,10 @@
+-- Per-minute issuance counts by lane, customer and weight band, written by IssuanceSummaryWriter.
+-- IF NOT EXISTS: Hibernate creates the table from the IssuanceSummary entity under ddl-auto=update.
+
+CREATE TABLE IF NOT EXISTS issuance_summary (
+    minute_start  BIGINT       NOT NULL,
+    dimension     VARCHAR(16)  NOT NULL,
+    dimension_key VARCHAR(255) NOT NULL,
+    issued        BIGINT       NOT NULL,
+    CONSTRAINT pk_issuance_summary PRIMARY KEY (minute_start, dimension, dimension_key)
+);
@@ -0,0 +1,161 @@
+package com.example.tracking;
+
+import com.example.tracking.repository.TrackingNumberRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Offers /next-tracking-number about twice what it can serve while every write to
+ * {@link TrackingNumberRepository} takes {@link #WRITE_DELAY_MS}, as when the database slows down.
+ * Clients give up after {@link #CLIENT_TIMEOUT} and retry once, like real ones. Without a limit,
+ * requests queue until most of them time out; with the adaptive concurrency limit, the excess is
+ * shed with 503 and the rest are served in time. Run with {@code mvn -Pload-tests test}.
+ */
+@Tag("load")
+class ConcurrencyLimitLoadTest {
+
+    private static final long WRITE_DELAY_MS = 50;
+    private static final int MAX_THREADS = 16;
+    private static final Duration CLIENT_TIMEOUT = Duration.ofSeconds(1);
+    /** 8 requests every 10 ms for 10 s: 800 per second against about 16 / 50 ms = 320 per second. */
+    private static final int TICKS = 1000;
+    private static final int REQUESTS_PER_TICK = 8;
+
+    @Test
+    void concurrencyLimit_preservesGoodputWhenTheDatabaseSlowsDown() {
+        Goodput unlimited = run(false);
+        Goodput limited = run(true);
+
+        assertTrue(limited.rejected.get() > 0, "The limit should shed part of the load (limited: " + limited + ")");
+        assertTrue(limited.succeeded.get() >= unlimited.succeeded.get(),
+                "Limited goodput should not fall below unlimited goodput (limited: " + limited + ", unlimited: " + unlimited + ")");
+    }
+
+    private Goodput run(boolean limit) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TrackingApplication.class, SlowRepositoryConfiguration.class)
+                // Command-line arguments, so they win over application.properties.
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:shed-" + limit,
+                        "--tracking.reactive.max-threads=" + MAX_THREADS,
+                        "--tracking.concurrency-limit.enabled=" + limit,
+                        "--tracking.analytics.enabled=false",
+                        "--logging.level.com.example.tracking=WARN");
+        ConnectionProvider connections = ConnectionProvider.builder("shed-load")
+                .maxConnections(4000)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            WebClient client = WebClient.builder()
+                    .baseUrl("http://localhost:" + port)
+                    .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                    .build();
+            String customerId = UUID.randomUUID().toString();
+            Goodput goodput = new Goodput();
+
+            Flux.interval(Duration.ofMillis(10))
+                    .take(TICKS)
+                    // Unbounded, so the ticks are never held back by requests still in flight.
+                    .flatMap(tick -> Flux.range(0, REQUESTS_PER_TICK)
+                            .flatMap(i -> request(client, customerId, goodput)), Integer.MAX_VALUE)
+                    .blockLast(Duration.ofMinutes(5));
+
+            return goodput;
+        } finally {
+            connections.dispose();
+            context.close();
+        }
+    }
+
+    private static Mono<?> request(WebClient client, String customerId, Goodput goodput) {
+        return client.get()
+                .uri(uriBuilder -> uriBuilder.path("/next-tracking-number")
+                        .queryParam("origin_country_id", "MY")
+                        .queryParam("destination_country_id", "ID")
+                        .queryParam("weight", "1.5")
+                        .queryParam("created_at", "2025-06-16T10:30:00Z")
+                        .queryParam("customer_id", customerId)
+                        .queryParam("customer_name", "Load")
+                        .queryParam("customer_slug", "load")
+                        .build())
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(CLIENT_TIMEOUT)
+                .retryWhen(Retry.max(1).filter(TimeoutException.class::isInstance))
+                .doOnSuccess(ignored -> goodput.succeeded.incrementAndGet())
+                .onErrorResume(e -> {
+                    if (e instanceof WebClientResponseException && ((WebClientResponseException) e).getRawStatusCode() == 503) {
+                        goodput.rejected.incrementAndGet();
+                    } else {
+                        goodput.failed.incrementAndGet();
+                    }
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Registered only through the {@link SpringApplicationBuilder} above. Deliberately not a
+     * {@code @Configuration}: test classes share the component-scan root, so an annotated class would
+     * slow down every other application context started from the test classpath.
+     */
+    static class SlowRepositoryConfiguration {
+
+        /** Wraps the repository so every insert waits {@link #WRITE_DELAY_MS} first. */
+        @Bean
+        static BeanPostProcessor slowTrackingNumberRepository() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof TrackingNumberRepository)) {
+                        return bean;
+                    }
+                    return Proxy.newProxyInstance(TrackingNumberRepository.class.getClassLoader(),
+                            new Class<?>[]{TrackingNumberRepository.class}, (proxy, method, args) -> {
+                                if (method.getName().startsWith("insert")) {
+                                    Thread.sleep(WRITE_DELAY_MS);
+                                }
+                                try {
+                                    return method.invoke(bean, args);
+                                } catch (InvocationTargetException e) {
+                                    throw e.getCause();
+                                }
+                            });
+                }
+            };
+        }
+    }
+
+    private static final class Goodput {
+
+        final AtomicInteger succeeded = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+
+        @Override
+        public String toString() {
+            return "succeeded=" + succeeded + " rejected=" + rejected + " timed out or failed=" + failed;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.tracking;
+
+import com.example.tracking.repository.TrackingNumberRepository;
+import com.example.tracking.service.TrackingNumberService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurableStorageTest {
+
+    @TempDir
+    Path storageDir;
+
+    @Test
+    void durableProfile_keepsIssuedNumbersAcrossRestart() {
+        String trackingNumber;
+        try (ConfigurableApplicationContext context = start()) {
+            trackingNumber = context.getBean(TrackingNumberService.class).generateTrackingNumber("MY", "ID");
+        }
+
+        try (ConfigurableApplicationContext context = start()) {
+            assertTrue(context.getBean(TrackingNumberRepository.class).existsById(trackingNumber),
+                    "Tracking number issued before the restart should still be stored");
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(TrackingApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=durable",
+                        "--tracking.storage.dir=" + storageDir.toAbsolutePath(),
+                        "--logging.level.com.example.tracking=WARN");
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.tracking;
+
+import com.example.tracking.repository.TrackingNumberRepository;
+import com.example.tracking.service.TrackingNumberService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FastStartProfileTest {
+
+    @Test
+    void fastStartProfile_migrationMatchesTheEntities() {
+        String url = "jdbc:h2:mem:fast-start-" + UUID.randomUUID();
+        // validate makes Hibernate compare every mapped table and column with the migrated schema.
+        try (ConfigurableApplicationContext context = start(url, "--spring.profiles.active=fast-start",
+                "--spring.jpa.hibernate.ddl-auto=validate")) {
+            String trackingNumber = context.getBean(TrackingNumberService.class).generateTrackingNumber("MY", "ID");
+
+            assertTrue(context.getBean(TrackingNumberRepository.class).existsById(trackingNumber));
+        }
+    }
+
+    @Test
+    void fastStartProfile_adoptsASchemaCreatedByHibernate() {
+        String url = "jdbc:h2:mem:fast-start-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        String trackingNumber;
+        try (ConfigurableApplicationContext context = start(url)) {
+            trackingNumber = context.getBean(TrackingNumberService.class).generateTrackingNumber("MY", "ID");
+        }
+
+        try (ConfigurableApplicationContext context = start(url, "--spring.profiles.active=fast-start")) {
+            assertTrue(context.getBean(TrackingNumberRepository.class).existsById(trackingNumber),
+                    "The existing schema should be baselined, not recreated");
+        }
+    }
+
+    @Test
+    void fastStartProfile_packsNumbersStoredBeforeVersion2() throws Exception {
+        String url = "jdbc:h2:mem:fast-start-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration").target("1").load().migrate();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO generated_tracking_numbers (tracking_number, created_at) "
+                    + "VALUES ('MY1A2B3C4D5E6FID', TIMESTAMP '2024-03-01 12:34:56.789')");
+        }
+
+        try (ConfigurableApplicationContext context = start(url, "--spring.profiles.active=fast-start",
+                "--spring.jpa.hibernate.ddl-auto=validate")) {
+            Map<String, OffsetDateTime> createdAt = context.getBean(TrackingNumberRepository.class)
+                    .findCreatedAt(Collections.singletonList("MY1A2B3C4D5E6FID"));
+
+            assertEquals(Timestamp.valueOf("2024-03-01 12:34:56.789").toInstant(),
+                    createdAt.get("MY1A2B3C4D5E6FID").toInstant());
+        }
+    }
+
+    private ConfigurableApplicationContext start(String url, String... arguments) {
+        String[] all = new String[arguments.length + 2];
+        all[0] = "--spring.datasource.url=" + url;
+        all[1] = "--logging.level.com.example.tracking=WARN";
+        System.arraycopy(arguments, 0, all, 2, arguments.length);
+        return new SpringApplicationBuilder(TrackingApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(all);
+    }
+}
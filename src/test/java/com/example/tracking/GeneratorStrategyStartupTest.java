@@ -0,0 +1,47 @@
+package com.example.tracking;
+
+import com.example.tracking.service.TrackingNumberService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts the full application with each non-default generator strategy, which the sliced and unit
+ * tests do not wire together.
+ */
+class GeneratorStrategyStartupTest {
+
+    @Test
+    void blockStrategy_startsAndPublishesAllocatorGauges() {
+        try (ConfigurableApplicationContext context = start("block")) {
+            String trackingNumber = context.getBean(TrackingNumberService.class).generateTrackingNumber("MY", "ID");
+
+            assertTrue(trackingNumber.matches("^[A-Z0-9]{16}$"), trackingNumber);
+            assertNotNull(context.getBean(MeterRegistry.class).find("tracking.allocator.remaining").gauge());
+        }
+    }
+
+    @Test
+    void laneStrategy_startsAndPublishesLaneMeters() {
+        try (ConfigurableApplicationContext context = start("lane")) {
+            String trackingNumber = context.getBean(TrackingNumberService.class).generateTrackingNumber("MY", "ID");
+
+            assertTrue(trackingNumber.matches("^MY[A-Z0-9]{12}ID$"), trackingNumber);
+            assertEquals(1.0, context.getBean(MeterRegistry.class).get("tracking.lanes.active").gauge().value());
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String strategy) {
+        return new SpringApplicationBuilder(TrackingApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:strategy-" + strategy + "-" + UUID.randomUUID(),
+                        "--tracking.generator.strategy=" + strategy,
+                        "--logging.level.com.example.tracking=WARN");
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.tracking;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:prometheus-test")
+@AutoConfigureWebTestClient
+class PrometheusEndpointTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Test
+    void prometheusEndpoint_exposesGeneratorMetrics() {
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/next-tracking-number")
+                        .queryParam("origin_country_id", "MY")
+                        .queryParam("destination_country_id", "ID")
+                        .queryParam("weight", "1.5")
+                        .queryParam("created_at", "2025-06-16T10:30:00Z")
+                        .queryParam("customer_id", UUID.randomUUID().toString())
+                        .queryParam("customer_name", "Metrics")
+                        .queryParam("customer_slug", "metrics")
+                        .build())
+                .exchange()
+                .expectStatus().isOk();
+
+        String scrape = webTestClient.get()
+                .uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(scrape);
+        assertTrue(scrape.contains("tracking_generation_seconds_count{operation=\"single\",strategy=\"random\",} 1.0"), scrape);
+        assertTrue(scrape.contains("tracking_generation_seconds_bucket{operation=\"single\",strategy=\"random\","), "Generation timer should publish histogram buckets");
+        assertTrue(scrape.contains("tracking_persistence_seconds_bucket{strategy=\"random\","), "Persistence timer should publish histogram buckets");
+        assertTrue(scrape.contains("tracking_generation_collisions_total{strategy=\"random\",}"));
+        assertTrue(scrape.contains("tracking_generation_retries_total{strategy=\"random\",}"));
+        assertTrue(scrape.contains("tracking_generation_exhausted_total{strategy=\"random\",} 0.0"));
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket{"), "Request timer should publish histogram buckets");
+        assertTrue(scrape.contains("tracking_filter_checks_total"));
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.tracking;
+
+import com.example.tracking.service.TrackingNumberService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares tail latency of /next-tracking-number when generation runs inline on the event loop
+ * versus offloaded to the bounded elastic scheduler, against a persistence stand-in that takes
+ * {@link #PERSISTENCE_DELAY_MS} per number. Run with {@code mvn -Pload-tests test}.
+ */
+@Tag("load")
+class ReactiveGenerationLoadTest {
+
+    private static final long PERSISTENCE_DELAY_MS = 20;
+    private static final int REQUESTS = 2000;
+    private static final int CONCURRENCY = 200;
+
+    @Test
+    void offloadedGeneration_keepsTailLatencyBelowInlineGeneration() {
+        LatencyReport inline = run("inline");
+        LatencyReport offloaded = run("bounded-elastic");
+
+        assertEquals(REQUESTS, inline.successes, "inline: " + inline);
+        assertEquals(REQUESTS, offloaded.successes, "bounded-elastic: " + offloaded);
+        assertTrue(offloaded.p99Millis <= inline.p99Millis,
+                "Offloaded p99 should not exceed inline p99 (inline: " + inline + ", bounded-elastic: " + offloaded + ")");
+    }
+
+    private LatencyReport run(String mode) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(TrackingApplication.class, SlowPersistenceConfiguration.class)
+                // Command-line arguments, so they win over application.properties.
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + mode,
+                        "--tracking.reactive.mode=" + mode,
+                        "--logging.level.com.example.tracking=WARN");
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            WebClient client = WebClient.create("http://localhost:" + port);
+            String customerId = UUID.randomUUID().toString();
+            List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+
+            Flux.range(0, REQUESTS)
+                    .flatMap(i -> timed(client.get()
+                            .uri(uriBuilder -> uriBuilder.path("/next-tracking-number")
+                                    .queryParam("origin_country_id", "MY")
+                                    .queryParam("destination_country_id", "ID")
+                                    .queryParam("weight", "1.5")
+                                    .queryParam("created_at", "2025-06-16T10:30:00Z")
+                                    .queryParam("customer_id", customerId)
+                                    .queryParam("customer_name", "Load")
+                                    .queryParam("customer_slug", "load")
+                                    .build())
+                            .retrieve()
+                            .toBodilessEntity(), latencies), CONCURRENCY)
+                    .blockLast(Duration.ofMinutes(5));
+
+            return new LatencyReport(latencies);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Mono<?> timed(Mono<?> request, List<Long> latencies) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return request.doOnSuccess(ignored -> latencies.add(System.nanoTime() - start));
+        });
+    }
+
+    /**
+     * Registered only through the {@link SpringApplicationBuilder} above. Deliberately not a
+     * {@code @Configuration}: test classes share the component-scan root, so an annotated class would
+     * replace the service in every other application context started from the test classpath.
+     */
+    static class SlowPersistenceConfiguration {
+
+        @Bean
+        @Primary
+        TrackingNumberService slowTrackingNumberService() {
+            AtomicLong sequence = new AtomicLong();
+            return new TrackingNumberService() {
+                @Override
+                public String generateTrackingNumber(String originCountryId, String destinationCountryId, String idempotencyKey) {
+                    try {
+                        Thread.sleep(PERSISTENCE_DELAY_MS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return String.format("%s%012d%s", originCountryId, sequence.incrementAndGet(), destinationCountryId);
+                }
+
+                @Override
+                public List<String> generateTrackingNumbers(String originCountryId, String destinationCountryId, int count) {
+                    List<String> trackingNumbers = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        trackingNumbers.add(generateTrackingNumber(originCountryId, destinationCountryId));
+                    }
+                    return trackingNumbers;
+                }
+            };
+        }
+    }
+
+    private static final class LatencyReport {
+
+        final int successes;
+        final long p50Millis;
+        final long p99Millis;
+        final long maxMillis;
+
+        LatencyReport(List<Long> latencies) {
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            this.successes = sorted.size();
+            this.p50Millis = percentile(sorted, 0.50);
+            this.p99Millis = percentile(sorted, 0.99);
+            this.maxMillis = sorted.isEmpty() ? 0 : Duration.ofNanos(sorted.get(sorted.size() - 1)).toMillis();
+        }
+
+        private static long percentile(List<Long> sorted, double percentile) {
+            if (sorted.isEmpty()) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+            return Duration.ofNanos(sorted.get(Math.max(index, 0))).toMillis();
+        }
+
+        @Override
+        public String toString() {
+            return "requests=" + successes + " p50=" + p50Millis + "ms p99=" + p99Millis + "ms max=" + maxMillis + "ms";
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.tracking;
+
+import com.example.tracking.service.NodeLeaseManager;
+import com.example.tracking.service.TrackingNumberService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Several snowflake nodes in one JVM sharing one embedded database, as replicas would share one.
+ */
+class SnowflakeMultiNodeTest {
+
+    private final String databaseUrl = "jdbc:h2:mem:snowflake-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void nodesLeaseDistinctIdsAndIssueUniqueNumbers() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            nodes.add(start());
+        }
+
+        Set<Integer> nodeIds = new HashSet<>();
+        nodes.forEach(node -> nodeIds.add(nodeId(node)));
+        assertEquals(3, nodeIds.size());
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                TrackingNumberService service = nodes.get(i % 3).getBean(TrackingNumberService.class);
+                futures.add(executor.submit(() -> service.generateTrackingNumbers("MY", "ID", 2000)));
+            }
+            Set<String> trackingNumbers = new HashSet<>();
+            for (Future<List<String>> future : futures) {
+                trackingNumbers.addAll(future.get());
+            }
+            assertEquals(12000, trackingNumbers.size());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (ConfigurableApplicationContext node : nodes) {
+            assertEquals(0, node.getBean(MeterRegistry.class).get("tracking.generation.collisions").counter().count(),
+                    "Numbers are unique without the database having to reject any");
+        }
+    }
+
+    @Test
+    void releasedNodeIdIsReusedWithoutReissuingNumbers() {
+        ConfigurableApplicationContext first = start();
+        nodes.add(first);
+        nodes.add(start());
+        int releasedId = nodeId(first);
+        String before = first.getBean(TrackingNumberService.class).generateTrackingNumber("MY", "ID");
+        first.close();
+        nodes.remove(first);
+
+        ConfigurableApplicationContext replacement = start();
+        nodes.add(replacement);
+        assertEquals(releasedId, nodeId(replacement));
+        String after = replacement.getBean(TrackingNumberService.class).generateTrackingNumber("MY", "ID");
+        assertNotEquals(before, after);
+    }
+
+    private static int nodeId(ConfigurableApplicationContext node) {
+        return node.getBean(NodeLeaseManager.class).currentLease().getNodeId();
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(TrackingApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + databaseUrl,
+                        "--tracking.generator.strategy=snowflake",
+                        "--logging.level.com.example.tracking=WARN");
+    }
+}
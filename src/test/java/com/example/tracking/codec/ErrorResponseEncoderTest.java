@@ -0,0 +1,67 @@
+package com.example.tracking.codec;
+
+import com.example.tracking.dto.ErrorResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorResponseEncoderTest {
+
+    private static final ResolvableType TYPE = ResolvableType.forClass(ErrorResponse.class);
+
+    private final ErrorResponseEncoder encoder = new ErrorResponseEncoder();
+    private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+    @Test
+    void encode_writesTheFixedShape() {
+        String json = encode(new ErrorResponse(400, "Bad Request", "Weight must be positive.", "/next-tracking-number", 1750069800123L));
+
+        assertEquals("{\"status\":400,\"error\":\"Bad Request\",\"message\":\"Weight must be positive.\","
+                + "\"path\":\"/next-tracking-number\",\"timestamp\":1750069800123}", json);
+    }
+
+    @Test
+    void encode_matchesJackson() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (ErrorResponse response : Arrays.asList(
+                new ErrorResponse(404, "Not Found", "Tracking number MY999999999999ID was not issued.", "/tracking-numbers/MY999999999999ID", 0L),
+                new ErrorResponse(400, "Bad Request", "Validation failed", "/next-tracking-number", 1L,
+                        Arrays.asList("weight: must be greater than 0", "customer_slug: \"x\\y\"\n\u00e9")),
+                new ErrorResponse(500, null, null, null, -1L, Collections.emptyList()))) {
+            JsonNode expected = objectMapper.readTree(objectMapper.writeValueAsString(response));
+
+            assertEquals(expected, objectMapper.readTree(encode(response)));
+        }
+    }
+
+    @Test
+    void encode_rebuildsTheHeadWhenTheReasonChanges() {
+        encode(new ErrorResponse(400, "Bad Request", "a", "/", 0L));
+
+        assertTrue(encode(new ErrorResponse(400, "Invalid", "a", "/", 0L)).startsWith("{\"status\":400,\"error\":\"Invalid\","));
+        assertTrue(encode(new ErrorResponse(400, "Bad Request", "a", "/", 0L)).startsWith("{\"status\":400,\"error\":\"Bad Request\","));
+    }
+
+    @Test
+    void canEncode_onlyErrorResponseAsJson() {
+        assertTrue(encoder.canEncode(TYPE, MediaType.APPLICATION_JSON));
+        assertTrue(encoder.canEncode(TYPE, null));
+        assertFalse(encoder.canEncode(TYPE, MediaType.APPLICATION_XML));
+        assertFalse(encoder.canEncode(ResolvableType.forClass(String.class), MediaType.APPLICATION_JSON));
+    }
+
+    private String encode(ErrorResponse response) {
+        DataBuffer buffer = encoder.encodeValue(response, bufferFactory, TYPE, MediaType.APPLICATION_JSON, Collections.emptyMap());
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+}
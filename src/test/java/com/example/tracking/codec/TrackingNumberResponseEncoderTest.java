@@ -0,0 +1,98 @@
+package com.example.tracking.codec;
+
+import com.example.tracking.dto.TrackingNumberResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackingNumberResponseEncoderTest {
+
+    private static final ResolvableType TYPE = ResolvableType.forClass(TrackingNumberResponse.class);
+    private static final OffsetDateTime CREATED_AT = OffsetDateTime.parse("2025-06-16T10:30:00.123456+05:30");
+
+    private final TrackingNumberResponseEncoder encoder = new TrackingNumberResponseEncoder();
+    private final DefaultDataBufferFactory bufferFactory = new DefaultDataBufferFactory();
+
+    @Test
+    void encode_writesTheDocumentedContract() throws Exception {
+        String json = encode(Mono.just(new TrackingNumberResponse("MY0A1B2C3D4E5FID", CREATED_AT)), MediaType.APPLICATION_JSON);
+
+        assertEquals("{\"tracking_number\":\"MY0A1B2C3D4E5FID\",\"created_at\":\"2025-06-16T10:30:00+05:30\"}", json);
+        JsonNode node = new ObjectMapper().readTree(json);
+        assertEquals("MY0A1B2C3D4E5FID", node.get("tracking_number").asText());
+    }
+
+    @Test
+    void encode_reusesTheTimestampWithinASecondOnly() {
+        TrackingNumberResponse first = new TrackingNumberResponse("MY0A1B2C3D4E5FID", CREATED_AT);
+        TrackingNumberResponse sameSecond = new TrackingNumberResponse("MY0A1B2C3D4E5FID", CREATED_AT.plusNanos(500_000_000));
+        TrackingNumberResponse nextSecond = new TrackingNumberResponse("MY0A1B2C3D4E5FID", CREATED_AT.plusSeconds(1));
+        TrackingNumberResponse otherOffset = new TrackingNumberResponse("MY0A1B2C3D4E5FID",
+                CREATED_AT.withOffsetSameInstant(ZoneOffset.UTC));
+
+        assertEquals(encode(Mono.just(first), null), encode(Mono.just(sameSecond), null));
+        assertTrue(encode(Mono.just(nextSecond), null).contains("2025-06-16T10:30:01+05:30"));
+        assertTrue(encode(Mono.just(otherOffset), null).contains("2025-06-16T05:00:00Z"));
+        assertTrue(encode(Mono.just(first), null).contains("2025-06-16T10:30:00+05:30"));
+    }
+
+    @Test
+    void encode_writesAJsonArrayForAFlux() {
+        Flux<TrackingNumberResponse> responses = Flux.just(
+                new TrackingNumberResponse("USMOCKTRACK001CA", CREATED_AT),
+                new TrackingNumberResponse("USMOCKTRACK002CA", CREATED_AT));
+
+        assertEquals("[{\"tracking_number\":\"USMOCKTRACK001CA\",\"created_at\":\"2025-06-16T10:30:00+05:30\"},"
+                        + "{\"tracking_number\":\"USMOCKTRACK002CA\",\"created_at\":\"2025-06-16T10:30:00+05:30\"}]",
+                encode(responses, MediaType.APPLICATION_JSON));
+        assertEquals("[]", encode(Flux.empty(), MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void encode_writesOneLinePerObjectForNdjson() {
+        Flux<TrackingNumberResponse> responses = Flux.just(
+                new TrackingNumberResponse("USMOCKTRACK001CA", CREATED_AT),
+                new TrackingNumberResponse("USMOCKTRACK002CA", null));
+
+        assertEquals("{\"tracking_number\":\"USMOCKTRACK001CA\",\"created_at\":\"2025-06-16T10:30:00+05:30\"}\n"
+                        + "{\"tracking_number\":\"USMOCKTRACK002CA\",\"created_at\":null}\n",
+                encode(responses, MediaType.APPLICATION_NDJSON));
+    }
+
+    @Test
+    void encode_escapesAnythingThatIsNotPlainAscii() throws Exception {
+        String json = encode(Mono.just(new TrackingNumberResponse("a\"b\\c\n\u00e9", null)), MediaType.APPLICATION_JSON);
+
+        assertEquals("a\"b\\c\n\u00e9", new ObjectMapper().readTree(json).get("tracking_number").asText());
+        assertEquals("{\"tracking_number\":null,\"created_at\":null}",
+                encode(Mono.just(new TrackingNumberResponse(null, null)), MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void canEncode_onlyTrackingNumberResponseAsJson() {
+        assertTrue(encoder.canEncode(TYPE, MediaType.APPLICATION_JSON));
+        assertTrue(encoder.canEncode(TYPE, MediaType.APPLICATION_NDJSON));
+        assertFalse(encoder.canEncode(TYPE, MediaType.APPLICATION_XML));
+        assertFalse(encoder.canEncode(ResolvableType.forClass(String.class), MediaType.APPLICATION_JSON));
+    }
+
+    private String encode(Publisher<TrackingNumberResponse> input, MediaType mediaType) {
+        DataBuffer joined = DataBufferUtils.join(encoder.encode(input, bufferFactory, TYPE, mediaType, Collections.emptyMap())).block();
+        return joined.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.tracking.controller;
+
+import com.example.tracking.logging.RequestLog;
+import com.example.tracking.service.AdaptiveConcurrencyLimiter;
+import com.example.tracking.service.IdempotencyKeyResolver;
+import com.example.tracking.service.IssuanceStats;
+import com.example.tracking.service.ReactiveTrackingNumberService;
+import com.example.tracking.validation.FastTrackingRequestValidator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(controllers = TrackingController.class, properties = {
+        "tracking.concurrency-limit.enabled=true",
+        "tracking.concurrency-limit.initial-limit=1",
+        "tracking.concurrency-limit.min-limit=1",
+        "tracking.concurrency-limit.max-limit=1",
+        "tracking.concurrency-limit.retry-after-seconds=2"})
+@Import({RequestLog.class, IdempotencyKeyResolver.class, FastTrackingRequestValidator.class,
+        IssuanceStats.class, AdaptiveConcurrencyLimiter.class})
+class TrackingControllerConcurrencyLimitTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @MockBean
+    private ReactiveTrackingNumberService trackingNumberService;
+
+    @Test
+    void getNextTrackingNumber_shedsRequestsOverTheLimitWith503() {
+        when(trackingNumberService.generateTrackingNumber(anyString(), anyString(), any()))
+                .thenReturn(Mono.just("USMOCKTRACK123CA"));
+        // Holds the only slot, like a request stuck on a slow database.
+        int inFlight = limiter.tryAcquire();
+
+        request("/next-tracking-number")
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "2")
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(503)
+                .jsonPath("$.error").isEqualTo("Service Unavailable")
+                .jsonPath("$.path").isEqualTo("/next-tracking-number");
+
+        limiter.release(1, inFlight, false);
+        request("/next-tracking-number").expectStatus().isOk();
+    }
+
+    @Test
+    void getNextTrackingNumbers_isNotLimitedByDefault() {
+        when(trackingNumberService.generateTrackingNumbers(anyString(), anyString(), anyInt()))
+                .thenReturn(Flux.just("USMOCKTRACK001CA"));
+        int inFlight = limiter.tryAcquire();
+        try {
+            request("/next-tracking-numbers").expectStatus().isOk();
+        } finally {
+            limiter.release(1, inFlight, false);
+        }
+    }
+
+    private WebTestClient.ResponseSpec request(String path) {
+        return webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(path)
+                        .queryParam("origin_country_id", "US")
+                        .queryParam("destination_country_id", "CA")
+                        .queryParam("weight", "1.5")
+                        .queryParam("created_at", "2025-06-16T10:30:00Z")
+                        .queryParam("customer_id", UUID.randomUUID().toString())
+                        .queryParam("customer_name", "Test")
+                        .queryParam("customer_slug", "test")
+                        .queryParam("count", "1")
+                        .build())
+                .exchange();
+    }
+}
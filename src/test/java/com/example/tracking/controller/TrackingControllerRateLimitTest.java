@@ -0,0 +1,113 @@
+package com.example.tracking.controller;
+
+import com.example.tracking.logging.RequestLog;
+import com.example.tracking.service.CustomerRateLimiter;
+import com.example.tracking.service.IdempotencyKeyResolver;
+import com.example.tracking.service.IssuanceStats;
+import com.example.tracking.service.ReactiveTrackingNumberService;
+import com.example.tracking.validation.FastTrackingRequestValidator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(controllers = TrackingController.class, properties = {
+        "tracking.rate-limit.enabled=true",
+        "tracking.rate-limit.permits-per-second=0.01",
+        "tracking.rate-limit.burst=2"})
+@Import({RequestLog.class, IdempotencyKeyResolver.class, FastTrackingRequestValidator.class, CustomerRateLimiter.class,
+        IssuanceStats.class, RateLimitFilter.class})
+class TrackingControllerRateLimitTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveTrackingNumberService trackingNumberService;
+
+    @Test
+    void getNextTrackingNumber_rejectsACustomerOverItsQuotaWith429() {
+        when(trackingNumberService.generateTrackingNumber(anyString(), anyString(), any()))
+                .thenReturn(Mono.just("USMOCKTRACK123CA"));
+        String customerId = UUID.randomUUID().toString();
+
+        request("/next-tracking-number", customerId).expectStatus().isOk();
+        request("/next-tracking-number", customerId).expectStatus().isOk();
+        request("/next-tracking-number", customerId)
+                .expectStatus().isEqualTo(429)
+                .expectHeader().exists(HttpHeaders.RETRY_AFTER)
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(429)
+                .jsonPath("$.error").isEqualTo("Too Many Requests")
+                .jsonPath("$.path").isEqualTo("/next-tracking-number");
+
+        request("/next-tracking-number", UUID.randomUUID().toString()).expectStatus().isOk();
+        verify(trackingNumberService, times(3)).generateTrackingNumber(anyString(), anyString(), any());
+    }
+
+    @Test
+    void getNextTrackingNumbers_chargesEveryNumberOfTheBatch() {
+        when(trackingNumberService.generateTrackingNumbers(anyString(), anyString(), anyInt()))
+                .thenReturn(Flux.just("USMOCKTRACK123CA", "USMOCKTRACK124CA", "USMOCKTRACK125CA"));
+        String customerId = UUID.randomUUID().toString();
+
+        request("/next-tracking-numbers", customerId).expectStatus().isOk();
+        request("/next-tracking-numbers", customerId).expectStatus().isEqualTo(429);
+    }
+
+    @Test
+    void getNextTrackingNumber_rejectsBeforeTheArgumentsAreResolved() {
+        when(trackingNumberService.generateTrackingNumber(anyString(), anyString(), any()))
+                .thenReturn(Mono.just("USMOCKTRACK123CA"));
+        String customerId = UUID.randomUUID().toString();
+
+        request("/next-tracking-number", customerId).expectStatus().isOk();
+        request("/next-tracking-number", customerId).expectStatus().isOk();
+        // A weight the controller cannot even bind is answered by the quota first.
+        request("/next-tracking-number", customerId, "not-a-number", "3").expectStatus().isEqualTo(429);
+    }
+
+    @Test
+    void getNextTrackingNumbers_doesNotChargeACountTheControllerRejects() {
+        when(trackingNumberService.generateTrackingNumbers(anyString(), anyString(), anyInt()))
+                .thenReturn(Flux.just("USMOCKTRACK123CA", "USMOCKTRACK124CA"));
+        String customerId = UUID.randomUUID().toString();
+
+        request("/next-tracking-numbers", customerId, "10.5", "1000000").expectStatus().isBadRequest();
+        request("/next-tracking-numbers", customerId, "10.5", "0").expectStatus().isBadRequest();
+        request("/next-tracking-numbers", customerId, "10.5", "2").expectStatus().isOk();
+    }
+
+    private WebTestClient.ResponseSpec request(String path, String customerId) {
+        return request(path, customerId, "10.5", "3");
+    }
+
+    private WebTestClient.ResponseSpec request(String path, String customerId, String weight, String count) {
+        return webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path(path)
+                        .queryParam("origin_country_id", "US")
+                        .queryParam("destination_country_id", "CA")
+                        .queryParam("weight", weight)
+                        .queryParam("created_at", "{created_at}")
+                        .queryParam("customer_id", customerId)
+                        .queryParam("customer_name", "Test Customer")
+                        .queryParam("customer_slug", "test-customer")
+                        .queryParam("count", count)
+                        .build("2025-06-16T10:30:00+05:30"))
+                .exchange();
+    }
+}
@@ -1,33 +1,49 @@
 package com.example.tracking.controller;
 
-import com.example.tracking.service.TrackingNumberService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.tracking.logging.RequestLog;
+import com.example.tracking.service.IdempotencyKeyResolver;
+import com.example.tracking.service.IssuanceStats;
+import com.example.tracking.service.ReactiveTrackingNumberService;
+import com.example.tracking.validation.FastTrackingRequestValidator;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
-import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
-import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@WebMvcTest(TrackingController.class)
+@WebFluxTest(TrackingController.class)
+@Import({RequestLog.class, IdempotencyKeyResolver.class, FastTrackingRequestValidator.class, IssuanceStats.class})
 class TrackingControllerTest {
 
     @Autowired
-    private MockMvc mockMvc;
-
-    @MockBean
-    private TrackingNumberService trackingNumberService;
+    private WebTestClient webTestClient;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private IssuanceStats issuanceStats;
+
+    @MockBean
+    private ReactiveTrackingNumberService trackingNumberService;
 
     private final String validOriginCountryId = "US";
     private final String validDestinationCountryId = "CA";
@@ -38,184 +54,394 @@ class TrackingControllerTest {
     private final String validCustomerSlug = "test-customer";
 
     @Test
-    void getNextTrackingNumber_success_validParameters() throws Exception {
+    void getNextTrackingNumber_success_validParameters() {
+        String expectedTrackingNumber = "USMOCKTRACK123CA";
+        when(trackingNumberService.generateTrackingNumber(validOriginCountryId, validDestinationCountryId, null))
+                .thenReturn(Mono.just(expectedTrackingNumber));
+
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("origin_country_id", validOriginCountryId);
+        params.put("destination_country_id", validDestinationCountryId);
+        params.put("weight", validWeight);
+        params.put("created_at", validCreatedAt);
+        params.put("customer_id", validCustomerId);
+        params.put("customer_name", validCustomerName);
+        params.put("customer_slug", validCustomerSlug);
+
+        getNextTrackingNumber(params)
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.tracking_number").isEqualTo(expectedTrackingNumber)
+                .jsonPath("$.created_at").exists();
+    }
+
+    @Test
+    void getNextTrackingNumber_success_passesCustomerScopedIdempotencyKey() {
         String expectedTrackingNumber = "USMOCKTRACK123CA";
-        when(trackingNumberService.generateTrackingNumber(validOriginCountryId, validDestinationCountryId))
-                .thenReturn(expectedTrackingNumber);
-
-        mockMvc.perform(get("/next-tracking-number")
-                        .param("origin_country_id", validOriginCountryId)
-                        .param("destination_country_id", validDestinationCountryId)
-                        .param("weight", validWeight)
-                        .param("created_at", validCreatedAt)
-                        .param("customer_id", validCustomerId)
-                        .param("customer_name", validCustomerName)
-                        .param("customer_slug", validCustomerSlug))
-                .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.trackingNumber").value(expectedTrackingNumber))
-                .andExpect(jsonPath("$.createdAt").exists());
-    }
-
-    @Test
-    void getNextTrackingNumber_fail_missingOriginCountryId() throws Exception {
-        mockMvc.perform(get("/next-tracking-number")
-                        .param("destination_country_id", validDestinationCountryId)
-                        .param("weight", validWeight)
-                        .param("created_at", validCreatedAt)
-                        .param("customer_id", validCustomerId)
-                        .param("customer_name", validCustomerName)
-                        .param("customer_slug", validCustomerSlug))
-                .andExpect(status().isBadRequest());
-    }
-
-    @Test
-    void getNextTrackingNumber_fail_invalidOriginCountryId_length() throws Exception {
-        mockMvc.perform(get("/next-tracking-number")
-                        .param("origin_country_id", "USA")
-                        .param("destination_country_id", validDestinationCountryId)
-                        .param("weight", validWeight)
-                        .param("created_at", validCreatedAt)
-                        .param("customer_id", validCustomerId)
-                        .param("customer_name", validCustomerName)
-                        .param("customer_slug", validCustomerSlug))
-                .andExpect(status().isBadRequest());
-    }
-
-    @Test
-    void getNextTrackingNumber_fail_invalidOriginCountryId_pattern() throws Exception {
-        mockMvc.perform(get("/next-tracking-number")
-                        .param("origin_country_id", "U$")
-                        .param("destination_country_id", validDestinationCountryId)
-                        .param("weight", validWeight)
-                        .param("created_at", validCreatedAt)
-                        .param("customer_id", validCustomerId)
-                        .param("customer_name", validCustomerName)
-                        .param("customer_slug", validCustomerSlug))
-                .andExpect(status().isBadRequest());
-    }
-
-    @Test
-    void getNextTrackingNumber_fail_missingDestinationCountryId() throws Exception {
-        mockMvc.perform(get("/next-tracking-number")
-                        .param("origin_country_id", validOriginCountryId)
-                        .param("weight", validWeight)
-                        .param("created_at", validCreatedAt)
-                        .param("customer_id", validCustomerId)
-                        .param("customer_name", validCustomerName)
-                        .param("customer_slug", validCustomerSlug))
-                .andExpect(status().isBadRequest());
-    }
-
-    @Test
-    void getNextTrackingNumber_fail_missingWeight() throws Exception {
-        mockMvc.perform(get("/next-tracking-number")
-                        .param("origin_country_id", validOriginCountryId)
-                        .param("destination_country_id", validDestinationCountryId)
-                        .param("created_at", validCreatedAt)
-                        .param("customer_id", validCustomerId)
-                        .param("customer_name", validCustomerName)
-                        .param("customer_slug", validCustomerSlug))
-                .andExpect(status().isBadRequest());
-    }
-
-    @Test
-    void getNextTrackingNumber_fail_invalidWeight_tooLow() throws Exception {
-        mockMvc.perform(get("/next-tracking-number")
-                        .param("origin_country_id", validOriginCountryId)
-                        .param("destination_country_id", validDestinationCountryId)
-                        .param("weight", "0.0001")
-                        .param("created_at", validCreatedAt)
-                        .param("customer_id", validCustomerId)
-                        .param("customer_name", validCustomerName)
-                        .param("customer_slug", validCustomerSlug))
-                .andExpect(status().isBadRequest());
-    }
-
-    @Test
-    void getNextTrackingNumber_fail_missingCreatedAt() throws Exception {
-        mockMvc.perform(get("/next-tracking-number")
-                        .param("origin_country_id", validOriginCountryId)
-                        .param("destination_country_id", validDestinationCountryId)
-                        .param("weight", validWeight)
-                        .param("customer_id", validCustomerId)
-                        .param("customer_name", validCustomerName)
-                        .param("customer_slug", validCustomerSlug))
-                .andExpect(status().isBadRequest());
-    }
-
-    @Test
-    void getNextTrackingNumber_fail_invalidCreatedAt_format() throws Exception {
-        mockMvc.perform(get("/next-tracking-number")
-                        .param("origin_country_id", validOriginCountryId)
-                        .param("destination_country_id", validDestinationCountryId)
-                        .param("weight", validWeight)
-                        .param("created_at", "2023-01-01T10:00:00")
-                        .param("customer_id", validCustomerId)
-                        .param("customer_name", validCustomerName)
-                        .param("customer_slug", validCustomerSlug))
-                .andExpect(status().isBadRequest());
-    }
-
-    @Test
-    void getNextTrackingNumber_fail_missingCustomerId() throws Exception {
-        mockMvc.perform(get("/next-tracking-number")
-                        .param("origin_country_id", validOriginCountryId)
-                        .param("destination_country_id", validDestinationCountryId)
-                        .param("weight", validWeight)
-                        .param("created_at", validCreatedAt)
-                        .param("customer_name", validCustomerName)
-                        .param("customer_slug", validCustomerSlug))
-                .andExpect(status().isBadRequest());
-    }
-
-    @Test
-    void getNextTrackingNumber_fail_invalidCustomerId_format() throws Exception {
-        mockMvc.perform(get("/next-tracking-number")
-                        .param("origin_country_id", validOriginCountryId)
-                        .param("destination_country_id", validDestinationCountryId)
-                        .param("weight", validWeight)
-                        .param("created_at", validCreatedAt)
-                        .param("customer_id", "invalid-uuid-format")
-                        .param("customer_name", validCustomerName)
-                        .param("customer_slug", validCustomerSlug))
-                .andExpect(status().isBadRequest());
-    }
-
-    @Test
-    void getNextTrackingNumber_fail_missingCustomerName() throws Exception {
-        mockMvc.perform(get("/next-tracking-number")
-                        .param("origin_country_id", validOriginCountryId)
-                        .param("destination_country_id", validDestinationCountryId)
-                        .param("weight", validWeight)
-                        .param("created_at", validCreatedAt)
-                        .param("customer_id", validCustomerId)
-                        .param("customer_slug", validCustomerSlug))
-                .andExpect(status().isBadRequest());
-    }
-
-    @Test
-    void getNextTrackingNumber_fail_missingCustomerSlug() throws Exception {
-        mockMvc.perform(get("/next-tracking-number")
-                        .param("origin_country_id", validOriginCountryId)
-                        .param("destination_country_id", validDestinationCountryId)
-                        .param("weight", validWeight)
-                        .param("created_at", validCreatedAt)
-                        .param("customer_id", validCustomerId)
-                        .param("customer_name", validCustomerName))
-                .andExpect(status().isBadRequest());
-    }
-
-    @Test
-    void getNextTrackingNumber_fail_invalidCustomerSlug_format() throws Exception {
-        mockMvc.perform(get("/next-tracking-number")
-                        .param("origin_country_id", validOriginCountryId)
-                        .param("destination_country_id", validDestinationCountryId)
-                        .param("weight", validWeight)
-                        .param("created_at", validCreatedAt)
-                        .param("customer_id", validCustomerId)
-                        .param("customer_name", validCustomerName)
-                        .param("customer_slug", "Invalid Slug With Spaces"))
-                .andExpect(status().isBadRequest());
+        when(trackingNumberService.generateTrackingNumber(eq(validOriginCountryId), eq(validDestinationCountryId), anyString()))
+                .thenReturn(Mono.just(expectedTrackingNumber));
+
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/next-tracking-number")
+                        .queryParam("origin_country_id", validOriginCountryId)
+                        .queryParam("destination_country_id", validDestinationCountryId)
+                        .queryParam("weight", validWeight)
+                        .queryParam("created_at", "{created_at}")
+                        .queryParam("customer_id", validCustomerId)
+                        .queryParam("customer_name", "{customer_name}")
+                        .queryParam("customer_slug", validCustomerSlug)
+                        .build(validCreatedAt, validCustomerName))
+                .header("Idempotency-Key", "order-42")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.tracking_number").isEqualTo(expectedTrackingNumber);
+
+        ArgumentCaptor<String> key = ArgumentCaptor.forClass(String.class);
+        verify(trackingNumberService).generateTrackingNumber(eq(validOriginCountryId), eq(validDestinationCountryId), key.capture());
+        assertEquals(64, key.getValue().length(), "Header keys should be stored as SHA-256 hex digests");
+        assertNotEquals("order-42", key.getValue());
+    }
+
+    @Test
+    void getNextTrackingNumber_fail_missingOriginCountryId() {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("destination_country_id", validDestinationCountryId);
+        params.put("weight", validWeight);
+        params.put("created_at", validCreatedAt);
+        params.put("customer_id", validCustomerId);
+        params.put("customer_name", validCustomerName);
+        params.put("customer_slug", validCustomerSlug);
+
+        getNextTrackingNumber(params)
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getNextTrackingNumber_fail_invalidOriginCountryId_length() {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("origin_country_id", "USA");
+        params.put("destination_country_id", validDestinationCountryId);
+        params.put("weight", validWeight);
+        params.put("created_at", validCreatedAt);
+        params.put("customer_id", validCustomerId);
+        params.put("customer_name", validCustomerName);
+        params.put("customer_slug", validCustomerSlug);
+
+        getNextTrackingNumber(params)
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getNextTrackingNumber_fail_invalidOriginCountryId_pattern() {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("origin_country_id", "U$");
+        params.put("destination_country_id", validDestinationCountryId);
+        params.put("weight", validWeight);
+        params.put("created_at", validCreatedAt);
+        params.put("customer_id", validCustomerId);
+        params.put("customer_name", validCustomerName);
+        params.put("customer_slug", validCustomerSlug);
+
+        getNextTrackingNumber(params)
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getNextTrackingNumber_fail_unassignedOriginCountryId() {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("origin_country_id", "ZZ");
+        params.put("destination_country_id", validDestinationCountryId);
+        params.put("weight", validWeight);
+        params.put("created_at", validCreatedAt);
+        params.put("customer_id", validCustomerId);
+        params.put("customer_name", validCustomerName);
+        params.put("customer_slug", validCustomerSlug);
+
+        getNextTrackingNumber(params)
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Origin country ID must be an ISO 3166-1 alpha-2 country code.");
+
+        verifyNoInteractions(trackingNumberService);
+    }
+
+    @Test
+    void getNextTrackingNumber_fail_missingDestinationCountryId() {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("origin_country_id", validOriginCountryId);
+        params.put("weight", validWeight);
+        params.put("created_at", validCreatedAt);
+        params.put("customer_id", validCustomerId);
+        params.put("customer_name", validCustomerName);
+        params.put("customer_slug", validCustomerSlug);
+
+        getNextTrackingNumber(params)
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getNextTrackingNumber_fail_missingWeight() {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("origin_country_id", validOriginCountryId);
+        params.put("destination_country_id", validDestinationCountryId);
+        params.put("created_at", validCreatedAt);
+        params.put("customer_id", validCustomerId);
+        params.put("customer_name", validCustomerName);
+        params.put("customer_slug", validCustomerSlug);
+
+        getNextTrackingNumber(params)
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getNextTrackingNumber_fail_invalidWeight_tooLow() {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("origin_country_id", validOriginCountryId);
+        params.put("destination_country_id", validDestinationCountryId);
+        params.put("weight", "0.0001");
+        params.put("created_at", validCreatedAt);
+        params.put("customer_id", validCustomerId);
+        params.put("customer_name", validCustomerName);
+        params.put("customer_slug", validCustomerSlug);
+
+        getNextTrackingNumber(params)
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getNextTrackingNumber_fail_missingCreatedAt() {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("origin_country_id", validOriginCountryId);
+        params.put("destination_country_id", validDestinationCountryId);
+        params.put("weight", validWeight);
+        params.put("customer_id", validCustomerId);
+        params.put("customer_name", validCustomerName);
+        params.put("customer_slug", validCustomerSlug);
+
+        getNextTrackingNumber(params)
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getNextTrackingNumber_fail_invalidCreatedAt_format() {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("origin_country_id", validOriginCountryId);
+        params.put("destination_country_id", validDestinationCountryId);
+        params.put("weight", validWeight);
+        params.put("created_at", "2023-01-01T10:00:00");
+        params.put("customer_id", validCustomerId);
+        params.put("customer_name", validCustomerName);
+        params.put("customer_slug", validCustomerSlug);
+
+        getNextTrackingNumber(params)
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getNextTrackingNumber_fail_missingCustomerId() {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("origin_country_id", validOriginCountryId);
+        params.put("destination_country_id", validDestinationCountryId);
+        params.put("weight", validWeight);
+        params.put("created_at", validCreatedAt);
+        params.put("customer_name", validCustomerName);
+        params.put("customer_slug", validCustomerSlug);
+
+        getNextTrackingNumber(params)
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getNextTrackingNumber_fail_invalidCustomerId_format() {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("origin_country_id", validOriginCountryId);
+        params.put("destination_country_id", validDestinationCountryId);
+        params.put("weight", validWeight);
+        params.put("created_at", validCreatedAt);
+        params.put("customer_id", "invalid-uuid-format");
+        params.put("customer_name", validCustomerName);
+        params.put("customer_slug", validCustomerSlug);
+
+        getNextTrackingNumber(params)
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getNextTrackingNumber_fail_missingCustomerName() {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("origin_country_id", validOriginCountryId);
+        params.put("destination_country_id", validDestinationCountryId);
+        params.put("weight", validWeight);
+        params.put("created_at", validCreatedAt);
+        params.put("customer_id", validCustomerId);
+        params.put("customer_slug", validCustomerSlug);
+
+        getNextTrackingNumber(params)
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getNextTrackingNumber_fail_missingCustomerSlug() {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("origin_country_id", validOriginCountryId);
+        params.put("destination_country_id", validDestinationCountryId);
+        params.put("weight", validWeight);
+        params.put("created_at", validCreatedAt);
+        params.put("customer_id", validCustomerId);
+        params.put("customer_name", validCustomerName);
+
+        getNextTrackingNumber(params)
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getNextTrackingNumber_fail_invalidCustomerSlug_format() {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("origin_country_id", validOriginCountryId);
+        params.put("destination_country_id", validDestinationCountryId);
+        params.put("weight", validWeight);
+        params.put("created_at", validCreatedAt);
+        params.put("customer_id", validCustomerId);
+        params.put("customer_name", validCustomerName);
+        params.put("customer_slug", "Invalid Slug With Spaces");
+
+        getNextTrackingNumber(params)
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getNextTrackingNumbers_success_jsonArray() {
+        when(trackingNumberService.generateTrackingNumbers(validOriginCountryId, validDestinationCountryId, 2))
+                .thenReturn(Flux.just("USMOCKTRACK001CA", "USMOCKTRACK002CA"));
+
+        Map<String, String> params = validParams();
+        params.put("count", "2");
+
+        getNextTrackingNumbers(params, MediaType.APPLICATION_JSON)
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].tracking_number").isEqualTo("USMOCKTRACK001CA")
+                .jsonPath("$[1].tracking_number").isEqualTo("USMOCKTRACK002CA");
+    }
+
+    @Test
+    void getNextTrackingNumbers_success_ndjsonStream() {
+        when(trackingNumberService.generateTrackingNumbers(validOriginCountryId, validDestinationCountryId, 2))
+                .thenReturn(Flux.just("USMOCKTRACK001CA", "USMOCKTRACK002CA"));
+
+        Map<String, String> params = validParams();
+        params.put("count", "2");
+
+        List<String> lines = getNextTrackingNumbers(params, MediaType.APPLICATION_NDJSON)
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(String.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("USMOCKTRACK001CA"));
+        assertTrue(lines.get(1).contains("USMOCKTRACK002CA"));
+    }
+
+    @Test
+    void getNextTrackingNumbers_success_countsIssuedNumbersForTheCustomer() {
+        when(trackingNumberService.generateTrackingNumbers(validOriginCountryId, validDestinationCountryId, 2))
+                .thenReturn(Flux.just("USMOCKTRACK001CA", "USMOCKTRACK002CA"));
+
+        Map<String, String> params = validParams();
+        params.put("customer_slug", "counted-customer");
+        params.put("count", "2");
+
+        // Reading the whole body makes sure both numbers went through the controller before counting.
+        getNextTrackingNumbers(params, MediaType.APPLICATION_JSON)
+                .expectStatus().isOk()
+                .expectBodyList(Map.class).hasSize(2);
+
+        long minute = issuanceStats.currentMinute();
+        Map<String, Long> customers = issuanceStats.counts(IssuanceStats.Dimension.CUSTOMER, minute - 1, minute);
+        assertEquals(2L, customers.get("counted-customer"));
+        assertTrue(issuanceStats.counts(IssuanceStats.Dimension.LANE, minute - 1, minute).containsKey("USCA"));
+    }
+
+    @Test
+    void getNextTrackingNumbers_fail_countAboveMaximum() {
+        Map<String, String> params = validParams();
+        params.put("count", "10001");
+
+        getNextTrackingNumbers(params, MediaType.APPLICATION_JSON)
+                .expectStatus().isBadRequest();
+        verifyNoInteractions(trackingNumberService);
+    }
+
+    @Test
+    void getNextTrackingNumbers_fail_countBelowMinimum() {
+        Map<String, String> params = validParams();
+        params.put("count", "0");
+
+        getNextTrackingNumbers(params, MediaType.APPLICATION_JSON)
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getNextTrackingNumbers_fail_missingCount() {
+        getNextTrackingNumbers(validParams(), MediaType.APPLICATION_JSON)
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getNextTrackingNumber_fail_nonNumericWeight_writesTheErrorBody() {
+        Map<String, String> params = validParams();
+        params.put("weight", "heavy");
+
+        getNextTrackingNumber(params)
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400)
+                .jsonPath("$.error").isEqualTo("Bad Request")
+                .jsonPath("$.message").isEqualTo("Invalid value for parameter 'weight'. Expected type 'Double', but received value 'heavy'.")
+                .jsonPath("$.path").isEqualTo("/next-tracking-number")
+                .jsonPath("$.timestamp").isNumber()
+                .jsonPath("$.errors").doesNotExist();
+
+        verifyNoInteractions(trackingNumberService);
+    }
+
+    private Map<String, String> validParams() {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("origin_country_id", validOriginCountryId);
+        params.put("destination_country_id", validDestinationCountryId);
+        params.put("weight", validWeight);
+        params.put("created_at", validCreatedAt);
+        params.put("customer_id", validCustomerId);
+        params.put("customer_name", validCustomerName);
+        params.put("customer_slug", validCustomerSlug);
+        return params;
+    }
+
+    private WebTestClient.ResponseSpec getNextTrackingNumbers(Map<String, String> params, MediaType accept) {
+        return webTestClient.get()
+                .uri(uriBuilder -> {
+                    uriBuilder.path("/next-tracking-numbers");
+                    params.keySet().forEach(name -> uriBuilder.queryParam(name, "{" + name + "}"));
+                    return uriBuilder.build(params);
+                })
+                .accept(accept)
+                .exchange();
+    }
+
+    private WebTestClient.ResponseSpec getNextTrackingNumber(Map<String, String> params) {
+        return webTestClient.get()
+                .uri(uriBuilder -> {
+                    uriBuilder.path("/next-tracking-number");
+                    params.keySet().forEach(name -> uriBuilder.queryParam(name, "{" + name + "}"));
+                    return uriBuilder.build(params);
+                })
+                .exchange();
     }
 }
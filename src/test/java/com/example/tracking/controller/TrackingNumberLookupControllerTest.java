@@ -0,0 +1,104 @@
+package com.example.tracking.controller;
+
+import com.example.tracking.service.TrackingNumberLookupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(TrackingNumberLookupController.class)
+class TrackingNumberLookupControllerTest {
+
+    private static final OffsetDateTime CREATED_AT = OffsetDateTime.parse("2025-06-16T10:30:00Z");
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private TrackingNumberLookupService lookupService;
+
+    @Test
+    void getTrackingNumber_success_issuedNumber() {
+        when(lookupService.findCreatedAt("MY0000000000A1ID")).thenReturn(Mono.just(CREATED_AT));
+
+        webTestClient.get()
+                .uri("/tracking-numbers/my0000000000a1id")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.trackingNumber").isEqualTo("MY0000000000A1ID")
+                .jsonPath("$.issued").isEqualTo(true)
+                .jsonPath("$.createdAt").exists();
+    }
+
+    @Test
+    void getTrackingNumber_fail_unknownNumber() {
+        when(lookupService.findCreatedAt(anyString())).thenReturn(Mono.empty());
+
+        webTestClient.get()
+                .uri("/tracking-numbers/MY999999999999ID")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.message").isEqualTo("Tracking number MY999999999999ID was not issued.");
+    }
+
+    @Test
+    void getTrackingNumber_fail_invalidNumber() {
+        webTestClient.get()
+                .uri("/tracking-numbers/MY-1")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(lookupService);
+    }
+
+    @Test
+    void lookupTrackingNumbers_success_answersInRequestOrder() {
+        when(lookupService.findCreatedAt(new LinkedHashSet<>(Arrays.asList("MY000000000002ID", "MY999999999999ID", "MY000000000001ID"))))
+                .thenReturn(Mono.just(Collections.singletonMap("MY000000000001ID", CREATED_AT)));
+
+        webTestClient.post()
+                .uri("/tracking-numbers/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"trackingNumbers\":[\"MY000000000002ID\",\"MY999999999999ID\",\"my000000000001id\"]}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3)
+                .jsonPath("$[0].trackingNumber").isEqualTo("MY000000000002ID")
+                .jsonPath("$[0].issued").isEqualTo(false)
+                .jsonPath("$[1].issued").isEqualTo(false)
+                .jsonPath("$[2].trackingNumber").isEqualTo("MY000000000001ID")
+                .jsonPath("$[2].issued").isEqualTo(true)
+                .jsonPath("$[2].createdAt").exists();
+    }
+
+    @Test
+    void lookupTrackingNumbers_fail_invalidNumber() {
+        webTestClient.post()
+                .uri("/tracking-numbers/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"trackingNumbers\":[\"MY000000000001ID\",\"short\"]}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Tracking number must be 16 alphanumeric characters: short");
+
+        verifyNoInteractions(lookupService);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.tracking.controller;
+
+import com.example.tracking.validation.ValidationMessages;
+import io.rsocket.exceptions.ApplicationErrorException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:rsocket-test")
+class TrackingRSocketControllerTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private RSocketRequester.Builder requesterBuilder;
+
+    private RSocketRequester requester;
+
+    @BeforeEach
+    void setUp() {
+        requester = requesterBuilder
+                .dataMimeType(MediaType.APPLICATION_JSON)
+                .websocket(URI.create("ws://localhost:" + port + "/rsocket"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        requester.dispose();
+    }
+
+    @Test
+    void nextTrackingNumber_success() {
+        String response = requester.route("next-tracking-number")
+                .data(request("MY"))
+                .retrieveMono(String.class)
+                .block(Duration.ofSeconds(10));
+
+        assertNotNull(response);
+        assertTrue(response.matches("\\{\"tracking_number\":\"MY[0-9A-Z]{12}ID\",\"created_at\":\"[^\"]+\"}"), response);
+    }
+
+    @Test
+    void nextTrackingNumber_invalidOrigin_returnsValidationMessage() {
+        StepVerifier.create(requester.route("next-tracking-number")
+                        .data(request("XX"))
+                        .retrieveMono(String.class))
+                .expectErrorSatisfies(e -> {
+                    assertTrue(e instanceof ApplicationErrorException, e.toString());
+                    assertEquals(ValidationMessages.ORIGIN_UNKNOWN, e.getMessage());
+                })
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void trackingNumbers_streamsDistinctNumbersAsRequested() {
+        Set<String> received = ConcurrentHashMap.newKeySet();
+
+        StepVerifier.create(requester.route("tracking-numbers")
+                        .data(request("MY"))
+                        .retrieveFlux(String.class)
+                        .doOnNext(received::add), 0)
+                .expectSubscription()
+                .thenRequest(3)
+                .expectNextCount(3)
+                .thenRequest(2)
+                .expectNextCount(2)
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+
+        assertEquals(5, received.size());
+    }
+
+    private static Map<String, Object> request(String origin) {
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("origin_country_id", origin);
+        request.put("destination_country_id", "ID");
+        request.put("weight", 1.5);
+        request.put("created_at", "2025-06-16T10:30:00Z");
+        request.put("customer_id", UUID.randomUUID().toString());
+        request.put("customer_name", "RSocket");
+        request.put("customer_slug", "rsocket");
+        return request;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.tracking.logging;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorLogTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private final ErrorLog errorLog = new ErrorLog(LoggerFactory.getLogger(ErrorLogTest.class), 3, now::get);
+
+    @Test
+    void tryAcquire_allowsTheLimitPerSecond() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(errorLog.tryAcquire());
+        }
+        assertFalse(errorLog.tryAcquire());
+        assertFalse(errorLog.tryAcquire());
+        assertEquals(2, errorLog.suppressed());
+    }
+
+    @Test
+    void tryAcquire_startsAFreshBudgetEachSecond() {
+        for (int i = 0; i < 5; i++) {
+            errorLog.tryAcquire();
+        }
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertFalse(errorLog.tryAcquire());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertTrue(errorLog.tryAcquire());
+        assertEquals(0, errorLog.suppressed(), "Dropped lines are reported and reset once the next second starts");
+    }
+
+    @Test
+    void constructor_rejectsANonPositiveLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new ErrorLog(LoggerFactory.getLogger(ErrorLogTest.class), 0));
+    }
+}
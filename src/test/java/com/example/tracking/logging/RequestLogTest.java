@@ -0,0 +1,47 @@
+package com.example.tracking.logging;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestLogTest {
+
+    @Test
+    void fullMode_logsEveryRequest() {
+        RequestLog requestLog = new RequestLog(RequestLog.MODE_FULL, 100);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(requestLog.record(1));
+        }
+    }
+
+    @Test
+    void sampledMode_logsOneRequestInSampleRate() {
+        RequestLog requestLog = new RequestLog(RequestLog.MODE_SAMPLED, 4);
+
+        int detailed = 0;
+        for (int i = 0; i < 100; i++) {
+            if (requestLog.record(1)) {
+                detailed++;
+            }
+        }
+
+        assertEquals(25, detailed);
+    }
+
+    @Test
+    void summaryMode_logsNoRequestInDetail() {
+        RequestLog requestLog = new RequestLog(RequestLog.MODE_SUMMARY, 1);
+
+        for (int i = 0; i < 10; i++) {
+            assertFalse(requestLog.record(5));
+        }
+        requestLog.logSummary();
+    }
+
+    @Test
+    void unknownMode_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new RequestLog("verbose", 100));
+        assertThrows(IllegalArgumentException.class, () -> new RequestLog(RequestLog.MODE_SAMPLED, 0));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.tracking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    void tryAcquire_rejectsOnceTheLimitIsInFlight() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 1.5, 0.2, 100);
+
+        assertEquals(1, limiter.tryAcquire());
+        assertEquals(2, limiter.tryAcquire());
+        assertEquals(0, limiter.tryAcquire());
+
+        limiter.release(FAST, 2, false);
+        assertEquals(1, limiter.inFlight());
+        assertEquals(2, limiter.tryAcquire());
+    }
+
+    @Test
+    void release_raisesTheLimitWhileLatencyHoldsAndCutsItWhenLatencyClimbs() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100, 1.5, 0.2, 100);
+
+        sample(limiter, FAST, 200);
+        int raised = limiter.limit();
+        assertTrue(raised > 50, "Limit should grow while latency holds, was " + raised);
+
+        sample(limiter, SLOW, 30);
+        int cut = limiter.limit();
+        assertTrue(cut < raised / 2, "Limit should shrink once requests queue, was " + cut);
+
+        sample(limiter, FAST, 300);
+        assertTrue(limiter.limit() > cut, "Limit should recover with latency");
+    }
+
+    @Test
+    void release_ignoresSamplesTakenWellBelowTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 1, 100, 1.5, 0.2, 100);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.release(FAST, 1, true);
+        }
+
+        assertEquals(20, limiter.limit());
+    }
+
+    @Test
+    void constructor_rejectsAnInitialLimitOutsideTheBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(1, 4, 10, 1.5, 0.2, 100));
+    }
+
+    /** {@code count} requests that each started with the whole limit in flight. */
+    private static void sample(AdaptiveConcurrencyLimiter limiter, long rttNanos, int count) {
+        for (int i = 0; i < count; i++) {
+            limiter.tryAcquire();
+            limiter.release(rttNanos, limiter.limit(), true);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.tracking.service;
+
+import com.example.tracking.util.PackedTrackingNumber;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveRolloverTest {
+
+    private static final Clock NOW = Clock.fixed(Instant.parse("2026-10-15T12:00:00Z"), ZoneOffset.UTC);
+
+    @TempDir
+    Path archiveDir;
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TrackingNumberArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:archive-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE generated_tracking_numbers (tracking_number BINARY(11) NOT NULL PRIMARY KEY, "
+                + "created_at BIGINT NOT NULL, idempotency_key VARCHAR(64), pool_lane VARCHAR(4))");
+        jdbcTemplate.execute("CREATE INDEX ix_generated_tracking_numbers_created_at ON generated_tracking_numbers (created_at)");
+        archive = new TrackingNumberArchive(archiveDir.toString());
+    }
+
+    @Test
+    void rollOverOldestMonth_movesMonthsPastTheHotWindowIntoTheArchive() {
+        insert("MY000000000001ID", "2026-05-01T00:00:00Z", null);
+        insert("MY000000000002ID", "2026-05-31T23:59:59.999Z", null);
+        insert("US000000000003CA", "2026-06-10T08:00:00Z", null);
+        insert("MY000000000004ID", "2026-08-01T00:00:00Z", null);
+        insert("MY000000000005ID", "2026-05-02T00:00:00Z", "MYID");
+        ArchiveRollover rollover = rollover(2, 0);
+
+        assertEquals(YearMonth.of(2026, 5), rollover.rollOverOldestMonth());
+        assertEquals(YearMonth.of(2026, 6), rollover.rollOverOldestMonth());
+        assertNull(rollover.rollOverOldestMonth(), "August is inside the two hot months");
+
+        assertEquals(Arrays.asList("MY000000000004ID", "MY000000000005ID"), tableNumbers());
+        assertTrue(archive.contains("MY000000000001ID"));
+        assertTrue(archive.contains("US000000000003CA"));
+        assertFalse(archive.contains("MY000000000004ID"));
+        assertFalse(archive.contains("MY000000000005ID"), "Pool numbers are never archived");
+        Map<String, OffsetDateTime> createdAt = archive.findCreatedAt(Arrays.asList("MY000000000002ID", "MY000000000009ID"));
+        assertEquals(1, createdAt.size());
+        assertEquals(Instant.parse("2026-05-31T23:59:59.999Z"), createdAt.get("MY000000000002ID").toInstant());
+    }
+
+    @Test
+    void rollOverOldestMonth_archivesRowsMissedByAnEarlierSegmentIntoAnotherOne() throws IOException {
+        insert("MY000000000001ID", "2026-05-01T00:00:00Z", null);
+        ArchiveRollover rollover = rollover(2, 0);
+        rollover.rollOverOldestMonth();
+        // A row of the archived month that reached the table after its segment was written.
+        insert("MY000000000002ID", "2026-05-20T00:00:00Z", null);
+
+        assertEquals(YearMonth.of(2026, 5), rollover.rollOverOldestMonth());
+
+        assertTrue(tableNumbers().isEmpty());
+        assertTrue(Files.exists(archiveDir.resolve("2026-05.segment")));
+        assertTrue(Files.exists(archiveDir.resolve("2026-05.1.segment")));
+        archive.destroy();
+        TrackingNumberArchive reopened = new TrackingNumberArchive(archiveDir.toString());
+        assertTrue(reopened.contains("MY000000000001ID"));
+        assertTrue(reopened.contains("MY000000000002ID"));
+        reopened.destroy();
+    }
+
+    @Test
+    void rollOverOldestMonth_deletesSegmentsPastRetention() {
+        insert("MY000000000001ID", "2026-05-01T00:00:00Z", null);
+        rollover(2, 0).rollOverOldestMonth();
+        assertTrue(archive.contains("MY000000000001ID"));
+
+        ArchiveRollover later = new ArchiveRollover(jdbcTemplate, new DataSourceTransactionManager(dataSource), archive,
+                new SimpleMeterRegistry(), 2, 6, 2, 4, 0.01, 0, 0,
+                Clock.fixed(Instant.parse("2026-11-01T00:00:00Z"), ZoneOffset.UTC));
+        later.rollOverOldestMonth();
+        assertTrue(archive.contains("MY000000000001ID"), "May is the oldest of the six months kept in November");
+
+        ArchiveRollover muchLater = new ArchiveRollover(jdbcTemplate, new DataSourceTransactionManager(dataSource), archive,
+                new SimpleMeterRegistry(), 2, 6, 2, 4, 0.01, 0, 0,
+                Clock.fixed(Instant.parse("2026-12-01T00:00:00Z"), ZoneOffset.UTC));
+        muchLater.rollOverOldestMonth();
+
+        assertFalse(archive.contains("MY000000000001ID"));
+        assertFalse(Files.exists(archiveDir.resolve("2026-05.segment")));
+    }
+
+    @Test
+    void constructor_rejectsRetentionInsideTheHotWindow() {
+        assertThrows(IllegalArgumentException.class, () -> rollover(6, 6));
+    }
+
+    private ArchiveRollover rollover(int hotMonths, int retentionMonths) {
+        // Two rows per delete batch and four per block exercise the batching with a handful of rows.
+        return new ArchiveRollover(jdbcTemplate, new DataSourceTransactionManager(dataSource), archive,
+                new SimpleMeterRegistry(), hotMonths, retentionMonths, 2, 4, 0.01, 0, 0, NOW);
+    }
+
+    private void insert(String trackingNumber, String createdAt, String poolLane) {
+        jdbcTemplate.update("INSERT INTO generated_tracking_numbers (tracking_number, created_at, pool_lane) VALUES (?, ?, ?)",
+                PackedTrackingNumber.pack(trackingNumber), Instant.parse(createdAt).toEpochMilli(), poolLane);
+    }
+
+    private List<String> tableNumbers() {
+        return jdbcTemplate.query("SELECT tracking_number FROM generated_tracking_numbers ORDER BY tracking_number",
+                (resultSet, row) -> PackedTrackingNumber.unpack(resultSet.getBytes(1)));
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.tracking.service;
+
+import com.example.tracking.util.PackedTrackingNumber;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArchiveSegmentTest {
+
+    private static final long BASE_MILLIS = 1_700_000_000_000L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void findCreatedAt_findsEveryArchivedNumberAndNothingElse() throws IOException {
+        Path path = dir.resolve("2024-01" + ArchiveSegment.SUFFIX);
+        try (ArchiveSegment.Writer writer = ArchiveSegment.create(path, 2_500, 100, 0.01)) {
+            for (int i = 0; i < 5_000; i += 2) {
+                writer.append(packed(i), BASE_MILLIS + i);
+            }
+            writer.commit().close();
+        }
+
+        try (ArchiveSegment segment = ArchiveSegment.open(path)) {
+            assertEquals(2_500, segment.entries());
+            assertEquals(BASE_MILLIS, segment.minCreatedAt());
+            assertEquals(BASE_MILLIS + 4_998, segment.maxCreatedAt());
+            for (int i = 0; i < 5_000; i++) {
+                long expected = i % 2 == 0 ? BASE_MILLIS + i : ArchiveSegment.ABSENT;
+                assertEquals(expected, segment.findCreatedAt(packed(i)), "Number " + i);
+            }
+            assertEquals(ArchiveSegment.ABSENT, segment.findCreatedAt(packed(999_999)));
+            for (int i = 0; i < 5_000; i += 2) {
+                assertTrue(segment.mightContain(number(i)));
+            }
+        }
+    }
+
+    @Test
+    void forEachNumber_visitsNumbersInOrder() throws IOException {
+        Path path = dir.resolve("2024-02" + ArchiveSegment.SUFFIX);
+        try (ArchiveSegment.Writer writer = ArchiveSegment.create(path, 250, 64, 0.01)) {
+            for (int i = 0; i < 250; i++) {
+                writer.append(packed(i), BASE_MILLIS);
+            }
+            writer.commit().close();
+        }
+
+        List<String> numbers = new ArrayList<>();
+        try (ArchiveSegment segment = ArchiveSegment.open(path)) {
+            segment.forEachNumber(packed -> numbers.add(PackedTrackingNumber.unpack(packed)));
+        }
+
+        assertEquals(250, numbers.size());
+        for (int i = 0; i < 250; i++) {
+            assertEquals(number(i), numbers.get(i));
+        }
+    }
+
+    @Test
+    void append_rejectsNumbersOutOfOrder() throws IOException {
+        try (ArchiveSegment.Writer writer = ArchiveSegment.create(dir.resolve("2024-03" + ArchiveSegment.SUFFIX), 10, 4, 0.01)) {
+            writer.append(packed(2), BASE_MILLIS);
+
+            assertThrows(IllegalArgumentException.class, () -> writer.append(packed(2), BASE_MILLIS));
+            assertThrows(IllegalArgumentException.class, () -> writer.append(packed(1), BASE_MILLIS));
+        }
+    }
+
+    @Test
+    void close_withoutCommitLeavesNoFile() throws IOException {
+        Path path = dir.resolve("2024-04" + ArchiveSegment.SUFFIX);
+        try (ArchiveSegment.Writer writer = ArchiveSegment.create(path, 10, 4, 0.01)) {
+            writer.append(packed(1), BASE_MILLIS);
+        }
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void open_rejectsATruncatedFile() throws IOException {
+        Path path = dir.resolve("2024-05" + ArchiveSegment.SUFFIX);
+        try (ArchiveSegment.Writer writer = ArchiveSegment.create(path, 10, 4, 0.01)) {
+            writer.append(packed(1), BASE_MILLIS);
+            writer.commit().close();
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+
+        assertThrows(IOException.class, () -> ArchiveSegment.open(path));
+    }
+
+    private static String number(int i) {
+        return String.format("MY%012dID", i);
+    }
+
+    private static byte[] packed(int i) {
+        return PackedTrackingNumber.pack(number(i));
+    }
+}
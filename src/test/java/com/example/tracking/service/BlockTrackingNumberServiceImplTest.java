@@ -0,0 +1,131 @@
+package com.example.tracking.service;
+
+import com.example.tracking.entity.GeneratedTrackingNumber;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BlockTrackingNumberServiceImplTest {
+
+    private static final long BLOCK_SIZE = 10;
+
+    @Mock
+    private IssuedTrackingNumberRecorder issuedTrackingNumberRecorder;
+
+    @Mock
+    private TrackingNumberBlockAllocator blockAllocator;
+
+    private BlockTrackingNumberServiceImpl trackingNumberService;
+
+    private final AtomicLong nextBlockStart = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        when(blockAllocator.getBlockSize()).thenReturn(BLOCK_SIZE);
+        lenient().when(blockAllocator.reserve(anyString()))
+                .thenAnswer(invocation -> nextBlockStart.getAndAdd(BLOCK_SIZE));
+        trackingNumberService = new BlockTrackingNumberServiceImpl(issuedTrackingNumberRecorder, blockAllocator,
+                new TrackingNumberEncoder(TrackingNumberEncoder.MODE_FAST), new TrackingMetrics(new SimpleMeterRegistry(), "block"), new SimpleMeterRegistry(), 4);
+    }
+
+    @Test
+    void generateTrackingNumber_success_validInputs() {
+        String trackingNumber = trackingNumberService.generateTrackingNumber("MY", "ID");
+
+        assertEquals("MY000000000000ID", trackingNumber);
+        assertTrue(trackingNumber.matches("^[A-Z0-9]{16}$"));
+        verify(issuedTrackingNumberRecorder, times(1)).record(any(GeneratedTrackingNumber.class));
+    }
+
+    @Test
+    void generateTrackingNumber_reservesNextBlockWhenExhausted() {
+        for (int i = 0; i < BLOCK_SIZE * 2 + 1; i++) {
+            trackingNumberService.generateTrackingNumber("MY", "ID");
+        }
+
+        verify(blockAllocator, times(3)).reserve(BlockTrackingNumberServiceImpl.SEQUENCE_NAME);
+    }
+
+    @Test
+    void generateTrackingNumber_skipsNumberAlreadyInTable() {
+        doThrow(new DataIntegrityViolationException("duplicate"))
+                .doNothing()
+                .when(issuedTrackingNumberRecorder).record(any(GeneratedTrackingNumber.class));
+
+        String trackingNumber = trackingNumberService.generateTrackingNumber("MY", "ID");
+
+        assertEquals("MY000000000001ID", trackingNumber);
+    }
+
+    @Test
+    void generateTrackingNumbers_insertsOneBatchPerChunk() {
+        List<String> trackingNumbers = trackingNumberService.generateTrackingNumbers("MY", "ID", 10);
+
+        assertEquals(10, trackingNumbers.size());
+        assertEquals(10, new HashSet<>(trackingNumbers).size());
+        assertEquals("MY000000000009ID", trackingNumbers.get(9));
+        verify(issuedTrackingNumberRecorder, times(3)).recordAll(anyList());
+        verify(issuedTrackingNumberRecorder, never()).record(any(GeneratedTrackingNumber.class));
+    }
+
+    @Test
+    void generateTrackingNumber_repeatedIdempotencyKey_returnsTheStoredNumberWithoutRetrying() {
+        doThrow(new DataIntegrityViolationException("duplicate idempotency key"))
+                .when(issuedTrackingNumberRecorder).record(any(GeneratedTrackingNumber.class));
+        when(issuedTrackingNumberRecorder.findStored("order-42")).thenReturn("MY000000000042ID");
+
+        String trackingNumber = trackingNumberService.generateTrackingNumber("MY", "ID", "order-42");
+
+        assertEquals("MY000000000042ID", trackingNumber);
+        verify(issuedTrackingNumberRecorder, times(1)).record(any(GeneratedTrackingNumber.class));
+    }
+
+    @Test
+    void generateTrackingNumber_concurrentGenerations_blockStrategy() throws InterruptedException {
+        int numberOfThreads = 16;
+        int operationsPerThread = 50;
+        ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
+        CountDownLatch latch = new CountDownLatch(numberOfThreads * operationsPerThread);
+        Set<String> generatedNumbers = new HashSet<>();
+
+        for (int i = 0; i < numberOfThreads * operationsPerThread; i++) {
+            executorService.submit(() -> {
+                try {
+                    String trackingNumber = trackingNumberService.generateTrackingNumber("MT", "TH");
+                    synchronized (generatedNumbers) {
+                        generatedNumbers.add(trackingNumber);
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(30, TimeUnit.SECONDS), "Latch did not count down in time");
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS), "Executor service did not terminate in time");
+
+        assertEquals(numberOfThreads * operationsPerThread, generatedNumbers.size(), "Generated tracking numbers should be unique under concurrency.");
+        verify(blockAllocator, times(numberOfThreads * operationsPerThread / (int) BLOCK_SIZE)).reserve(anyString());
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.tracking.service;
+
+import com.example.tracking.exception.RateLimitExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerRateLimiterTest {
+
+    private static final String CUSTOMER = "de619854-b59b-425e-9db4-943979e1bd49";
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+    private final CustomerRateLimiter limiter = new CustomerRateLimiter(true, 10, 5, clock::get);
+
+    @Test
+    void acquire_allowsTheBurstThenRejectsWithRetryAfter() {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(CUSTOMER, 1);
+        }
+
+        RateLimitExceededException error = assertThrows(RateLimitExceededException.class, () -> limiter.acquire(CUSTOMER, 1));
+        assertEquals(1, error.getRetryAfterSeconds());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), limiter.tryAcquire(CUSTOMER, 1));
+    }
+
+    @Test
+    void acquire_refillsAtTheConfiguredRate() {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(CUSTOMER, 1);
+        }
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+
+        assertEquals(0, limiter.tryAcquire(CUSTOMER, 1));
+        assertEquals(0, limiter.tryAcquire(CUSTOMER, 1));
+        assertTrue(limiter.tryAcquire(CUSTOMER, 1) > 0);
+    }
+
+    @Test
+    void acquire_keepsCustomersApartAndIgnoresCase() {
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire(CUSTOMER, 1);
+        }
+
+        assertTrue(limiter.tryAcquire(CUSTOMER.toUpperCase(), 1) > 0);
+        assertEquals(0, limiter.tryAcquire("0b8e5fb0-5d0e-4c0c-a8c1-3a7f3c6b1d22", 1));
+    }
+
+    @Test
+    void acquire_letsABatchRunIntoDebt() {
+        assertEquals(0, limiter.tryAcquire(CUSTOMER, 20));
+
+        long waitNanos = limiter.tryAcquire(CUSTOMER, 1);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1600), waitNanos);
+        RateLimitExceededException error = assertThrows(RateLimitExceededException.class, () -> limiter.acquire(CUSTOMER, 1));
+        assertEquals(2, error.getRetryAfterSeconds());
+    }
+
+    @Test
+    void evictIdleBuckets_dropsOnlyFullBuckets() {
+        limiter.acquire(CUSTOMER, 5);
+        limiter.acquire("0b8e5fb0-5d0e-4c0c-a8c1-3a7f3c6b1d22", 1);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        limiter.evictIdleBuckets();
+
+        assertEquals(1, limiter.bucketCount());
+        assertEquals(0, limiter.tryAcquire(CUSTOMER, 1));
+        assertTrue(limiter.tryAcquire(CUSTOMER, 1) > 0, "The drained bucket must survive eviction");
+    }
+
+    @Test
+    void evictIdleBuckets_racingWithAcquire_neverLosesTheCharge() {
+        AtomicBoolean sweepOnNextTick = new AtomicBoolean();
+        CustomerRateLimiter[] racing = new CustomerRateLimiter[1];
+        racing[0] = new CustomerRateLimiter(true, 10, 5, () -> {
+            if (sweepOnNextTick.compareAndSet(true, false)) {
+                racing[0].evictIdleBuckets();
+            }
+            return clock.get();
+        });
+        racing[0].acquire(CUSTOMER, 1);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        // The sweep drops the full bucket after acquire has looked it up, before it is charged.
+        sweepOnNextTick.set(true);
+        assertEquals(0, racing[0].tryAcquire(CUSTOMER, 5));
+
+        assertFalse(sweepOnNextTick.get());
+        assertEquals(1, racing[0].bucketCount());
+        assertTrue(racing[0].tryAcquire(CUSTOMER, 1) > 0, "The charge must land in the bucket left in the map");
+    }
+
+    @Test
+    void acquire_doesNothingWhenDisabled() {
+        CustomerRateLimiter disabled = new CustomerRateLimiter(false, 0, 0, clock::get);
+        for (int i = 0; i < 1000; i++) {
+            disabled.acquire(CUSTOMER, 10);
+        }
+        assertEquals(0, disabled.bucketCount());
+    }
+}
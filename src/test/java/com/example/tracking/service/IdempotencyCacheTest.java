@@ -0,0 +1,143 @@
+package com.example.tracking.service;
+
+import com.example.tracking.entity.GeneratedTrackingNumber;
+import com.example.tracking.repository.TrackingNumberRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyCacheTest {
+
+    @Mock
+    private TrackingNumberRepository trackingNumberRepository;
+
+    @Test
+    void issue_sameKey_generatesOnce() {
+        when(trackingNumberRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.empty());
+        IdempotencyCache cache = new IdempotencyCache(trackingNumberRepository, 100, Duration.ofHours(1));
+        AtomicInteger generated = new AtomicInteger();
+
+        String first = cache.issue("key-1", () -> "MY00000000000" + generated.incrementAndGet() + "ID");
+        String retry = cache.issue("key-1", () -> "MY00000000000" + generated.incrementAndGet() + "ID");
+
+        assertEquals("MY000000000001ID", first);
+        assertEquals(first, retry);
+        assertEquals(1, generated.get());
+        verify(trackingNumberRepository, times(1)).findByIdempotencyKey("key-1");
+    }
+
+    @Test
+    void issue_keyStoredEarlier_returnsStoredNumber() {
+        when(trackingNumberRepository.findByIdempotencyKey("key-1"))
+                .thenReturn(Optional.of(new GeneratedTrackingNumber("MY000000000042ID", "key-1")));
+        IdempotencyCache cache = new IdempotencyCache(trackingNumberRepository, 100, Duration.ofHours(1));
+
+        String trackingNumber = cache.issue("key-1", () -> fail("Stored keys must not generate a new number"));
+
+        assertEquals("MY000000000042ID", trackingNumber);
+    }
+
+    @Test
+    void issue_keyStoredConcurrentlyElsewhere_returnsWinningNumber() {
+        when(trackingNumberRepository.findByIdempotencyKey("key-1"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new GeneratedTrackingNumber("MY000000000007ID", "key-1")));
+        IdempotencyCache cache = new IdempotencyCache(trackingNumberRepository, 100, Duration.ofHours(1));
+
+        String trackingNumber = cache.issue("key-1", () -> {
+            throw new RuntimeException("Failed to generate a unique tracking number after 10 attempts.");
+        });
+
+        assertEquals("MY000000000007ID", trackingNumber);
+    }
+
+    @Test
+    void issue_generationFails_propagatesAndDoesNotCache() {
+        when(trackingNumberRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.empty());
+        IdempotencyCache cache = new IdempotencyCache(trackingNumberRepository, 100, Duration.ofHours(1));
+
+        assertThrows(RuntimeException.class, () -> cache.issue("key-1", () -> {
+            throw new RuntimeException("database down");
+        }));
+        assertEquals("MY000000000001ID", cache.issue("key-1", () -> "MY000000000001ID"));
+    }
+
+    @Test
+    void issue_slowGeneration_doesNotBlockOtherKeysAndIsSharedBySameKey() throws Exception {
+        when(trackingNumberRepository.findByIdempotencyKey(anyString())).thenReturn(Optional.empty());
+        IdempotencyCache cache = new IdempotencyCache(trackingNumberRepository, 100, Duration.ofHours(1));
+        CountDownLatch generating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger generated = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> cache.issue("key-1", () -> {
+                generated.incrementAndGet();
+                generating.countDown();
+                awaitUninterruptibly(release);
+                return "MY000000000001ID";
+            }));
+            assertTrue(generating.await(5, TimeUnit.SECONDS));
+            Future<String> retry = executor.submit(() -> cache.issue("key-1", () -> {
+                generated.incrementAndGet();
+                return "MY000000000002ID";
+            }));
+
+            assertTimeoutPreemptively(Duration.ofSeconds(5),
+                    () -> assertEquals("MY000000000003ID", cache.issue("key-2", () -> "MY000000000003ID")));
+            assertFalse(retry.isDone(), "A retry must wait for the generation already running for its key");
+
+            release.countDown();
+            assertEquals("MY000000000001ID", first.get(5, TimeUnit.SECONDS));
+            assertEquals("MY000000000001ID", retry.get(5, TimeUnit.SECONDS));
+            assertEquals(1, generated.get());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void resolver_scopesKeysPerCustomerAndHonoursMode() {
+        OffsetDateTime createdAt = OffsetDateTime.parse("2025-06-16T10:30:00Z");
+        IdempotencyKeyResolver header = new IdempotencyKeyResolver(IdempotencyKeyResolver.MODE_HEADER);
+        IdempotencyKeyResolver fingerprint = new IdempotencyKeyResolver(IdempotencyKeyResolver.MODE_FINGERPRINT);
+        IdempotencyKeyResolver off = new IdempotencyKeyResolver(IdempotencyKeyResolver.MODE_OFF);
+
+        String customerA = header.resolve("order-1", "customer-a", createdAt, "MY", "ID", 1.5);
+        assertEquals(customerA, header.resolve("order-1", "CUSTOMER-A", createdAt, "SG", "TH", 9.0));
+        assertNotEquals(customerA, header.resolve("order-1", "customer-b", createdAt, "MY", "ID", 1.5));
+        assertNull(header.resolve(null, "customer-a", createdAt, "MY", "ID", 1.5));
+
+        String fingerprinted = fingerprint.resolve(null, "customer-a", createdAt, "MY", "ID", 1.5);
+        assertNotNull(fingerprinted);
+        assertEquals(fingerprinted, fingerprint.resolve(null, "customer-a", createdAt, "my", "id", 1.5));
+        assertNotEquals(fingerprinted, fingerprint.resolve(null, "customer-a", createdAt, "MY", "ID", 2.5));
+
+        assertNull(off.resolve("order-1", "customer-a", createdAt, "MY", "ID", 1.5));
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
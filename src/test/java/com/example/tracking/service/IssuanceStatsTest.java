@@ -0,0 +1,41 @@
+package com.example.tracking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IssuanceStatsTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.MINUTES.toMillis(29_000_000));
+    private final IssuanceStats stats = new IssuanceStats(true, 60, 4, 16, 16, new double[]{0.5, 1, 2, 5, 10, 30},
+            4, 256, 4, clock::get);
+
+    @Test
+    void record_countsEveryNumberInEachDimension() {
+        stats.record("MY", "ID", "acme", 1.5, 1);
+        stats.record("MY", "ID", "acme", 1.5, 1);
+        stats.record("MY", "ID", "acme", 40, 3);
+
+        long minute = stats.currentMinute();
+        assertEquals(5, stats.total(minute, minute));
+        assertEquals(5L, stats.counts(IssuanceStats.Dimension.CUSTOMER, minute, minute).get("acme"));
+        assertEquals(5L, stats.counts(IssuanceStats.Dimension.LANE, minute, minute).get("MYID"));
+        assertEquals(2L, stats.counts(IssuanceStats.Dimension.WEIGHT_BAND, minute, minute).get("1-2"));
+        assertEquals(3L, stats.counts(IssuanceStats.Dimension.WEIGHT_BAND, minute, minute).get("30+"));
+    }
+
+    @Test
+    void record_keepsMinutesApart() {
+        stats.record("MY", "ID", "acme", 1.5, 2);
+        clock.addAndGet(TimeUnit.MINUTES.toMillis(1));
+        stats.record("MY", "ID", "acme", 1.5, 1);
+
+        long minute = stats.currentMinute();
+        assertEquals(1, stats.total(minute, minute));
+        assertEquals(3, stats.total(minute - 1, minute));
+        assertEquals(3L, stats.counts(IssuanceStats.Dimension.CUSTOMER, minute - 1, minute).get("acme"));
+    }
+}
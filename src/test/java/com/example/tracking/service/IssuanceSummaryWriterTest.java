@@ -0,0 +1,119 @@
+package com.example.tracking.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IssuanceSummaryWriterTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long START = 29_000_000L * MINUTE;
+
+    private final AtomicLong now = new AtomicLong(START);
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private IssuanceStats stats;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:summary-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE issuance_summary (minute_start BIGINT NOT NULL, dimension VARCHAR(16) NOT NULL, "
+                + "dimension_key VARCHAR(255) NOT NULL, issued BIGINT NOT NULL, PRIMARY KEY (minute_start, dimension, dimension_key))");
+        stats = new IssuanceStats(true, 10, 2, 2, 100, new double[]{1, 5}, 5, 256, 4, now::get);
+    }
+
+    @Test
+    void record_countsByLaneCustomerAndWeightBand() {
+        stats.record("my", "id", "acme", 0.5, 1);
+        stats.record("MY", "ID", "acme", 3, 2);
+        stats.record("US", "CA", "globex", 12, 1);
+        stats.record("SG", "JP", "globex", 1, 1);
+
+        long minute = stats.currentMinute();
+        assertEquals(5, stats.total(minute, minute));
+        Map<String, Long> lanes = stats.counts(IssuanceStats.Dimension.LANE, minute, minute);
+        assertEquals(3L, lanes.get("MYID"));
+        assertEquals(1L, lanes.get("USCA"));
+        assertEquals(1L, lanes.get(IssuanceStats.OTHER), "Lanes past max-lanes are counted together");
+        assertEquals(3L, stats.counts(IssuanceStats.Dimension.CUSTOMER, minute, minute).get("acme"));
+        Map<String, Long> bands = stats.counts(IssuanceStats.Dimension.WEIGHT_BAND, minute, minute);
+        assertEquals(2L, bands.get("0-1"));
+        assertEquals(2L, bands.get("1-5"));
+        assertEquals(1L, bands.get("5+"));
+        assertEquals("acme", stats.heavyHitters().get(0).getKey());
+    }
+
+    @Test
+    void flush_mergesCompletedMinutesOnce() {
+        IssuanceSummaryWriter writer = writer();
+        stats.record("MY", "ID", "acme", 2, 3);
+        now.addAndGet(MINUTE);
+        stats.record("MY", "ID", "acme", 2, 1);
+
+        writer.flush();
+        assertEquals(0, rowCount(), "The first minute is written once its grace period is over");
+
+        now.addAndGet(TimeUnit.SECONDS.toMillis(10));
+        writer.flush();
+        writer.flush();
+
+        assertEquals(3, rowCount());
+        assertEquals(3L, issued(START, "lane", "MYID"));
+        assertEquals(3L, issued(START, "customer", "acme"));
+        assertEquals(3L, issued(START, "weight_band", "1-5"));
+    }
+
+    @Test
+    void flush_addsToRowsWrittenByAnotherInstance() {
+        IssuanceSummaryWriter writer = writer();
+        jdbcTemplate.update("INSERT INTO issuance_summary VALUES (?, 'lane', 'MYID', 10)", START);
+        stats.record("MY", "ID", "acme", 2, 3);
+        now.addAndGet(MINUTE + TimeUnit.SECONDS.toMillis(10));
+
+        writer.flush();
+
+        assertEquals(13L, issued(START, "lane", "MYID"));
+    }
+
+    @Test
+    void destroy_writesTheCurrentMinute() {
+        IssuanceSummaryWriter writer = writer();
+        stats.record("MY", "ID", "acme", 2, 3);
+
+        writer.destroy();
+
+        assertEquals(3L, issued(START, "customer", "acme"));
+    }
+
+    @Test
+    void constructor_rejectsAFlushIntervalLongerThanTheWindow() {
+        assertThrows(IllegalArgumentException.class, () -> new IssuanceSummaryWriter(stats, jdbcTemplate,
+                new DataSourceTransactionManager(dataSource), new SimpleMeterRegistry(), TimeUnit.MINUTES.toMillis(10), 2, now::get));
+    }
+
+    private IssuanceSummaryWriter writer() {
+        // Batches of two exercise the batching with a handful of rows.
+        return new IssuanceSummaryWriter(stats, jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                new SimpleMeterRegistry(), MINUTE, 2, now::get);
+    }
+
+    private int rowCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM issuance_summary", Integer.class);
+    }
+
+    private Long issued(long minuteStart, String dimension, String key) {
+        return jdbcTemplate.queryForObject("SELECT issued FROM issuance_summary WHERE minute_start = ? AND dimension = ? "
+                + "AND dimension_key = ?", Long.class, minuteStart, dimension, key);
+    }
+}
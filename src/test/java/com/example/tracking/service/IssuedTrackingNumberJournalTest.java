@@ -0,0 +1,107 @@
+package com.example.tracking.service;
+
+import com.example.tracking.entity.GeneratedTrackingNumber;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IssuedTrackingNumberJournalTest {
+
+    private static final int CALLERS = 8;
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    void append_concurrentCallersShareOneForce() throws Exception {
+        CountDownLatch firstForceStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstForce = new CountDownLatch(1);
+        AtomicInteger forces = new AtomicInteger();
+        IssuedTrackingNumberJournal journal = new IssuedTrackingNumberJournal(journalDir, 64 * 1024, true, channel -> {
+            if (forces.incrementAndGet() == 1) {
+                firstForceStarted.countDown();
+                try {
+                    releaseFirstForce.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            channel.force(false);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            Future<?> first = executor.submit(() -> journal.append(record(0)));
+            assertTrue(firstForceStarted.await(5, TimeUnit.SECONDS));
+
+            // These append while the first force is running and all wait for the next one.
+            List<Future<?>> waiting = new ArrayList<>();
+            for (int i = 1; i < CALLERS; i++) {
+                int n = i;
+                waiting.add(executor.submit(() -> journal.append(record(n))));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (journaledLines() < CALLERS && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(CALLERS, journaledLines());
+            for (Future<?> future : waiting) {
+                assertFalse(future.isDone(), "An append must not return before a force covers it");
+            }
+
+            releaseFirstForce.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            for (Future<?> future : waiting) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+
+            assertEquals(2, forces.get());
+            assertEquals(2, journal.syncCount());
+        } finally {
+            releaseFirstForce.countDown();
+            executor.shutdownNow();
+            journal.close();
+        }
+    }
+
+    @Test
+    void append_withoutFsync_neverForces() throws Exception {
+        AtomicInteger forces = new AtomicInteger();
+        IssuedTrackingNumberJournal journal = new IssuedTrackingNumberJournal(journalDir, 64 * 1024, false,
+                channel -> forces.incrementAndGet());
+
+        journal.append(record(0));
+        journal.append(record(1));
+        journal.close();
+
+        assertEquals(0, forces.get());
+    }
+
+    private long journaledLines() throws IOException {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            long lines = 0;
+            for (Path file : (Iterable<Path>) files::iterator) {
+                lines += Files.readAllLines(file).size();
+            }
+            return lines;
+        }
+    }
+
+    private static List<GeneratedTrackingNumber> record(int n) {
+        return Collections.singletonList(new GeneratedTrackingNumber(String.format("MY%012dID", n)));
+    }
+}
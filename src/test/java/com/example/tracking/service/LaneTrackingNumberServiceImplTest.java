@@ -0,0 +1,155 @@
+package com.example.tracking.service;
+
+import com.example.tracking.entity.GeneratedTrackingNumber;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LaneTrackingNumberServiceImplTest {
+
+    private static final long BLOCK_SIZE = 10;
+
+    @Mock
+    private IssuedTrackingNumberRecorder issuedTrackingNumberRecorder;
+
+    @Mock
+    private TrackingNumberBlockAllocator blockAllocator;
+
+    private LaneTrackingNumberServiceImpl trackingNumberService;
+
+    private final Map<String, AtomicLong> nextBlockStart = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        when(blockAllocator.getBlockSize()).thenReturn(BLOCK_SIZE);
+        lenient().when(blockAllocator.reserve(anyString()))
+                .thenAnswer(invocation -> nextBlockStart
+                        .computeIfAbsent(invocation.getArgument(0), name -> new AtomicLong())
+                        .getAndAdd(BLOCK_SIZE));
+        trackingNumberService = newService(4);
+    }
+
+    private LaneTrackingNumberServiceImpl newService(int stripes) {
+        return new LaneTrackingNumberServiceImpl(issuedTrackingNumberRecorder, blockAllocator,
+                new TrackingNumberEncoder(TrackingNumberEncoder.MODE_FAST), new TrackingMetrics(new SimpleMeterRegistry(), "lane"), new SimpleMeterRegistry(),
+                stripes, 12345L, 4);
+    }
+
+    @Test
+    void generateTrackingNumber_success_validInputs() {
+        String trackingNumber = trackingNumberService.generateTrackingNumber("my", "id");
+
+        assertTrue(trackingNumber.matches("^MY[A-Z0-9]{12}ID$"));
+        verify(issuedTrackingNumberRecorder, times(1)).record(any(GeneratedTrackingNumber.class));
+        verify(blockAllocator).reserve("lane:MYID");
+    }
+
+    @Test
+    void generateTrackingNumber_eachLaneReservesItsOwnSequence() {
+        trackingNumberService.generateTrackingNumber("MY", "ID");
+        trackingNumberService.generateTrackingNumber("my", "id");
+        trackingNumberService.generateTrackingNumber("US", "CA");
+
+        verify(blockAllocator, times(1)).reserve("lane:MYID");
+        verify(blockAllocator, times(1)).reserve("lane:USCA");
+    }
+
+    @Test
+    void generateTrackingNumber_consecutiveNumbersDoNotLookSequential() {
+        String first = trackingNumberService.generateTrackingNumber("MY", "ID");
+        String second = trackingNumberService.generateTrackingNumber("MY", "ID");
+
+        assertNotEquals(first.substring(2, 13), second.substring(2, 13));
+    }
+
+    @Test
+    void generateTrackingNumbers_insertsOneBatchPerChunk() {
+        List<String> trackingNumbers = trackingNumberService.generateTrackingNumbers("MY", "ID", 10);
+
+        assertEquals(10, trackingNumbers.size());
+        assertEquals(10, new HashSet<>(trackingNumbers).size());
+        verify(issuedTrackingNumberRecorder, times(3)).recordAll(anyList());
+    }
+
+    @Test
+    void evictIdleLanes_dropsUnusedLanesAndNeverReusesTheirNumbers() {
+        Set<String> issued = new HashSet<>();
+        issued.add(trackingNumberService.generateTrackingNumber("MY", "ID"));
+        trackingNumberService.generateTrackingNumber("US", "CA");
+
+        trackingNumberService.evictIdleLanes();
+        issued.add(trackingNumberService.generateTrackingNumber("MY", "ID"));
+        trackingNumberService.evictIdleLanes();
+
+        assertEquals(1, trackingNumberService.activeLanes());
+        trackingNumberService.evictIdleLanes();
+        assertEquals(0, trackingNumberService.activeLanes());
+
+        issued.add(trackingNumberService.generateTrackingNumber("MY", "ID"));
+        assertEquals(3, issued.size());
+        verify(blockAllocator, times(2)).reserve("lane:MYID");
+    }
+
+    @Test
+    void generateTrackingNumber_repeatedIdempotencyKey_returnsTheStoredNumberWithoutRetrying() {
+        doThrow(new DataIntegrityViolationException("duplicate idempotency key"))
+                .when(issuedTrackingNumberRecorder).record(any(GeneratedTrackingNumber.class));
+        when(issuedTrackingNumberRecorder.findStored("order-42")).thenReturn("MY00000000042AID");
+
+        String trackingNumber = trackingNumberService.generateTrackingNumber("MY", "ID", "order-42");
+
+        assertEquals("MY00000000042AID", trackingNumber);
+        verify(issuedTrackingNumberRecorder, times(1)).record(any(GeneratedTrackingNumber.class));
+    }
+
+    @Test
+    void generateTrackingNumber_concurrentGenerations_hotLane() throws InterruptedException {
+        trackingNumberService = newService(8);
+        int numberOfThreads = 16;
+        int operationsPerThread = 50;
+        ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
+        CountDownLatch latch = new CountDownLatch(numberOfThreads * operationsPerThread);
+        Set<String> generatedNumbers = new HashSet<>();
+
+        for (int i = 0; i < numberOfThreads * operationsPerThread; i++) {
+            executorService.submit(() -> {
+                try {
+                    String trackingNumber = trackingNumberService.generateTrackingNumber("MY", "ID");
+                    synchronized (generatedNumbers) {
+                        generatedNumbers.add(trackingNumber);
+                    }
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(30, TimeUnit.SECONDS), "Latch did not count down in time");
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS), "Executor service did not terminate in time");
+
+        assertEquals(numberOfThreads * operationsPerThread, generatedNumbers.size(), "Generated tracking numbers should be unique under concurrency.");
+    }
+}
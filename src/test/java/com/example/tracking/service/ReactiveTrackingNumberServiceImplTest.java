@@ -0,0 +1,213 @@
+package com.example.tracking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveTrackingNumberServiceImplTest {
+
+    @Mock
+    private TrackingNumberService trackingNumberService;
+
+    @Mock
+    private IdempotencyCache idempotencyCache;
+
+    private ReactiveTrackingNumberServiceImpl reactiveTrackingNumberService;
+
+    @AfterEach
+    void tearDown() {
+        reactiveTrackingNumberService.destroy();
+    }
+
+    @Test
+    void generateTrackingNumber_boundedElastic_runsOffTheCallingThread() {
+        reactiveTrackingNumberService = new ReactiveTrackingNumberServiceImpl(trackingNumberService, idempotencyCache,
+                ReactiveTrackingNumberServiceImpl.MODE_BOUNDED_ELASTIC, 4, 100, 3);
+        AtomicReference<String> generatingThread = new AtomicReference<>();
+        when(trackingNumberService.generateTrackingNumber("MY", "ID")).thenAnswer(invocation -> {
+            generatingThread.set(Thread.currentThread().getName());
+            return "MY0123456789ABID";
+        });
+
+        StepVerifier.create(reactiveTrackingNumberService.generateTrackingNumber("MY", "ID"))
+                .expectNext("MY0123456789ABID")
+                .verifyComplete();
+
+        assertTrue(generatingThread.get().startsWith("tracking-generation"),
+                "Generation should run on the bounded elastic scheduler, but ran on " + generatingThread.get());
+    }
+
+    @Test
+    void generateTrackingNumber_inline_runsOnTheCallingThread() {
+        reactiveTrackingNumberService = new ReactiveTrackingNumberServiceImpl(trackingNumberService, idempotencyCache,
+                ReactiveTrackingNumberServiceImpl.MODE_INLINE, 4, 100, 3);
+        when(trackingNumberService.generateTrackingNumber("MY", "ID")).thenReturn("MY0123456789ABID");
+
+        assertEquals("MY0123456789ABID", reactiveTrackingNumberService.generateTrackingNumber("MY", "ID").block());
+    }
+
+    @Test
+    void generateTrackingNumber_propagatesServiceFailure() {
+        reactiveTrackingNumberService = new ReactiveTrackingNumberServiceImpl(trackingNumberService, idempotencyCache,
+                ReactiveTrackingNumberServiceImpl.MODE_BOUNDED_ELASTIC, 4, 100, 3);
+        when(trackingNumberService.generateTrackingNumber("MY", "ID")).thenThrow(new RuntimeException("exhausted"));
+
+        StepVerifier.create(reactiveTrackingNumberService.generateTrackingNumber("MY", "ID"))
+                .expectErrorMessage("exhausted")
+                .verify();
+    }
+
+    @Test
+    void generateTrackingNumber_withIdempotencyKey_goesThroughCache() {
+        reactiveTrackingNumberService = new ReactiveTrackingNumberServiceImpl(trackingNumberService, idempotencyCache,
+                ReactiveTrackingNumberServiceImpl.MODE_BOUNDED_ELASTIC, 4, 100, 3);
+        when(idempotencyCache.issue(eq("key"), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<String>>getArgument(1).get());
+        when(trackingNumberService.generateTrackingNumber("MY", "ID", "key")).thenReturn("MY0123456789ABID");
+
+        StepVerifier.create(reactiveTrackingNumberService.generateTrackingNumber("MY", "ID", "key"))
+                .expectNext("MY0123456789ABID")
+                .verifyComplete();
+
+        verify(trackingNumberService, never()).generateTrackingNumber("MY", "ID");
+    }
+
+    @Test
+    void generateTrackingNumber_isLazyUntilSubscribed() {
+        reactiveTrackingNumberService = new ReactiveTrackingNumberServiceImpl(trackingNumberService, idempotencyCache,
+                ReactiveTrackingNumberServiceImpl.MODE_BOUNDED_ELASTIC, 4, 100, 3);
+
+        reactiveTrackingNumberService.generateTrackingNumber("MY", "ID");
+
+        verifyNoInteractions(trackingNumberService);
+    }
+
+    @Test
+    void generateTrackingNumbers_requestsOneChunkPerServiceCall() {
+        reactiveTrackingNumberService = new ReactiveTrackingNumberServiceImpl(trackingNumberService, idempotencyCache,
+                ReactiveTrackingNumberServiceImpl.MODE_BOUNDED_ELASTIC, 4, 100, 3);
+        when(trackingNumberService.generateTrackingNumbers("MY", "ID", 3))
+                .thenReturn(Arrays.asList("MY000000000001ID", "MY000000000002ID", "MY000000000003ID"));
+        when(trackingNumberService.generateTrackingNumbers("MY", "ID", 1))
+                .thenReturn(Collections.singletonList("MY000000000004ID"));
+
+        StepVerifier.create(reactiveTrackingNumberService.generateTrackingNumbers("MY", "ID", 4))
+                .expectNext("MY000000000001ID", "MY000000000002ID", "MY000000000003ID", "MY000000000004ID")
+                .verifyComplete();
+
+        verify(trackingNumberService, times(1)).generateTrackingNumbers("MY", "ID", 3);
+        verify(trackingNumberService, times(1)).generateTrackingNumbers("MY", "ID", 1);
+    }
+
+    @Test
+    void streamTrackingNumbers_generatesOnlyWhatIsRequested() {
+        reactiveTrackingNumberService = new ReactiveTrackingNumberServiceImpl(trackingNumberService, idempotencyCache,
+                ReactiveTrackingNumberServiceImpl.MODE_BOUNDED_ELASTIC, 4, 100, 3);
+        AtomicInteger issued = new AtomicInteger();
+        when(trackingNumberService.generateTrackingNumbers(eq("MY"), eq("ID"), anyInt())).thenAnswer(invocation -> {
+            List<String> trackingNumbers = new ArrayList<>();
+            for (int i = 0; i < invocation.<Integer>getArgument(2); i++) {
+                trackingNumbers.add(String.format("MY%012dID", issued.incrementAndGet()));
+            }
+            return trackingNumbers;
+        });
+
+        StepVerifier.create(reactiveTrackingNumberService.streamTrackingNumbers("MY", "ID", chunkSize -> { }), 0)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(50))
+                .thenRequest(2)
+                .expectNext("MY000000000001ID", "MY000000000002ID")
+                .thenRequest(4)
+                .expectNext("MY000000000003ID", "MY000000000004ID", "MY000000000005ID", "MY000000000006ID")
+                .expectNoEvent(Duration.ofMillis(50))
+                .thenCancel()
+                .verify();
+
+        verify(trackingNumberService, times(1)).generateTrackingNumbers("MY", "ID", 2);
+        verify(trackingNumberService, times(1)).generateTrackingNumbers("MY", "ID", 3);
+        verify(trackingNumberService, times(1)).generateTrackingNumbers("MY", "ID", 1);
+        assertEquals(6, issued.get());
+    }
+
+    @Test
+    void streamTrackingNumbers_servesDemandThatArrivesDuringGeneration() throws Exception {
+        reactiveTrackingNumberService = new ReactiveTrackingNumberServiceImpl(trackingNumberService, idempotencyCache,
+                ReactiveTrackingNumberServiceImpl.MODE_BOUNDED_ELASTIC, 4, 100, 3);
+        CountDownLatch generating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(trackingNumberService.generateTrackingNumbers("MY", "ID", 1)).thenAnswer(invocation -> {
+            generating.countDown();
+            release.await();
+            return Collections.singletonList("MY000000000001ID");
+        });
+        when(trackingNumberService.generateTrackingNumbers("MY", "ID", 2))
+                .thenReturn(Arrays.asList("MY000000000002ID", "MY000000000003ID"));
+
+        StepVerifier.create(reactiveTrackingNumberService.streamTrackingNumbers("MY", "ID", chunkSize -> { }), 1)
+                .then(() -> {
+                    try {
+                        assertTrue(generating.await(5, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .thenRequest(2)
+                .then(release::countDown)
+                .expectNext("MY000000000001ID", "MY000000000002ID", "MY000000000003ID")
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void streamTrackingNumbers_generatesNothingOnceBeforeChunkRefuses() {
+        reactiveTrackingNumberService = new ReactiveTrackingNumberServiceImpl(trackingNumberService, idempotencyCache,
+                ReactiveTrackingNumberServiceImpl.MODE_BOUNDED_ELASTIC, 4, 100, 3);
+        when(trackingNumberService.generateTrackingNumbers("MY", "ID", 2))
+                .thenReturn(Arrays.asList("MY000000000001ID", "MY000000000002ID"));
+        AtomicInteger permits = new AtomicInteger(2);
+
+        StepVerifier.create(reactiveTrackingNumberService.streamTrackingNumbers("MY", "ID", chunkSize -> {
+                    if (permits.addAndGet(-chunkSize) < 0) {
+                        throw new IllegalStateException("rate limited");
+                    }
+                }), 2)
+                .expectNext("MY000000000001ID", "MY000000000002ID")
+                .thenRequest(3)
+                .expectErrorMessage("rate limited")
+                .verify(Duration.ofSeconds(5));
+
+        verify(trackingNumberService, times(1)).generateTrackingNumbers(eq("MY"), eq("ID"), anyInt());
+    }
+
+    @Test
+    void streamTrackingNumbers_propagatesServiceFailure() {
+        reactiveTrackingNumberService = new ReactiveTrackingNumberServiceImpl(trackingNumberService, idempotencyCache,
+                ReactiveTrackingNumberServiceImpl.MODE_BOUNDED_ELASTIC, 4, 100, 3);
+        when(trackingNumberService.generateTrackingNumbers("MY", "ID", 3)).thenThrow(new RuntimeException("exhausted"));
+
+        StepVerifier.create(reactiveTrackingNumberService.streamTrackingNumbers("MY", "ID", chunkSize -> { }), 3)
+                .expectErrorMessage("exhausted")
+                .verify();
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.tracking.service;
+
+import com.example.tracking.entity.GeneratedTrackingNumber;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SnowflakeTrackingNumberServiceImplTest {
+
+    private static final long NOW = SnowflakeTrackingNumberServiceImpl.EPOCH_MILLIS + 1_000_000L;
+    private static final int NODE_ID = 37;
+
+    @Mock
+    private IssuedTrackingNumberRecorder issuedTrackingNumberRecorder;
+
+    @Mock
+    private NodeLeaseManager leaseManager;
+
+    private final AtomicLong clock = new AtomicLong(NOW);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private NodeLeaseManager.NodeLease lease;
+    private SnowflakeTrackingNumberServiceImpl trackingNumberService;
+
+    @BeforeEach
+    void setUp() {
+        lease = new NodeLeaseManager.NodeLease(NODE_ID, NOW, NOW + 30_000);
+        lenient().when(leaseManager.currentLease()).thenAnswer(invocation -> lease);
+        trackingNumberService = new SnowflakeTrackingNumberServiceImpl(issuedTrackingNumberRecorder, leaseManager,
+                new TrackingNumberEncoder(TrackingNumberEncoder.MODE_FAST), new TrackingMetrics(registry, "snowflake"), registry,
+                4, 5_000, clock::get);
+    }
+
+    @Test
+    void nextValue_packsTimestampNodeAndSequence() {
+        long first = trackingNumberService.nextValue();
+        long second = trackingNumberService.nextValue();
+
+        assertEquals(NOW - SnowflakeTrackingNumberServiceImpl.EPOCH_MILLIS, first >>> 22);
+        assertEquals(NODE_ID, (first >>> 12) & 0x3FF);
+        assertEquals(0, first & 0xFFF);
+        assertEquals(first + 1, second);
+        assertTrue(first < TrackingNumberEncoder.MAX_VALUE);
+    }
+
+    @Test
+    void nextValue_borrowsTheNextMillisecondWhenTheSequenceRunsOut() {
+        long last = 0;
+        for (int i = 0; i < 4096; i++) {
+            last = trackingNumberService.nextValue();
+        }
+        long borrowed = trackingNumberService.nextValue();
+
+        assertEquals(4095, last & 0xFFF);
+        assertEquals((last >>> 22) + 1, borrowed >>> 22);
+        assertEquals(0, borrowed & 0xFFF);
+    }
+
+    @Test
+    void nextValue_keepsIncreasingWhenTheClockStepsBack() {
+        long before = trackingNumberService.nextValue();
+        clock.addAndGet(-1_000);
+
+        assertTrue(trackingNumberService.nextValue() > before);
+    }
+
+    @Test
+    void nextValue_refusesWhenTheClockFallsTooFarBehind() {
+        trackingNumberService.nextValue();
+        clock.addAndGet(-5_001);
+
+        assertThrows(IllegalStateException.class, () -> trackingNumberService.nextValue());
+        assertEquals(1, registry.get("tracking.snowflake.clock.regressions").functionCounter().count());
+
+        clock.set(NOW + 1);
+        assertDoesNotThrow(() -> trackingNumberService.nextValue());
+    }
+
+    @Test
+    void nextValue_startsAtTheLeaseFloor() {
+        lease = new NodeLeaseManager.NodeLease(NODE_ID, NOW + 100, NOW + 30_000);
+
+        long value = trackingNumberService.nextValue();
+
+        assertEquals(NOW + 100 - SnowflakeTrackingNumberServiceImpl.EPOCH_MILLIS, value >>> 22);
+    }
+
+    @Test
+    void nextValue_refusesPastTheLeaseExpiry() {
+        clock.set(NOW + 30_000);
+
+        assertThrows(IllegalStateException.class, () -> trackingNumberService.nextValue());
+    }
+
+    @Test
+    void nextValue_refusesWithoutALease() {
+        long last = trackingNumberService.nextValue();
+        assertEquals((last >>> 22) + SnowflakeTrackingNumberServiceImpl.EPOCH_MILLIS + 1, lease.revoke());
+        assertThrows(IllegalStateException.class, () -> trackingNumberService.nextValue());
+
+        lease = null;
+        assertThrows(IllegalStateException.class, () -> trackingNumberService.nextValue());
+    }
+
+    @Test
+    void generateTrackingNumbers_returnsUniqueNumbersInChunks() {
+        List<String> trackingNumbers = trackingNumberService.generateTrackingNumbers("MY", "ID", 10);
+
+        Set<String> unique = new HashSet<>(trackingNumbers);
+        assertEquals(10, unique.size());
+        trackingNumbers.forEach(number -> assertTrue(number.matches("^MY[A-Z0-9]{12}ID$")));
+        verify(issuedTrackingNumberRecorder, times(3)).recordAll(anyList());
+    }
+
+    @Test
+    void generateTrackingNumber_repeatedIdempotencyKey_returnsTheStoredNumberWithoutRetrying() {
+        doThrow(new DataIntegrityViolationException("duplicate idempotency key"))
+                .when(issuedTrackingNumberRecorder).record(any(GeneratedTrackingNumber.class));
+        when(issuedTrackingNumberRecorder.findStored("order-42")).thenReturn("MY0000000042AAID");
+
+        String trackingNumber = trackingNumberService.generateTrackingNumber("MY", "ID", "order-42");
+
+        assertEquals("MY0000000042AAID", trackingNumber);
+        verify(issuedTrackingNumberRecorder, times(1)).record(any(GeneratedTrackingNumber.class));
+    }
+
+    @Test
+    void generateTrackingNumber_recordsTheIssuedNumber() {
+        String trackingNumber = trackingNumberService.generateTrackingNumber("MY", "ID");
+
+        assertTrue(trackingNumber.matches("^MY[A-Z0-9]{12}ID$"));
+        verify(issuedTrackingNumberRecorder).record(any(GeneratedTrackingNumber.class));
+    }
+}
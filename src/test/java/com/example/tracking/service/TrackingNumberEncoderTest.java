@@ -0,0 +1,70 @@
+package com.example.tracking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackingNumberEncoderTest {
+
+    private final TrackingNumberEncoder fastEncoder = new TrackingNumberEncoder(TrackingNumberEncoder.MODE_FAST);
+    private final TrackingNumberEncoder secureEncoder = new TrackingNumberEncoder(TrackingNumberEncoder.MODE_SECURE);
+
+    @Test
+    void encode_usesFixedWidthBase36() {
+        assertEquals("MY000000000000ID", fastEncoder.encode("MY", 0, "ID"));
+        assertEquals("MY00000000000ZID", fastEncoder.encode("MY", 35, "ID"));
+        assertEquals("MY000000000010ID", fastEncoder.encode("MY", 36, "ID"));
+        assertEquals("MYZZZZZZZZZZZZID", fastEncoder.encode("MY", TrackingNumberEncoder.MAX_VALUE - 1, "ID"));
+    }
+
+    @Test
+    void encode_upperCasesCountryCodes() {
+        assertEquals("MY000000000001ID", fastEncoder.encode("my", 1, "iD"));
+    }
+
+    @Test
+    void encode_rejectsValuesOutsideTheMiddleSection() {
+        assertThrows(IllegalArgumentException.class, () -> fastEncoder.encode("MY", -1, "ID"));
+        assertThrows(IllegalArgumentException.class, () -> fastEncoder.encode("MY", TrackingNumberEncoder.MAX_VALUE, "ID"));
+    }
+
+    @Test
+    void encode_rejectsMalformedCountryCodes() {
+        assertThrows(IllegalArgumentException.class, () -> fastEncoder.encode("MYS", 1, "ID"));
+        assertThrows(IllegalArgumentException.class, () -> fastEncoder.encode("MY", 1, null));
+    }
+
+    @Test
+    void randomTrackingNumber_matchesFormatInBothModes() {
+        Set<String> generated = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            String fast = fastEncoder.randomTrackingNumber("MY", "ID");
+            String secure = secureEncoder.randomTrackingNumber("MY", "ID");
+            assertTrue(fast.matches("^MY[A-Z0-9]{12}ID$"), fast);
+            assertTrue(secure.matches("^MY[A-Z0-9]{12}ID$"), secure);
+            generated.add(fast);
+            generated.add(secure);
+        }
+        assertEquals(2000, generated.size());
+    }
+
+    @Test
+    void randomTrackingNumber_usesFullBase36Alphabet() {
+        Set<Character> seen = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            String number = secureEncoder.randomTrackingNumber("MY", "ID");
+            for (char c : number.substring(2, 14).toCharArray()) {
+                seen.add(c);
+            }
+        }
+        assertEquals(36, seen.size());
+    }
+
+    @Test
+    void constructor_rejectsUnknownMode() {
+        assertThrows(IllegalArgumentException.class, () -> new TrackingNumberEncoder("uuid"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.tracking.service;
+
+import com.example.tracking.repository.TrackingNumberRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TrackingNumberLookupServiceTest {
+
+    private static final OffsetDateTime CREATED_AT = OffsetDateTime.parse("2025-06-16T10:30:00Z");
+
+    @Mock
+    private TrackingNumberRepository trackingNumberRepository;
+
+    private TrackingNumberLookupService lookupService;
+
+    @AfterEach
+    void tearDown() {
+        if (lookupService != null) {
+            lookupService.destroy();
+        }
+    }
+
+    @Test
+    void findCreatedAt_cachesIssuedAndUnknownNumbers() {
+        when(trackingNumberRepository.findCreatedAt(anyList())).thenAnswer(invocation -> issued(invocation.getArgument(0)));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        lookupService = newLookupService(meterRegistry, Duration.ofMinutes(1), 2);
+
+        assertEquals(CREATED_AT, lookupService.findCreatedAt("MY000000000001ID").block());
+        assertNull(lookupService.findCreatedAt("MY999999999999ID").block());
+        assertEquals(CREATED_AT, lookupService.findCreatedAt("MY000000000001ID").block());
+        assertNull(lookupService.findCreatedAt("MY999999999999ID").block());
+
+        verify(trackingNumberRepository, times(2)).findCreatedAt(anyList());
+        assertEquals(2, meterRegistry.get("cache.gets").tag("cache", "tracking.lookup").tag("result", "hit").functionCounter().count());
+        assertEquals(4, meterRegistry.get("tracking.lookup").tag("operation", "single").timer().count());
+    }
+
+    @Test
+    void findCreatedAt_unknownNumbersExpireAfterNegativeTtl() {
+        when(trackingNumberRepository.findCreatedAt(anyList())).thenAnswer(invocation -> issued(invocation.getArgument(0)));
+        lookupService = newLookupService(new SimpleMeterRegistry(), Duration.ZERO, 2);
+
+        lookupService.findCreatedAt("MY000000000001ID").block();
+        lookupService.findCreatedAt("MY999999999999ID").block();
+        lookupService.findCreatedAt("MY000000000001ID").block();
+        lookupService.findCreatedAt("MY999999999999ID").block();
+
+        // The issued number stays cached; the unknown one is looked up again.
+        verify(trackingNumberRepository, times(3)).findCreatedAt(anyList());
+    }
+
+    @Test
+    void findCreatedAt_bulk_queriesMissesInChunks() {
+        when(trackingNumberRepository.findCreatedAt(anyList())).thenAnswer(invocation -> issued(invocation.getArgument(0)));
+        lookupService = newLookupService(new SimpleMeterRegistry(), Duration.ofMinutes(1), 2);
+        lookupService.findCreatedAt("MY000000000001ID").block();
+
+        Set<String> trackingNumbers = new LinkedHashSet<>(Arrays.asList(
+                "MY000000000001ID", "MY000000000002ID", "MY999999999999ID", "MY000000000003ID", "MY000000000004ID"));
+        Map<String, OffsetDateTime> issued = lookupService.findCreatedAt(trackingNumbers).block();
+
+        assertNotNull(issued);
+        assertEquals(4, issued.size());
+        assertFalse(issued.containsKey("MY999999999999ID"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<String>> captor = ArgumentCaptor.forClass(List.class);
+        verify(trackingNumberRepository, times(3)).findCreatedAt(captor.capture());
+        assertEquals(Collections.singletonList("MY000000000001ID"), captor.getAllValues().get(0));
+        assertEquals(Arrays.asList("MY000000000002ID", "MY999999999999ID"), captor.getAllValues().get(1));
+        assertEquals(Arrays.asList("MY000000000003ID", "MY000000000004ID"), captor.getAllValues().get(2));
+
+        // Everything is cached now, unknown numbers included.
+        assertEquals(issued, lookupService.findCreatedAt(trackingNumbers).block());
+        verifyNoMoreInteractions(trackingNumberRepository);
+    }
+
+    private TrackingNumberLookupService newLookupService(SimpleMeterRegistry meterRegistry, Duration negativeTtl, int chunkSize) {
+        return new TrackingNumberLookupService(trackingNumberRepository, new TrackingNumberArchive(null), meterRegistry,
+                1000, Duration.ofHours(1), negativeTtl, chunkSize, 2, 100);
+    }
+
+    /**
+     * Every number except the 999999999999 ones counts as issued.
+     */
+    private static Map<String, OffsetDateTime> issued(List<String> trackingNumbers) {
+        Map<String, OffsetDateTime> issued = new HashMap<>();
+        for (String trackingNumber : trackingNumbers) {
+            if (!trackingNumber.contains("999999999999")) {
+                issued.put(trackingNumber, CREATED_AT);
+            }
+        }
+        return issued;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.tracking.service;
+
+import com.example.tracking.entity.GeneratedTrackingNumber;
+import com.example.tracking.repository.TrackingNumberRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TrackingNumberPoolTest {
+
+    @Mock
+    private TrackingNumberRepository trackingNumberRepository;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<GeneratedTrackingNumber> persisted = new ArrayList<>();
+    private final IssuedTrackingNumberFilter issuedTrackingNumberFilter = new IssuedTrackingNumberFilter(null, true, 10_000, 0.001);
+    private TrackingNumberPool pool;
+
+    @BeforeEach
+    void setUp() {
+        lenient().doAnswer(invocation -> persisted.addAll(invocation.getArgument(0)))
+                .when(trackingNumberRepository).insertAll(anyList());
+        lenient().when(trackingNumberRepository.issuePooled(anyString(), any(), any())).thenReturn(true);
+        pool = new TrackingNumberPool(trackingNumberRepository, new TrackingNumberEncoder(TrackingNumberEncoder.MODE_FAST),
+                issuedTrackingNumberFilter, new TrackingNumberArchive(null),
+                new TrackingMetrics(registry, "random"), registry, true, "MYID", 2, 2, 10, 4);
+    }
+
+    @Test
+    void refill_persistsHotLanesUpToTheHighWatermarkAsPoolNumbers() {
+        pool.refill();
+
+        assertEquals(10, pool.depth("MY", "ID"));
+        assertEquals(10, persisted.size());
+        persisted.forEach(number -> {
+            assertEquals("MYID", number.getPoolLane());
+            assertTrue(number.getTrackingNumber().matches("^MY[A-Z0-9]{12}ID$"));
+        });
+        verify(trackingNumberRepository, times(3)).insertAll(anyList());
+        assertEquals(10, registry.get("tracking.pool.refilled").functionCounter().count());
+        assertEquals(10, registry.get("tracking.pool.depth").tag("lane", "MYID").gauge().value());
+    }
+
+    @Test
+    void refill_leavesTheRequestPathFilterCountersAlone() {
+        issuedTrackingNumberFilter.bindTo(registry);
+
+        pool.refill();
+
+        assertEquals(0, registry.get("tracking.filter.checks").tag("result", "definitely_new").functionCounter().count());
+        assertEquals(0, registry.get("tracking.filter.checks").tag("result", "maybe_present").functionCounter().count());
+        persisted.forEach(number -> assertTrue(issuedTrackingNumberFilter.probe(number.getTrackingNumber())));
+    }
+
+    @Test
+    void refill_onlyStartsBelowTheLowWatermark() {
+        pool.refill();
+        for (int i = 0; i < 8; i++) {
+            pool.issue("MY", "ID", null);
+        }
+        pool.refill();
+        assertEquals(2, pool.depth("MY", "ID"));
+
+        pool.issue("MY", "ID", null);
+        pool.refill();
+        assertEquals(10, pool.depth("MY", "ID"));
+    }
+
+    @Test
+    void refill_retriesACollidingBatch() {
+        doThrow(new DataIntegrityViolationException("duplicate"))
+                .doAnswer(invocation -> persisted.addAll(invocation.getArgument(0)))
+                .when(trackingNumberRepository).insertAll(anyList());
+
+        pool.refill();
+
+        assertEquals(10, pool.depth("MY", "ID"));
+    }
+
+    @Test
+    void issue_popsUniquePoolNumbersAndFallsBackWhenEmpty() {
+        pool.refill();
+        Set<String> issued = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            issued.add(pool.issue("my", "id", null));
+        }
+
+        assertEquals(10, issued.size());
+        assertNull(pool.issue("MY", "ID", null));
+        assertEquals(10, registry.get("tracking.pool.hits").functionCounter().count());
+        assertEquals(1, registry.get("tracking.pool.misses").functionCounter().count());
+    }
+
+    @Test
+    void issue_adoptsNewLanesUpToTheLimit() {
+        assertNull(pool.issue("SG", "MY", null));
+        assertNull(pool.issue("TH", "VN", null));
+        pool.refill();
+
+        assertEquals(10, pool.depth("SG", "MY"));
+        assertEquals(0, pool.depth("TH", "VN"));
+    }
+
+    @Test
+    void issue_putsTheNumberBackOnADuplicateIdempotencyKey() {
+        pool.refill();
+        when(trackingNumberRepository.issuePooled(anyString(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> pool.issue("MY", "ID", "key"));
+        assertEquals(10, pool.depth("MY", "ID"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void destroy_returnsUnissuedNumbersAndStopsIssuing() {
+        pool.refill();
+        String issued = pool.issue("MY", "ID", null);
+
+        pool.destroy();
+
+        ArgumentCaptor<List<String>> returned = ArgumentCaptor.forClass(List.class);
+        verify(trackingNumberRepository).deletePooled(returned.capture());
+        assertEquals(9, returned.getValue().size());
+        assertFalse(returned.getValue().contains(issued));
+        assertNull(pool.issue("MY", "ID", null));
+    }
+}
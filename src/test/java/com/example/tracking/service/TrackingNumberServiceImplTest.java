@@ -2,15 +2,18 @@ package com.example.tracking.service;
 
 import com.example.tracking.entity.GeneratedTrackingNumber;
 import com.example.tracking.repository.TrackingNumberRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -19,6 +22,10 @@ import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,13 +34,21 @@ class TrackingNumberServiceImplTest {
     @Mock
     private TrackingNumberRepository trackingNumberRepository;
 
-    @InjectMocks
+    private IssuedTrackingNumberFilter issuedTrackingNumberFilter;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TrackingMetrics trackingMetrics;
+
     private TrackingNumberServiceImpl trackingNumberService;
 
     @BeforeEach
     void setUp() {
-        lenient().when(trackingNumberRepository.save(any(GeneratedTrackingNumber.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+        issuedTrackingNumberFilter = new IssuedTrackingNumberFilter(null, true, 100_000, 0.001);
+        meterRegistry = new SimpleMeterRegistry();
+        trackingMetrics = new TrackingMetrics(meterRegistry, "random");
+        trackingNumberService = new TrackingNumberServiceImpl(trackingNumberRepository,
+                new TrackingNumberEncoder(TrackingNumberEncoder.MODE_SECURE), issuedTrackingNumberFilter, disabledPool(), new TrackingNumberArchive(null), trackingMetrics, 4);
     }
 
     @Test
@@ -53,7 +68,7 @@ class TrackingNumberServiceImplTest {
         assertTrue(middlePart.matches("^[A-Z0-9]{12}$"));
 
         ArgumentCaptor<GeneratedTrackingNumber> captor = ArgumentCaptor.forClass(GeneratedTrackingNumber.class);
-        verify(trackingNumberRepository, times(1)).save(captor.capture());
+        verify(trackingNumberRepository, times(1)).insert(captor.capture());
         assertEquals(trackingNumber, captor.getValue().getTrackingNumber());
     }
 
@@ -68,11 +83,106 @@ class TrackingNumberServiceImplTest {
         assertTrue(trackingNumber.startsWith("01"));
         assertTrue(trackingNumber.endsWith("23"));
         assertTrue(trackingNumber.matches("^[A-Z0-9]{16}$"));
-        verify(trackingNumberRepository, times(1)).save(any(GeneratedTrackingNumber.class));
+        verify(trackingNumberRepository, times(1)).insert(any(GeneratedTrackingNumber.class));
+    }
+
+    @Test
+    void generateTrackingNumber_upperCasesCountryCodes() {
+        String trackingNumber = trackingNumberService.generateTrackingNumber("my", "id");
+
+        assertTrue(trackingNumber.startsWith("MY"));
+        assertTrue(trackingNumber.endsWith("ID"));
+        assertTrue(trackingNumber.matches("^[A-Z0-9]{16}$"));
     }
 
     @Test
-    void generateTrackingNumber_concurrentGenerations_UUIDStrategy() throws InterruptedException {
+    void generateTrackingNumber_retriesOnCollision() {
+        doThrow(new DataIntegrityViolationException("duplicate"))
+                .doNothing()
+                .when(trackingNumberRepository).insert(any(GeneratedTrackingNumber.class));
+
+        String trackingNumber = trackingNumberService.generateTrackingNumber("US", "CA");
+
+        assertTrue(trackingNumber.matches("^US[A-Z0-9]{12}CA$"));
+        verify(trackingNumberRepository, times(2)).insert(any(GeneratedTrackingNumber.class));
+    }
+
+    @Test
+    void generateTrackingNumber_repeatedIdempotencyKey_returnsTheStoredNumberWithoutRetrying() {
+        doThrow(new DataIntegrityViolationException("duplicate idempotency key"))
+                .when(trackingNumberRepository).insert(any(GeneratedTrackingNumber.class));
+        when(trackingNumberRepository.findByIdempotencyKey("order-42"))
+                .thenReturn(Optional.of(new GeneratedTrackingNumber("US0000000000ABCA", "order-42")));
+
+        String trackingNumber = trackingNumberService.generateTrackingNumber("US", "CA", "order-42");
+
+        assertEquals("US0000000000ABCA", trackingNumber);
+        verify(trackingNumberRepository, times(1)).insert(any(GeneratedTrackingNumber.class));
+        assertEquals(0, meterRegistry.get("tracking.generation.collisions").counter().count());
+    }
+
+    @Test
+    void generateTrackingNumber_definitelyNewCandidate_skipsExistenceCheckAndNeverMerges() {
+        String trackingNumber = trackingNumberService.generateTrackingNumber("US", "CA");
+
+        verify(trackingNumberRepository, never()).existsById(anyString());
+        verify(trackingNumberRepository, never()).save(any(GeneratedTrackingNumber.class));
+        assertTrue(issuedTrackingNumberFilter.mightContain(trackingNumber));
+    }
+
+    @Test
+    void generateTrackingNumber_maybePresentCandidate_checksDatabase() {
+        IssuedTrackingNumberFilter alwaysMaybePresent = new IssuedTrackingNumberFilter(null, false, 1, 0.5);
+        trackingNumberService = new TrackingNumberServiceImpl(trackingNumberRepository,
+                new TrackingNumberEncoder(TrackingNumberEncoder.MODE_SECURE), alwaysMaybePresent, disabledPool(), new TrackingNumberArchive(null), trackingMetrics, 4);
+        when(trackingNumberRepository.existsById(anyString())).thenReturn(true, false);
+
+        String trackingNumber = trackingNumberService.generateTrackingNumber("US", "CA");
+
+        assertTrue(trackingNumber.matches("^US[A-Z0-9]{12}CA$"));
+        verify(trackingNumberRepository, times(2)).existsById(anyString());
+        verify(trackingNumberRepository, times(1)).insert(any(GeneratedTrackingNumber.class));
+    }
+
+    @Test
+    void generateTrackingNumbers_insertsOneBatchPerChunk() {
+        List<String> trackingNumbers = trackingNumberService.generateTrackingNumbers("US", "CA", 10);
+
+        assertEquals(10, trackingNumbers.size());
+        assertEquals(10, new HashSet<>(trackingNumbers).size());
+        trackingNumbers.forEach(trackingNumber -> assertTrue(trackingNumber.matches("^US[A-Z0-9]{12}CA$")));
+        verify(trackingNumberRepository, times(3)).insertAll(anyList());
+        verify(trackingNumberRepository, never()).save(any(GeneratedTrackingNumber.class));
+    }
+
+    @Test
+    void generateTrackingNumbers_regeneratesChunkOnCollision() {
+        doThrow(new DataIntegrityViolationException("duplicate"))
+                .doNothing()
+                .when(trackingNumberRepository).insertAll(anyList());
+
+        List<String> trackingNumbers = trackingNumberService.generateTrackingNumbers("US", "CA", 4);
+
+        assertEquals(4, trackingNumbers.size());
+        verify(trackingNumberRepository, times(2)).insertAll(anyList());
+    }
+
+    @Test
+    void generateTrackingNumber_recordsCollisionsRetriesAndExhaustion() {
+        doThrow(new DataIntegrityViolationException("duplicate"))
+                .when(trackingNumberRepository).insert(any(GeneratedTrackingNumber.class));
+
+        assertThrows(RuntimeException.class, () -> trackingNumberService.generateTrackingNumber("US", "CA"));
+
+        assertEquals(10, meterRegistry.get("tracking.generation.collisions").counter().count());
+        assertEquals(9, meterRegistry.get("tracking.generation.retries").counter().count());
+        assertEquals(1, meterRegistry.get("tracking.generation.exhausted").counter().count());
+        assertEquals(10, meterRegistry.get("tracking.persistence").timer().count());
+        assertEquals(0, meterRegistry.get("tracking.generation").tag("operation", "single").timer().count());
+    }
+
+    @Test
+    void generateTrackingNumber_concurrentGenerations_randomStrategy() throws InterruptedException {
         int numberOfThreads = 50;
         int operationsPerThread = 20;
         ExecutorService executorService = Executors.newFixedThreadPool(numberOfThreads);
@@ -99,6 +209,29 @@ class TrackingNumberServiceImplTest {
         assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS), "Executor service did not terminate in time");
 
         assertEquals(numberOfThreads * operationsPerThread, generatedNumbers.size(), "Generated tracking numbers should be unique under concurrency.");
-        verify(trackingNumberRepository, times(numberOfThreads * operationsPerThread)).save(any(GeneratedTrackingNumber.class));
+        verify(trackingNumberRepository, times(numberOfThreads * operationsPerThread)).insert(any(GeneratedTrackingNumber.class));
+    }
+
+    @Test
+    void generateTrackingNumber_issuesFromThePoolWithoutInserting() {
+        TrackingNumberPool pool = new TrackingNumberPool(trackingNumberRepository,
+                new TrackingNumberEncoder(TrackingNumberEncoder.MODE_FAST), issuedTrackingNumberFilter, new TrackingNumberArchive(null),
+                trackingMetrics, meterRegistry, true, "USCA", 64, 1, 4, 4);
+        pool.refill();
+        when(trackingNumberRepository.issuePooled(anyString(), any(), any())).thenReturn(true);
+        trackingNumberService = new TrackingNumberServiceImpl(trackingNumberRepository,
+                new TrackingNumberEncoder(TrackingNumberEncoder.MODE_SECURE), issuedTrackingNumberFilter, pool, new TrackingNumberArchive(null), trackingMetrics, 4);
+
+        String trackingNumber = trackingNumberService.generateTrackingNumber("US", "CA");
+
+        assertTrue(trackingNumber.matches("^US[A-Z0-9]{12}CA$"));
+        verify(trackingNumberRepository).issuePooled(eq(trackingNumber), any(), isNull());
+        verify(trackingNumberRepository, never()).insert(any(GeneratedTrackingNumber.class));
+        assertEquals(1, meterRegistry.get("tracking.persistence").timer().count());
+        assertEquals(1, meterRegistry.get("tracking.generation").tag("operation", "single").timer().count());
+    }
+
+    private static TrackingNumberPool disabledPool() {
+        return new TrackingNumberPool(null, null, null, null, null, new SimpleMeterRegistry(), false, "", 0, 0, 0, 0);
     }
 }
@@ -0,0 +1,184 @@
+package com.example.tracking.service;
+
+import com.example.tracking.entity.GeneratedTrackingNumber;
+import com.example.tracking.repository.TrackingNumberRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindIssuedTrackingNumberRecorderTest {
+
+    @Mock
+    private TrackingNumberRepository trackingNumberRepository;
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    void recordAll_flushesInBatchesAndClearsJournal() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        WriteBehindIssuedTrackingNumberRecorder recorder = newRecorder(meterRegistry, 1000);
+        recorder.start();
+
+        recorder.recordAll(trackingNumbers(0, 10));
+        recorder.record(new GeneratedTrackingNumber("MY000000000010ID"));
+        recorder.destroy();
+
+        assertEquals(expectedNumbers(0, 11), insertedNumbers());
+        assertEquals(11, meterRegistry.get("tracking.write-behind.flushed").counter().count());
+        assertEquals(0, meterRegistry.get("tracking.write-behind.queue.depth").gauge().value());
+        assertEquals(0, journalFiles().size(), "Flushed numbers should not stay in the journal");
+    }
+
+    @Test
+    void start_replaysNumbersJournaledBeforeCrash() throws Exception {
+        // Never started, so nothing leaves the queue: the process "crashes" with the numbers only in the journal.
+        WriteBehindIssuedTrackingNumberRecorder crashed = newRecorder(new SimpleMeterRegistry(), 1000);
+        crashed.recordAll(trackingNumbers(0, 6));
+        verify(trackingNumberRepository, never()).insertAll(anyList());
+        assertFalse(journalFiles().isEmpty());
+
+        WriteBehindIssuedTrackingNumberRecorder restarted = newRecorder(new SimpleMeterRegistry(), 1000);
+        restarted.start();
+        restarted.destroy();
+
+        assertEquals(expectedNumbers(0, 6), insertedNumbers());
+        assertEquals(0, journalFiles().size());
+    }
+
+    @Test
+    void flush_skipsNumbersAlreadyWritten() throws Exception {
+        doThrow(new DataIntegrityViolationException("duplicate"))
+                .doNothing()
+                .when(trackingNumberRepository).insertAll(anyList());
+        doThrow(new DataIntegrityViolationException("duplicate"))
+                .doNothing()
+                .when(trackingNumberRepository).insert(any(GeneratedTrackingNumber.class));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        WriteBehindIssuedTrackingNumberRecorder recorder = newRecorder(meterRegistry, 1000);
+
+        // Queued before the writer starts so all three land in the same batch.
+        recorder.recordAll(trackingNumbers(0, 3));
+        recorder.start();
+        recorder.destroy();
+
+        verify(trackingNumberRepository, times(3)).insert(any(GeneratedTrackingNumber.class));
+        assertEquals(1, meterRegistry.get("tracking.write-behind.duplicates").counter().count());
+        assertEquals(0, journalFiles().size());
+    }
+
+    @Test
+    void record_insertsKeyedNumbersOnTheCallingThreadAndSurfacesKeyConflicts() throws Exception {
+        doThrow(new DataIntegrityViolationException("duplicate idempotency key"))
+                .when(trackingNumberRepository).insert(any(GeneratedTrackingNumber.class));
+        WriteBehindIssuedTrackingNumberRecorder recorder = newRecorder(new SimpleMeterRegistry(), 1000);
+        recorder.start();
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> recorder.record(new GeneratedTrackingNumber("MY000000000000ID", "order-42")));
+        recorder.destroy();
+
+        verify(trackingNumberRepository, never()).insertAll(anyList());
+        assertEquals(0, journalFiles().size(), "Keyed numbers should never be journaled");
+    }
+
+    @Test
+    void start_countsReplayedNumbersWhoseKeyWasStoredWithAnotherNumber() throws Exception {
+        WriteBehindIssuedTrackingNumberRecorder crashed = newRecorder(new SimpleMeterRegistry(), 1000);
+        // Journaled directly: only journals from before keyed numbers bypassed the queue hold keys.
+        crashed.recordAll(Collections.singletonList(new GeneratedTrackingNumber("MY000000000000ID", "order-42")));
+        doThrow(new DataIntegrityViolationException("duplicate idempotency key"))
+                .when(trackingNumberRepository).insertAll(anyList());
+        doThrow(new DataIntegrityViolationException("duplicate idempotency key"))
+                .when(trackingNumberRepository).insert(any(GeneratedTrackingNumber.class));
+        when(trackingNumberRepository.findByIdempotencyKey("order-42"))
+                .thenReturn(Optional.of(new GeneratedTrackingNumber("MY000000000099ID", "order-42")));
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        WriteBehindIssuedTrackingNumberRecorder restarted = newRecorder(meterRegistry, 1000);
+        restarted.start();
+        restarted.destroy();
+
+        assertEquals(1, meterRegistry.get("tracking.write-behind.idempotency-conflicts").counter().count());
+        assertEquals(0, meterRegistry.get("tracking.write-behind.duplicates").counter().count());
+        assertEquals(0, journalFiles().size());
+    }
+
+    @Test
+    void recordAll_insertsInlineWhenQueueIsFull() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        WriteBehindIssuedTrackingNumberRecorder recorder = newRecorder(meterRegistry, 2);
+
+        recorder.recordAll(trackingNumbers(0, 5));
+
+        verify(trackingNumberRepository, times(3)).insertAll(anyList());
+        assertEquals(3, meterRegistry.get("tracking.write-behind.backpressure").counter().count());
+        assertEquals(2, meterRegistry.get("tracking.write-behind.queue.depth").gauge().value());
+        recorder.start();
+        recorder.destroy();
+    }
+
+    private WriteBehindIssuedTrackingNumberRecorder newRecorder(SimpleMeterRegistry meterRegistry, int queueCapacity) throws IOException {
+        return new WriteBehindIssuedTrackingNumberRecorder(trackingNumberRepository, meterRegistry,
+                queueCapacity, 4, 10, 1, journalDir.toString(), 64 * 1024, false);
+    }
+
+    private Set<String> insertedNumbers() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<GeneratedTrackingNumber>> captor = ArgumentCaptor.forClass(List.class);
+        verify(trackingNumberRepository, atLeastOnce()).insertAll(captor.capture());
+        Set<String> inserted = new TreeSet<>();
+        for (List<GeneratedTrackingNumber> batch : captor.getAllValues()) {
+            assertTrue(batch.size() <= 4, "Batches should not exceed the configured batch size");
+            for (GeneratedTrackingNumber trackingNumber : batch) {
+                inserted.add(trackingNumber.getTrackingNumber());
+            }
+        }
+        return inserted;
+    }
+
+    private List<Path> journalFiles() throws IOException {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+
+    private static List<GeneratedTrackingNumber> trackingNumbers(int from, int to) {
+        List<GeneratedTrackingNumber> trackingNumbers = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            trackingNumbers.add(new GeneratedTrackingNumber(String.format("MY%012dID", i)));
+        }
+        return trackingNumbers;
+    }
+
+    private static Set<String> expectedNumbers(int from, int to) {
+        Set<String> expected = new TreeSet<>();
+        for (GeneratedTrackingNumber trackingNumber : trackingNumbers(from, to)) {
+            expected.add(trackingNumber.getTrackingNumber());
+        }
+        return expected;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.tracking.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_neverReturnsFalseNegatives() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(String.format("MY%012dID", i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(String.format("MY%012dID", i)));
+        }
+    }
+
+    @Test
+    void mightContain_staysNearConfiguredFalsePositiveRate() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(String.format("MY%012dID", i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 10_000; i < 110_000; i++) {
+            if (filter.mightContain(String.format("MY%012dID", i))) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 2_000, "False positive rate too high: " + falsePositives + " / 100000");
+        assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    void create_sizesBitArrayFromExpectedInsertions() {
+        BloomFilter filter = BloomFilter.create(1_000_000, 0.001);
+
+        assertTrue(filter.bitSize() >= 14_377_588L);
+        assertEquals(10, filter.hashFunctions());
+        assertEquals(filter.bitSize() / 8, filter.memoryBytes());
+    }
+
+    @Test
+    void readFrom_restoresWhatWasWritten() throws IOException {
+        BloomFilter filter = BloomFilter.create(1_000, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            filter.put(String.format("MY%012dID", i));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        filter.writeTo(new DataOutputStream(bytes));
+
+        BloomFilter read = BloomFilter.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(filter.bitSize(), read.bitSize());
+        assertEquals(filter.hashFunctions(), read.hashFunctions());
+        assertEquals(filter.insertions(), read.insertions());
+        for (int i = 0; i < 2_000; i++) {
+            String value = String.format("MY%012dID", i);
+            assertEquals(filter.mightContain(value), read.mightContain(value));
+        }
+    }
+
+    @Test
+    void create_rejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 1.0));
+    }
+}
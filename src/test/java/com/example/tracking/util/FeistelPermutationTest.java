@@ -0,0 +1,55 @@
+package com.example.tracking.util;
+
+import com.example.tracking.service.TrackingNumberEncoder;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeistelPermutationTest {
+
+    @Test
+    void permute_isBijectiveOnSmallDomain() {
+        FeistelPermutation permutation = new FeistelPermutation(100, 42L);
+        BitSet seen = new BitSet(10_000);
+
+        for (long value = 0; value < permutation.domainSize(); value++) {
+            long permuted = permutation.permute(value);
+            assertTrue(permuted >= 0 && permuted < permutation.domainSize());
+            assertFalse(seen.get((int) permuted), "Two values mapped to " + permuted);
+            seen.set((int) permuted);
+        }
+    }
+
+    @Test
+    void inverse_undoesPermute() {
+        FeistelPermutation permutation = new FeistelPermutation(TrackingNumberEncoder.HALF_VALUE, 7L);
+
+        assertEquals(TrackingNumberEncoder.MAX_VALUE, permutation.domainSize());
+        for (long value : new long[]{0, 1, 2, 1000, TrackingNumberEncoder.HALF_VALUE, TrackingNumberEncoder.MAX_VALUE - 1}) {
+            assertEquals(value, permutation.inverse(permutation.permute(value)));
+        }
+    }
+
+    @Test
+    void permute_consecutiveValuesAreNotConsecutive() {
+        FeistelPermutation permutation = new FeistelPermutation(TrackingNumberEncoder.HALF_VALUE, 7L);
+
+        int adjacent = 0;
+        for (long value = 0; value < 1000; value++) {
+            if (Math.abs(permutation.permute(value + 1) - permutation.permute(value)) < 1000) {
+                adjacent++;
+            }
+        }
+        assertEquals(0, adjacent);
+    }
+
+    @Test
+    void permute_rejectsOutOfRangeValues() {
+        FeistelPermutation permutation = new FeistelPermutation(100, 42L);
+
+        assertThrows(IllegalArgumentException.class, () -> permutation.permute(-1));
+        assertThrows(IllegalArgumentException.class, () -> permutation.permute(10_000));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.tracking.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeavyHittersTest {
+
+    @Test
+    void top_findsTheBusiestKeysAmongManyQuietOnes() {
+        HeavyHitters heavyHitters = new HeavyHitters(3, 1024, 4);
+        for (int round = 0; round < 100; round++) {
+            heavyHitters.add("acme", 10);
+            heavyHitters.add("globex", 7);
+            heavyHitters.add("initech", 5);
+            for (int i = 0; i < 50; i++) {
+                heavyHitters.add("customer-" + round + "-" + i, 1);
+            }
+        }
+
+        List<HeavyHitters.Entry> top = heavyHitters.top();
+
+        assertEquals(3, top.size());
+        assertEquals("acme", top.get(0).getKey());
+        assertEquals("globex", top.get(1).getKey());
+        assertEquals("initech", top.get(2).getKey());
+        assertTrue(top.get(0).getCount() >= 1000);
+    }
+
+    @Test
+    void estimate_neverUndercounts() {
+        HeavyHitters heavyHitters = new HeavyHitters(5, 64, 4);
+        for (int i = 0; i < 1_000; i++) {
+            heavyHitters.add("customer-" + i, i % 7 + 1);
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(heavyHitters.estimate("customer-" + i) >= i % 7 + 1);
+        }
+    }
+}
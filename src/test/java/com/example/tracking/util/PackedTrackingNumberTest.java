@@ -0,0 +1,52 @@
+package com.example.tracking.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedTrackingNumberTest {
+
+    @Test
+    void unpack_undoesPack() {
+        for (String trackingNumber : new String[]{"0000000000000000", "ZZZZZZZZZZZZZZZZ", "MY1A2B3C4D5E6FID", "US000000000001SG"}) {
+            byte[] packed = PackedTrackingNumber.pack(trackingNumber);
+
+            assertEquals(PackedTrackingNumber.LENGTH, packed.length);
+            assertEquals(trackingNumber, PackedTrackingNumber.unpack(packed));
+        }
+    }
+
+    @Test
+    void pack_rejectsWhatCannotHaveBeenIssued() {
+        assertNull(PackedTrackingNumber.pack(null));
+        assertNull(PackedTrackingNumber.pack("MY1A2B3C4D5E6F"));
+        assertNull(PackedTrackingNumber.pack("MY1A2B3C4D5E6FIDX"));
+        assertNull(PackedTrackingNumber.pack("my1a2b3c4d5e6fid"));
+        assertNull(PackedTrackingNumber.pack("MY1A2B3C-D5E6FID"));
+    }
+
+    @Test
+    void pack_sortsByLaneThenMiddle() {
+        byte[] first = PackedTrackingNumber.pack("MYZZZZZZZZZZZZID");
+        byte[] second = PackedTrackingNumber.pack("MZ000000000000AA");
+        byte[] third = PackedTrackingNumber.pack("MZ000000000001AA");
+
+        assertTrue(compare(first, second) < 0);
+        assertTrue(compare(second, third) < 0);
+    }
+
+    @Test
+    void unpack_rejectsWrongLength() {
+        assertThrows(IllegalArgumentException.class, () -> PackedTrackingNumber.unpack(new byte[16]));
+    }
+
+    private static int compare(byte[] a, byte[] b) {
+        for (int i = 0; i < a.length; i++) {
+            int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+}
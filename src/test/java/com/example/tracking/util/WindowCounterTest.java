@@ -0,0 +1,64 @@
+package com.example.tracking.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WindowCounterTest {
+
+    private static final long MINUTE = 29_000_000L;
+
+    @Test
+    void sum_addsUpTheMinutesInRange() {
+        WindowCounter counter = new WindowCounter(60, 1);
+        counter.add(MINUTE, 3);
+        counter.add(MINUTE, 4);
+        counter.add(MINUTE + 1, 5);
+
+        assertEquals(7, counter.get(MINUTE));
+        assertEquals(5, counter.get(MINUTE + 1));
+        assertEquals(12, counter.sum(MINUTE - 10, MINUTE + 1));
+        assertEquals(0, counter.get(MINUTE + 2));
+    }
+
+    @Test
+    void add_recyclesTheSlotOfAMinuteThatLeftTheWindow() {
+        WindowCounter counter = new WindowCounter(60, 1);
+        counter.add(MINUTE, 3);
+        counter.add(MINUTE + 60, 1);
+
+        assertEquals(0, counter.get(MINUTE));
+        assertEquals(1, counter.get(MINUTE + 60));
+        assertEquals(1, counter.sum(MINUTE, MINUTE + 60));
+        assertFalse(counter.isIdle(MINUTE + 60));
+        assertTrue(counter.isIdle(MINUTE + 120));
+    }
+
+    @Test
+    void add_countsEveryIncrementAcrossStripes() throws InterruptedException {
+        WindowCounter counter = new WindowCounter(60, 8);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    counter.add(MINUTE, 1);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(80_000, counter.get(MINUTE));
+    }
+
+    @Test
+    void constructor_rejectsStripesThatAreNotAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new WindowCounter(60, 3));
+    }
+}
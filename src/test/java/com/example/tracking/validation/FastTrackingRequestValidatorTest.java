@@ -0,0 +1,110 @@
+package com.example.tracking.validation;
+
+import com.example.tracking.exception.InvalidCountryCodeException;
+import com.example.tracking.exception.InvalidInputParametersException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validation;
+import javax.validation.ValidatorFactory;
+import java.time.OffsetDateTime;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FastTrackingRequestValidatorTest {
+
+    private static final OffsetDateTime CREATED_AT = OffsetDateTime.parse("2025-06-16T10:30:00+05:30");
+    private static final String CUSTOMER_ID = "de619854-b59b-425e-9db4-943979e1bd49";
+
+    private final FastTrackingRequestValidator fast = new FastTrackingRequestValidator();
+    private ValidatorFactory validatorFactory;
+    private AnnotationTrackingRequestValidator annotation;
+
+    @BeforeEach
+    void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        annotation = new AnnotationTrackingRequestValidator(validatorFactory.getValidator());
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void validate_acceptsValidParameters() {
+        assertDoesNotThrow(() -> fast.validate("my", "ID", 1.5, CREATED_AT, CUSTOMER_ID, "RedBox", "redbox-logistics-2", null));
+        assertDoesNotThrow(() -> fast.validate("MY", "ID", 0.001, CREATED_AT, CUSTOMER_ID.toUpperCase(), "RedBox", "redbox", "key"));
+        assertDoesNotThrow(() -> fast.validate("MY", "ID", 999.999, CREATED_AT, CUSTOMER_ID, "RedBox", "r", null));
+        assertDoesNotThrow(() -> fast.validateBatch("MY", "ID", 1.5, CREATED_AT, CUSTOMER_ID, "RedBox", "redbox", 1));
+    }
+
+    @Test
+    void validate_rejectsWithTheAnnotationMessages() {
+        assertSameMessage("", "ID", 1.5, CUSTOMER_ID, "RedBox", "redbox", ValidationMessages.ORIGIN_BLANK);
+        assertSameMessage("MYS", "ID", 1.5, CUSTOMER_ID, "RedBox", "redbox", ValidationMessages.ORIGIN_SIZE);
+        assertSameMessage("M$", "ID", 1.5, CUSTOMER_ID, "RedBox", "redbox", ValidationMessages.ORIGIN_PATTERN);
+        assertSameMessage("MY", " ", 1.5, CUSTOMER_ID, "RedBox", "redbox", ValidationMessages.DESTINATION_BLANK);
+        assertSameMessage("MY", "I", 1.5, CUSTOMER_ID, "RedBox", "redbox", ValidationMessages.DESTINATION_SIZE);
+        assertSameMessage("MY", "1-", 1.5, CUSTOMER_ID, "RedBox", "redbox", ValidationMessages.DESTINATION_PATTERN);
+        assertSameMessage("MY", "ID", 0.0009, CUSTOMER_ID, "RedBox", "redbox", ValidationMessages.WEIGHT_MIN);
+        assertSameMessage("MY", "ID", 1000, CUSTOMER_ID, "RedBox", "redbox", ValidationMessages.WEIGHT_MAX);
+        assertSameMessage("MY", "ID", 1.5, "", "RedBox", "redbox", ValidationMessages.CUSTOMER_ID_BLANK);
+        assertSameMessage("MY", "ID", 1.5, "de619854-b59b-425e-9db4_943979e1bd49", "RedBox", "redbox", ValidationMessages.CUSTOMER_ID_PATTERN);
+        assertSameMessage("MY", "ID", 1.5, "ge619854-b59b-425e-9db4-943979e1bd49", "RedBox", "redbox", ValidationMessages.CUSTOMER_ID_PATTERN);
+        assertSameMessage("MY", "ID", 1.5, CUSTOMER_ID, "  ", "redbox", ValidationMessages.CUSTOMER_NAME_BLANK);
+        assertSameMessage("MY", "ID", 1.5, CUSTOMER_ID, "RedBox", "", ValidationMessages.CUSTOMER_SLUG_BLANK);
+        assertSameMessage("MY", "ID", 1.5, CUSTOMER_ID, "RedBox", "RedBox", ValidationMessages.CUSTOMER_SLUG_PATTERN);
+        assertSameMessage("MY", "ID", 1.5, CUSTOMER_ID, "RedBox", "-redbox", ValidationMessages.CUSTOMER_SLUG_PATTERN);
+        assertSameMessage("MY", "ID", 1.5, CUSTOMER_ID, "RedBox", "redbox-", ValidationMessages.CUSTOMER_SLUG_PATTERN);
+        assertSameMessage("MY", "ID", 1.5, CUSTOMER_ID, "RedBox", "red--box", ValidationMessages.CUSTOMER_SLUG_PATTERN);
+    }
+
+    @Test
+    void validate_rejectsUnassignedCountryCodesInBothModes() {
+        InvalidCountryCodeException fastError = assertThrows(InvalidCountryCodeException.class,
+                () -> fast.validate("ZZ", "ID", 1.5, CREATED_AT, CUSTOMER_ID, "RedBox", "redbox", null));
+        InvalidCountryCodeException annotationError = assertThrows(InvalidCountryCodeException.class,
+                () -> annotation.validate("ZZ", "ID", 1.5, CREATED_AT, CUSTOMER_ID, "RedBox", "redbox", null));
+        assertEquals(ValidationMessages.ORIGIN_UNKNOWN, fastError.getMessage());
+        assertEquals(fastError.getMessage(), annotationError.getMessage());
+
+        assertThrows(InvalidCountryCodeException.class,
+                () -> fast.validate("MY", "1D", 1.5, CREATED_AT, CUSTOMER_ID, "RedBox", "redbox", null));
+    }
+
+    @Test
+    void validateBatch_rejectsCountBelowMinimum() {
+        InvalidInputParametersException error = assertThrows(InvalidInputParametersException.class,
+                () -> fast.validateBatch("MY", "ID", 1.5, CREATED_AT, CUSTOMER_ID, "RedBox", "redbox", 0));
+        assertEquals(ValidationMessages.COUNT_MIN, error.getMessage());
+    }
+
+    @Test
+    void isoCountryCodes_holdsEveryAssignedCode() {
+        assertEquals(249, IsoCountryCodes.count());
+        assertTrue(IsoCountryCodes.isAssigned("MY"));
+        assertTrue(IsoCountryCodes.isAssigned("zw"));
+        assertFalse(IsoCountryCodes.isAssigned("UK"));
+        assertFalse(IsoCountryCodes.isAssigned("M["));
+    }
+
+    private void assertSameMessage(String origin, String destination, double weight, String customerId,
+                                   String customerName, String customerSlug, String expected) {
+        InvalidInputParametersException fastError = assertThrows(InvalidInputParametersException.class,
+                () -> fast.validate(origin, destination, weight, CREATED_AT, customerId, customerName, customerSlug, null));
+        assertEquals(expected, fastError.getMessage());
+
+        ConstraintViolationException annotationError = assertThrows(ConstraintViolationException.class,
+                () -> annotation.validate(origin, destination, weight, CREATED_AT, customerId, customerName, customerSlug, null));
+        Set<String> messages = annotationError.getConstraintViolations().stream()
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.toSet());
+        assertTrue(messages.contains(expected), () -> expected + " not among " + messages);
+    }
+}